@@ -0,0 +1,240 @@
+package com.springweb.minhasfinancas.analise;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+/**
+ * Lançamentos de um usuário guardados em colunas de tipos primitivos: o valor em centavos,
+ * o ano, o mês, o tipo e o status pelo ordinal, e a descrição como código num dicionário.
+ * Cada agregação é um laço sobre as colunas que soma num vetor de acumuladores pré-alocado,
+ * sem criar objetos por linha e com a mesma soma exata de {@link Dinheiro}; acima de
+ * {@link #LIMIAR_PARALELO} linhas a varredura é dividida em faixas somadas em paralelo no
+ * {@code ForkJoinPool} comum.
+ * <p>
+ * Imutável depois de construída, pode ser lida por várias threads ao mesmo tempo. Os
+ * resultados vêm em vetores de centavos; os métodos {@code posicao} dizem onde está cada total.
+ */
+public final class ColunasLancamentos {
+
+	static final int LIMIAR_PARALELO = 1 << 15;
+
+	private static final int TIPOS = TipoLancamento.values().length;
+	private static final int STATUS = StatusLancamento.values().length;
+	private static final int POSICOES_POR_MES = TIPOS * STATUS;
+	private static final byte EFETIVADO = (byte) StatusLancamento.EFETIVADO.ordinal();
+
+	private final int tamanho;
+	private final long[] centavos;
+	private final short[] anos;
+	private final byte[] meses;
+	private final byte[] tipos;
+	private final byte[] status;
+	private final int[] descricoes;
+	private final String[] dicionario;
+
+	private ColunasLancamentos(Construtor construtor) {
+		tamanho = construtor.tamanho;
+		centavos = Arrays.copyOf(construtor.centavos, tamanho);
+		anos = Arrays.copyOf(construtor.anos, tamanho);
+		meses = Arrays.copyOf(construtor.meses, tamanho);
+		tipos = Arrays.copyOf(construtor.tipos, tamanho);
+		status = Arrays.copyOf(construtor.status, tamanho);
+		descricoes = Arrays.copyOf(construtor.descricoes, tamanho);
+		dicionario = new String[construtor.dicionario.size()];
+		construtor.dicionario.forEach( (descricao, codigo) -> dicionario[codigo] = descricao );
+	}
+
+	public static Construtor construtor() {
+		return new Construtor();
+	}
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	public String descricao(int codigo) {
+		return dicionario[codigo];
+	}
+
+	/**
+	 * Totais do ano por mês, tipo e status, nas posições dadas por
+	 * {@link #posicao(int, TipoLancamento, StatusLancamento)}.
+	 */
+	public long[] totaisPorMes(int ano) {
+		return varrer(12 * POSICOES_POR_MES, (inicio, fim, totais) -> {
+			for (int i = inicio; i < fim; i++) {
+				if(anos[i] == ano) {
+					int posicao = (meses[i] - 1) * POSICOES_POR_MES + tipos[i] * STATUS + status[i];
+					totais[posicao] = Math.addExact(totais[posicao], centavos[i]);
+				}
+			}
+		});
+	}
+
+	public static int posicao(int mes, TipoLancamento tipo, StatusLancamento status) {
+		return (mes - 1) * POSICOES_POR_MES + tipo.ordinal() * STATUS + status.ordinal();
+	}
+
+	/**
+	 * Receitas e despesas efetivadas de cada mês entre os anos informados, inclusive, nas
+	 * posições dadas por {@link #posicao(int, int, int, TipoLancamento)}.
+	 */
+	public long[] efetivadosPorMes(int anoInicial, int anoFinal) {
+		int quantidadeAnos = anoFinal - anoInicial + 1;
+		return varrer(quantidadeAnos * 12 * TIPOS, (inicio, fim, totais) -> {
+			for (int i = inicio; i < fim; i++) {
+				int indiceAno = anos[i] - anoInicial;
+				if(status[i] == EFETIVADO && indiceAno >= 0 && indiceAno < quantidadeAnos) {
+					int posicao = (indiceAno * 12 + meses[i] - 1) * TIPOS + tipos[i];
+					totais[posicao] = Math.addExact(totais[posicao], centavos[i]);
+				}
+			}
+		});
+	}
+
+	public static int posicao(int anoInicial, int ano, int mes, TipoLancamento tipo) {
+		return ((ano - anoInicial) * 12 + mes - 1) * TIPOS + tipo.ordinal();
+	}
+
+	/**
+	 * Total em centavos e quantidade de lançamentos do ano e tipo por código de descrição:
+	 * o total do código {@code c} fica em {@code 2 * c} e a quantidade em {@code 2 * c + 1}.
+	 */
+	public long[] totaisPorDescricao(int ano, TipoLancamento tipo) {
+		byte ordinal = (byte) tipo.ordinal();
+		return varrer(2 * dicionario.length, (inicio, fim, totais) -> {
+			for (int i = inicio; i < fim; i++) {
+				if(anos[i] == ano && tipos[i] == ordinal) {
+					int posicao = descricoes[i] << 1;
+					totais[posicao] = Math.addExact(totais[posicao], centavos[i]);
+					totais[posicao + 1]++;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Códigos das descrições de maior total, em ordem decrescente, a partir do resultado de
+	 * {@link #totaisPorDescricao}. Descrições sem lançamentos ficam de fora.
+	 */
+	public static int[] maiores(long[] totaisPorDescricao, int limite) {
+		int[] codigos = new int[limite];
+		int encontrados = 0;
+		for (int codigo = 0; codigo < totaisPorDescricao.length / 2; codigo++) {
+			long total = totaisPorDescricao[codigo << 1];
+			if(totaisPorDescricao[(codigo << 1) + 1] == 0
+					|| (encontrados == limite && total <= totaisPorDescricao[codigos[limite - 1] << 1])) {
+				continue;
+			}
+
+			// Inserção ordenada num vetor de no máximo limite posições
+			int posicao = Math.min(encontrados, limite - 1);
+			while (posicao > 0 && totaisPorDescricao[codigos[posicao - 1] << 1] < total) {
+				codigos[posicao] = codigos[posicao - 1];
+				posicao--;
+			}
+			codigos[posicao] = codigo;
+			encontrados = Math.min(encontrados + 1, limite);
+		}
+		return Arrays.copyOf(codigos, encontrados);
+	}
+
+	private long[] varrer(int acumuladores, Acumulacao acumulacao) {
+		if(tamanho < LIMIAR_PARALELO) {
+			long[] totais = new long[acumuladores];
+			acumulacao.acumular(0, tamanho, totais);
+			return totais;
+		}
+		return new Varredura(acumulacao, acumuladores, 0, tamanho).invoke();
+	}
+
+	@FunctionalInterface
+	private interface Acumulacao {
+		void acumular(int inicio, int fim, long[] totais);
+	}
+
+	private static final class Varredura extends RecursiveTask<long[]> {
+
+		private final Acumulacao acumulacao;
+		private final int acumuladores;
+		private final int inicio;
+		private final int fim;
+
+		Varredura(Acumulacao acumulacao, int acumuladores, int inicio, int fim) {
+			this.acumulacao = acumulacao;
+			this.acumuladores = acumuladores;
+			this.inicio = inicio;
+			this.fim = fim;
+		}
+
+		@Override
+		protected long[] compute() {
+			if(fim - inicio <= LIMIAR_PARALELO) {
+				long[] totais = new long[acumuladores];
+				acumulacao.acumular(inicio, fim, totais);
+				return totais;
+			}
+
+			int meio = (inicio + fim) >>> 1;
+			Varredura esquerda = new Varredura(acumulacao, acumuladores, inicio, meio);
+			esquerda.fork();
+			long[] totais = new Varredura(acumulacao, acumuladores, meio, fim).compute();
+			long[] totaisEsquerda = esquerda.join();
+			for (int i = 0; i < acumuladores; i++) {
+				totais[i] = Math.addExact(totais[i], totaisEsquerda[i]);
+			}
+			return totais;
+		}
+	}
+
+	public static final class Construtor {
+
+		private int tamanho;
+		private long[] centavos = new long[64];
+		private short[] anos = new short[64];
+		private byte[] meses = new byte[64];
+		private byte[] tipos = new byte[64];
+		private byte[] status = new byte[64];
+		private int[] descricoes = new int[64];
+		private final Map<String, Integer> dicionario = new HashMap<>();
+
+		private Construtor() {
+		}
+
+		public Construtor adicionar(String descricao, int ano, int mes, TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+			return adicionar(descricao, ano, mes, tipo, status, Dinheiro.centavos(valor));
+		}
+
+		public Construtor adicionar(String descricao, int ano, int mes, TipoLancamento tipo, StatusLancamento status, long centavos) {
+			if(tamanho == anos.length) {
+				int capacidade = tamanho * 2;
+				this.centavos = Arrays.copyOf(this.centavos, capacidade);
+				anos = Arrays.copyOf(anos, capacidade);
+				meses = Arrays.copyOf(meses, capacidade);
+				tipos = Arrays.copyOf(tipos, capacidade);
+				this.status = Arrays.copyOf(this.status, capacidade);
+				descricoes = Arrays.copyOf(descricoes, capacidade);
+			}
+
+			this.centavos[tamanho] = centavos;
+			anos[tamanho] = (short) ano;
+			meses[tamanho] = (byte) mes;
+			tipos[tamanho] = (byte) tipo.ordinal();
+			this.status[tamanho] = (byte) status.ordinal();
+			descricoes[tamanho] = dicionario.computeIfAbsent(descricao, chave -> dicionario.size());
+			tamanho++;
+			return this;
+		}
+
+		public ColunasLancamentos construir() {
+			return new ColunasLancamentos(this);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErroLoteDTO {
+	
+	private int indice;
+	private String mensagem;
+	
+}
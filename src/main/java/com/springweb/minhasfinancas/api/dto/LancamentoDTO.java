@@ -21,4 +21,5 @@ public class LancamentoDTO {
 	private long usuario;
 	private String tipo;
 	private String Status;
+	private Long versao;
 }
@@ -0,0 +1,19 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+	
+	private List<T> itens;
+	private String proximoCursor;
+	private boolean possuiProxima;
+}
@@ -0,0 +1,23 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioAnualDTO {
+	
+	private Long usuario;
+	private Integer ano;
+	private Dinheiro saldoAnterior;
+	private Dinheiro saldo;
+	private List<RelatorioMensalDTO> meses;
+}
@@ -0,0 +1,24 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.util.Map;
+
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioMensalDTO {
+	
+	private Integer mes;
+	private Map<TipoLancamento, Map<StatusLancamento, Dinheiro>> totais;
+	private Dinheiro saldo;
+	private Dinheiro saldoAcumulado;
+}
@@ -0,0 +1,15 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenovacaoDTO {
+	
+	private String tokenRenovacao;
+}
@@ -0,0 +1,19 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+	
+	private int quantidade;
+	private List<Long> ids;
+	private List<ErroLoteDTO> erros;
+}
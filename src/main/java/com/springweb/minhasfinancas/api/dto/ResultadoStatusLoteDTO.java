@@ -0,0 +1,17 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoStatusLoteDTO {
+	
+	private int atualizados;
+	private List<Long> ignorados;
+	
+}
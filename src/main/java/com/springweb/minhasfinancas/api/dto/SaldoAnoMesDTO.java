@@ -0,0 +1,22 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class SaldoAnoMesDTO extends SaldoDTO {
+	
+	private Integer ano;
+	private Integer mes;
+	
+	public SaldoAnoMesDTO(Integer ano, Integer mes, BigDecimal receitas, BigDecimal despesas) {
+		super(receitas, despesas);
+		this.ano = ano;
+		this.mes = mes;
+	}
+}
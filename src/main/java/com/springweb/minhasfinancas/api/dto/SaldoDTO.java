@@ -0,0 +1,21 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class SaldoDTO {
+	
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+	
+	public SaldoDTO(BigDecimal receitas, BigDecimal despesas) {
+		this.receitas = receitas != null ? receitas : BigDecimal.ZERO;
+		this.despesas = despesas != null ? despesas : BigDecimal.ZERO;
+		this.saldo = this.receitas.subtract(this.despesas);
+	}
+}
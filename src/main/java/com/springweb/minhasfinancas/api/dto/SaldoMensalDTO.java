@@ -0,0 +1,20 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class SaldoMensalDTO extends SaldoDTO {
+	
+	private Integer mes;
+	
+	public SaldoMensalDTO(Integer mes, BigDecimal receitas, BigDecimal despesas) {
+		super(receitas, despesas);
+		this.mes = mes;
+	}
+}
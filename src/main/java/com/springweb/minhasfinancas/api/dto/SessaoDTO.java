@@ -0,0 +1,27 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta do login e da renovação. No login os campos do usuário vêm no mesmo nível dos
+ * tokens, como na resposta anterior, que era só o usuário; a renovação não os traz.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessaoDTO {
+	
+	@JsonUnwrapped
+	private Usuario usuario;
+	private String tokenAcesso;
+	private String tokenRenovacao;
+	/** Segundos até o token de acesso expirar. */
+	private long validade;
+}
@@ -0,0 +1,17 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalDescricaoDTO {
+	
+	private String descricao;
+	private Dinheiro valor;
+	private Long quantidade;
+}
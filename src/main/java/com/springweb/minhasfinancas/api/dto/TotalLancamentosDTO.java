@@ -0,0 +1,22 @@
+package com.springweb.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalLancamentosDTO {
+	
+	private Integer ano;
+	private Integer mes;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private BigDecimal valor;
+}
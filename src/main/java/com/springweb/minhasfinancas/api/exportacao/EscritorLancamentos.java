@@ -0,0 +1,126 @@
+package com.springweb.minhasfinancas.api.exportacao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+
+/**
+ * Escreve lançamentos um a um no formato escolhido, sem acumular as linhas em memória.
+ */
+public abstract class EscritorLancamentos implements Consumer<LancamentoDTO> {
+	
+	protected final Writer saida;
+	
+	protected EscritorLancamentos(Writer saida) {
+		this.saida = saida;
+	}
+	
+	public static EscritorLancamentos criar(FormatoExportacao formato, Writer saida, ObjectMapper mapper) throws IOException {
+		switch (formato) {
+			case CSV:
+				return new EscritorCsv(saida);
+			default:
+				return new EscritorNdjson(saida, mapper);
+		}
+	}
+	
+	protected abstract void escrever(LancamentoDTO lancamento) throws IOException;
+	
+	@Override
+	public void accept(LancamentoDTO lancamento) {
+		try {
+			escrever(lancamento);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public void finalizar() throws IOException {
+		saida.flush();
+	}
+	
+	private static class EscritorNdjson extends EscritorLancamentos {
+		
+		private final JsonGenerator gerador;
+		private final ObjectWriter writer;
+		
+		EscritorNdjson(Writer saida, ObjectMapper mapper) throws IOException {
+			super(saida);
+			this.gerador = mapper.getFactory().createGenerator(saida).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			this.writer = mapper.writerFor(LancamentoDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		}
+		
+		@Override
+		protected void escrever(LancamentoDTO lancamento) throws IOException {
+			writer.writeValue(gerador, lancamento);
+			gerador.writeRaw('\n');
+		}
+		
+		@Override
+		public void finalizar() throws IOException {
+			gerador.flush();
+			super.finalizar();
+		}
+	}
+	
+	private static class EscritorCsv extends EscritorLancamentos {
+		
+		private static final String INICIO_FORMULA = "=+-@\t\r";
+		
+		EscritorCsv(Writer saida) throws IOException {
+			super(saida);
+			saida.write("id,descricao,mes,ano,valor,usuario,tipo,status\n");
+		}
+		
+		@Override
+		protected void escrever(LancamentoDTO lancamento) throws IOException {
+			saida.write(Long.toString(lancamento.getId()));
+			saida.write(',');
+			escreverTexto(lancamento.getDescricao());
+			saida.write(',');
+			saida.write(String.valueOf(lancamento.getMes()));
+			saida.write(',');
+			saida.write(String.valueOf(lancamento.getAno()));
+			saida.write(',');
+			saida.write(lancamento.getValor() != null ? lancamento.getValor().toPlainString() : "");
+			saida.write(',');
+			saida.write(Long.toString(lancamento.getUsuario()));
+			saida.write(',');
+			saida.write(lancamento.getTipo() != null ? lancamento.getTipo() : "");
+			saida.write(',');
+			saida.write(lancamento.getStatus() != null ? lancamento.getStatus() : "");
+			saida.write('\n');
+		}
+		
+		/**
+		 * O arquivo é aberto em planilhas, que tratam como fórmula a célula que começa com
+		 * {@code = + - @}, tabulação ou retorno de carro; essas descrições saem entre aspas e
+		 * precedidas de um apóstrofo, que a planilha mostra como texto.
+		 */
+		private void escreverTexto(String texto) throws IOException {
+			if(texto == null) {
+				return;
+			}
+			
+			boolean formula = !texto.isEmpty() && INICIO_FORMULA.indexOf(texto.charAt(0)) >= 0;
+			if(!formula && texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+				saida.write(texto);
+				return;
+			}
+			
+			saida.write('"');
+			if(formula) {
+				saida.write('\'');
+			}
+			saida.write(texto.replace("\"", "\"\""));
+			saida.write('"');
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.springweb.minhasfinancas.api.exportacao;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FormatoExportacao {
+	
+	NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+	CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+	
+	private final String extensao;
+	private final MediaType mediaType;
+	
+	public static Optional<FormatoExportacao> of(String formato) {
+		return Arrays.stream(values())
+					.filter( f -> f.extensao.equalsIgnoreCase(formato) )
+					.findFirst();
+	}
+}
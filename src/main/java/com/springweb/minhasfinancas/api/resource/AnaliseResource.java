@@ -0,0 +1,86 @@
+package com.springweb.minhasfinancas.api.resource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.service.AnaliseService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/usuarios/{id}/analise")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "financas.analise.colunar", havingValue = "true")
+public class AnaliseResource {
+	
+	private static final int LIMITE_PADRAO = 10;
+	private static final int LIMITE_MAXIMO = 100;
+	private static final int ANOS_MAXIMOS_TENDENCIA = 50;
+	private static final String ANO_INVALIDO = "Informe um Ano válido!";
+	
+	private final AnaliseService service;
+	
+	@GetMapping("/totais")
+	public ResponseEntity obterTotais(@PathVariable("id") Long id, @RequestParam("ano") Integer ano) {
+		if(!anoValido(ano)) {
+			return ResponseEntity.badRequest().body(ANO_INVALIDO);
+		}
+		
+		return service.obterTotaisPorMes(id, ano)
+					.map( totais -> new ResponseEntity(totais, HttpStatus.OK))
+					.orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+	}
+	
+	@GetMapping("/tendencia")
+	public ResponseEntity obterTendencia(@PathVariable("id") Long id,
+			@RequestParam("de") Integer anoInicial,
+			@RequestParam("ate") Integer anoFinal) {
+		if(!anoValido(anoInicial) || !anoValido(anoFinal)) {
+			return ResponseEntity.badRequest().body(ANO_INVALIDO);
+		}
+		
+		if(anoInicial > anoFinal || anoFinal - anoInicial >= ANOS_MAXIMOS_TENDENCIA) {
+			return ResponseEntity.badRequest().body("Informe um período de 1 a " + ANOS_MAXIMOS_TENDENCIA + " anos!");
+		}
+		
+		return service.obterTendencia(id, anoInicial, anoFinal)
+					.map( tendencia -> new ResponseEntity(tendencia, HttpStatus.OK))
+					.orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+	}
+	
+	@GetMapping("/descricoes")
+	public ResponseEntity obterPrincipaisDescricoes(@PathVariable("id") Long id,
+			@RequestParam("ano") Integer ano,
+			@RequestParam(value = "tipo", defaultValue = "DESPESA") String tipo,
+			@RequestParam(value = "limit", required = false) Integer limite) {
+		if(!anoValido(ano)) {
+			return ResponseEntity.badRequest().body(ANO_INVALIDO);
+		}
+		
+		if(limite != null && (limite < 1 || limite > LIMITE_MAXIMO)) {
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + "!");
+		}
+		
+		TipoLancamento tipoLancamento;
+		try {
+			tipoLancamento = TipoLancamento.valueOf(tipo.toUpperCase());
+		}catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Tipo de lançamento inválido, utilize RECEITA ou DESPESA!");
+		}
+		
+		return service.obterPrincipaisDescricoes(id, ano, tipoLancamento, limite != null ? limite : LIMITE_PADRAO)
+					.map( descricoes -> new ResponseEntity(descricoes, HttpStatus.OK))
+					.orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+	}
+	
+	private static boolean anoValido(Integer ano) {
+		return ano.toString().length() == 4;
+	}
+}
@@ -0,0 +1,50 @@
+package com.springweb.minhasfinancas.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.exception.RegraNegocioException;
+
+/**
+ * Codifica a posição (ano, mes, id) do último lançamento de uma página em um
+ * token opaco, devolvido ao cliente para buscar a página seguinte.
+ */
+final class CursorLancamento {
+	
+	private static final String SEPARADOR = ":";
+	
+	private CursorLancamento() {
+	}
+	
+	static String codificar(LancamentoDTO lancamento) {
+		String posicao = lancamento.getAno() + SEPARADOR + lancamento.getMes() + SEPARADOR + lancamento.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	static ScrollPosition decodificar(String cursor) {
+		if(cursor == null || cursor.isBlank()) {
+			return ScrollPosition.keyset();
+		}
+		
+		try {
+			String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] partes = posicao.split(SEPARADOR);
+			if(partes.length != 3) {
+				throw new RegraNegocioException("Cursor de paginação inválido!");
+			}
+			
+			Map<String, Object> chaves = new LinkedHashMap<>();
+			chaves.put("ano", Integer.valueOf(partes[0]));
+			chaves.put("mes", Integer.valueOf(partes[1]));
+			chaves.put("id", Long.valueOf(partes[2]));
+			return ScrollPosition.forward(chaves);
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Cursor de paginação inválido!");
+		}
+	}
+}
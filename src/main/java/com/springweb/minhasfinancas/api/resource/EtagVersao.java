@@ -0,0 +1,42 @@
+package com.springweb.minhasfinancas.api.resource;
+
+import com.springweb.minhasfinancas.exception.VersaoConflitanteException;
+
+/**
+ * Converte a versão de um lançamento, ou dos lançamentos de um usuário, em ETag e lê de
+ * volta a versão enviada no {@code If-Match} de uma atualização.
+ */
+final class EtagVersao {
+
+	private static final String QUALQUER = "*";
+	private static final String FRACA = "W/";
+
+	private EtagVersao() {
+	}
+
+	static String codificar(long versao) {
+		return "\"" + versao + "\"";
+	}
+
+	/**
+	 * Devolve nulo para {@code *}, que aceita qualquer versão. ETag fraca ou que não foi
+	 * gerada aqui nunca corresponde à versão atual, como exige a comparação forte do
+	 * {@code If-Match}.
+	 */
+	static Long decodificar(String etag) {
+		String valor = etag.strip();
+		if(QUALQUER.equals(valor)) {
+			return null;
+		}
+
+		if(valor.startsWith(FRACA) || valor.length() < 3 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+			throw new VersaoConflitanteException("A versão informada não corresponde à versão atual do lançamento!");
+		}
+
+		try {
+			return Long.valueOf(valor.substring(1, valor.length() - 1));
+		} catch (NumberFormatException e) {
+			throw new VersaoConflitanteException("A versão informada não corresponde à versão atual do lançamento!");
+		}
+	}
+}
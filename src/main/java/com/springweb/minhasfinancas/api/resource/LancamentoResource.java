@@ -1,29 +1,66 @@
 package com.springweb.minhasfinancas.api.resource;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springweb.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.springweb.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.springweb.minhasfinancas.api.dto.ErroLoteDTO;
 import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.PaginaDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoLoteDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoStatusLoteDTO;
+import com.springweb.minhasfinancas.api.exportacao.EscritorLancamentos;
+import com.springweb.minhasfinancas.api.exportacao.FormatoExportacao;
+import com.springweb.minhasfinancas.exception.LoteParcialException;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+import com.springweb.minhasfinancas.exception.VersaoConflitanteException;
+import com.springweb.minhasfinancas.importacao.FormatoImportacao;
+import com.springweb.minhasfinancas.model.entity.Importacao;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
 import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.ModoBusca;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
 import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.service.ImportacaoService;
 import com.springweb.minhasfinancas.service.LancamentoService;
 import com.springweb.minhasfinancas.service.UsuarioService;
+import com.springweb.minhasfinancas.sessao.AutenticacaoInterceptor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,95 +69,463 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LancamentoResource {
 	
+	private static final int LIMITE_PADRAO = 50;
+	private static final int LIMITE_MAXIMO = 500;
+	private static final int TAMANHO_MINIMO_TERMO = 3;
+	private static final int TAMANHO_MAXIMO_LOTE = 10000;
+	private static final int TAMANHO_MAXIMO_LOTE_STATUS = 1000;
+	private static final String STATUS_INVALIDO = "Não foi possivel atualizar o status do Lançamento, envie um status válido!";
+	private static final String LANCAMENTO_NAO_ENCONTRADO = "Lançamento não encontrado na base de Dados!";
+	private static final String USUARIO_NAO_ENCONTRADO = "Usuário não encontrado para o Id informado!";
+	private static final String ACESSO_NEGADO = "O token informado não dá acesso aos dados deste usuário!";
+	
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final ImportacaoService importacaoService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
 	public ResponseEntity buscar (
 			@RequestParam(value ="descricao", required = false) String descricao,
 			@RequestParam(value ="mes", required = false) Integer mes,
 			@RequestParam(value ="ano", required = false) Integer ano,
-			@RequestParam("usuario") Long idUsuario
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value ="modo", defaultValue = "contem") String modo,
+			@RequestParam(value ="cursor", required = false) String cursor,
+			@RequestParam(value ="limit", required = false) Integer limite,
+			WebRequest request
 			) {
+		if(limite != null && (limite < 1 || limite > LIMITE_MAXIMO)) {
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + "!");
+		}
+		
+		ModoBusca modoBusca;
+		try {
+			modoBusca = ModoBusca.valueOf(modo.toUpperCase());
+		}catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Modo de busca inválido, utilize contem ou prefixo!");
+		}
+		
+		ScrollPosition posicao;
+		try {
+			posicao = CursorLancamento.decodificar(cursor);
+		}catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setAno(ano);
 		
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-		if(!usuario.isPresent()) {
+		// A versão dos lançamentos do usuário também confirma que ele existe
+		Optional<Long> versao = service.obterVersaoPorUsuario(idUsuario);
+		if(!versao.isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possivel realizar a consulta. Usuário não encontrado para o Id informado!");
+		}
+		
+		if(request.checkNotModified(EtagVersao.codificar(versao.get()))) {
+			return null;
+		}
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+		
+		Window<LancamentoDTO> janela = service.buscar(lancamentoFiltro, modoBusca, posicao, limite != null ? limite : LIMITE_PADRAO);
+		List<LancamentoDTO> lancamentos = janela.getContent();
+		
+		PaginaDTO<LancamentoDTO> pagina = PaginaDTO.<LancamentoDTO>builder()
+					.itens(lancamentos)
+					.possuiProxima(janela.hasNext())
+					.proximoCursor(janela.hasNext() ? CursorLancamento.codificar(lancamentos.get(lancamentos.size() - 1)) : null)
+					.build();
+		return ResponseEntity.ok(pagina);
+	}
+	
+	@GetMapping("/busca")
+	public ResponseEntity pesquisar (
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam("termo") String termo,
+			@RequestParam(value ="limit", required = false) Integer limite,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado
+			) {
+		if(termo.strip().length() < TAMANHO_MINIMO_TERMO) {
+			return ResponseEntity.badRequest().body("Informe ao menos " + TAMANHO_MINIMO_TERMO + " caracteres para a pesquisa!");
+		}
+		
+		if(limite != null && (limite < 1 || limite > LIMITE_MAXIMO)) {
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + "!");
+		}
+		
+		if(autenticado == null && !usuarioService.obterPorId(idUsuario).isPresent()) {
 			return ResponseEntity.badRequest().body("Não foi possivel realizar a consulta. Usuário não encontrado para o Id informado!");
-		} else {
-			lancamentoFiltro.setUsuario(usuario.get());
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
+		return ResponseEntity.ok(service.pesquisar(idUsuario, termo.strip(), limite != null ? limite : LIMITE_PADRAO));
+	}
+	
+	/**
+	 * O tipo de retorno precisa declarar o {@link StreamingResponseBody} para que o Spring escolha
+	 * o tratamento assíncrono; por isso os erros também são escritos como corpo em streaming.
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportar (
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value ="format", defaultValue = "ndjson") String format,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado
+			) {
+		Optional<FormatoExportacao> formato = FormatoExportacao.of(format);
+		if(!formato.isPresent()) {
+			return erroExportacao("Formato de exportação inválido, utilize ndjson ou csv!");
+		}
+		
+		if(autenticado == null && !usuarioService.obterPorId(idUsuario).isPresent()) {
+			return erroExportacao("Não foi possivel realizar a exportação. Usuário não encontrado para o Id informado!");
+		}
+		
+		StreamingResponseBody corpo = saida -> {
+			BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+			EscritorLancamentos escritor = EscritorLancamentos.criar(formato.get(), writer, objectMapper);
+			service.exportar(idUsuario, escritor);
+			escritor.finalizar();
+		};
+		
+		ContentDisposition anexo = ContentDisposition.attachment()
+					.filename("lancamentos-" + idUsuario + "." + formato.get().getExtensao())
+					.build();
+		
+		return ResponseEntity.ok()
+					.contentType(formato.get().getMediaType())
+					.header(HttpHeaders.CONTENT_DISPOSITION, anexo.toString())
+					.body(corpo);
+	}
+	
+	private static ResponseEntity<StreamingResponseBody> erroExportacao(String mensagem) {
+		byte[] corpo = mensagem.getBytes(StandardCharsets.UTF_8);
+		return ResponseEntity.badRequest()
+					.contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+					.body( saida -> saida.write(corpo) );
+	}
+	
+	/**
+	 * Recebe o extrato no corpo, em CSV ou OFX conforme o parâmetro {@code formato} ou o
+	 * Content-Type, e responde 202 com a importação, que segue em segundo plano.
+	 */
+	@PostMapping("/importar")
+	public ResponseEntity importar (
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value ="formato", required = false) String format,
+			@RequestParam(value ="charset", defaultValue = "UTF-8") String charset,
+			@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado,
+			InputStream conteudo
+			) throws IOException {
+		Optional<FormatoImportacao> formato = format != null ? FormatoImportacao.of(format) : formatoDoConteudo(contentType);
+		if(!formato.isPresent()) {
+			return ResponseEntity.badRequest().body("Formato de importação inválido, utilize csv ou ofx!");
+		}
+		
+		Charset codificacao;
+		try {
+			codificacao = Charset.forName(charset);
+		}catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Codificação do arquivo inválida!");
+		}
+		
+		if(autenticado == null && !usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possivel realizar a importação. Usuário não encontrado para o Id informado!");
+		}
+		
+		try {
+			Importacao importacao = importacaoService.importar(idUsuario, formato.get(), codificacao, conteudo);
+			return ResponseEntity.accepted()
+						.location(ServletUriComponentsBuilder.fromCurrentContextPath()
+									.path("/api/lancamentos/importacoes/{id}").buildAndExpand(importacao.getId()).toUri())
+						.body(importacao);
+		}catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}catch (SobrecargaException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+						.header(HttpHeaders.RETRY_AFTER, "10")
+						.body(e.getMessage());
+		}catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		}
+	}
+	
+	/**
+	 * Sem token, o parâmetro {@code usuario} é obrigatório e precisa ser o dono da importação,
+	 * como nas demais consultas; com token, o interceptor já o conferiu quando informado.
+	 */
+	@GetMapping("/importacoes/{id}")
+	public ResponseEntity obterImportacao( @PathVariable("id") String id,
+			@RequestParam(value ="usuario", required = false) Long idUsuario,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		Long solicitante = autenticado != null ? autenticado : idUsuario;
+		if(solicitante == null) {
+			return ResponseEntity.badRequest().body("Informe o usuário da importação!");
+		}
+		
+		Optional<Importacao> importacao = importacaoService.obterPorId(id);
+		if(!importacao.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		if(!solicitante.equals(importacao.get().getUsuario())) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		return ResponseEntity.ok(importacao.get());
 	}
 	
 	@GetMapping("{id}")
-	public ResponseEntity obterLancamento( @PathVariable("id") Long id) {
-		return service.obterPorId(id)
-					.map( lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
-					.orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+	public ResponseEntity obterLancamento( @PathVariable("id") Long id, WebRequest request,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		if(!pertenceAo(autenticado, id)) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		// Com If-None-Match basta ler a versão; o lançamento só é carregado se ela mudou
+		if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			Optional<Long> versao = service.obterVersao(id);
+			if(!versao.isPresent()) {
+				return new ResponseEntity(HttpStatus.NOT_FOUND);
+			}
+			if(request.checkNotModified(EtagVersao.codificar(versao.get()))) {
+				return null;
+			}
+		}
+		
+		Optional<LancamentoDTO> lancamento = service.obterDTOPorId(id);
+		if(!lancamento.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		request.checkNotModified(EtagVersao.codificar(lancamento.get().getVersao()));
+		return new ResponseEntity(lancamento.get(), HttpStatus.OK);
 	}
 	
 	@PostMapping
-	public ResponseEntity salvar ( @RequestBody LancamentoDTO dto) {
+	public ResponseEntity salvar ( @RequestBody LancamentoDTO dto,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		if(!permitido(autenticado, dto.getUsuario())) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
 		try {
 			Lancamento entidade = converter(dto);
 			entidade = service.salvar(entidade);
-			return new ResponseEntity(entidade, HttpStatus.CREATED);
+			return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
 		}catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		}catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
 		}
 	}
 	
-	@PutMapping("{id}")
-	public ResponseEntity atualizar ( @PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-		return service.obterPorId(id).map( entity -> {
+	@PostMapping("/lote")
+	public ResponseEntity salvarLote ( @RequestBody List<LancamentoDTO> dtos,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		if(dtos.isEmpty() || dtos.size() > TAMANHO_MAXIMO_LOTE) {
+			return ResponseEntity.badRequest().body("Envie entre 1 e " + TAMANHO_MAXIMO_LOTE + " lançamentos por lote!");
+		}
+		
+		if(!dtos.stream().allMatch( dto -> permitido(autenticado, dto.getUsuario()) )) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		// Um único select confirma todos os usuários do lote; o inexistente vira erro do item
+		Set<Long> idsUsuarios = new HashSet<>();
+		dtos.forEach( dto -> idsUsuarios.add(dto.getUsuario()) );
+		Map<Long, Usuario> usuarios = usuarioService.obterPorIds(idsUsuarios);
+		List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+		List<ErroLoteDTO> erros = new ArrayList<>();
+		
+		for (int i = 0; i < dtos.size(); i++) {
 			try {
-				Lancamento lancamento = converter(dto);
-				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
-			}catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+				LancamentoDTO dto = dtos.get(i);
+				Usuario usuario = usuarios.get(dto.getUsuario());
+				if(usuario == null) {
+					erros.add(new ErroLoteDTO(i, USUARIO_NAO_ENCONTRADO));
+					continue;
+				}
+				Lancamento lancamento = converter(dto, usuario);
+				lancamento.setId(0);
+				service.validar(lancamento);
+				lancamentos.add(lancamento);
+			}catch (RegraNegocioException | IllegalArgumentException e) {
+				erros.add(new ErroLoteDTO(i, e.getMessage()));
 			}
-		}).orElseGet( () -> 
-				new ResponseEntity("Lançamento não encontrado na base de Dados!", HttpStatus.BAD_REQUEST) );
+		}
+		
+		if(!erros.isEmpty()) {
+			return ResponseEntity.badRequest().body(ResultadoLoteDTO.builder().erros(erros).build());
+		}
+		
+		try {
+			service.salvarLote(lancamentos);
+		}catch (LoteParcialException e) {
+			return new ResponseEntity(resultadoParcial(lancamentos, e), HttpStatus.MULTI_STATUS);
+		}catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		}
+		
+		ResultadoLoteDTO resultado = ResultadoLoteDTO.builder()
+					.quantidade(lancamentos.size())
+					.ids(lancamentos.stream().map(Lancamento::getId).toList())
+					.erros(erros)
+					.build();
+		return new ResponseEntity(resultado, HttpStatus.CREATED);
 	}
 	
-	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus ( @PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto ) {
-		return service.obterPorId(id).map( entity -> {
-			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-			
-			if(statusSelecionado == null) {
-				return ResponseEntity.badRequest().body("Não foi possivel atualizar o status do Lançamento, envie um status válido!");
+	/**
+	 * Com partições, parte do lote pode ter sido gravada: os ids são os dos itens gravados, na
+	 * ordem do lote, e os erros indicam os itens não gravados, que são os únicos a reenviar.
+	 * Todos os itens passaram pela validação, então o índice na lista é o índice no lote.
+	 */
+	private static ResultadoLoteDTO resultadoParcial(List<Lancamento> lancamentos, LoteParcialException e) {
+		List<ErroLoteDTO> erros = new ArrayList<>();
+		for (int i = 0; i < lancamentos.size(); i++) {
+			RuntimeException falha = e.getFalhas().get(lancamentos.get(i));
+			if(falha != null) {
+				erros.add(new ErroLoteDTO(i, falha instanceof DataIntegrityViolationException ? USUARIO_NAO_ENCONTRADO
+							: "Não foi possivel gravar o lançamento, envie-o novamente!"));
 			}
+		}
+		
+		return ResultadoLoteDTO.builder()
+					.quantidade(e.getGravados().size())
+					.ids(lancamentos.stream().filter( lancamento -> !e.getFalhas().containsKey(lancamento) ).map(Lancamento::getId).toList())
+					.erros(erros)
+					.build();
+	}
+	
+	@PutMapping("{id}")
+	public ResponseEntity atualizar ( @PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		// Nem o lançamento de outro usuário, nem o próprio passado para outro usuário
+		if(!permitido(autenticado, dto.getUsuario()) || !pertenceAo(autenticado, id)) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		try {
+			Lancamento lancamento = converter(dto);
+			lancamento.setId(id);
+			lancamento.setVersao(ifMatch != null ? EtagVersao.decodificar(ifMatch) : dto.getVersao());
+			service.atualizar(lancamento);
 			
-			try {
-				entity.setStatus(statusSelecionado);
-				service.atualizar(entity);
-				return ResponseEntity.ok(entity);
-			}catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+			LancamentoDTO atualizado = converter(lancamento);
+			if(atualizado.getVersao() == null) {
+				return ResponseEntity.ok(atualizado);
 			}
-		}).orElseGet( () -> 
-		new ResponseEntity("Lançamento não encontrado na base de Dados!", HttpStatus.BAD_REQUEST) );
+			return ResponseEntity.ok().eTag(EtagVersao.codificar(atualizado.getVersao())).body(atualizado);
+		}catch (VersaoConflitanteException e) {
+			// Pré-condição do cabeçalho falhou: 412; versão enviada no corpo: conflito
+			return new ResponseEntity(e.getMessage(), ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+		}catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		}
+	}
+	
+	@PutMapping("{id}/atualiza-status")
+	public ResponseEntity atualizarStatus ( @PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado ) {
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		}catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body(STATUS_INVALIDO);
+		}
+		
+		if(!pertenceAo(autenticado, id)) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		if(!service.atualizarStatus(id, statusSelecionado)) {
+			return new ResponseEntity(LANCAMENTO_NAO_ENCONTRADO, HttpStatus.BAD_REQUEST);
+		}
+		return ResponseEntity.ok(dto);
+	}
+	
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote ( @RequestBody AtualizaStatusLoteDTO dto,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado ) {
+		StatusLancamento statusAtual;
+		StatusLancamento statusSelecionado;
+		try {
+			statusAtual = StatusLancamento.valueOf(dto.getStatusAtual());
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		}catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body(STATUS_INVALIDO);
+		}
+		
+		boolean porIds = dto.getIds() != null && !dto.getIds().isEmpty();
+		if(porIds == (dto.getUsuario() != null)) {
+			return ResponseEntity.badRequest().body("Informe a lista de ids ou o filtro por usuário, mas não ambos!");
+		}
+		
+		if(porIds && dto.getIds().size() > TAMANHO_MAXIMO_LOTE_STATUS) {
+			return ResponseEntity.badRequest().body("Envie no máximo " + TAMANHO_MAXIMO_LOTE_STATUS + " ids por lote!");
+		}
+		
+		if(porIds ? !pertencemAo(autenticado, dto.getIds()) : !permitido(autenticado, dto.getUsuario())) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		if(statusAtual == statusSelecionado) {
+			return ResponseEntity.ok(new ResultadoStatusLoteDTO(0, porIds ? dto.getIds() : List.of()));
+		}
+		
+		ResultadoStatusLoteDTO resultado = porIds
+					? service.atualizarStatusEmLote(dto.getIds(), statusAtual, statusSelecionado)
+					: service.atualizarStatusEmLote(dto.getUsuario(), dto.getAno(), dto.getMes(), statusAtual, statusSelecionado);
+		return ResponseEntity.ok(resultado);
 	}
 	
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar ( @PathVariable("id") Long id) {
-		return service.obterPorId(id).map( entidade -> {
-			service.deletar(entidade);
-			return new ResponseEntity( HttpStatus.NO_CONTENT);
-		}).orElseGet( () -> 
-			new ResponseEntity("Lançamento não encontrado na base de Dados!", HttpStatus.BAD_REQUEST) );
+	public ResponseEntity deletar ( @PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		if(!pertenceAo(autenticado, id)) {
+			return new ResponseEntity(ACESSO_NEGADO, HttpStatus.FORBIDDEN);
+		}
+		
+		if(!service.deletar(id)) {
+			return new ResponseEntity(LANCAMENTO_NAO_ENCONTRADO, HttpStatus.BAD_REQUEST);
+		}
+		return new ResponseEntity( HttpStatus.NO_CONTENT);
+	}
+	
+	/**
+	 * O interceptor só confere o usuário da query string; o do corpo é conferido aqui. Sem
+	 * token a chamada segue aceita, como no interceptor.
+	 */
+	private static boolean permitido(Long autenticado, Long idUsuario) {
+		return autenticado == null || autenticado.equals(idUsuario);
+	}
+	
+	/**
+	 * Lançamento inexistente passa, para que a operação responda como sempre respondeu.
+	 */
+	private boolean pertenceAo(Long autenticado, Long idLancamento) {
+		return autenticado == null || service.obterIdUsuario(idLancamento).map(autenticado::equals).orElse(true);
+	}
+	
+	private boolean pertencemAo(Long autenticado, List<Long> idsLancamentos) {
+		return autenticado == null || service.obterIdsUsuarios(idsLancamentos).stream().allMatch(autenticado::equals);
 	}
 	
-	private LancamentoDTO converter(Lancamento lancamento) {
+	private static Optional<FormatoImportacao> formatoDoConteudo(String contentType) {
+		if(contentType == null) {
+			return Optional.empty();
+		}
+		try {
+			return FormatoImportacao.doTipo(MediaType.parseMediaType(contentType));
+		}catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+	
+	LancamentoDTO converter(Lancamento lancamento) {
 		return LancamentoDTO.builder()
 					.id(lancamento.getId())
 					.descricao(lancamento.getDescricao())
@@ -130,10 +535,16 @@ public class LancamentoResource {
 					.Status(lancamento.getStatus().name())
 					.tipo(lancamento.getTipo().name())
 					.usuario(lancamento.getUsuario().getId())
+					.versao(lancamento.getVersao())
 					.build();
 	}
 	
 	private Lancamento converter(LancamentoDTO dto) {
+		// Apenas a referência: a chave estrangeira garante que o usuário existe
+		return converter(dto, usuarioService.obterReferencia(dto.getUsuario()));
+	}
+	
+	Lancamento converter(LancamentoDTO dto, Usuario usuario) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
@@ -141,10 +552,6 @@ public class LancamentoResource {
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
 		
-		Usuario usuario = usuarioService
-			.obterPorId(dto.getUsuario())
-			.orElseThrow( () -> new RegraNegocioException("Usuário não encontrado para o Id informado!"));
-		
 		lancamento.setUsuario(usuario);
 		
 		if(dto.getTipo() != null) {
@@ -1,23 +1,36 @@
 package com.springweb.minhasfinancas.api.resource;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.springweb.minhasfinancas.api.dto.RenovacaoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
 import com.springweb.minhasfinancas.api.dto.UsuarioDTO;
+import com.springweb.minhasfinancas.exception.AcessoNegadoException;
 import com.springweb.minhasfinancas.exception.ErroAutenticacao;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
 import com.springweb.minhasfinancas.model.entity.Usuario;
 import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.RelatorioService;
+import com.springweb.minhasfinancas.service.SessaoService;
 import com.springweb.minhasfinancas.service.UsuarioService;
+import com.springweb.minhasfinancas.sessao.AutenticacaoInterceptor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,14 +41,40 @@ public class UsuarioResource {
 	
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final RelatorioService relatorioService;
+	private final SessaoService sessaoService;
 	
 	@PostMapping("/autenticar")
 	public ResponseEntity autenticar( @RequestBody UsuarioDTO dto) {
 		try {
 			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAutenticado);
+			return ResponseEntity.ok(sessaoService.iniciar(usuarioAutenticado));
 		}catch (ErroAutenticacao e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		}catch (SobrecargaException e) {
+			return sobrecarga(e);
+		}
+	}
+	
+	@PostMapping("/renovar")
+	public ResponseEntity renovar( @RequestBody RenovacaoDTO dto) {
+		try {
+			return ResponseEntity.ok(sessaoService.renovar(dto.getTokenRenovacao()));
+		}catch (ErroAutenticacao e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.UNAUTHORIZED);
+		}
+	}
+	
+	@PostMapping("/sair")
+	public ResponseEntity sair( @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao,
+			@RequestBody(required = false) RenovacaoDTO dto) {
+		try {
+			sessaoService.encerrar(AutenticacaoInterceptor.tokenDoCabecalho(autorizacao), dto != null ? dto.getTokenRenovacao() : null);
+			return new ResponseEntity(HttpStatus.NO_CONTENT);
+		}catch (ErroAutenticacao e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.UNAUTHORIZED);
+		}catch (AcessoNegadoException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.FORBIDDEN);
 		}
 	}
 	
@@ -52,19 +91,58 @@ public class UsuarioResource {
 			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
 		}catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		}catch (SobrecargaException e) {
+			return sobrecarga(e);
 		}
 		
 	}
 	
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
-		Optional<Usuario> usuario = service.obterPorId(id);
+	public ResponseEntity obterSaldo(@PathVariable("id") Long id, WebRequest request) {
+		Optional<Long> versao = lancamentoService.obterVersaoPorUsuario(id);
 		
-		if(!usuario.isPresent()) {
+		if(!versao.isPresent()) {
 			return new ResponseEntity(HttpStatus.NOT_FOUND);
 		}
 		
+		if(request.checkNotModified(EtagVersao.codificar(versao.get()))) {
+			return null;
+		}
+		
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
 		return ResponseEntity.ok(saldo);
 	}
+	
+	@GetMapping("{id}/saldo/mensal")
+	public ResponseEntity obterSaldoMensal(@PathVariable("id") Long id, @RequestParam("ano") Integer ano,
+			@RequestAttribute(value = AutenticacaoInterceptor.USUARIO_AUTENTICADO, required = false) Long autenticado) {
+		if(ano.toString().length() != 4) {
+			return ResponseEntity.badRequest().body("Informe um Ano válido!");
+		}
+		
+		// Um token válido para o usuário já confirma que ele existe
+		if(autenticado == null && !service.obterPorId(id).isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		List<SaldoMensalDTO> saldos = lancamentoService.obterSaldoMensalPorUsuario(id, ano);
+		return ResponseEntity.ok(saldos);
+	}
+	
+	@GetMapping("{id}/relatorio")
+	public ResponseEntity obterRelatorio(@PathVariable("id") Long id, @RequestParam("ano") Integer ano) {
+		if(ano.toString().length() != 4) {
+			return ResponseEntity.badRequest().body("Informe um Ano válido!");
+		}
+		
+		return relatorioService.obterRelatorioAnual(id, ano)
+					.map( relatorio -> new ResponseEntity(relatorio, HttpStatus.OK))
+					.orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+	}
+	
+	private static ResponseEntity sobrecarga(SobrecargaException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, "1")
+					.body(e.getMessage());
+	}
 }
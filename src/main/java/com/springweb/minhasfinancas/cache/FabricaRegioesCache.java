@@ -0,0 +1,202 @@
+package com.springweb.minhasfinancas.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.cache.Cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.springweb.minhasfinancas.replicacao.ConsistenciaLeitura;
+
+/**
+ * Regiões do cache de segundo nível em caches JCache do Caffeine, limitadas a {@code tamanho}
+ * entradas e a {@code validade} desde a gravação. A região de timestamps das consultas não
+ * tem limite nem validade, porque perder um registro dela deixaria consultas em cache
+ * parecerem atuais.
+ * <p>
+ * Toda remoção de entidade ou de região feita por este nó é publicada no
+ * {@link TransporteInvalidacao}, e os outros nós a repetem localmente. Com a estratégia
+ * {@code NONSTRICT_READ_WRITE} das entidades, escritas e updates em massa só removem
+ * entradas; gravar no cache é sempre o resultado de uma leitura do banco e não é publicado.
+ * Os timestamps das consultas são publicados com o valor, para que os outros nós descartem
+ * as consultas em cache que leram as tabelas alteradas.
+ * <p>
+ * Com réplicas de leitura, o que é lido em transações que podem ter ido a uma réplica não é
+ * guardado, para que um valor atrasado não volte ao cache depois da remoção. Entre a escrita
+ * num nó e a remoção nos demais há uma janela em que outro nó ainda pode servir o valor
+ * antigo; a validade limita quanto tempo um valor perdido pode durar.
+ */
+public class FabricaRegioesCache extends JCacheRegionFactory {
+
+	private final String no = UUID.randomUUID().toString();
+	private final TransporteInvalidacao transporte;
+	private final long tamanho;
+	private final Duration validade;
+	private final Map<String, StorageAccess> locais = new ConcurrentHashMap<>();
+
+	public FabricaRegioesCache(TransporteInvalidacao transporte, long tamanho, Duration validade) {
+		this.transporte = transporte;
+		this.tamanho = tamanho;
+		this.validade = validade;
+		transporte.assinar(this::aplicar);
+	}
+
+	/**
+	 * Um gerenciador de caches por fábrica: dois contextos na mesma JVM, como nos testes,
+	 * não compartilham regiões.
+	 */
+	@Override
+	protected URI getUri(SessionFactoryOptions opcoes, Map<String, Object> propriedades) {
+		return URI.create("financas:" + no);
+	}
+
+	@Override
+	protected Cache<Object, Object> createCache(String regiao) {
+		CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+		configuracao.setStatisticsEnabled(true);
+		if(!regiao.endsWith(DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+			configuracao.setMaximumSize(OptionalLong.of(tamanho));
+			configuracao.setExpireAfterWrite(OptionalLong.of(validade.toNanos()));
+		}
+		return getCacheManager().createCache(regiao, configuracao);
+	}
+
+	@Override
+	protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig config,
+				DomainDataRegionBuildingContext contexto) {
+		return armazenar(config.getRegionName(), super.createDomainDataStorageAccess(config, contexto), TipoRegiao.ENTIDADES);
+	}
+
+	@Override
+	protected StorageAccess createQueryResultsRegionStorageAccess(String regiao, SessionFactoryImplementor sessionFactory) {
+		return armazenar(regiao, super.createQueryResultsRegionStorageAccess(regiao, sessionFactory), TipoRegiao.CONSULTAS);
+	}
+
+	@Override
+	protected StorageAccess createTimestampsRegionStorageAccess(String regiao, SessionFactoryImplementor sessionFactory) {
+		return armazenar(regiao, super.createTimestampsRegionStorageAccess(regiao, sessionFactory), TipoRegiao.TIMESTAMPS);
+	}
+
+	@Override
+	protected void releaseFromUse() {
+		locais.clear();
+		super.releaseFromUse();
+	}
+
+	private Armazenamento armazenar(String regiao, StorageAccess local, TipoRegiao tipo) {
+		locais.put(regiao, local);
+		return new Armazenamento(regiao, local, tipo);
+	}
+
+	private void aplicar(MensagemInvalidacao mensagem) {
+		StorageAccess local = locais.get(mensagem.getRegiao());
+		if(no.equals(mensagem.getOrigem()) || local == null) {
+			return;
+		}
+
+		if(mensagem.getValor() != null) {
+			local.putIntoCache(mensagem.getChave(), mensagem.getValor(), null);
+		} else if(mensagem.getChave() == null) {
+			local.evictData();
+		} else {
+			local.evictData(mensagem.getChave());
+		}
+	}
+
+	private enum TipoRegiao {
+		ENTIDADES, CONSULTAS, TIMESTAMPS
+	}
+
+	/**
+	 * Repassa tudo ao cache local. Publica o que muda o conteúdo da região sem ter vindo de
+	 * uma leitura do banco, e deixa de guardar o que pode ter sido lido de uma réplica.
+	 * Resultados de consultas não são publicados: os timestamps decidem se ainda valem.
+	 */
+	private class Armazenamento implements DomainDataStorageAccess {
+
+		private final String regiao;
+		private final StorageAccess local;
+		private final TipoRegiao tipo;
+
+		Armazenamento(String regiao, StorageAccess local, TipoRegiao tipo) {
+			this.regiao = regiao;
+			this.local = local;
+			this.tipo = tipo;
+		}
+
+		@Override
+		public Object getFromCache(Object chave, SharedSessionContractImplementor sessao) {
+			return local.getFromCache(chave, sessao);
+		}
+
+		@Override
+		public void putFromLoad(Object chave, Object valor, SharedSessionContractImplementor sessao) {
+			if(!ConsistenciaLeitura.podeLerDeReplica()) {
+				local.putIntoCache(chave, valor, sessao);
+			}
+		}
+
+		@Override
+		public void putIntoCache(Object chave, Object valor, SharedSessionContractImplementor sessao) {
+			if(tipo == TipoRegiao.CONSULTAS) {
+				putFromLoad(chave, valor, sessao);
+				return;
+			}
+			local.putIntoCache(chave, valor, sessao);
+			publicar(chave, tipo == TipoRegiao.TIMESTAMPS ? valor : null);
+		}
+
+		@Override
+		public void removeFromCache(Object chave, SharedSessionContractImplementor sessao) {
+			local.removeFromCache(chave, sessao);
+			publicar(chave, null);
+		}
+
+		@Override
+		public void clearCache(SharedSessionContractImplementor sessao) {
+			local.clearCache(sessao);
+			publicar(null, null);
+		}
+
+		@Override
+		public boolean contains(Object chave) {
+			return local.contains(chave);
+		}
+
+		@Override
+		public void evictData() {
+			local.evictData();
+			publicar(null, null);
+		}
+
+		@Override
+		public void evictData(Object chave) {
+			local.evictData(chave);
+			publicar(chave, null);
+		}
+
+		@Override
+		public void release() {
+			local.release();
+		}
+
+		private void publicar(Object chave, Object valor) {
+			if(tipo != TipoRegiao.CONSULTAS) {
+				transporte.publicar(new MensagemInvalidacao(no, regiao, chave, valor));
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.springweb.minhasfinancas.cache;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Mudança numa região do cache de segundo nível, publicada pelo nó que a fez. Sem chave, vale
+ * para a região inteira; com valor, é um novo registro da região de timestamps das consultas,
+ * que o nó que recebe grava igual. Nas demais regiões a chave é só removida.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MensagemInvalidacao implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String origem;
+	private final String regiao;
+	private final Object chave;
+	private final Object valor;
+}
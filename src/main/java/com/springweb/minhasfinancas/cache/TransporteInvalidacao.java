@@ -0,0 +1,18 @@
+package com.springweb.minhasfinancas.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Leva as mudanças do cache de segundo nível de um nó da aplicação aos demais. Basta declarar
+ * um bean deste tipo para trocar o transporte em memória por um que atravesse processos
+ * (um tópico de mensageria, por exemplo); as mensagens são {@link java.io.Serializable}.
+ * <p>
+ * O transporte pode entregar a mensagem também a quem a publicou: quem assina ignora as
+ * próprias mensagens pela origem.
+ */
+public interface TransporteInvalidacao {
+
+	void publicar(MensagemInvalidacao mensagem);
+
+	void assinar(Consumer<MensagemInvalidacao> assinante);
+}
@@ -0,0 +1,24 @@
+package com.springweb.minhasfinancas.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Entrega cada mensagem, na própria thread de quem publica, a todos os assinantes do mesmo
+ * processo. Serve a um nó sozinho e aos testes que sobem mais de um nó na mesma JVM.
+ */
+public class TransporteInvalidacaoLocal implements TransporteInvalidacao {
+
+	private final List<Consumer<MensagemInvalidacao>> assinantes = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publicar(MensagemInvalidacao mensagem) {
+		assinantes.forEach( assinante -> assinante.accept(mensagem) );
+	}
+
+	@Override
+	public void assinar(Consumer<MensagemInvalidacao> assinante) {
+		assinantes.add(assinante);
+	}
+}
@@ -0,0 +1,62 @@
+package com.springweb.minhasfinancas.config;
+
+import java.time.Duration;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.springweb.minhasfinancas.cache.FabricaRegioesCache;
+import com.springweb.minhasfinancas.cache.TransporteInvalidacao;
+import com.springweb.minhasfinancas.cache.TransporteInvalidacaoLocal;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cache de segundo nível do Hibernate para as entidades anotadas com {@code @Cache} e cache
+ * das consultas marcadas como cacheáveis. Cada região guarda no máximo
+ * {@code financas.cache.tamanho} entradas por {@code financas.cache.validade}. As invalidações
+ * vão aos outros nós pelo {@link TransporteInvalidacao} declarado como bean, ou em memória
+ * quando não há nenhum. Hits, misses e remoções de cada região são publicados como métricas
+ * {@code cache.*}. Desligado com {@code financas.cache.segundo-nivel=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financas.cache.segundo-nivel", havingValue = "true", matchIfMissing = true)
+public class CacheSegundoNivelConfiguration {
+
+	@Bean
+	public FabricaRegioesCache fabricaRegioesCache(ObjectProvider<TransporteInvalidacao> transporte,
+			@Value("${financas.cache.tamanho:10000}") long tamanho,
+			@Value("${financas.cache.validade:10m}") Duration validade) {
+		return new FabricaRegioesCache(transporte.getIfAvailable(TransporteInvalidacaoLocal::new), tamanho, validade);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer cacheSegundoNivel(FabricaRegioesCache fabricaRegioesCache) {
+		return propriedades -> {
+			propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+			propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, fabricaRegioesCache);
+		};
+	}
+
+	/**
+	 * As regiões são criadas com a {@code EntityManagerFactory}, que por isso é recebida aqui
+	 * mesmo sem ser usada.
+	 */
+	@Bean
+	public MeterBinder metricasCacheSegundoNivel(FabricaRegioesCache fabricaRegioesCache, EntityManagerFactory entityManagerFactory) {
+		return registro -> {
+			CacheManager caches = fabricaRegioesCache.getCacheManager();
+			caches.getCacheNames().forEach( nome -> JCacheMetrics.monitor(registro, caches.getCache(nome)) );
+		};
+	}
+}
@@ -0,0 +1,46 @@
+package com.springweb.minhasfinancas.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.springweb.minhasfinancas.monitoramento.DataSourceMonitorado;
+import com.springweb.minhasfinancas.monitoramento.MonitoramentoConsultasFilter;
+
+/**
+ * Contagem de comandos SQL por requisição. Desligada por padrão; ligada no perfil de teste,
+ * onde os testes também abrem suas próprias {@code MedicaoConsultas}. Os testes de
+ * repositório, que não carregam esta configuração, devem importá-la.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financas.consultas.monitoramento", havingValue = "true")
+public class MonitoramentoConsultasConfiguration {
+
+	@Bean
+	public static BeanPostProcessor dataSourceMonitorado() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(bean instanceof DataSource dataSource && !(bean instanceof DataSourceMonitorado)) {
+					return new DataSourceMonitorado(dataSource);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<MonitoramentoConsultasFilter> monitoramentoConsultasFilter(
+			@Value("${financas.consultas.orcamento:10}") int orcamentoComandos,
+			@Value("${financas.consultas.repeticoes:5}") int limiteRepeticoes) {
+		FilterRegistrationBean<MonitoramentoConsultasFilter> registro = new FilterRegistrationBean<>(
+					new MonitoramentoConsultasFilter(orcamentoComandos, limiteRepeticoes));
+		registro.addUrlPatterns("/api/*");
+		return registro;
+	}
+}
@@ -0,0 +1,121 @@
+package com.springweb.minhasfinancas.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.springweb.minhasfinancas.particionamento.DataSourceParticionado;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Particionamento dos dados por usuário, ligado quando há pelo menos uma partição além da
+ * principal em {@code financas.particoes[n].url}/{@code username}/{@code password}. O nome
+ * de cada partição vem de {@code name} ou da posição na lista; partições novas entram no fim
+ * da lista, porque nome e posição decidem a faixa de ids e o lugar no anel.
+ * <p>
+ * O pós-processador roda depois do de réplicas, de modo que a principal continua usando as
+ * suas réplicas, e antes do de monitoramento, que assim conta os comandos de todas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financas.particoes[0].url")
+public class ParticoesConfiguration {
+
+	@Bean
+	public static BeanPostProcessor dataSourceParticionado(Environment environment) {
+		List<DataSourceProperties> propriedades = Binder.get(environment)
+					.bind("financas.particoes", Bindable.listOf(DataSourceProperties.class))
+					.orElse(List.of());
+		return new ParticionamentoPostProcessor(propriedades);
+	}
+
+	/**
+	 * Com a sessão aberta na view o Hibernate seguraria a conexão da primeira transação até o
+	 * fim da requisição, e as transações seguintes ficariam na partição dela.
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer liberarConexaoAoFimDaTransacao() {
+		return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+					PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	/**
+	 * Roda depois das migrações da principal e leva para a partição certa os usuários de uma
+	 * partição recém-configurada.
+	 */
+	@Bean
+	public ApplicationRunner rebalancearParticoes(DataSource dataSource) {
+		return argumentos -> dataSource.unwrap(DataSourceParticionado.class).rebalancear();
+	}
+
+	/**
+	 * Como o Spring fecha apenas o DataSource original, o {@link DataSourceParticionado} é
+	 * fechado aqui, levando junto os pools das partições e o contexto de partição.
+	 */
+	private static class ParticionamentoPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+		private final List<DataSourceProperties> propriedades;
+		private final Map<String, DataSourceParticionado> particionados = new ConcurrentHashMap<>();
+
+		ParticionamentoPostProcessor(List<DataSourceProperties> propriedades) {
+			this.propriedades = propriedades;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if(!(bean instanceof DataSource principal) || bean instanceof DataSourceParticionado) {
+				return bean;
+			}
+			DataSourceParticionado particionado = new DataSourceParticionado(principal, criarParticoes());
+			particionados.put(beanName, particionado);
+			return particionado;
+		}
+
+		@Override
+		public void postProcessBeforeDestruction(Object bean, String beanName) {
+			DataSourceParticionado particionado = particionados.remove(beanName);
+			if(particionado != null) {
+				particionado.close();
+			}
+		}
+
+		@Override
+		public boolean requiresDestruction(Object bean) {
+			return bean instanceof DataSource;
+		}
+
+		private Map<String, DataSource> criarParticoes() {
+			Map<String, DataSource> particoes = new LinkedHashMap<>();
+			for (int i = 0; i < propriedades.size(); i++) {
+				DataSourceProperties particao = propriedades.get(i);
+				String nome = particao.getName() != null ? particao.getName() : "particao-" + (i + 1);
+				HikariDataSource dataSource = particao.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+				dataSource.setPoolName(nome);
+				particoes.put(nome, dataSource);
+			}
+			return particoes;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE + 1;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.springweb.minhasfinancas.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.springweb.minhasfinancas.replicacao.DataSourceRoteado;
+import com.springweb.minhasfinancas.replicacao.EscritaRecenteFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Réplicas de leitura, ligadas quando há pelo menos uma em
+ * {@code financas.datasource.replicas[n].url}/{@code username}/{@code password}.
+ * O DataSource do Spring Boot continua sendo o primário; este pós-processador o envolve no
+ * {@link DataSourceRoteado} antes de qualquer outro envoltório, como o de monitoramento.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financas.datasource.replicas[0].url")
+public class ReplicasConfiguration {
+
+	@Bean
+	public static BeanPostProcessor dataSourceRoteado(Environment environment) {
+		Binder binder = Binder.get(environment);
+		List<DataSourceProperties> propriedades = binder
+					.bind("financas.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+					.orElse(List.of());
+		Duration tempoLimite = binder.bind("financas.datasource.replicas-tempo-limite", Duration.class)
+					.orElse(Duration.ofSeconds(1));
+		Duration retentativa = binder.bind("financas.datasource.replicas-retentativa", Duration.class)
+					.orElse(Duration.ofSeconds(30));
+		Duration janelaLeituraPropria = binder.bind("financas.datasource.janela-leitura-propria", Duration.class)
+					.orElse(Duration.ofSeconds(5));
+
+		return new RoteamentoPostProcessor(propriedades, tempoLimite, retentativa, janelaLeituraPropria);
+	}
+
+	/**
+	 * Marca de escrita recente em cookie, para que a leitura logo depois de uma escrita vá ao
+	 * primário mesmo quando o balanceador a envia a outra instância.
+	 */
+	@Bean
+	public FilterRegistrationBean<EscritaRecenteFilter> escritaRecenteFilter() {
+		FilterRegistrationBean<EscritaRecenteFilter> registro = new FilterRegistrationBean<>(new EscritaRecenteFilter());
+		registro.addUrlPatterns("/api/*");
+		return registro;
+	}
+
+	/**
+	 * O Spring registra o fechamento no DataSource original, não no envoltório devolvido
+	 * aqui; sem fechar o {@link DataSourceRoteado} junto, os pools das réplicas e a janela de
+	 * leitura sobreviveriam ao contexto.
+	 */
+	private static class RoteamentoPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+		private final List<DataSourceProperties> propriedades;
+		private final Duration tempoLimite;
+		private final Duration retentativa;
+		private final Duration janelaLeituraPropria;
+		private final Map<String, DataSourceRoteado> roteados = new ConcurrentHashMap<>();
+
+		RoteamentoPostProcessor(List<DataSourceProperties> propriedades, Duration tempoLimite,
+					Duration retentativa, Duration janelaLeituraPropria) {
+			this.propriedades = propriedades;
+			this.tempoLimite = tempoLimite;
+			this.retentativa = retentativa;
+			this.janelaLeituraPropria = janelaLeituraPropria;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if(!(bean instanceof DataSource primario) || bean instanceof DataSourceRoteado) {
+				return bean;
+			}
+			DataSourceRoteado roteado = new DataSourceRoteado(primario, criarReplicas(), retentativa, janelaLeituraPropria);
+			roteados.put(beanName, roteado);
+			return roteado;
+		}
+
+		@Override
+		public void postProcessBeforeDestruction(Object bean, String beanName) {
+			DataSourceRoteado roteado = roteados.remove(beanName);
+			if(roteado != null) {
+				roteado.close();
+			}
+		}
+
+		@Override
+		public boolean requiresDestruction(Object bean) {
+			return bean instanceof DataSource;
+		}
+
+		/**
+		 * Os pools das réplicas só conectam na primeira leitura, e uma réplica fora do ar
+		 * falha em {@code tempoLimite} em vez de segurar a requisição pelo padrão do Hikari.
+		 */
+		private List<DataSource> criarReplicas() {
+			List<DataSource> replicas = new ArrayList<>(propriedades.size());
+			for (int i = 0; i < propriedades.size(); i++) {
+				DataSourceProperties replica = propriedades.get(i);
+				HikariDataSource dataSource = replica.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+				dataSource.setPoolName("replica-" + i);
+				dataSource.setConnectionTimeout(tempoLimite.toMillis());
+				dataSource.setReadOnly(true);
+				replicas.add(dataSource);
+			}
+			return replicas;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+	}
+}
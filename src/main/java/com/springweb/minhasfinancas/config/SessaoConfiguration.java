@@ -0,0 +1,34 @@
+package com.springweb.minhasfinancas.config;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.springweb.minhasfinancas.sessao.AssinadorTokens;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * O segredo dos tokens vem de {@code financas.sessao.segredo}, em Base64, e precisa ser o
+ * mesmo em todos os nós. Sem ele é gerado um segredo aleatório a cada subida, o que só serve
+ * a um nó sozinho e invalida as sessões a cada restart.
+ */
+@Slf4j
+@Configuration
+public class SessaoConfiguration {
+
+	@Bean
+	public AssinadorTokens assinadorTokens(@Value("${financas.sessao.segredo:}") String segredo) {
+		if(!segredo.isBlank()) {
+			return new AssinadorTokens(Base64.getDecoder().decode(segredo.strip()));
+		}
+
+		log.warn("financas.sessao.segredo não configurado; usando um segredo aleatório, válido só para esta instância");
+		byte[] aleatorio = new byte[AssinadorTokens.TAMANHO_MINIMO_SEGREDO];
+		new SecureRandom().nextBytes(aleatorio);
+		return new AssinadorTokens(aleatorio);
+	}
+}
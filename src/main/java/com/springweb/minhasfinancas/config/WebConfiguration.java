@@ -1,16 +1,54 @@
 package com.springweb.minhasfinancas.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.springweb.minhasfinancas.sessao.AutenticacaoInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
 @EnableWebMvc
 @Configuration
+@RequiredArgsConstructor
 public class WebConfiguration implements WebMvcConfigurer {
 	
+	private final AutenticacaoInterceptor autenticacaoInterceptor;
+	
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// Cadastro, login, renovação e logout recebem as credenciais no corpo
+		registry.addInterceptor(autenticacaoInterceptor)
+					.addPathPatterns("/api/lancamentos/**", "/api/usuarios/**")
+					.excludePathPatterns("/api/usuarios", "/api/usuarios/autenticar", "/api/usuarios/renovar", "/api/usuarios/sair");
+	}
+	
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/**").allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
 	}
+	
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		// Exportações grandes são escritas fora da thread do Tomcat e podem levar minutos
+		configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(30));
+		configurer.setTaskExecutor(mvcAsyncExecutor());
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(16);
+		executor.setQueueCapacity(100);
+		executor.setThreadNamePrefix("mvc-async-");
+		return executor;
+	}
 }
@@ -0,0 +1,130 @@
+package com.springweb.minhasfinancas.dinheiro;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Valor monetário em centavos num {@code long}, para agregações em memória sem criar um
+ * {@link BigDecimal} por parcela. Toda operação é exata: soma, subtração e conversão lançam
+ * {@link ArithmeticException} em vez de estourar ou arredondar.
+ * <p>
+ * A conversão de e para {@link BigDecimal} usa a escala 2 da coluna {@code valor}
+ * ({@code numeric(16, 2)}), cujo maior valor cabe com folga num {@code long}. No JSON o
+ * valor é escrito como número, no mesmo formato de um {@link BigDecimal} de escala 2.
+ */
+@JsonSerialize(using = DinheiroJson.Serializador.class)
+@JsonDeserialize(using = DinheiroJson.Desserializador.class)
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+	public static final int ESCALA = 2;
+
+	public static final Dinheiro ZERO = new Dinheiro(0);
+
+	/** Sinal, os 17 dígitos de {@link Long#MIN_VALUE} em reais, o ponto e os centavos. */
+	static final int TAMANHO_TEXTO = 21;
+
+	private final long centavos;
+
+	private Dinheiro(long centavos) {
+		this.centavos = centavos;
+	}
+
+	public static Dinheiro deCentavos(long centavos) {
+		return centavos == 0 ? ZERO : new Dinheiro(centavos);
+	}
+
+	/**
+	 * Lança {@link ArithmeticException} se o valor tiver frações de centavo ou não couber
+	 * num {@code long} de centavos.
+	 */
+	public static Dinheiro de(BigDecimal valor) {
+		return deCentavos(centavos(valor));
+	}
+
+	public static Dinheiro de(String valor) {
+		return de(new BigDecimal(valor));
+	}
+
+	/**
+	 * Centavos do valor, para somar direto num acumulador {@code long} com
+	 * {@link Math#addExact(long, long)}.
+	 */
+	public static long centavos(BigDecimal valor) {
+		return valor.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	public long getCentavos() {
+		return centavos;
+	}
+
+	public Dinheiro mais(Dinheiro outro) {
+		return deCentavos(Math.addExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro menos(Dinheiro outro) {
+		return deCentavos(Math.subtractExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro negativo() {
+		return deCentavos(Math.negateExact(centavos));
+	}
+
+	public int signum() {
+		return Long.signum(centavos);
+	}
+
+	public BigDecimal paraBigDecimal() {
+		return BigDecimal.valueOf(centavos, ESCALA);
+	}
+
+	@Override
+	public int compareTo(Dinheiro outro) {
+		return Long.compare(centavos, outro.centavos);
+	}
+
+	@Override
+	public boolean equals(Object outro) {
+		return outro instanceof Dinheiro && ((Dinheiro) outro).centavos == centavos;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(centavos);
+	}
+
+	/**
+	 * Mesmo texto de {@link BigDecimal#toPlainString()} para o valor em escala 2.
+	 */
+	@Override
+	public String toString() {
+		char[] texto = new char[TAMANHO_TEXTO];
+		int inicio = formatar(centavos, texto);
+		return new String(texto, inicio, texto.length - inicio);
+	}
+
+	/**
+	 * Escreve o texto do valor no fim de {@code destino}, que precisa ter pelo menos
+	 * {@link #TAMANHO_TEXTO} posições, e devolve a posição onde ele começa. Trabalha com o
+	 * valor negativo para que {@link Long#MIN_VALUE} também caiba.
+	 */
+	static int formatar(long centavos, char[] destino) {
+		long negativo = centavos < 0 ? centavos : -centavos;
+		int posicao = destino.length;
+		for (int casa = 0; casa < ESCALA; casa++) {
+			destino[--posicao] = (char) ('0' - negativo % 10);
+			negativo /= 10;
+		}
+		destino[--posicao] = '.';
+		do {
+			destino[--posicao] = (char) ('0' - negativo % 10);
+			negativo /= 10;
+		} while (negativo != 0);
+		if(centavos < 0) {
+			destino[--posicao] = '-';
+		}
+		return posicao;
+	}
+}
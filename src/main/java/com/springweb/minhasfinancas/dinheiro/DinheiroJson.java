@@ -0,0 +1,77 @@
+package com.springweb.minhasfinancas.dinheiro;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+/**
+ * Lê e escreve {@link Dinheiro} como número JSON, o mesmo contrato dos campos
+ * {@link java.math.BigDecimal}. Registrados pelas anotações da própria classe, valem para
+ * qualquer {@code ObjectMapper}.
+ */
+final class DinheiroJson {
+
+	private DinheiroJson() {
+	}
+
+	/**
+	 * Formata os dígitos num buffer da thread e os entrega ao gerador, que os copia, sem
+	 * criar uma {@code String} por valor.
+	 */
+	static final class Serializador extends StdScalarSerializer<Dinheiro> {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final ThreadLocal<char[]> TEXTO = ThreadLocal.withInitial( () -> new char[Dinheiro.TAMANHO_TEXTO] );
+
+		Serializador() {
+			super(Dinheiro.class);
+		}
+
+		@Override
+		public void serialize(Dinheiro valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+			char[] texto = TEXTO.get();
+			int inicio = Dinheiro.formatar(valor.getCentavos(), texto);
+			gerador.writeNumber(texto, inicio, texto.length - inicio);
+		}
+	}
+
+	/**
+	 * Aceita número ou texto numérico. Valores com frações de centavo ou fora do intervalo
+	 * de um {@code long} de centavos são recusados, nunca arredondados.
+	 */
+	static final class Desserializador extends StdScalarDeserializer<Dinheiro> {
+
+		private static final long serialVersionUID = 1L;
+
+		Desserializador() {
+			super(Dinheiro.class);
+		}
+
+		@Override
+		public Dinheiro deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+			JsonToken token = parser.currentToken();
+			try {
+				if(token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+					return Dinheiro.deCentavos(Math.multiplyExact(parser.getLongValue(), 100));
+				}
+				if(token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+					return Dinheiro.de(parser.getDecimalValue());
+				}
+				if(token == JsonToken.VALUE_STRING) {
+					return Dinheiro.de(parser.getText().strip());
+				}
+			} catch (ArithmeticException | NumberFormatException e) {
+				return (Dinheiro) contexto.handleWeirdStringValue(Dinheiro.class, parser.getText(),
+							"valor monetário inválido: %s", e.getMessage());
+			}
+			return (Dinheiro) contexto.handleUnexpectedToken(Dinheiro.class, parser);
+		}
+	}
+}
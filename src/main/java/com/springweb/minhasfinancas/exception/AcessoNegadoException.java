@@ -0,0 +1,8 @@
+package com.springweb.minhasfinancas.exception;
+
+public class AcessoNegadoException extends RuntimeException {
+	
+	public AcessoNegadoException(String mensagem) {
+		super(mensagem);
+	}
+}
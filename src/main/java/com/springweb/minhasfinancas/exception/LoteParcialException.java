@@ -0,0 +1,32 @@
+package com.springweb.minhasfinancas.exception;
+
+import java.util.List;
+import java.util.Map;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * Um lote gravado em várias transações, uma por partição, em que parte delas falhou. Os
+ * lançamentos de {@link #getGravados()} ficaram gravados; os de {@link #getFalhas()} não,
+ * cada um com o erro da transação da sua partição. As chaves são comparadas por identidade.
+ */
+public class LoteParcialException extends RuntimeException {
+	
+	private final List<Lancamento> gravados;
+	private final Map<Lancamento, RuntimeException> falhas;
+	
+	public LoteParcialException(List<Lancamento> gravados, Map<Lancamento, RuntimeException> falhas) {
+		super("O lote foi gravado apenas em parte!");
+		this.gravados = gravados;
+		this.falhas = falhas;
+	}
+	
+	public List<Lancamento> getGravados() {
+		return gravados;
+	}
+	
+	public Map<Lancamento, RuntimeException> getFalhas() {
+		return falhas;
+	}
+
+}
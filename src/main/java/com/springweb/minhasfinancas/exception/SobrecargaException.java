@@ -0,0 +1,9 @@
+package com.springweb.minhasfinancas.exception;
+
+public class SobrecargaException extends RuntimeException {
+	
+	public SobrecargaException(String msg) {
+		super(msg);
+	}
+
+}
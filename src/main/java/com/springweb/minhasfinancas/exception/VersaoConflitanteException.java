@@ -0,0 +1,9 @@
+package com.springweb.minhasfinancas.exception;
+
+public class VersaoConflitanteException extends RuntimeException {
+	
+	public VersaoConflitanteException(String msg) {
+		super(msg);
+	}
+
+}
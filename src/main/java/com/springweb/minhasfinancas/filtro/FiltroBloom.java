@@ -0,0 +1,195 @@
+package com.springweb.minhasfinancas.filtro;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de textos, seguro para leituras e inclusões concorrentes sem trava. Um
+ * {@code false} de {@link #podeConter(String)} é definitivo; um {@code true} erra com a
+ * probabilidade para a qual o filtro foi {@link #dimensionar(long, double) dimensionado},
+ * enquanto não passar da capacidade.
+ * <p>
+ * As posições de cada texto saem do MurmurHash3 de 128 bits dos bytes UTF-8, combinando as
+ * duas metades como {@code h1 + i * h2} (Kirsch e Mitzenmacher).
+ */
+public class FiltroBloom {
+
+	private static final int FORMATO = 1;
+	private static final double LN2 = Math.log(2);
+
+	private final AtomicLongArray palavras;
+	private final long bits;
+	private final int funcoes;
+	private final LongAdder elementos = new LongAdder();
+
+	private FiltroBloom(long bits, int funcoes) {
+		this.palavras = new AtomicLongArray(Math.toIntExact(bits / Long.SIZE));
+		this.bits = bits;
+		this.funcoes = funcoes;
+	}
+
+	/**
+	 * Filtro com o menor número de bits que mantém a taxa de falsos positivos abaixo de
+	 * {@code falsosPositivos} com {@code capacidade} elementos, e o número de funções que
+	 * minimiza essa taxa.
+	 */
+	public static FiltroBloom dimensionar(long capacidade, double falsosPositivos) {
+		if(capacidade < 1 || falsosPositivos <= 0 || falsosPositivos >= 1) {
+			throw new IllegalArgumentException("Capacidade deve ser positiva e a taxa de falsos positivos estar entre 0 e 1");
+		}
+		long bits = (long) Math.ceil(-capacidade * Math.log(falsosPositivos) / (LN2 * LN2));
+		bits = Math.max(Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+		int funcoes = Math.max(1, (int) Math.round((double) bits / capacidade * LN2));
+		return new FiltroBloom(bits, funcoes);
+	}
+
+	/**
+	 * Se o texto era novo para o filtro, isto é, se algum bit mudou.
+	 */
+	public boolean adicionar(String texto) {
+		long[] hash = murmur3(texto.getBytes(StandardCharsets.UTF_8));
+		boolean mudou = false;
+		long combinado = hash[0];
+		for (int i = 0; i < funcoes; i++) {
+			long posicao = (combinado & Long.MAX_VALUE) % bits;
+			int palavra = (int) (posicao >>> 6);
+			long mascara = 1L << posicao;
+			if((palavras.get(palavra) & mascara) == 0) {
+				mudou |= (palavras.getAndAccumulate(palavra, mascara, (atual, m) -> atual | m) & mascara) == 0;
+			}
+			combinado += hash[1];
+		}
+		if(mudou) {
+			elementos.increment();
+		}
+		return mudou;
+	}
+
+	public boolean podeConter(String texto) {
+		long[] hash = murmur3(texto.getBytes(StandardCharsets.UTF_8));
+		long combinado = hash[0];
+		for (int i = 0; i < funcoes; i++) {
+			long posicao = (combinado & Long.MAX_VALUE) % bits;
+			if((palavras.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+				return false;
+			}
+			combinado += hash[1];
+		}
+		return true;
+	}
+
+	public long getBits() {
+		return bits;
+	}
+
+	public int getFuncoes() {
+		return funcoes;
+	}
+
+	/**
+	 * Textos distintos incluídos; um texto que colidiu em todos os bits com os anteriores
+	 * não é contado, o que só acontece com a mesma chance de um falso positivo.
+	 */
+	public long getElementos() {
+		return elementos.sum();
+	}
+
+	/**
+	 * Taxa de falsos positivos esperada com os elementos incluídos até agora.
+	 */
+	public double taxaEstimada() {
+		return Math.pow(1 - Math.exp(-funcoes * (double) getElementos() / bits), funcoes);
+	}
+
+	public void gravar(DataOutputStream saida) throws IOException {
+		saida.writeInt(FORMATO);
+		saida.writeLong(bits);
+		saida.writeInt(funcoes);
+		saida.writeLong(getElementos());
+		for (int i = 0; i < palavras.length(); i++) {
+			saida.writeLong(palavras.get(i));
+		}
+	}
+
+	public static FiltroBloom ler(DataInputStream entrada) throws IOException {
+		if(entrada.readInt() != FORMATO) {
+			throw new IOException("Formato de filtro desconhecido");
+		}
+		FiltroBloom filtro = new FiltroBloom(entrada.readLong(), entrada.readInt());
+		filtro.elementos.add(entrada.readLong());
+		for (int i = 0; i < filtro.palavras.length(); i++) {
+			filtro.palavras.set(i, entrada.readLong());
+		}
+		return filtro;
+	}
+
+	/**
+	 * MurmurHash3 x64 de 128 bits com semente zero.
+	 */
+	static long[] murmur3(byte[] dados) {
+		final long c1 = 0x87c37b91114253d5L;
+		final long c2 = 0x4cf5ad432745937fL;
+		int blocos = dados.length / 16;
+		long h1 = 0;
+		long h2 = 0;
+
+		for (int i = 0; i < blocos; i++) {
+			long k1 = lerLong(dados, i * 16);
+			long k2 = lerLong(dados, i * 16 + 8);
+
+			h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+			h1 = Long.rotateLeft(h1, 27) + h2;
+			h1 = h1 * 5 + 0x52dce729;
+
+			h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+			h2 = Long.rotateLeft(h2, 31) + h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		}
+
+		long k1 = 0;
+		long k2 = 0;
+		int resto = blocos * 16;
+		for (int i = dados.length - 1; i >= resto; i--) {
+			long b = dados[i] & 0xffL;
+			if(i - resto >= 8) {
+				k2 ^= b << ((i - resto - 8) * 8);
+			} else {
+				k1 ^= b << ((i - resto) * 8);
+			}
+		}
+		// Sem bytes restantes k1 e k2 são zero e estas linhas não mudam nada
+		h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+		h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+
+		h1 ^= dados.length;
+		h2 ^= dados.length;
+		h1 += h2;
+		h2 += h1;
+		h1 = misturar(h1);
+		h2 = misturar(h2);
+		h1 += h2;
+		h2 += h1;
+		return new long[] { h1, h2 };
+	}
+
+	private static long lerLong(byte[] dados, int inicio) {
+		long valor = 0;
+		for (int i = 7; i >= 0; i--) {
+			valor = (valor << 8) | (dados[inicio + i] & 0xffL);
+		}
+		return valor;
+	}
+
+	private static long misturar(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+}
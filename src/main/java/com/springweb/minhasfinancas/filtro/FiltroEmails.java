@@ -0,0 +1,318 @@
+package com.springweb.minhasfinancas.filtro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository.EmailUsuario;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filtro de Bloom dos emails cadastrados, consultado antes do banco no cadastro e no login:
+ * um email que o filtro descarta certamente não está cadastrado e dispensa a consulta.
+ * <p>
+ * O filtro é montado a partir do banco na primeira sincronização e remontado periodicamente,
+ * dimensionado para o dobro dos usuários existentes ou para {@code financas.usuario.filtro.capacidade},
+ * o que for maior. Entre uma montagem e outra recebe os cadastros feitos neste nó e, pelos ids,
+ * os feitos em outros nós. Para que um cadastro de outro nó não seja recusado, um email
+ * descartado provoca uma sincronização quando a última tem mais de
+ * {@code financas.usuario.filtro.atraso-maximo}; sob uma enxurrada de emails desconhecidos
+ * isso é no máximo uma consulta por intervalo, em vez de uma por tentativa. Essa sincronização
+ * roda na thread da requisição e não espera outra em andamento, como a remontagem periódica:
+ * enquanto isso o email é tratado como possivelmente cadastrado e a consulta vai ao banco.
+ * <p>
+ * Os ids são alocados antes do commit, e um cadastro pode ficar visível depois de outro com id
+ * maior. Por isso cada sincronização relê os ids vistos no último minuto; um cadastro que leve
+ * mais que isso para ser confirmado só entra no filtro na remontagem seguinte.
+ */
+@Slf4j
+@Component
+public class FiltroEmails implements MeterBinder {
+
+	private static final int LOTE = 10_000;
+	private static final long MARGEM_COMMIT = Duration.ofMinutes(1).toNanos();
+
+	private final UsuarioRepository repository;
+	private final boolean ativo;
+	private final long capacidade;
+	private final double falsosPositivos;
+	private final long atrasoMaximo;
+	private final Path arquivo;
+
+	private final Object troca = new Object();
+	private final ReentrantLock atualizacao = new ReentrantLock();
+	private volatile FiltroBloom filtro;
+	private FiltroBloom emConstrucao;
+
+	private long confirmado;
+	private final Deque<long[]> sincronizacoes = new ArrayDeque<>();
+	private volatile long ultimaSincronizacao;
+
+	private final LongAdder descartados = new LongAdder();
+	private final LongAdder aceitos = new LongAdder();
+	private final LongAdder falsosPositivosObservados = new LongAdder();
+
+	public FiltroEmails(UsuarioRepository repository,
+			@Value("${financas.usuario.filtro.ativo:true}") boolean ativo,
+			@Value("${financas.usuario.filtro.capacidade:1000000}") long capacidade,
+			@Value("${financas.usuario.filtro.falsos-positivos:0.01}") double falsosPositivos,
+			@Value("${financas.usuario.filtro.atraso-maximo:1s}") Duration atrasoMaximo,
+			@Value("${financas.usuario.filtro.arquivo:}") String arquivo) {
+		this.repository = repository;
+		this.ativo = ativo;
+		this.capacidade = capacidade;
+		this.falsosPositivos = falsosPositivos;
+		this.atrasoMaximo = atrasoMaximo.toNanos();
+		this.arquivo = arquivo.isBlank() ? null : Path.of(arquivo);
+		// Recusa na subida uma configuração que só falharia na primeira montagem
+		FiltroBloom.dimensionar(capacidade, falsosPositivos);
+	}
+
+	/**
+	 * Falso só quando o email certamente não está cadastrado. Antes da primeira carga do
+	 * filtro, ou com ele desligado, é sempre verdadeiro.
+	 */
+	public boolean podeExistir(String email) {
+		FiltroBloom atual = filtro;
+		if(atual == null || email == null) {
+			return true;
+		}
+
+		if(!atual.podeConter(email)) {
+			long desde = ultimaSincronizacao;
+			boolean sincronizado = System.nanoTime() - desde < atrasoMaximo || sincronizarSeNaoHouve(desde);
+			if(sincronizado && !filtro.podeConter(email)) {
+				descartados.increment();
+				return false;
+			}
+		}
+		aceitos.increment();
+		return true;
+	}
+
+	/**
+	 * Informa que o banco não tinha um email que o filtro deixou passar.
+	 */
+	public void registrarFalsoPositivo(String email) {
+		FiltroBloom atual = filtro;
+		if(atual != null && email != null && atual.podeConter(email)) {
+			falsosPositivosObservados.increment();
+		}
+	}
+
+	/**
+	 * Inclui o email de um cadastro deste nó. Se a transação não for confirmada o email fica
+	 * no filtro como um falso positivo a mais, sem outro efeito.
+	 */
+	public void adicionar(String email) {
+		if(email == null) {
+			return;
+		}
+		synchronized (troca) {
+			if(filtro != null) {
+				filtro.adicionar(email);
+			}
+			if(emConstrucao != null) {
+				emConstrucao.adicionar(email);
+			}
+		}
+	}
+
+	/**
+	 * Traz os cadastros feitos desde a última sincronização; na primeira vez carrega o filtro
+	 * do arquivo, se houver, ou o monta a partir do banco.
+	 */
+	public void sincronizar() {
+		if(!ativo) {
+			return;
+		}
+		atualizacao.lock();
+		try {
+			if(filtro == null && !carregar()) {
+				reconstruir();
+				return;
+			}
+
+			long inicio = System.nanoTime();
+			long maior = incluirApos(confirmado, null);
+			sincronizacoes.addLast(new long[] { inicio, maior });
+			while (inicio - sincronizacoes.peekFirst()[0] >= MARGEM_COMMIT) {
+				confirmado = sincronizacoes.pollFirst()[1];
+			}
+			ultimaSincronizacao = inicio;
+		} finally {
+			atualizacao.unlock();
+		}
+	}
+
+	/**
+	 * Monta um filtro novo a partir do banco, dimensionado pela quantidade atual de usuários,
+	 * e o troca pelo atual. Cadastros deste nó feitos durante a montagem vão para os dois.
+	 */
+	public void reconstruir() {
+		if(!ativo) {
+			return;
+		}
+		atualizacao.lock();
+		try {
+			long inicio = System.nanoTime();
+			FiltroBloom novo = FiltroBloom.dimensionar(Math.max(capacidade, repository.count() * 2), falsosPositivos);
+			long maior;
+			synchronized (troca) {
+				emConstrucao = novo;
+			}
+			try {
+				maior = incluirApos(0, novo);
+			} finally {
+				synchronized (troca) {
+					emConstrucao = null;
+				}
+			}
+			synchronized (troca) {
+				filtro = novo;
+			}
+
+			confirmado = maior;
+			sincronizacoes.clear();
+			ultimaSincronizacao = inicio;
+			log.info("Filtro de emails montado com {} emails em {} KiB, {} funções", novo.getElementos(),
+						novo.getBits() / 8 / 1024, novo.getFuncoes());
+			gravar();
+		} finally {
+			atualizacao.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void gravar() {
+		atualizacao.lock();
+		try {
+			FiltroBloom atual = filtro;
+			if(arquivo == null || atual == null) {
+				return;
+			}
+
+			Path temporario = Files.createTempFile(arquivo.toAbsolutePath().getParent(), "filtro-emails", ".tmp");
+			try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+				saida.writeDouble(falsosPositivos);
+				saida.writeLong(confirmado);
+				atual.gravar(saida);
+			}
+			Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Não foi possível gravar o filtro de emails em {}", arquivo, e);
+		} finally {
+			atualizacao.unlock();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registro) {
+		Gauge.builder("financas.usuario.filtro.memoria", this, f -> f.filtro != null ? f.filtro.getBits() / 8 : 0)
+					.baseUnit(BaseUnits.BYTES)
+					.description("Memória ocupada pelos bits do filtro de emails")
+					.register(registro);
+		Gauge.builder("financas.usuario.filtro.elementos", this, f -> f.filtro != null ? f.filtro.getElementos() : 0)
+					.description("Emails incluídos no filtro")
+					.register(registro);
+		Gauge.builder("financas.usuario.filtro.falsos.positivos.estimados", this, f -> f.filtro != null ? f.filtro.taxaEstimada() : 0)
+					.description("Taxa de falsos positivos esperada com os emails incluídos")
+					.register(registro);
+		contador(registro, "descartado", descartados);
+		contador(registro, "aceito", aceitos);
+		contador(registro, "falso_positivo", falsosPositivosObservados);
+	}
+
+	private static void contador(MeterRegistry registro, String resultado, LongAdder valor) {
+		FunctionCounter.builder("financas.usuario.filtro.consultas", valor, LongAdder::sum)
+					.tag("resultado", resultado)
+					.description("Consultas ao filtro de emails; falso_positivo conta os aceitos que o banco não tinha")
+					.register(registro);
+	}
+
+	/**
+	 * Sincroniza se ninguém o fez desde {@code desde}; outra thread pode ter acabado de fazer.
+	 * Falso, sem esperar, quando outra sincronização ou uma remontagem está em andamento.
+	 */
+	private boolean sincronizarSeNaoHouve(long desde) {
+		if(!atualizacao.tryLock()) {
+			return false;
+		}
+		try {
+			if(ultimaSincronizacao == desde) {
+				sincronizar();
+			}
+			return true;
+		} finally {
+			atualizacao.unlock();
+		}
+	}
+
+	/**
+	 * Inclui os emails de id maior que {@code id}, no filtro informado ou, se nulo, no atual,
+	 * e devolve o maior id lido.
+	 */
+	private long incluirApos(long id, FiltroBloom destino) {
+		List<EmailUsuario> lote;
+		do {
+			lote = repository.listarEmailsApos(id, Limit.of(LOTE));
+			for (EmailUsuario usuario : lote) {
+				if(destino != null) {
+					if(usuario.getEmail() != null) {
+						destino.adicionar(usuario.getEmail());
+					}
+				} else {
+					adicionar(usuario.getEmail());
+				}
+				id = usuario.getId();
+			}
+		} while (lote.size() == LOTE);
+		return id;
+	}
+
+	private boolean carregar() {
+		if(arquivo == null || !Files.exists(arquivo)) {
+			return false;
+		}
+
+		try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+			if(entrada.readDouble() != falsosPositivos) {
+				return false;
+			}
+			long lido = entrada.readLong();
+			FiltroBloom carregado = FiltroBloom.ler(entrada);
+			synchronized (troca) {
+				filtro = carregado;
+			}
+			confirmado = lido;
+			log.info("Filtro de emails carregado de {} com {} emails", arquivo, carregado.getElementos());
+			return true;
+		} catch (IOException e) {
+			log.warn("Não foi possível ler o filtro de emails de {}; será montado a partir do banco", arquivo, e);
+			return false;
+		}
+	}
+}
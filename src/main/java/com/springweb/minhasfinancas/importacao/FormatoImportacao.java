@@ -0,0 +1,33 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FormatoImportacao {
+	
+	CSV("csv", List.of(MediaType.parseMediaType("text/csv"))),
+	OFX("ofx", List.of(MediaType.parseMediaType("application/x-ofx"), MediaType.parseMediaType("application/ofx")));
+	
+	private final String extensao;
+	private final List<MediaType> mediaTypes;
+	
+	public static Optional<FormatoImportacao> of(String formato) {
+		return Arrays.stream(values())
+					.filter( f -> f.extensao.equalsIgnoreCase(formato) )
+					.findFirst();
+	}
+	
+	public static Optional<FormatoImportacao> doTipo(MediaType tipo) {
+		return Arrays.stream(values())
+					.filter( f -> f.mediaTypes.stream().anyMatch( m -> m.isCompatibleWith(tipo) ) )
+					.findFirst();
+	}
+}
@@ -0,0 +1,47 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calcula o hash que identifica cada lançamento de um extrato, para reconhecer o que já foi
+ * importado quando o mesmo extrato, ou um período que se sobrepõe a ele, é enviado de novo.
+ * <p>
+ * O hash é o SHA-256 da data, do valor, da descrição e do identificador do banco, quando há,
+ * em Base64 URL sem preenchimento. Duas linhas iguais no mesmo arquivo, como duas compras do
+ * mesmo valor no mesmo dia, são lançamentos distintos: a segunda recebe o hash do conteúdo
+ * com a ocorrência 2, e assim por diante. Para isso guarda 8 bytes por conteúdo distinto já
+ * visto; as linhas têm de passar na ordem do arquivo.
+ */
+public class HashLinhas {
+
+	private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+
+	private final MessageDigest sha256;
+	private final Map<Long, Integer> ocorrencias = new HashMap<>();
+
+	public HashLinhas() {
+		try {
+			sha256 = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 indisponível no JDK", e);
+		}
+	}
+
+	public String calcular(LinhaExtrato linha) {
+		String conteudo = linha.getData() + "|" + linha.getValor().stripTrailingZeros().toPlainString() + "|"
+					+ linha.getDescricao() + "|" + (linha.getIdentificador() != null ? linha.getIdentificador() : "");
+		byte[] hash = sha256.digest(conteudo.getBytes(StandardCharsets.UTF_8));
+
+		int ocorrencia = ocorrencias.merge(ByteBuffer.wrap(hash).getLong(), 1, Integer::sum);
+		if(ocorrencia > 1) {
+			hash = sha256.digest((conteudo + "|" + ocorrencia).getBytes(StandardCharsets.UTF_8));
+		}
+		return CODIFICADOR.encodeToString(hash);
+	}
+}
@@ -0,0 +1,149 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * CSV com cabeçalho na primeira linha, separado por vírgula ou, se o cabeçalho tiver algum,
+ * por ponto e vírgula. As colunas são localizadas pelo nome, sem diferenciar acentos ou
+ * maiúsculas: {@code data}, {@code descricao} (ou {@code historico}, {@code memo}) e
+ * {@code valor} são obrigatórias, {@code id} é opcional; as demais são ignoradas. Campos entre
+ * aspas podem conter o separador, mas não quebras de linha.
+ */
+class LeitorCsv extends LeitorExtrato {
+
+	private long numero;
+	private boolean cabecalhoLido;
+	private char separador = ',';
+	private int colunaData = -1;
+	private int colunaDescricao = -1;
+	private int colunaValor = -1;
+	private int colunaId = -1;
+	private int colunas;
+
+	LeitorCsv(BufferedReader entrada) {
+		super(entrada);
+	}
+
+	@Override
+	public LinhaExtrato proxima() throws IOException {
+		if(!cabecalhoLido) {
+			lerCabecalho();
+		}
+
+		String linha;
+		while((linha = entrada.readLine()) != null) {
+			numero++;
+			if(!linha.isBlank()) {
+				return converter(linha);
+			}
+		}
+		return null;
+	}
+
+	private void lerCabecalho() throws IOException {
+		cabecalhoLido = true;
+		String linha;
+		do {
+			linha = entrada.readLine();
+			numero++;
+		} while(linha != null && linha.isBlank());
+
+		if(linha == null) {
+			return;
+		}
+
+		if(linha.startsWith("\uFEFF")) {
+			linha = linha.substring(1);
+		}
+		separador = linha.indexOf(';') >= 0 ? ';' : ',';
+
+		List<String> nomes = campos(linha);
+		for (int i = 0; nomes != null && i < nomes.size(); i++) {
+			switch (Lancamento.normalizarDescricao(nomes.get(i).strip())) {
+				case "data", "date" -> colunaData = i;
+				case "descricao", "historico", "memo", "description" -> colunaDescricao = i;
+				case "valor", "value", "amount" -> colunaValor = i;
+				case "id", "fitid", "identificador" -> colunaId = i;
+				default -> { }
+			}
+		}
+
+		if(colunaData < 0 || colunaDescricao < 0 || colunaValor < 0) {
+			throw new RegraNegocioException("O CSV precisa de um cabeçalho com as colunas data, descricao e valor!");
+		}
+		colunas = Math.max(Math.max(colunaData, colunaDescricao), Math.max(colunaValor, colunaId)) + 1;
+	}
+
+	private LinhaExtrato converter(String linha) {
+		List<String> campos = campos(linha);
+		if(campos == null) {
+			return LinhaExtrato.invalida(numero, "Aspas não fechadas na linha!");
+		}
+		if(campos.size() < colunas) {
+			return LinhaExtrato.invalida(numero, "A linha tem menos colunas que o cabeçalho!");
+		}
+
+		LocalDate data;
+		try {
+			data = lerData(campos.get(colunaData));
+		} catch (DateTimeException e) {
+			return LinhaExtrato.invalida(numero, DATA_INVALIDA);
+		}
+
+		BigDecimal valor;
+		try {
+			valor = lerValor(campos.get(colunaValor));
+		} catch (NumberFormatException e) {
+			return LinhaExtrato.invalida(numero, VALOR_INVALIDO);
+		}
+
+		String identificador = colunaId >= 0 && !campos.get(colunaId).isBlank() ? campos.get(colunaId).strip() : null;
+		return new LinhaExtrato(numero, data, valor, campos.get(colunaDescricao).strip(), identificador, null);
+	}
+
+	/**
+	 * Separa os campos da linha, tirando as aspas e desfazendo as aspas duplicadas; nulo se
+	 * uma aspa não for fechada.
+	 */
+	private List<String> campos(String linha) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+
+		for (int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if(entreAspas) {
+				if(c != '"') {
+					campo.append(c);
+				} else if(i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else {
+					entreAspas = false;
+				}
+			} else if(c == '"') {
+				entreAspas = true;
+			} else if(c == separador) {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+
+		if(entreAspas) {
+			return null;
+		}
+		campos.add(campo.toString());
+		return campos;
+	}
+}
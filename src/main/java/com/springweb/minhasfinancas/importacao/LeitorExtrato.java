@@ -0,0 +1,79 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+
+/**
+ * Lê os lançamentos de um extrato um a um, sem carregar o arquivo em memória.
+ */
+public abstract class LeitorExtrato implements Closeable {
+	
+	static final String DATA_INVALIDA = "Informe uma Data válida!";
+	static final String VALOR_INVALIDO = "Informe um Valor válido!";
+	
+	private static final DateTimeFormatter DATA_BRASILEIRA = DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+	
+	protected final BufferedReader entrada;
+	
+	protected LeitorExtrato(BufferedReader entrada) {
+		this.entrada = entrada;
+	}
+	
+	public static LeitorExtrato criar(FormatoImportacao formato, BufferedReader entrada) {
+		switch (formato) {
+			case OFX:
+				return new LeitorOfx(entrada);
+			default:
+				return new LeitorCsv(entrada);
+		}
+	}
+	
+	/**
+	 * O próximo lançamento, ou nulo no fim do arquivo.
+	 * 
+	 * @throws com.springweb.minhasfinancas.exception.RegraNegocioException se o arquivo
+	 * como um todo não puder ser lido, como um CSV sem as colunas obrigatórias
+	 */
+	public abstract LinhaExtrato proxima() throws IOException;
+	
+	@Override
+	public void close() throws IOException {
+		entrada.close();
+	}
+	
+	/**
+	 * Aceita {@code 2024-01-31}, {@code 31/01/2024} e o {@code 20240131} do OFX, seguido ou
+	 * não de hora e fuso.
+	 */
+	static LocalDate lerData(String texto) {
+		String data = texto.strip();
+		if(data.indexOf('/') >= 0) {
+			return LocalDate.parse(data, DATA_BRASILEIRA);
+		}
+		if(data.length() >= 8 && data.chars().limit(8).allMatch(Character::isDigit)) {
+			return LocalDate.parse(data.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+		}
+		return LocalDate.parse(data);
+	}
+	
+	/**
+	 * Aceita vírgula ou ponto como separador decimal; o que aparecer por último é o decimal
+	 * e o outro é tratado como separador de milhar. Ignora espaços e o {@code R$}.
+	 */
+	static BigDecimal lerValor(String texto) {
+		String valor = texto.replace("R$", "").replace(" ", "").replace("\u00A0", "");
+		int virgula = valor.lastIndexOf(',');
+		int ponto = valor.lastIndexOf('.');
+		if(virgula > ponto) {
+			valor = valor.replace(".", "").replace(',', '.');
+		} else if(virgula >= 0) {
+			valor = valor.replace(",", "");
+		}
+		return new BigDecimal(valor);
+	}
+}
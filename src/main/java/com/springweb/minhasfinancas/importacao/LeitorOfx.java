@@ -0,0 +1,122 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OFX 1.x (SGML, em que as tags de valor não são fechadas) ou 2.x (XML). Só interessam os
+ * blocos {@code STMTTRN}: cada um vira um lançamento com {@code DTPOSTED}, {@code TRNAMT},
+ * {@code MEMO} (ou {@code NAME}, na falta dele) e {@code FITID}. O cabeçalho e os demais
+ * blocos são percorridos sem guardar nada.
+ */
+class LeitorOfx extends LeitorExtrato {
+
+	private static final String TRANSACAO = "STMTTRN";
+	private static final int TAMANHO_MAXIMO_TEXTO = 1024;
+
+	private final StringBuilder texto = new StringBuilder();
+	private long linha = 1;
+
+	LeitorOfx(BufferedReader entrada) {
+		super(entrada);
+	}
+
+	@Override
+	public LinhaExtrato proxima() throws IOException {
+		Map<String, String> campos = null;
+		long inicio = 0;
+		String tagAberta = null;
+
+		int c;
+		while((c = ler()) >= 0) {
+			if(c != '<') {
+				if(tagAberta != null && texto.length() < TAMANHO_MAXIMO_TEXTO) {
+					texto.append((char) c);
+				}
+				continue;
+			}
+
+			if(tagAberta != null && !texto.isEmpty()) {
+				String valor = texto.toString().strip();
+				if(!valor.isEmpty()) {
+					campos.put(tagAberta, decodificar(valor));
+				}
+			}
+			texto.setLength(0);
+			tagAberta = null;
+
+			long linhaDaTag = linha;
+			String tag = lerTag();
+			if(tag.equals(TRANSACAO)) {
+				campos = new HashMap<>();
+				inicio = linhaDaTag;
+			} else if(tag.equals("/" + TRANSACAO) && campos != null) {
+				return converter(campos, inicio);
+			} else if(campos != null && !tag.startsWith("/")) {
+				tagAberta = tag;
+			}
+		}
+		return null;
+	}
+
+	private LinhaExtrato converter(Map<String, String> campos, long numero) {
+		LocalDate data;
+		try {
+			data = lerData(campos.getOrDefault("DTPOSTED", ""));
+		} catch (DateTimeException e) {
+			return LinhaExtrato.invalida(numero, DATA_INVALIDA);
+		}
+
+		BigDecimal valor;
+		try {
+			valor = lerValor(campos.getOrDefault("TRNAMT", ""));
+		} catch (NumberFormatException e) {
+			return LinhaExtrato.invalida(numero, VALOR_INVALIDO);
+		}
+
+		String descricao = campos.getOrDefault("MEMO", campos.getOrDefault("NAME", ""));
+		return new LinhaExtrato(numero, data, valor, descricao, campos.get("FITID"), null);
+	}
+
+	/**
+	 * Lê o nome da tag até o {@code >}, já consumido o {@code <}, sem atributos e em maiúsculas.
+	 */
+	private String lerTag() throws IOException {
+		StringBuilder tag = new StringBuilder();
+		int c;
+		while((c = ler()) >= 0 && c != '>') {
+			if(Character.isWhitespace(c)) {
+				// Atributos, como no cabeçalho <?OFX ...?> do OFX 2.x
+				while((c = ler()) >= 0 && c != '>') {
+				}
+				break;
+			}
+			if(tag.length() < TAMANHO_MAXIMO_TEXTO) {
+				tag.append((char) c);
+			}
+		}
+		return tag.toString().toUpperCase(Locale.ROOT);
+	}
+
+	private int ler() throws IOException {
+		int c = entrada.read();
+		if(c == '\n') {
+			linha++;
+		}
+		return c;
+	}
+
+	private static String decodificar(String valor) {
+		if(valor.indexOf('&') < 0) {
+			return valor;
+		}
+		return valor.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+					.replace("&apos;", "'").replace("&amp;", "&");
+	}
+}
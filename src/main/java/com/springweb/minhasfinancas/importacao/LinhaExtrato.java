@@ -0,0 +1,33 @@
+package com.springweb.minhasfinancas.importacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lançamento lido do extrato, com o valor negativo nas saídas. Uma linha que não pôde ser
+ * lida vem só com o número e o {@code erro}.
+ */
+@Getter
+@AllArgsConstructor
+public class LinhaExtrato {
+	
+	/** Linha do arquivo onde o lançamento começa, a partir de 1. */
+	private final long numero;
+	private final LocalDate data;
+	private final BigDecimal valor;
+	private final String descricao;
+	/** Identificador do lançamento no banco, como o FITID do OFX; nulo se o extrato não tiver. */
+	private final String identificador;
+	private final String erro;
+	
+	public static LinhaExtrato invalida(long numero, String erro) {
+		return new LinhaExtrato(numero, null, null, null, null, erro);
+	}
+	
+	public boolean isValida() {
+		return erro == null;
+	}
+}
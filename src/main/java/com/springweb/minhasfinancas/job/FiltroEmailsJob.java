@@ -0,0 +1,29 @@
+package com.springweb.minhasfinancas.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.filtro.FiltroEmails;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Carrega o filtro de emails na subida, traz periodicamente os cadastros de outros nós e o
+ * remonta, redimensionado, de tempos em tempos.
+ */
+@Component
+@RequiredArgsConstructor
+public class FiltroEmailsJob {
+	
+	private final FiltroEmails filtroEmails;
+	
+	@Scheduled(fixedDelayString = "${financas.usuario.filtro.sincronizacao:PT1M}")
+	public void sincronizar() {
+		filtroEmails.sincronizar();
+	}
+	
+	@Scheduled(cron = "${financas.usuario.filtro.reconstrucao:0 0 * * * *}")
+	public void reconstruir() {
+		filtroEmails.reconstruir();
+	}
+}
@@ -0,0 +1,25 @@
+package com.springweb.minhasfinancas.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.service.ImportacaoService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encerra as importações abandonadas por um nó que parou no meio delas e apaga o andamento
+ * das antigas. Como as linhas já importadas são reconhecidas pelo hash, basta reenviar o
+ * arquivo de uma importação encerrada assim.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportacaoJob {
+	
+	private final ImportacaoService importacaoService;
+	
+	@Scheduled(fixedDelayString = "${financas.importacao.limpeza:PT10M}")
+	public void limpar() {
+		importacaoService.limpar();
+	}
+}
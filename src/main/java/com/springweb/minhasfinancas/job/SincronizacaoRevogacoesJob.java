@@ -0,0 +1,24 @@
+package com.springweb.minhasfinancas.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.service.SessaoService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Traz para a memória os tokens revogados por outros nós e descarta os que já expiraram.
+ * A primeira execução, logo na subida, carrega as revogações anteriores ao restart.
+ */
+@Component
+@RequiredArgsConstructor
+public class SincronizacaoRevogacoesJob {
+	
+	private final SessaoService sessaoService;
+	
+	@Scheduled(fixedDelayString = "${financas.sessao.sincronizacao:PT30S}")
+	public void sincronizar() {
+		sessaoService.sincronizarRevogacoes();
+	}
+}
@@ -0,0 +1,34 @@
+package com.springweb.minhasfinancas.job;
+
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.service.SaldoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Confere periodicamente os saldos mantidos incrementalmente contra os lançamentos
+ * e reconstrói, um usuário por transação, os que tiverem divergido.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VerificacaoSaldoJob {
+	
+	private final SaldoService saldoService;
+	
+	@Scheduled(cron = "${financas.saldo.verificacao.cron:0 0 3 * * *}")
+	public void verificar() {
+		List<Long> divergentes = saldoService.listarDivergentes();
+		if(divergentes.isEmpty()) {
+			return;
+		}
+		
+		log.warn("Reconstruindo o saldo de {} usuário(s) divergente(s)", divergentes.size());
+		divergentes.forEach(saldoService::reconstruir);
+	}
+}
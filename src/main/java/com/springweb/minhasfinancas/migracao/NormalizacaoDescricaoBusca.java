@@ -0,0 +1,52 @@
+package com.springweb.minhasfinancas.migracao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * Recalcula a descrição de busca dos lançamentos existentes com
+ * {@link Lancamento#normalizarDescricao(String)}, a mesma normalização dos lançamentos
+ * gravados pela aplicação. O {@code lower(unaccent(...))} usado antes no PostgreSQL diverge
+ * dela em ligaturas, no {@code ß} e em algumas letras acentuadas, e o H2 nem preenchia a
+ * coluna; com normalizações diferentes, linhas antigas e novas respondiam de forma diferente
+ * à mesma pesquisa.
+ * <p>
+ * Cada fornecedor tem a sua subclasse no pacote das próprias migrações, para que o Flyway a
+ * encontre junto dos scripts.
+ */
+public abstract class NormalizacaoDescricaoBusca extends BaseJavaMigration {
+
+	private static final int TAMANHO_BLOCO = 1000;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		Connection conexao = context.getConnection();
+		try (Statement consulta = conexao.createStatement();
+				PreparedStatement atualizacao = conexao.prepareStatement(
+							"update financas.lancamento set descricao_busca = ? where id = ?")) {
+			consulta.setFetchSize(TAMANHO_BLOCO);
+			try (ResultSet linhas = consulta.executeQuery("select id, descricao from financas.lancamento")) {
+				int pendentes = 0;
+				while (linhas.next()) {
+					atualizacao.setString(1, Lancamento.normalizarDescricao(linhas.getString(2)));
+					atualizacao.setLong(2, linhas.getLong(1));
+					atualizacao.addBatch();
+					if(++pendentes == TAMANHO_BLOCO) {
+						atualizacao.executeBatch();
+						pendentes = 0;
+					}
+				}
+				if(pendentes > 0) {
+					atualizacao.executeBatch();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.springweb.minhasfinancas.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha do extrato recusada na importação, numerada a partir de 1 como no arquivo.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacao {
+	
+	@Column(name="linha")
+	private long linha;
+	
+	@Column(name="mensagem")
+	private String mensagem;
+	
+}
@@ -0,0 +1,82 @@
+package com.springweb.minhasfinancas.model.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.springweb.minhasfinancas.model.enums.SituacaoImportacao;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Andamento da importação de um extrato, atualizado a cada bloco gravado.
+ */
+@Entity
+@Table(name = "importacao", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Importacao {
+	
+	@Id
+	@Column(name="id")
+	private String id;
+	
+	@Column(name="id_usuario")
+	private Long usuario;
+	
+	@Column(name="formato")
+	private String formato;
+	
+	@Column(name="situacao")
+	@Enumerated(value = EnumType.STRING)
+	private SituacaoImportacao situacao;
+	
+	/** Linhas de lançamento lidas do arquivo até agora, válidas ou não. */
+	@Column(name="linhas")
+	private long linhas;
+	
+	@Column(name="importados")
+	private long importados;
+	
+	/** Linhas que já tinham sido importadas antes, por este ou por outro envio. */
+	@Column(name="duplicados")
+	private long duplicados;
+	
+	@Column(name="invalidos")
+	private long invalidos;
+	
+	@Column(name="mensagem")
+	private String mensagem;
+	
+	@Column(name="recebida_em")
+	private LocalDateTime recebidaEm;
+	
+	@Column(name="atualizada_em")
+	private LocalDateTime atualizadaEm;
+	
+	@Column(name="concluida_em")
+	private LocalDateTime concluidaEm;
+	
+	@ElementCollection(fetch = FetchType.EAGER)
+	@CollectionTable(name = "importacao_erro", schema = "financas", joinColumns = @JoinColumn(name = "id_importacao"))
+	@OrderColumn(name = "posicao")
+	@Builder.Default
+	private List<ErroImportacao> erros = new ArrayList<>();
+	
+}
@@ -1,60 +1,84 @@
 package com.springweb.minhasfinancas.model.entity;
 
 import java.math.BigDecimal;
+import java.text.Normalizer;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
-import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
 import com.springweb.minhasfinancas.model.enums.TipoLancamento;
 
 import jakarta.persistence.Column;
-import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name="lancamento", schema ="financas")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lancamento {
 	
+	private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+	@SequenceGenerator(name = "lancamento_id_seq", sequenceName = "lancamento_id_seq", schema = "financas", allocationSize = 50)
 	@Column(name="id")
 	private long id;
 	
 	@Column(name="descricao")
 	private String descricao;
 	
+	/**
+	 * Descrição sem acentos e em minúsculas, usada nas pesquisas por texto para que
+	 * o banco compare a coluna diretamente (e use o índice) em vez de {@code lower(descricao)}.
+	 */
+	@Column(name="descricao_busca")
+	@JsonIgnore
+	private String descricaoBusca;
+	
 	@Column(name="mes")
 	private Integer mes;
 	
 	@Column(name="ano")
 	private Integer ano;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name="id_usuario")
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	private Usuario usuario;
 	
 	@Column(name="valor")
 	private BigDecimal valor;
 	
 	@Column(name="data_cadastro")
-	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
 	private LocalDate datacadastro;
 	
 	@Column(name="tipo")
@@ -64,5 +88,36 @@ public class Lancamento {
 	@Column(name="status")
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
+	
+	/**
+	 * Incrementada a cada alteração do lançamento, inclusive pelos updates em massa do
+	 * repositório. É a ETag do lançamento e a versão esperada na atualização otimista;
+	 * nula enquanto o lançamento não foi gravado.
+	 */
+	@Version
+	@Column(name="versao")
+	private Long versao;
+
+	/**
+	 * Hash da linha do extrato de onde o lançamento foi importado, único por usuário;
+	 * nulo nos lançamentos cadastrados pela API.
+	 */
+	@Column(name="hash_importacao")
+	@JsonIgnore
+	private String hashImportacao;
+
+	@PrePersist
+	@PreUpdate
+	public void atualizarDescricaoBusca() {
+		this.descricaoBusca = normalizarDescricao(descricao);
+	}
+	
+	public static String normalizarDescricao(String texto) {
+		if(texto == null) {
+			return null;
+		}
+		String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return semAcentos.toLowerCase(Locale.ROOT);
+	}
 
 }
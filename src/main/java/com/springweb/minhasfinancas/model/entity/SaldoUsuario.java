@@ -0,0 +1,37 @@
+package com.springweb.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais de receitas e despesas efetivadas de um usuário, mantidos incrementalmente
+ * a cada escrita em {@link Lancamento} para que a leitura do saldo não precise
+ * reagregar todo o histórico.
+ */
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+	
+	@Id
+	@Column(name="id_usuario")
+	private Long idUsuario;
+	
+	@Column(name="receitas", precision = 19, scale = 2)
+	private BigDecimal receitas;
+	
+	@Column(name="despesas", precision = 19, scale = 2)
+	private BigDecimal despesas;
+	
+}
@@ -0,0 +1,31 @@
+package com.springweb.minhasfinancas.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token de sessão revogado, guardado até a data em que expiraria.
+ */
+@Entity
+@Table(name = "token_revogado", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevogado {
+	
+	@Id
+	@Column(name="id")
+	private String id;
+	
+	/** Segundos desde a época, como no token. */
+	@Column(name="expira_em")
+	private long expiraEm;
+	
+}
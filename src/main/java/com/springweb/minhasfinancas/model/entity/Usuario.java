@@ -1,5 +1,8 @@
 package com.springweb.minhasfinancas.model.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
@@ -15,6 +18,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "usuario", schema = "financas")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
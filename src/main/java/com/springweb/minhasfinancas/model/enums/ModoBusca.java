@@ -0,0 +1,7 @@
+package com.springweb.minhasfinancas.model.enums;
+
+public enum ModoBusca {
+	
+	CONTEM,
+	PREFIXO
+}
@@ -0,0 +1,8 @@
+package com.springweb.minhasfinancas.model.enums;
+
+public enum SituacaoImportacao {
+	RECEBIDA,
+	PROCESSANDO,
+	CONCLUIDA,
+	FALHOU
+}
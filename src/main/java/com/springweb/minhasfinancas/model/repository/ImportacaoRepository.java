@@ -0,0 +1,32 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springweb.minhasfinancas.model.entity.Importacao;
+
+public interface ImportacaoRepository extends JpaRepository<Importacao, String> {
+	
+	/**
+	 * Encerra as importações que não avançam desde {@code limite}, deixadas para trás por
+	 * um nó que parou no meio delas.
+	 */
+	@Transactional
+	@Modifying
+	@Query( value="update Importacao i set i.situacao = com.springweb.minhasfinancas.model.enums.SituacaoImportacao.FALHOU, "
+				+ "i.mensagem = :mensagem, i.concluidaEm = :agora, i.atualizadaEm = :agora "
+				+ "where i.situacao in (com.springweb.minhasfinancas.model.enums.SituacaoImportacao.RECEBIDA, "
+				+ "com.springweb.minhasfinancas.model.enums.SituacaoImportacao.PROCESSANDO) and i.atualizadaEm < :limite")
+	int encerrarParadas( @Param("limite") LocalDateTime limite, @Param("agora") LocalDateTime agora, @Param("mensagem") String mensagem );
+	
+	@Transactional
+	@Modifying
+	@Query( value="delete from Importacao i where i.concluidaEm < :limite")
+	int removerConcluidasAntes( @Param("limite") LocalDateTime limite );
+	
+}
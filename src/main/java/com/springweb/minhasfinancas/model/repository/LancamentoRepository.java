@@ -1,21 +1,250 @@
 package com.springweb.minhasfinancas.model.repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
-import com.springweb.minhasfinancas.model.enums.TipoLancamento;
 
-public interface LancamentoRepository extends JpaRepository <Lancamento, Long>{
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface LancamentoRepository extends JpaRepository <Lancamento, Long>, LancamentoRepositoryCustom {
+	
+	String ESPACO_VERSAO = "financas.usuario.versao_lancamentos";
+	
+	/**
+	 * Soma receitas e despesas do usuário em uma única passada, por agregação condicional.
+	 */
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.SaldoDTO("
+				+ "sum(case when l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.RECEITA then l.valor end), "
+				+ "sum(case when l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.DESPESA then l.valor end)) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario and l.status = :status")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	SaldoDTO obterSaldoPorUsuarioEStatus( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("status") StatusLancamento status );
+	
+	/**
+	 * Mesma agregação de {@link #obterSaldoPorUsuarioEStatus}, agrupada por mês do ano informado.
+	 * Meses sem lançamentos não aparecem no resultado.
+	 */
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.SaldoMensalDTO(l.mes, "
+				+ "sum(case when l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.RECEITA then l.valor end), "
+				+ "sum(case when l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.DESPESA then l.valor end)) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano and l.status = :status "
+				+ "group by l.mes order by l.mes")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<SaldoMensalDTO> obterSaldoMensalPorUsuarioEStatus( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("ano") Integer ano,
+			@Param("status") StatusLancamento status );
+	
+	/**
+	 * Totais do ano por mês, tipo e status e, dos anos anteriores, só os efetivados, que
+	 * formam o saldo com que o ano começa.
+	 */
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO(l.ano, l.mes, l.tipo, l.status, sum(l.valor)) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario and l.ano <= :ano "
+				+ "and (l.ano = :ano or l.status = :statusSaldo) "
+				+ "group by l.ano, l.mes, l.tipo, l.status")
+	List<TotalLancamentosDTO> obterTotaisAteOAno( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("ano") Integer ano,
+			@Param("statusSaldo") StatusLancamento statusSaldo );
+	
+	/**
+	 * Percorre os lançamentos do usuário com um cursor JDBC forward-only, projetando
+	 * cada linha direto em {@link LancamentoDTO} para não encher o contexto de persistência.
+	 * Deve ser consumido dentro de uma transação e fechado ao final.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id")
+	Stream<LancamentoDTO> exportarPorUsuario( @Param("idUsuario") Long idUsuario );
+	
+	/**
+	 * Quais dos hashes de importação informados o usuário já tem, pelo índice único de
+	 * (usuário, hash).
+	 */
+	@Query( value="select l.hashImportacao from Lancamento l where l.usuario.id = :idUsuario and l.hashImportacao in :hashes")
+	Set<String> listarHashesImportados( @Param("idUsuario") Long idUsuario, @Param("hashes") Collection<String> hashes );
+	
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.id = :id")
+	Optional<LancamentoDTO> obterDTOPorId( @Param("id") Long id );
+	
+	/**
+	 * Pesquisa pela descrição normalizada, colocando primeiro as descrições que começam com o termo,
+	 * depois as que têm uma palavra começando com ele e por fim as que apenas o contêm; dentro de
+	 * cada grupo, os mais recentes primeiro. Os padrões recebidos já devem estar escapados.
+	 */
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario and l.descricaoBusca like :contem escape '\\' "
+				+ "order by case when l.descricaoBusca like :prefixo escape '\\' then 0 "
+				+ "when l.descricaoBusca like :inicioPalavra escape '\\' then 1 else 2 end, "
+				+ "l.ano desc, l.mes desc, l.id desc")
+	List<LancamentoDTO> pesquisarPorDescricao( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("contem") String contem,
+			@Param("prefixo") String prefixo,
+			@Param("inicioPalavra") String inicioPalavra,
+			Limit limite );
+	
+	/**
+	 * Lê o estado já gravado do lançamento, travando a linha, sem descarregar alterações
+	 * pendentes no contexto de persistência. Usado para calcular o delta do saldo do usuário.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.id = :id")
+	Optional<LancamentoDTO> obterEstadoPersistido( @Param("id") Long id );
+	
+	@Modifying
+	@Query( value="update Lancamento l set l.descricao = :#{#lancamento.descricao}, "
+				+ "l.descricaoBusca = :#{#lancamento.descricaoBusca}, l.mes = :#{#lancamento.mes}, "
+				+ "l.ano = :#{#lancamento.ano}, l.usuario = :#{#lancamento.usuario}, l.valor = :#{#lancamento.valor}, "
+				+ "l.tipo = :#{#lancamento.tipo}, l.status = :#{#lancamento.status}, l.versao = l.versao + 1 "
+				+ "where l.id = :#{#lancamento.id}")
+	int atualizar( @Param("lancamento") Lancamento lancamento );
 	
-	@Query( value="select sum(l.valor) from Lancamento l join l.usuario u "
-				+ "where u.id = :idUsuario and l.tipo = :tipo and l.status = :status group by u")
-	BigDecimal obterSaldoPorTipoLancamentoEusuarioEStatus( 
+	/**
+	 * Atualiza o lançamento somente se ele ainda não estiver efetivado, continuar com o mesmo
+	 * usuário e, quando informada, estiver na versão esperada; o chamador garante que o novo
+	 * status também não é efetivado, de modo que o saldo do usuário não muda.
+	 */
+	@Modifying
+	@Query( value="update Lancamento l set l.descricao = :#{#lancamento.descricao}, "
+				+ "l.descricaoBusca = :#{#lancamento.descricaoBusca}, l.mes = :#{#lancamento.mes}, "
+				+ "l.ano = :#{#lancamento.ano}, l.usuario = :#{#lancamento.usuario}, l.valor = :#{#lancamento.valor}, "
+				+ "l.tipo = :#{#lancamento.tipo}, l.status = :#{#lancamento.status}, l.versao = l.versao + 1 "
+				+ "where l.id = :#{#lancamento.id} and l.usuario.id = :#{#lancamento.usuario.id} "
+				+ "and (:#{#lancamento.versao} is null or l.versao = :#{#lancamento.versao}) "
+				+ "and l.status <> com.springweb.minhasfinancas.model.enums.StatusLancamento.EFETIVADO")
+	int atualizarNaoEfetivado( @Param("lancamento") Lancamento lancamento );
+	
+	@Modifying
+	@Query( value="update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.id = :id and l.status = :statusAtual")
+	int atualizarStatus( 
+			@Param("id") Long id, 
+			@Param("status") StatusLancamento status,
+			@Param("statusAtual") StatusLancamento statusAtual );
+	
+	@Modifying
+	@Query( value="update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.id = :id "
+				+ "and l.status <> com.springweb.minhasfinancas.model.enums.StatusLancamento.EFETIVADO")
+	int atualizarStatusNaoEfetivado( 
+			@Param("id") Long id, 
+			@Param("status") StatusLancamento status );
+	
+	@Modifying
+	@Query( value="delete from Lancamento l where l.id = :id")
+	int deletarPorId( @Param("id") Long id );
+	
+	@Modifying
+	@Query( value="delete from Lancamento l where l.id = :id "
+				+ "and l.status <> com.springweb.minhasfinancas.model.enums.StatusLancamento.EFETIVADO")
+	int deletarNaoEfetivado( @Param("id") Long id );
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.id in :ids and l.status = :status")
+	List<LancamentoDTO> travarPorIdsEStatus( 
+			@Param("ids") Collection<Long> ids, 
+			@Param("status") StatusLancamento status );
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query( value="select new com.springweb.minhasfinancas.api.dto.LancamentoDTO("
+				+ "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, cast(l.tipo as String), cast(l.status as String), l.versao) "
+				+ "from Lancamento l where l.usuario.id = :idUsuario and (:ano is null or l.ano = :ano) "
+				+ "and (:mes is null or l.mes = :mes) and l.status = :status")
+	List<LancamentoDTO> travarPorUsuarioEStatus( 
 			@Param("idUsuario") Long idUsuario, 
-			@Param("tipo") TipoLancamento tipo,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
 			@Param("status") StatusLancamento status );
+	
+	@Modifying
+	@Query( value="update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.id in :ids and l.status = :statusAtual")
+	int atualizarStatusPorIds( 
+			@Param("ids") Collection<Long> ids, 
+			@Param("status") StatusLancamento status,
+			@Param("statusAtual") StatusLancamento statusAtual );
+	
+	@Modifying
+	@Query( value="update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.usuario.id = :idUsuario "
+				+ "and (:ano is null or l.ano = :ano) and (:mes is null or l.mes = :mes) and l.status = :statusAtual")
+	int atualizarStatusPorUsuario( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("status") StatusLancamento status,
+			@Param("statusAtual") StatusLancamento statusAtual );
+	
+	@Query( value="select l.versao from Lancamento l where l.id = :id")
+	Optional<Long> obterVersao( @Param("id") Long id );
+	
+	@Query( value="select l.usuario.id from Lancamento l where l.id = :id")
+	Optional<Long> obterIdUsuario( @Param("id") Long id );
+	
+	@Query( value="select distinct l.usuario.id from Lancamento l where l.id in :ids")
+	List<Long> listarIdsUsuarios( @Param("ids") Collection<Long> ids );
+	
+	/**
+	 * Versão dos lançamentos do usuário; vazia se o usuário não existe.
+	 * <p>
+	 * A versão fica fora da entidade {@code Usuario}, e estes comandos são SQL nativo com
+	 * espaço de consulta próprio: um update em massa sobre a entidade tiraria todos os
+	 * usuários do cache de segundo nível a cada escrita num lançamento.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ESPACO_VERSAO))
+	@Query( value="select versao_lancamentos from financas.usuario where id = :idUsuario", nativeQuery = true)
+	Optional<Long> obterVersaoDoUsuario( @Param("idUsuario") Long idUsuario );
+	
+	/**
+	 * Chamado depois da escrita nos lançamentos, mantendo a ordem das travas (lançamento,
+	 * saldo, usuário) que as demais operações seguem; por isso grava antes o que estiver
+	 * pendente no contexto de persistência.
+	 */
+	@Modifying(flushAutomatically = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ESPACO_VERSAO))
+	@Query( value="update financas.usuario set versao_lancamentos = versao_lancamentos + 1 where id = :idUsuario", nativeQuery = true)
+	int incrementarVersaoDoUsuario( @Param("idUsuario") Long idUsuario );
+	
+	/**
+	 * Incrementa a versão do dono do lançamento não efetivado, lido no próprio comando, para
+	 * que as escritas que só recebem o id não precisem de uma consulta antes. A subconsulta
+	 * trava a linha do lançamento antes da do usuário, na mesma ordem das demais operações;
+	 * devolve zero se o lançamento não existe ou está efetivado.
+	 */
+	@Modifying(flushAutomatically = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ESPACO_VERSAO))
+	@Query( value="update financas.usuario set versao_lancamentos = versao_lancamentos + 1 where id = "
+				+ "(select l.id_usuario from financas.lancamento l where l.id = :idLancamento and l.status <> 'EFETIVADO' for update)", 
+				nativeQuery = true)
+	int incrementarVersaoDoDonoNaoEfetivado( @Param("idLancamento") Long idLancamento );
 }
@@ -0,0 +1,17 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+
+public interface LancamentoRepositoryCustom {
+	
+	void inserirEmLote(List<Lancamento> lancamentos);
+	
+	Window<LancamentoDTO> buscarPorCursor(Lancamento filtro, String padraoDescricao, KeysetScrollPosition posicao, int limite);
+
+}
@@ -0,0 +1,125 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Insere lançamentos em blocos do tamanho do batch JDBC do Hibernate, descarregando e
+ * limpando o contexto de persistência a cada bloco para que a memória não cresça com o lote.
+ * 
+ * A busca por cursor monta a consulta com Criteria para combinar os filtros opcionais com a
+ * posição (ano, mes, id) e projetar cada linha direto em {@link LancamentoDTO}, lendo apenas
+ * a chave estrangeira do usuário.
+ */
+public class LancamentoRepositoryCustomImpl implements LancamentoRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int tamanhoBloco;
+	
+	@Override
+	public void inserirEmLote(List<Lancamento> lancamentos) {
+		for (int i = 0; i < lancamentos.size(); i++) {
+			entityManager.persist(lancamentos.get(i));
+			
+			if((i + 1) % tamanhoBloco == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		
+		entityManager.flush();
+		entityManager.clear();
+	}
+	
+	@Override
+	public Window<LancamentoDTO> buscarPorCursor(Lancamento filtro, String padraoDescricao, KeysetScrollPosition posicao, int limite) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoDTO> query = cb.createQuery(LancamentoDTO.class);
+		Root<Lancamento> lancamento = query.from(Lancamento.class);
+		
+		Path<Integer> ano = lancamento.get("ano");
+		Path<Integer> mes = lancamento.get("mes");
+		Path<Long> id = lancamento.get("id");
+		
+		List<Predicate> filtros = new ArrayList<>();
+		filtros.add(cb.equal(lancamento.get("usuario").get("id"), filtro.getUsuario().getId()));
+		if(filtro.getAno() != null) {
+			filtros.add(cb.equal(ano, filtro.getAno()));
+		}
+		if(filtro.getMes() != null) {
+			filtros.add(cb.equal(mes, filtro.getMes()));
+		}
+		if(filtro.getTipo() != null) {
+			filtros.add(cb.equal(lancamento.get("tipo"), filtro.getTipo()));
+		}
+		if(filtro.getStatus() != null) {
+			filtros.add(cb.equal(lancamento.get("status"), filtro.getStatus()));
+		}
+		if(padraoDescricao != null) {
+			filtros.add(cb.like(lancamento.get("descricaoBusca"), padraoDescricao, '\\'));
+		}
+		
+		Map<String, Object> chaves = posicao.getKeys();
+		if(!chaves.isEmpty()) {
+			Integer anoAnterior = (Integer) chaves.get("ano");
+			Integer mesAnterior = (Integer) chaves.get("mes");
+			Long idAnterior = (Long) chaves.get("id");
+			filtros.add(cb.or(
+					cb.greaterThan(ano, anoAnterior),
+					cb.and(cb.equal(ano, anoAnterior), cb.greaterThan(mes, mesAnterior)),
+					cb.and(cb.equal(ano, anoAnterior), cb.equal(mes, mesAnterior), cb.greaterThan(id, idAnterior))));
+		}
+		
+		query.select(cb.construct(LancamentoDTO.class, 
+					id, 
+					lancamento.get("descricao"), 
+					mes, 
+					ano, 
+					lancamento.get("valor"), 
+					lancamento.get("usuario").get("id"), 
+					lancamento.get("tipo").as(String.class), 
+					lancamento.get("status").as(String.class),
+					lancamento.get("versao")))
+				.where(filtros.toArray(Predicate[]::new))
+				.orderBy(cb.asc(ano), cb.asc(mes), cb.asc(id));
+		
+		// Uma linha a mais só para saber se existe próxima página
+		List<LancamentoDTO> lancamentos = entityManager.createQuery(query)
+					.setMaxResults(limite + 1)
+					.getResultList();
+		
+		boolean possuiProxima = lancamentos.size() > limite;
+		List<LancamentoDTO> pagina = possuiProxima ? lancamentos.subList(0, limite) : lancamentos;
+		return Window.from(pagina, indice -> posicaoDe(pagina.get(indice)), possuiProxima);
+	}
+	
+	private static ScrollPosition posicaoDe(LancamentoDTO lancamento) {
+		Map<String, Object> chaves = new LinkedHashMap<>();
+		chaves.put("ano", lancamento.getAno());
+		chaves.put("mes", lancamento.getMes());
+		chaves.put("id", lancamento.getId());
+		return ScrollPosition.forward(chaves);
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.springweb.minhasfinancas.model.entity.SaldoUsuario;
+
+import jakarta.persistence.LockModeType;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+	
+	/**
+	 * Soma os deltas diretamente no banco; a linha fica travada até o fim da transação,
+	 * o que serializa escritas concorrentes do mesmo usuário.
+	 */
+	@Modifying
+	@Query( value="update SaldoUsuario s set s.receitas = s.receitas + :receitas, s.despesas = s.despesas + :despesas "
+				+ "where s.idUsuario = :idUsuario")
+	int aplicarDelta( 
+			@Param("idUsuario") Long idUsuario, 
+			@Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas );
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query( value="select s from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<SaldoUsuario> travarPorUsuario( @Param("idUsuario") Long idUsuario );
+	
+	@Query( value="select s.idUsuario from SaldoUsuario s where "
+				+ "s.receitas <> (select coalesce(sum(l.valor), 0) from Lancamento l where l.usuario.id = s.idUsuario "
+				+ "and l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.RECEITA "
+				+ "and l.status = com.springweb.minhasfinancas.model.enums.StatusLancamento.EFETIVADO) "
+				+ "or s.despesas <> (select coalesce(sum(l.valor), 0) from Lancamento l where l.usuario.id = s.idUsuario "
+				+ "and l.tipo = com.springweb.minhasfinancas.model.enums.TipoLancamento.DESPESA "
+				+ "and l.status = com.springweb.minhasfinancas.model.enums.StatusLancamento.EFETIVADO)")
+	List<Long> listarDivergentes();
+}
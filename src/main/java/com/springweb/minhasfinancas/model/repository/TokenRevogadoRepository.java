@@ -0,0 +1,37 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springweb.minhasfinancas.model.entity.TokenRevogado;
+
+import jakarta.persistence.QueryHint;
+
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, String> {
+	
+	/**
+	 * Insere sem ler antes, ao contrário do {@code save} de uma entidade com id atribuído:
+	 * se dois nós revogam o mesmo token ao mesmo tempo, a chave primária deixa só um passar.
+	 * Transação própria, para que a violação não marque a de quem chama para rollback.
+	 */
+	@Transactional
+	@Modifying
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "financas.token_revogado"))
+	@Query( value="insert into financas.token_revogado (id, expira_em) values (:id, :expiraEm)", nativeQuery = true)
+	int inserir( @Param("id") String id, @Param("expiraEm") long expiraEm );
+	
+	@Query( value="select t from TokenRevogado t where t.expiraEm > :agora")
+	List<TokenRevogado> listarValidos( @Param("agora") long agora );
+	
+	@Transactional
+	@Modifying
+	@Query( value="delete from TokenRevogado t where t.expiraEm <= :agora")
+	int removerExpirados( @Param("agora") long agora );
+}
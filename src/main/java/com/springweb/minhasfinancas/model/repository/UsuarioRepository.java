@@ -1,8 +1,13 @@
 package com.springweb.minhasfinancas.model.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.springweb.minhasfinancas.model.entity.Usuario;
 
@@ -12,4 +17,19 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 	
 	Optional<Usuario> findByEmail(String email);
 	
+	/**
+	 * Id e email dos usuários com id maior que o informado, em ordem, para alimentar o filtro
+	 * de emails. Lê do primário: numa réplica atrasada faltariam os cadastros recentes.
+	 */
+	@Transactional
+	@Query( value="select u.id as id, u.email as email from Usuario u where u.id > :id order by u.id")
+	List<EmailUsuario> listarEmailsApos( @Param("id") long id, Limit limite );
+	
+	interface EmailUsuario {
+		
+		long getId();
+		
+		String getEmail();
+	}
+	
 }
@@ -0,0 +1,133 @@
+package com.springweb.minhasfinancas.monitoramento;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Envolve as conexões do pool para contar, na {@link MedicaoConsultas} aberta na thread,
+ * cada execução de comando, cada linha lida e o tempo gasto nas duas coisas. Sem medição
+ * aberta as chamadas só são repassadas.
+ * <p>
+ * Por ser um {@link DelegatingDataSource}, o pool continua acessível a quem o desembrulha,
+ * como as métricas do Hikari.
+ */
+public class DataSourceMonitorado extends DelegatingDataSource implements Closeable {
+
+	public DataSourceMonitorado(DataSource alvo) {
+		super(alvo);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return envolver(super.getConnection(), Connection.class, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return envolver(super.getConnection(username, password), Connection.class, null);
+	}
+
+	/**
+	 * Repassa o fechamento ao pool envolvido, que o contexto só enxerga através deste.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(getTargetDataSource() instanceof Closeable alvo) {
+			alvo.close();
+		}
+	}
+
+	private static <T> T envolver(T alvo, Class<T> tipo, String sql) {
+		return tipo.cast(Proxy.newProxyInstance(DataSourceMonitorado.class.getClassLoader(),
+					new Class<?>[] { tipo }, new Interceptador(alvo, sql)));
+	}
+
+	private static Object envolverStatement(Object statement, String sql) {
+		if(statement instanceof CallableStatement callable) {
+			return envolver(callable, CallableStatement.class, sql);
+		}
+		if(statement instanceof PreparedStatement prepared) {
+			return envolver(prepared, PreparedStatement.class, sql);
+		}
+		return envolver((Statement) statement, Statement.class, sql);
+	}
+
+	private static class Interceptador implements InvocationHandler {
+
+		private final Object alvo;
+		private final String sql;
+
+		Interceptador(Object alvo, String sql) {
+			this.alvo = alvo;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String nome = method.getName();
+
+			if(alvo instanceof Connection) {
+				Object resultado = repassar(method, args);
+				if(nome.startsWith("prepare")) {
+					return envolverStatement(resultado, (String) args[0]);
+				}
+				if(nome.equals("createStatement")) {
+					return envolverStatement(resultado, null);
+				}
+				return resultado;
+			}
+
+			MedicaoConsultas medicao = MedicaoConsultas.atual();
+
+			if(alvo instanceof Statement) {
+				if(medicao == null || !nome.startsWith("execute")) {
+					return resultadoDoStatement(nome, repassar(method, args));
+				}
+				long inicio = System.nanoTime();
+				try {
+					return resultadoDoStatement(nome, repassar(method, args));
+				} finally {
+					String comando = args != null && args.length > 0 && args[0] instanceof String texto ? texto : sql;
+					medicao.registrarComando(comando, System.nanoTime() - inicio);
+				}
+			}
+
+			if(medicao == null || !nome.equals("next")) {
+				return repassar(method, args);
+			}
+			long inicio = System.nanoTime();
+			Object resultado = repassar(method, args);
+			medicao.registrarLeitura((Boolean) resultado, System.nanoTime() - inicio);
+			return resultado;
+		}
+
+		private Object resultadoDoStatement(String nome, Object resultado) {
+			if(resultado instanceof ResultSet resultSet && !nome.equals("unwrap")) {
+				return envolver(resultSet, ResultSet.class, null);
+			}
+			return resultado;
+		}
+
+		private Object repassar(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(alvo, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
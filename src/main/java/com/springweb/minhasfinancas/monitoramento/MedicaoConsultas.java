@@ -0,0 +1,89 @@
+package com.springweb.minhasfinancas.monitoramento;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Comandos SQL, linhas lidas e tempo gasto no banco pela thread atual entre {@link #iniciar()}
+ * e {@link #close()}. Medições podem ser aninhadas: o que é contado numa medição interna também
+ * entra nas que estavam abertas quando ela começou, o que permite a um teste medir uma
+ * requisição inteira enquanto o filtro mede a mesma requisição.
+ * <p>
+ * Só é preenchida quando o {@link DataSourceMonitorado} está ativo
+ * ({@code financas.consultas.monitoramento=true}).
+ */
+public class MedicaoConsultas implements AutoCloseable {
+
+	private static final ThreadLocal<MedicaoConsultas> ATUAL = new ThreadLocal<>();
+
+	private final MedicaoConsultas anterior;
+	private final Map<String, Integer> execucoesPorComando = new HashMap<>();
+	private int comandos;
+	private long linhas;
+	private long tempoNanos;
+
+	private MedicaoConsultas(MedicaoConsultas anterior) {
+		this.anterior = anterior;
+	}
+
+	public static MedicaoConsultas iniciar() {
+		MedicaoConsultas medicao = new MedicaoConsultas(ATUAL.get());
+		ATUAL.set(medicao);
+		return medicao;
+	}
+
+	static MedicaoConsultas atual() {
+		return ATUAL.get();
+	}
+
+	void registrarComando(String sql, long nanos) {
+		for (MedicaoConsultas medicao = this; medicao != null; medicao = medicao.anterior) {
+			medicao.comandos++;
+			medicao.tempoNanos += nanos;
+			medicao.execucoesPorComando.merge(sql, 1, Integer::sum);
+		}
+	}
+
+	void registrarLeitura(boolean linhaLida, long nanos) {
+		for (MedicaoConsultas medicao = this; medicao != null; medicao = medicao.anterior) {
+			medicao.tempoNanos += nanos;
+			if(linhaLida) {
+				medicao.linhas++;
+			}
+		}
+	}
+
+	public int getComandos() {
+		return comandos;
+	}
+
+	public long getLinhas() {
+		return linhas;
+	}
+
+	public Duration getTempo() {
+		return Duration.ofNanos(tempoNanos);
+	}
+
+	/**
+	 * Comandos executados pelo menos {@code minimo} vezes na medição, com a quantidade de
+	 * execuções de cada um. Um mesmo SELECT repetido a cada item de uma lista é o sinal típico
+	 * de N+1.
+	 */
+	public Map<String, Integer> getComandosRepetidos(int minimo) {
+		return execucoesPorComando.entrySet().stream()
+					.filter(execucoes -> execucoes.getValue() >= minimo)
+					.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	@Override
+	public void close() {
+		if(anterior == null) {
+			ATUAL.remove();
+		} else {
+			ATUAL.set(anterior);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.springweb.minhasfinancas.monitoramento;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mede os comandos SQL de cada requisição, devolve o resultado no cabeçalho
+ * {@code Server-Timing} e registra em log as requisições que passam do orçamento de comandos
+ * ou repetem o mesmo comando a ponto de sugerir um N+1.
+ * <p>
+ * O cabeçalho é escrito quando a resposta começa a ser enviada; comandos executados depois
+ * disso, como numa exportação em streaming, só aparecem no log.
+ */
+@Slf4j
+public class MonitoramentoConsultasFilter extends OncePerRequestFilter {
+
+	static final String SERVER_TIMING = "Server-Timing";
+
+	private final int orcamentoComandos;
+	private final int limiteRepeticoes;
+
+	public MonitoramentoConsultasFilter(int orcamentoComandos, int limiteRepeticoes) {
+		this.orcamentoComandos = orcamentoComandos;
+		this.limiteRepeticoes = limiteRepeticoes;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try (MedicaoConsultas medicao = MedicaoConsultas.iniciar()) {
+			RespostaComServerTiming resposta = new RespostaComServerTiming(response, medicao);
+			try {
+				filterChain.doFilter(request, resposta);
+			} finally {
+				resposta.escreverServerTiming();
+				verificar(request, medicao);
+			}
+		}
+	}
+
+	private void verificar(HttpServletRequest request, MedicaoConsultas medicao) {
+		if(medicao.getComandos() > orcamentoComandos) {
+			log.warn("{} {} executou {} comandos SQL (orçamento de {}), {} linhas em {} ms",
+						request.getMethod(), request.getRequestURI(), medicao.getComandos(), orcamentoComandos,
+						medicao.getLinhas(), medicao.getTempo().toMillis());
+		}
+		for (Map.Entry<String, Integer> repetido : medicao.getComandosRepetidos(limiteRepeticoes).entrySet()) {
+			log.warn("Possível N+1 em {} {}: {} execuções de {}",
+						request.getMethod(), request.getRequestURI(), repetido.getValue(), repetido.getKey());
+		}
+	}
+
+	static String serverTiming(MedicaoConsultas medicao) {
+		return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d comandos, %d linhas\"",
+					medicao.getTempo().toNanos() / 1_000_000d, medicao.getComandos(), medicao.getLinhas());
+	}
+
+	/**
+	 * Acrescenta o cabeçalho no último momento em que ele ainda pode ser enviado:
+	 * quando o corpo, um erro ou um redirecionamento começam a ser escritos.
+	 */
+	private static class RespostaComServerTiming extends HttpServletResponseWrapper {
+
+		private final MedicaoConsultas medicao;
+		private boolean escrito;
+
+		RespostaComServerTiming(HttpServletResponse response, MedicaoConsultas medicao) {
+			super(response);
+			this.medicao = medicao;
+		}
+
+		void escreverServerTiming() {
+			if(!escrito && !isCommitted()) {
+				addHeader(SERVER_TIMING, serverTiming(medicao));
+			}
+			escrito = true;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			escreverServerTiming();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			escreverServerTiming();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			escreverServerTiming();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			escreverServerTiming();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			escreverServerTiming();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			escreverServerTiming();
+			super.sendRedirect(location);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente que associa cada usuário a uma partição. Cada partição ocupa
+ * {@code nosVirtuais} posições no anel, o que equilibra a distribuição; ao acrescentar uma
+ * partição só os usuários que caem nas posições dela mudam de dono, cerca de 1/N do total.
+ * <p>
+ * Imutável: acrescentar uma partição devolve um novo anel.
+ */
+public final class AnelConsistente {
+
+	private final NavigableMap<Long, String> posicoes = new TreeMap<>();
+	private final List<String> particoes;
+	private final int nosVirtuais;
+
+	public AnelConsistente(Collection<String> particoes, int nosVirtuais) {
+		if(particoes.isEmpty()) {
+			throw new IllegalArgumentException("O anel precisa de pelo menos uma partição");
+		}
+
+		this.particoes = List.copyOf(particoes);
+		this.nosVirtuais = nosVirtuais;
+		for (String particao : this.particoes) {
+			for (int i = 0; i < nosVirtuais; i++) {
+				posicoes.put(hash(particao + "#" + i), particao);
+			}
+		}
+	}
+
+	public AnelConsistente com(String particao) {
+		List<String> novas = new ArrayList<>(particoes);
+		novas.add(particao);
+		return new AnelConsistente(novas, nosVirtuais);
+	}
+
+	public String particao(long idUsuario) {
+		Map.Entry<Long, String> posicao = posicoes.ceilingEntry(misturar(idUsuario));
+		return posicao != null ? posicao.getValue() : posicoes.firstEntry().getValue();
+	}
+
+	public List<String> getParticoes() {
+		return particoes;
+	}
+
+	/**
+	 * FNV-1a sobre o nome seguido da mesma mistura usada nas chaves, para que nomes parecidos
+	 * não fiquem em posições vizinhas.
+	 */
+	private static long hash(String texto) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		return misturar(hash);
+	}
+
+	/**
+	 * Finalizador do SplitMix64: ids sequenciais se espalham uniformemente pelo anel.
+	 */
+	private static long misturar(long valor) {
+		valor = (valor ^ (valor >>> 30)) * 0xbf58476d1ce4e5b9L;
+		valor = (valor ^ (valor >>> 27)) * 0x94d049bb133111ebL;
+		return valor ^ (valor >>> 31);
+	}
+}
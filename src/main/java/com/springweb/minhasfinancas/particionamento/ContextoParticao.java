@@ -0,0 +1,185 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Partição da transação corrente. Os serviços informam o usuário (ou o lançamento) sobre o
+ * qual vão trabalhar antes do primeiro comando, e o {@link DataSourceParticionado} abre a
+ * conexão na partição dele. Sem partição informada, ou sem particionamento configurado,
+ * tudo vai para a {@link DataSourceParticionado#PRINCIPAL principal}, que também guarda o
+ * cadastro completo de usuários.
+ * <p>
+ * Uma transação fica numa única partição: vincular a ela um usuário de outra partição é
+ * erro de programação e lança {@link IllegalStateException}.
+ */
+public final class ContextoParticao {
+
+	private static final ThreadLocal<String> PARTICAO = new ThreadLocal<>();
+
+	private static volatile DataSourceParticionado particionado;
+
+	private ContextoParticao() {
+	}
+
+	static void configurar(DataSourceParticionado dataSource) {
+		particionado = dataSource;
+	}
+
+	public static boolean ativo() {
+		return particionado != null;
+	}
+
+	/**
+	 * Vincula a transação à partição do usuário e, até o fim dela, impede que o usuário
+	 * seja movido por um rebalanceamento.
+	 */
+	public static void usuario(Long idUsuario) {
+		DataSourceParticionado dataSource = particionado;
+		if(dataSource == null || idUsuario == null) {
+			return;
+		}
+
+		Lock trava = dataSource.travaDeLeitura(idUsuario);
+		trava.lock();
+		try {
+			vincular(dataSource.particaoDoUsuario(idUsuario), trava);
+		} catch (RuntimeException e) {
+			trava.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Vincula a transação à partição onde o lançamento está, para as operações que só
+	 * recebem o id. Lançamento inexistente deixa a transação na principal.
+	 */
+	public static void lancamento(Long idLancamento) {
+		DataSourceParticionado dataSource = particionado;
+		if(dataSource == null || idLancamento == null) {
+			return;
+		}
+
+		Long idUsuario = dataSource.localizarUsuarioDoLancamento(idLancamento);
+		if(idUsuario != null) {
+			usuario(idUsuario);
+		}
+	}
+
+	/**
+	 * Separa os lançamentos pela partição atual dos seus usuários, na ordem recebida, para as
+	 * operações em lote por id, que precisam de uma transação por partição. Os lançamentos
+	 * inexistentes ficam de fora; sem particionamento vão todos para a principal.
+	 */
+	public static Map<String, List<Long>> agruparLancamentos(List<Long> idsLancamentos) {
+		DataSourceParticionado dataSource = particionado;
+		if(dataSource == null) {
+			return Map.of(DataSourceParticionado.PRINCIPAL, idsLancamentos);
+		}
+
+		Map<Long, Long> usuarios = dataSource.localizarUsuariosDosLancamentos(idsLancamentos);
+		Map<String, List<Long>> grupos = new LinkedHashMap<>();
+		for (Long idLancamento : idsLancamentos) {
+			Long idUsuario = usuarios.get(idLancamento);
+			if(idUsuario != null) {
+				grupos.computeIfAbsent(dataSource.particaoDoUsuario(idUsuario), particao -> new ArrayList<>()).add(idLancamento);
+			}
+		}
+		return grupos;
+	}
+
+	/**
+	 * Separa os itens pela partição atual dos seus usuários, na ordem recebida, para as
+	 * gravações em lote que misturam usuários; sem particionamento vão todos para a principal.
+	 */
+	public static <T> Map<String, List<T>> agruparPorUsuario(List<T> itens, Function<T, Long> usuario) {
+		DataSourceParticionado dataSource = particionado;
+		if(dataSource == null) {
+			return Map.of(DataSourceParticionado.PRINCIPAL, itens);
+		}
+
+		Map<String, List<T>> grupos = new LinkedHashMap<>();
+		for (T item : itens) {
+			grupos.computeIfAbsent(dataSource.particaoDoUsuario(usuario.apply(item)), particao -> new ArrayList<>()).add(item);
+		}
+		return grupos;
+	}
+
+	/**
+	 * Copia o cadastro de um usuário novo da principal para a partição dele, depois do
+	 * commit que o criou.
+	 */
+	public static void publicarCadastro(Long idUsuario) {
+		DataSourceParticionado dataSource = particionado;
+		if(dataSource == null || idUsuario == null) {
+			return;
+		}
+
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			dataSource.publicarCadastro(idUsuario);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				dataSource.publicarCadastro(idUsuario);
+			}
+		});
+	}
+
+	public static void particao(String particao) {
+		if(particionado != null) {
+			vincular(particao, null);
+		}
+	}
+
+	public static List<String> particoes() {
+		DataSourceParticionado dataSource = particionado;
+		return dataSource != null ? dataSource.getParticoes() : List.of(DataSourceParticionado.PRINCIPAL);
+	}
+
+	static String atual() {
+		String particao = PARTICAO.get();
+		return particao != null ? particao : DataSourceParticionado.PRINCIPAL;
+	}
+
+	private static void vincular(String particao, Lock trava) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("A partição só pode ser escolhida dentro de uma transação");
+		}
+
+		String vinculada = PARTICAO.get();
+		if(vinculada != null && !vinculada.equals(particao)) {
+			throw new IllegalStateException("A transação já está na partição " + vinculada + ", não pode usar " + particao);
+		}
+
+		PARTICAO.set(particao);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			// Uma transação REQUIRES_NEW aberta no meio desta escolhe a própria partição
+			@Override
+			public void suspend() {
+				PARTICAO.remove();
+			}
+
+			@Override
+			public void resume() {
+				PARTICAO.set(particao);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				PARTICAO.remove();
+				if(trava != null) {
+					trava.unlock();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,341 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Distribui os dados dos usuários entre partições pelo {@link AnelConsistente}. A partição
+ * {@link #PRINCIPAL} é o DataSource do Spring Boot: guarda o cadastro completo de usuários,
+ * usado no login e na verificação de email, além dos dados dos usuários que o anel lhe
+ * atribui. As demais guardam lançamentos e saldos dos seus usuários e uma cópia do cadastro
+ * deles, que mantém as chaves estrangeiras válidas.
+ * <p>
+ * A conexão física só é aberta no primeiro comando, depois que o serviço informou o usuário
+ * ao {@link ContextoParticao}. Cada partição aloca ids de lançamento a partir de
+ * {@code indice << 40}, de modo que os ids continuam únicos quando um usuário muda de
+ * partição; o índice também indica onde procurar primeiro um lançamento só pelo id.
+ * <p>
+ * Ao acrescentar uma partição, os usuários que o novo anel atribui a ela são copiados um a
+ * um, com a trava do usuário impedindo transações sobre ele durante a cópia, e só então o
+ * anel é trocado. As travas são locais à JVM: com mais de uma instância da aplicação o
+ * rebalanceamento precisa ser feito com as demais paradas.
+ */
+@Slf4j
+public class DataSourceParticionado extends LazyConnectionDataSourceProxy implements Closeable {
+
+	public static final String PRINCIPAL = "principal";
+
+	static final int BITS_POR_PARTICAO = 40;
+
+	private static final int NOS_VIRTUAIS = 128;
+	private static final int TRAVAS = 64;
+
+	private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+	private final Map<String, JdbcTemplate> jdbc = new ConcurrentHashMap<>();
+	private final List<String> particoes = new CopyOnWriteArrayList<>();
+	private final Map<Long, String> realocados = new ConcurrentHashMap<>();
+	private final ReadWriteLock[] travas = new ReadWriteLock[TRAVAS];
+	private volatile AnelConsistente anel;
+
+	public DataSourceParticionado(DataSource principal, Map<String, DataSource> adicionais) {
+		for (int i = 0; i < TRAVAS; i++) {
+			travas[i] = new ReentrantReadWriteLock();
+		}
+
+		registrar(PRINCIPAL, principal);
+		adicionais.forEach( (nome, dataSource) -> {
+			inicializar(dataSource, particoes.size());
+			registrar(nome, dataSource);
+		});
+		anel = new AnelConsistente(particoes, NOS_VIRTUAIS);
+
+		setTargetDataSource(new Roteador());
+		afterPropertiesSet();
+		ContextoParticao.configurar(this);
+	}
+
+	public List<String> getParticoes() {
+		return List.copyOf(particoes);
+	}
+
+	public String particaoDoUsuario(long idUsuario) {
+		String realocado = realocados.get(idUsuario);
+		return realocado != null ? realocado : anel.particao(idUsuario);
+	}
+
+	Lock travaDeLeitura(long idUsuario) {
+		return trava(idUsuario).readLock();
+	}
+
+	/**
+	 * Procura o lançamento primeiro na partição que gerou o id e depois nas demais.
+	 */
+	Long localizarUsuarioDoLancamento(long idLancamento) {
+		Set<String> ordem = new LinkedHashSet<>();
+		int origem = (int) (idLancamento >>> BITS_POR_PARTICAO);
+		if(origem < particoes.size()) {
+			ordem.add(particoes.get(origem));
+		}
+		ordem.addAll(particoes);
+
+		for (String particao : ordem) {
+			List<Long> usuario = jdbc.get(particao).queryForList(
+						"select id_usuario from financas.lancamento where id = ?", Long.class, idLancamento);
+			if(!usuario.isEmpty()) {
+				return usuario.get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Usuário de cada um dos lançamentos, com uma consulta por partição; os inexistentes não
+	 * entram no mapa.
+	 */
+	Map<Long, Long> localizarUsuariosDosLancamentos(Collection<Long> idsLancamentos) {
+		Map<Long, Long> usuarios = new HashMap<>();
+		if(idsLancamentos.isEmpty()) {
+			return usuarios;
+		}
+
+		String sql = "select id, id_usuario from financas.lancamento where id in ("
+					+ idsLancamentos.stream().map( id -> "?" ).collect(Collectors.joining(", ")) + ")";
+		Object[] parametros = idsLancamentos.toArray();
+		for (String particao : particoes) {
+			jdbc.get(particao).query(sql, linha -> {
+				usuarios.putIfAbsent(linha.getLong(1), linha.getLong(2));
+			}, parametros);
+		}
+		return usuarios;
+	}
+
+	/**
+	 * Copia o cadastro recém-criado na principal para a partição do usuário.
+	 */
+	void publicarCadastro(long idUsuario) {
+		Lock trava = trava(idUsuario).writeLock();
+		trava.lock();
+		try {
+			String destino = particaoDoUsuario(idUsuario);
+			if(!PRINCIPAL.equals(destino)) {
+				copiarCadastro(idUsuario, jdbc.get(PRINCIPAL), jdbc.get(destino));
+			}
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Acrescenta uma partição com a aplicação no ar e move para ela os usuários que o novo
+	 * anel lhe atribui.
+	 */
+	public synchronized void adicionar(String nome, DataSource dataSource) {
+		if(dataSources.containsKey(nome)) {
+			throw new IllegalArgumentException("Partição já existente: " + nome);
+		}
+
+		inicializar(dataSource, particoes.size());
+		registrar(nome, dataSource);
+		rebalancear(anel.com(nome));
+	}
+
+	/**
+	 * Move para a partição certa os usuários cujos dados estão fora dela, como depois de
+	 * uma partição nova entrar na configuração. Executado na inicialização.
+	 */
+	public synchronized void rebalancear() {
+		rebalancear(anel);
+	}
+
+	private void rebalancear(AnelConsistente destino) {
+		int movidos = 0;
+		for (String origem : particoes) {
+			for (Long idUsuario : usuariosCom(origem)) {
+				String particao = destino.particao(idUsuario);
+				if(!particao.equals(origem)) {
+					mover(idUsuario, origem, particao);
+					movidos++;
+				}
+			}
+		}
+
+		anel = destino;
+		realocados.clear();
+		if(movidos > 0) {
+			log.info("Rebalanceamento entre {} partições moveu {} usuário(s)", particoes.size(), movidos);
+		}
+	}
+
+	private List<Long> usuariosCom(String particao) {
+		String sql = PRINCIPAL.equals(particao)
+					? "select id_usuario from financas.lancamento union select id_usuario from financas.saldo_usuario"
+					: "select id from financas.usuario";
+		return jdbc.get(particao).queryForList(sql, Long.class);
+	}
+
+	/**
+	 * Copia os dados do usuário para o destino, apagando antes o que uma cópia interrompida
+	 * tenha deixado lá, passa a rotear o usuário para o destino e só então apaga a origem.
+	 */
+	private void mover(Long idUsuario, String origem, String destino) {
+		Lock trava = trava(idUsuario).writeLock();
+		trava.lock();
+		try {
+			JdbcTemplate de = jdbc.get(origem);
+			JdbcTemplate para = jdbc.get(destino);
+			List<Map<String, Object>> lancamentos = de.queryForList("select * from financas.lancamento where id_usuario = ?", idUsuario);
+			List<Map<String, Object>> saldos = de.queryForList("select * from financas.saldo_usuario where id_usuario = ?", idUsuario);
+			long versaoLancamentos = de.queryForObject("select versao_lancamentos from financas.usuario where id = ?", Long.class, idUsuario);
+
+			transacao(destino).executeWithoutResult( status -> {
+				apagarDados(para, idUsuario);
+				if(!PRINCIPAL.equals(destino)) {
+					copiarCadastro(idUsuario, de, para);
+				}
+				inserir(para, "financas.lancamento", lancamentos);
+				inserir(para, "financas.saldo_usuario", saldos);
+				// A versão continua crescendo no destino, senão uma ETag antiga voltaria a valer
+				para.update("update financas.usuario set versao_lancamentos = ? where id = ?",
+							versaoLancamentos + 1, idUsuario);
+			});
+			realocados.put(idUsuario, destino);
+
+			transacao(origem).executeWithoutResult( status -> {
+				apagarDados(de, idUsuario);
+				if(!PRINCIPAL.equals(origem)) {
+					de.update("delete from financas.usuario where id = ?", idUsuario);
+				}
+			});
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	private static void apagarDados(JdbcTemplate jdbc, Long idUsuario) {
+		jdbc.update("delete from financas.saldo_usuario where id_usuario = ?", idUsuario);
+		jdbc.update("delete from financas.lancamento where id_usuario = ?", idUsuario);
+	}
+
+	private static void copiarCadastro(long idUsuario, JdbcTemplate de, JdbcTemplate para) {
+		if(para.queryForObject("select count(*) from financas.usuario where id = ?", Integer.class, idUsuario) == 0) {
+			inserir(para, "financas.usuario", de.queryForList("select * from financas.usuario where id = ?", idUsuario));
+		}
+	}
+
+	private static void inserir(JdbcTemplate jdbc, String tabela, List<Map<String, Object>> linhas) {
+		if(linhas.isEmpty()) {
+			return;
+		}
+
+		List<String> colunas = new ArrayList<>(linhas.get(0).keySet());
+		String sql = "insert into " + tabela + " (" + String.join(", ", colunas) + ") values ("
+					+ colunas.stream().map( coluna -> "?" ).collect(Collectors.joining(", ")) + ")";
+		jdbc.batchUpdate(sql, linhas.stream()
+					.map( linha -> colunas.stream().map(linha::get).toArray() )
+					.toList());
+	}
+
+	private TransactionTemplate transacao(String particao) {
+		return new TransactionTemplate(new DataSourceTransactionManager(dataSources.get(particao)));
+	}
+
+	private ReadWriteLock trava(long idUsuario) {
+		return travas[Long.hashCode(idUsuario) & (TRAVAS - 1)];
+	}
+
+	private void registrar(String nome, DataSource dataSource) {
+		dataSources.put(nome, dataSource);
+		jdbc.put(nome, new JdbcTemplate(dataSource));
+		particoes.add(nome);
+	}
+
+	/**
+	 * Aplica as migrações numa partição nova e leva a sequência de lançamentos para a faixa
+	 * de ids da partição. A principal é migrada pelo próprio Spring Boot.
+	 */
+	private static void inicializar(DataSource dataSource, int indice) {
+		String fornecedor;
+		try {
+			fornecedor = JdbcUtils.extractDatabaseMetaData(dataSource,
+						metaData -> DatabaseDriver.fromJdbcUrl(metaData.getURL()).getId());
+		} catch (MetaDataAccessException e) {
+			throw new IllegalStateException("Partição inacessível", e);
+		}
+
+		Flyway.configure()
+				.dataSource(dataSource)
+				.schemas("financas")
+				.locations("classpath:db/migration/" + fornecedor)
+				.load()
+				.migrate();
+
+		// O otimizador do Hibernate usa o valor lido como teto de um bloco de 50
+		long inicio = ((long) indice << BITS_POR_PARTICAO) + 50;
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		if(DatabaseDriver.POSTGRESQL.getId().equals(fornecedor)) {
+			jdbc.queryForObject("select setval('financas.lancamento_id_seq', greatest((select last_value from financas.lancamento_id_seq), ?))",
+						Long.class, inicio);
+		} else {
+			Long atual = jdbc.queryForObject("select base_value from information_schema.sequences "
+						+ "where sequence_schema = 'FINANCAS' and sequence_name = 'LANCAMENTO_ID_SEQ'", Long.class);
+			if(atual < inicio) {
+				jdbc.execute("alter sequence financas.lancamento_id_seq restart with " + inicio);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		ContextoParticao.configurar(null);
+		for (DataSource dataSource : dataSources.values()) {
+			if(dataSource instanceof AutoCloseable fechavel) {
+				try {
+					fechavel.close();
+				} catch (Exception e) {
+					log.warn("Falha ao fechar partição", e);
+				}
+			}
+		}
+	}
+
+	private class Roteador extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return dataSources.get(ContextoParticao.atual()).getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return dataSources.get(ContextoParticao.atual()).getConnection(username, password);
+		}
+	}
+}
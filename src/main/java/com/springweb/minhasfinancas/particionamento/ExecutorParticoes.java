@@ -0,0 +1,51 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executa uma consulta em cada partição, uma transação somente leitura por partição, e junta
+ * os resultados. Sem particionamento a consulta roda uma vez, na principal. Também executa
+ * uma escrita numa partição escolhida, para as operações que separam o trabalho por partição.
+ */
+@Component
+public class ExecutorParticoes {
+
+	private final TransactionTemplate transacao;
+	private final TransactionTemplate escrita;
+
+	public ExecutorParticoes(PlatformTransactionManager transactionManager) {
+		transacao = new TransactionTemplate(transactionManager);
+		transacao.setReadOnly(true);
+		transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		escrita = new TransactionTemplate(transactionManager);
+		escrita.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	public <T> List<T> emCada(Supplier<List<T>> consulta) {
+		List<T> resultado = new ArrayList<>();
+		for (String particao : ContextoParticao.particoes()) {
+			resultado.addAll(transacao.execute( status -> {
+				ContextoParticao.particao(particao);
+				return consulta.get();
+			}));
+		}
+		return resultado;
+	}
+
+	/**
+	 * Executa a operação numa transação de escrita própria, já vinculada à partição.
+	 */
+	public <T> T naParticao(String particao, Supplier<T> operacao) {
+		return escrita.execute( status -> {
+			ContextoParticao.particao(particao);
+			return operacao.get();
+		});
+	}
+}
@@ -0,0 +1,158 @@
+package com.springweb.minhasfinancas.replicacao;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Garante que o usuário leia o que acabou de gravar mesmo com réplicas atrasadas: as escritas
+ * marcam o usuário por uma janela e, enquanto ela durar, as transações somente leitura feitas
+ * em nome dele vão para o primário.
+ * <p>
+ * Os serviços chamam {@link #lerComo(Long)} antes do primeiro comando da transação, que é
+ * quando a conexão é de fato obtida, e {@link #registrarEscrita(Long)} em cada escrita.
+ * Sem réplicas configuradas a janela é zero e as duas chamadas não fazem nada.
+ * <p>
+ * A marca por usuário fica na memória desta instância. Atrás de um balanceador, a leitura
+ * seguinte pode cair em outra instância; para isso a requisição que escreveu devolve ao
+ * cliente, pelo {@link EscritaRecenteFilter}, até quando as leituras dele devem ir ao
+ * primário, e qualquer instância respeita esse prazo enquanto o cliente o reenviar. O prazo
+ * é um horário de relógio, então os relógios das instâncias precisam estar sincronizados
+ * com folga bem menor que a janela. Clientes que não reenviam o cookie só têm a garantia
+ * com sessões fixas na mesma instância.
+ */
+public final class ConsistenciaLeitura {
+
+	private static final int LIMITE_LIMPEZA = 10_000;
+
+	private static final ThreadLocal<Long> USUARIO = new ThreadLocal<>();
+	private static final ThreadLocal<Requisicao> REQUISICAO = new ThreadLocal<>();
+	private static final Map<Long, Long> ESCRITAS = new ConcurrentHashMap<>();
+
+	private static volatile long janelaNanos;
+	private static volatile boolean comReplicas;
+
+	private ConsistenciaLeitura() {
+	}
+
+	static void configurar(Duration janela, boolean replicas) {
+		comReplicas = replicas;
+		janelaNanos = janela.toNanos();
+		if(janelaNanos == 0) {
+			ESCRITAS.clear();
+		}
+	}
+
+	/**
+	 * Abre o contexto da requisição com o prazo trazido pelo cliente, em milissegundos de
+	 * relógio, ou zero; cada escrita confirmada na requisição entrega o novo prazo ao
+	 * consumidor, que o devolve ao cliente.
+	 */
+	public static void iniciarRequisicao(long primarioAte, LongConsumer novoPrazo) {
+		REQUISICAO.set(new Requisicao(primarioAte, novoPrazo));
+	}
+
+	public static void encerrarRequisicao() {
+		REQUISICAO.remove();
+	}
+
+	/**
+	 * Se há janela configurada; sem ela quem escreve nem precisa descobrir o usuário para
+	 * {@link #registrarEscrita(Long)}.
+	 */
+	public static boolean ativa() {
+		return janelaNanos != 0;
+	}
+
+	public static void lerComo(Long idUsuario) {
+		if(janelaNanos == 0 || idUsuario == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+
+		USUARIO.set(idUsuario);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				USUARIO.remove();
+			}
+		});
+	}
+
+	/**
+	 * Marca o usuário já, para cobrir leituras concorrentes à transação, e de novo no commit,
+	 * para que a janela comece a contar de quando a escrita ficou visível no primário.
+	 */
+	public static void registrarEscrita(Long idUsuario) {
+		if(janelaNanos == 0 || idUsuario == null) {
+			return;
+		}
+
+		marcar(idUsuario);
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					marcar(idUsuario);
+					Requisicao requisicao = REQUISICAO.get();
+					if(requisicao != null) {
+						requisicao.novoPrazo.accept(System.currentTimeMillis() + janelaNanos / 1_000_000);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Se a transação corrente pode estar lendo de uma réplica atrasada. O cache de segundo
+	 * nível não guarda o que é lido nessas transações, que depois seria servido também a
+	 * quem já está dentro da janela.
+	 */
+	public static boolean podeLerDeReplica() {
+		return comReplicas && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !exigePrimario();
+	}
+
+	static boolean exigePrimario() {
+		Requisicao requisicao = REQUISICAO.get();
+		if(janelaNanos != 0 && requisicao != null && requisicao.primarioAte > System.currentTimeMillis()) {
+			return true;
+		}
+
+		Long idUsuario = USUARIO.get();
+		if(idUsuario == null) {
+			return false;
+		}
+
+		Long expiracao = ESCRITAS.get(idUsuario);
+		if(expiracao == null) {
+			return false;
+		}
+		if(expiracao - System.nanoTime() > 0) {
+			return true;
+		}
+		ESCRITAS.remove(idUsuario, expiracao);
+		return false;
+	}
+
+	private static void marcar(Long idUsuario) {
+		long agora = System.nanoTime();
+		ESCRITAS.put(idUsuario, agora + janelaNanos);
+		if(ESCRITAS.size() > LIMITE_LIMPEZA) {
+			ESCRITAS.values().removeIf( expiracao -> expiracao - agora < 0 );
+		}
+	}
+
+	private static final class Requisicao {
+
+		private final long primarioAte;
+		private final LongConsumer novoPrazo;
+
+		Requisicao(long primarioAte, LongConsumer novoPrazo) {
+			this.primarioAte = primarioAte;
+			this.novoPrazo = novoPrazo;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.springweb.minhasfinancas.replicacao;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envia as transações somente leitura às réplicas e todo o resto ao primário.
+ * <p>
+ * A conexão física só é obtida no primeiro comando, quando o gerenciador de transações já
+ * marcou a conexão como somente leitura; é esse o sinal usado para escolher a réplica.
+ * As réplicas são usadas em rodízio. Uma réplica que recusa conexão fica fora do rodízio
+ * pelo tempo de retentativa, e sem nenhuma disponível a leitura vai para o primário, assim
+ * como as leituras de um usuário dentro da janela de {@link ConsistenciaLeitura}.
+ */
+public class DataSourceRoteado extends LazyConnectionDataSourceProxy implements Closeable {
+
+	private final Replicas replicas;
+
+	public DataSourceRoteado(DataSource primario, List<DataSource> replicas, Duration retentativa, Duration janelaLeituraPropria) {
+		super(primario);
+		this.replicas = new Replicas(primario, replicas, retentativa.toNanos());
+		setReadOnlyDataSource(this.replicas);
+		ConsistenciaLeitura.configurar(janelaLeituraPropria, true);
+	}
+
+	@Override
+	public void close() {
+		ConsistenciaLeitura.configurar(Duration.ZERO, false);
+		replicas.close();
+		fechar(getTargetDataSource());
+	}
+
+	private static void fechar(DataSource dataSource) {
+		if(dataSource instanceof AutoCloseable fechavel) {
+			try {
+				fechavel.close();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	@Slf4j
+	private static class Replicas extends AbstractDataSource {
+
+		private final DataSource primario;
+		private final List<DataSource> replicas;
+		private final AtomicLongArray indisponivelAte;
+		private final long retentativaNanos;
+		private final AtomicInteger proxima = new AtomicInteger();
+
+		Replicas(DataSource primario, List<DataSource> replicas, long retentativaNanos) {
+			this.primario = primario;
+			this.replicas = List.copyOf(replicas);
+			this.indisponivelAte = new AtomicLongArray(replicas.size());
+			long agora = System.nanoTime();
+			for (int i = 0; i < replicas.size(); i++) {
+				indisponivelAte.set(i, agora);
+			}
+			this.retentativaNanos = retentativaNanos;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if(ConsistenciaLeitura.exigePrimario()) {
+				return primario.getConnection();
+			}
+
+			int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+			for (int i = 0; i < replicas.size(); i++) {
+				int indice = (inicio + i) % replicas.size();
+				long agora = System.nanoTime();
+				if(indisponivelAte.get(indice) - agora > 0) {
+					continue;
+				}
+
+				try {
+					return replicas.get(indice).getConnection();
+				} catch (SQLException e) {
+					indisponivelAte.set(indice, agora + retentativaNanos);
+					log.warn("Réplica {} indisponível, fora do rodízio por {} s: {}",
+								indice, retentativaNanos / 1_000_000_000, e.getMessage());
+				}
+			}
+			return primario.getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			throw new UnsupportedOperationException("As réplicas usam as credenciais da própria configuração");
+		}
+
+		void close() {
+			replicas.forEach(DataSourceRoteado::fechar);
+		}
+	}
+}
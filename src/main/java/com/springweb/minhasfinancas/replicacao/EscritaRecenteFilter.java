@@ -0,0 +1,63 @@
+package com.springweb.minhasfinancas.replicacao;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Leva entre as instâncias a marca de escrita recente do {@link ConsistenciaLeitura}: lê do
+ * cookie o prazo em que as leituras do cliente ainda devem ir ao primário e, quando a
+ * requisição confirma uma escrita, devolve o novo prazo no mesmo cookie. O cookie só é
+ * escrito se a resposta ainda não começou a ser enviada, o que vale para as escritas feitas
+ * pelo controller antes de devolver o corpo.
+ */
+public class EscritaRecenteFilter extends OncePerRequestFilter {
+
+	static final String COOKIE = "financas-escrita";
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ConsistenciaLeitura.iniciarRequisicao(prazoDoCliente(request), prazo -> devolver(response, prazo));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ConsistenciaLeitura.encerrarRequisicao();
+		}
+	}
+
+	private static long prazoDoCliente(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, COOKIE);
+		if(cookie == null) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(cookie.getValue());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private static void devolver(HttpServletResponse response, long prazo) {
+		if(response.isCommitted()) {
+			return;
+		}
+		long validadeSegundos = Math.max(1, (prazo - System.currentTimeMillis() + 999) / 1000);
+		ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(prazo))
+					.path("/api")
+					.httpOnly(true)
+					.sameSite("Lax")
+					.maxAge(validadeSegundos)
+					.build();
+		response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+	}
+}
@@ -0,0 +1,159 @@
+package com.springweb.minhasfinancas.senha;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gera e confere os hashes de senha num pool próprio de {@code financas.senha.threads} threads
+ * (o número de processadores, por padrão) com fila de {@code financas.senha.fila} tarefas. Com o
+ * pool e a fila cheios o pedido é recusado na hora com {@link SobrecargaException}: uma
+ * enxurrada de logins ocupa no máximo esse tanto de CPU e de threads do Tomcat, e o restante da
+ * API continua respondendo.
+ * <p>
+ * Na subida o número de iterações é calibrado para que um hash leve
+ * {@code financas.senha.latencia-alvo} nesta máquina, nunca abaixo de
+ * {@code financas.senha.iteracoes-minimas}. Um hash com menos iterações que as calibradas é
+ * refeito no próximo login; com mais, é mantido, para que nós calibrados com valores um pouco
+ * diferentes não fiquem refazendo o hash um do outro.
+ * <p>
+ * Senhas gravadas em texto, de antes da adoção do hash, ainda são aceitas e também são
+ * refeitas no próximo login.
+ */
+@Slf4j
+@Component
+public class CodificadorSenhas implements MeterBinder {
+
+	private static final int ITERACOES_AMOSTRA = 10_000;
+	private static final int AQUECIMENTO = 3;
+	private static final int AMOSTRAS = 5;
+	private static final int ARREDONDAMENTO = 1000;
+
+	private final ThreadPoolTaskExecutor executor;
+	private final int iteracoes;
+	private final LongAdder recusadas = new LongAdder();
+
+	public CodificadorSenhas(@Value("${financas.senha.latencia-alvo:100ms}") Duration latenciaAlvo,
+			@Value("${financas.senha.iteracoes-minimas:100000}") int iteracoesMinimas,
+			@Value("${financas.senha.threads:0}") int threads,
+			@Value("${financas.senha.fila:32}") int fila) {
+		this.iteracoes = calibrar(latenciaAlvo, iteracoesMinimas);
+		log.info("Hash de senhas com {} iterações para {} ms", iteracoes, latenciaAlvo.toMillis());
+
+		int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(tamanho);
+		executor.setMaxPoolSize(tamanho);
+		executor.setQueueCapacity(fila);
+		executor.setThreadNamePrefix("hash-senha-");
+		executor.initialize();
+	}
+
+	/**
+	 * @throws SobrecargaException se o pool e a fila estiverem cheios
+	 */
+	public String codificar(String senha) {
+		return executar( () -> HashSenha.gerar(senha, iteracoes) );
+	}
+
+	/**
+	 * @throws SobrecargaException se {@code armazenada} for um hash e o pool e a fila estiverem cheios
+	 */
+	public boolean confere(String senha, String armazenada) {
+		if(senha == null || armazenada == null) {
+			return false;
+		}
+		if(HashSenha.iteracoes(armazenada) < 0) {
+			// Gravada em texto antes da adoção do hash
+			return MessageDigest.isEqual(armazenada.getBytes(StandardCharsets.UTF_8), senha.getBytes(StandardCharsets.UTF_8));
+		}
+		return executar( () -> HashSenha.confere(senha, armazenada) );
+	}
+
+	public boolean precisaRecodificar(String armazenada) {
+		return HashSenha.iteracoes(armazenada) < iteracoes;
+	}
+
+	public int getIteracoes() {
+		return iteracoes;
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdown();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registro) {
+		Gauge.builder("financas.senha.iteracoes", this, CodificadorSenhas::getIteracoes)
+					.description("Iterações PBKDF2 calibradas para os novos hashes de senha")
+					.register(registro);
+		FunctionCounter.builder("financas.senha.recusadas", recusadas, LongAdder::sum)
+					.description("Hashes de senha recusados com o pool e a fila cheios")
+					.register(registro);
+		new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "hash-senha", Tags.empty()).bindTo(registro);
+	}
+
+	private <T> T executar(Callable<T> tarefa) {
+		Future<T> futuro;
+		try {
+			futuro = executor.submit(tarefa);
+		} catch (TaskRejectedException e) {
+			recusadas.increment();
+			throw new SobrecargaException("Servidor ocupado, tente novamente em instantes!");
+		}
+
+		try {
+			return futuro.get();
+		} catch (InterruptedException e) {
+			futuro.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new SobrecargaException("Servidor ocupado, tente novamente em instantes!");
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException erro) {
+				throw erro;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Mede o melhor tempo de uma amostra depois do aquecimento do JIT e escala as iterações
+	 * para a latência alvo, arredondadas para cima ao milhar.
+	 */
+	static int calibrar(Duration latenciaAlvo, int iteracoesMinimas) {
+		long melhor = Long.MAX_VALUE;
+		for (int i = 0; i < AQUECIMENTO + AMOSTRAS; i++) {
+			long inicio = System.nanoTime();
+			HashSenha.gerar("calibracao", ITERACOES_AMOSTRA);
+			long duracao = System.nanoTime() - inicio;
+			if(i >= AQUECIMENTO) {
+				melhor = Math.min(melhor, duracao);
+			}
+		}
+
+		long calculadas = ITERACOES_AMOSTRA * latenciaAlvo.toNanos() / Math.max(melhor, 1);
+		calculadas = (calculadas + ARREDONDAMENTO - 1) / ARREDONDAMENTO * ARREDONDAMENTO;
+		return (int) Math.min(Math.max(calculadas, iteracoesMinimas), Integer.MAX_VALUE / ARREDONDAMENTO * ARREDONDAMENTO);
+	}
+}
@@ -0,0 +1,92 @@
+package com.springweb.minhasfinancas.senha;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hash de senha PBKDF2-HMAC-SHA256 no formato {@code $pbkdf2-sha256$iterações$sal$hash}, sal e
+ * hash em Base64 sem preenchimento. O número de iterações fica no próprio hash, então hashes de
+ * custos diferentes convivem no banco e cada um é conferido com o custo com que foi gerado.
+ * <p>
+ * Só usa o que vem com o JDK. O custo de gerar e de conferir é proporcional às iterações.
+ */
+public final class HashSenha {
+
+	static final String PREFIXO = "$pbkdf2-sha256$";
+
+	private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+	private static final int BYTES_SAL = 16;
+	private static final int BITS_HASH = 256;
+	private static final Base64.Encoder CODIFICADOR = Base64.getEncoder().withoutPadding();
+	private static final Base64.Decoder DECODIFICADOR = Base64.getDecoder();
+	private static final SecureRandom ALEATORIO = new SecureRandom();
+
+	private HashSenha() {
+	}
+
+	public static String gerar(String senha, int iteracoes) {
+		byte[] sal = new byte[BYTES_SAL];
+		ALEATORIO.nextBytes(sal);
+		return PREFIXO + iteracoes + "$" + CODIFICADOR.encodeToString(sal) + "$"
+					+ CODIFICADOR.encodeToString(derivar(senha, sal, iteracoes));
+	}
+
+	/**
+	 * Falso também quando {@code hash} não está no formato; confira antes com {@link #iteracoes}.
+	 */
+	public static boolean confere(String senha, String hash) {
+		String[] campos = campos(hash);
+		if(campos == null) {
+			return false;
+		}
+		byte[] sal = DECODIFICADOR.decode(campos[1]);
+		byte[] esperado = DECODIFICADOR.decode(campos[2]);
+		return MessageDigest.isEqual(esperado, derivar(senha, sal, Integer.parseInt(campos[0])));
+	}
+
+	/**
+	 * Iterações com que {@code valor} foi gerado, ou -1 se ele não for um hash neste formato,
+	 * como as senhas gravadas em texto antes da adoção do hash.
+	 */
+	public static int iteracoes(String valor) {
+		String[] campos = campos(valor);
+		return campos != null ? Integer.parseInt(campos[0]) : -1;
+	}
+
+	private static String[] campos(String valor) {
+		if(valor == null || !valor.startsWith(PREFIXO)) {
+			return null;
+		}
+		String[] campos = valor.substring(PREFIXO.length()).split("\\$", -1);
+		if(campos.length != 3 || campos[1].isEmpty() || campos[2].isEmpty()) {
+			return null;
+		}
+		try {
+			if(Integer.parseInt(campos[0]) <= 0) {
+				return null;
+			}
+			DECODIFICADOR.decode(campos[1]);
+			DECODIFICADOR.decode(campos[2]);
+			return campos;
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException também cai aqui
+			return null;
+		}
+	}
+
+	private static byte[] derivar(String senha, byte[] sal, int iteracoes) {
+		PBEKeySpec especificacao = new PBEKeySpec(senha.toCharArray(), sal, iteracoes, BITS_HASH);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(especificacao).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("PBKDF2 indisponível no JDK", e);
+		} finally {
+			especificacao.clearPassword();
+		}
+	}
+}
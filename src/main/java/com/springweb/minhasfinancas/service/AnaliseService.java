@@ -0,0 +1,32 @@
+package com.springweb.minhasfinancas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.springweb.minhasfinancas.api.dto.SaldoAnoMesDTO;
+import com.springweb.minhasfinancas.api.dto.TotalDescricaoDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+/**
+ * Agregações sobre os lançamentos de um usuário calculadas em memória. Todas devolvem vazio
+ * se o usuário não existe.
+ */
+public interface AnaliseService {
+	
+	/**
+	 * Totais não nulos do ano por mês, tipo e status.
+	 */
+	Optional<List<TotalLancamentosDTO>> obterTotaisPorMes(Long idUsuario, Integer ano);
+	
+	/**
+	 * Receitas e despesas efetivadas de cada mês do período, inclusive os meses sem lançamentos.
+	 */
+	Optional<List<SaldoAnoMesDTO>> obterTendencia(Long idUsuario, Integer anoInicial, Integer anoFinal);
+	
+	/**
+	 * Descrições de maior total no ano e tipo, em ordem decrescente de valor.
+	 */
+	Optional<List<TotalDescricaoDTO>> obterPrincipaisDescricoes(Long idUsuario, Integer ano, TipoLancamento tipo, int limite);
+
+}
@@ -0,0 +1,32 @@
+package com.springweb.minhasfinancas.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Optional;
+
+import com.springweb.minhasfinancas.importacao.FormatoImportacao;
+import com.springweb.minhasfinancas.model.entity.Importacao;
+
+public interface ImportacaoService {
+	
+	/**
+	 * Guarda o extrato num arquivo temporário e agenda a importação, que segue depois que
+	 * este método retorna; o andamento é consultado por {@link #obterPorId}.
+	 * 
+	 * @throws com.springweb.minhasfinancas.exception.SobrecargaException se já houver o máximo
+	 * de importações em andamento e na fila
+	 * @throws com.springweb.minhasfinancas.exception.RegraNegocioException se o arquivo passar
+	 * do tamanho máximo
+	 */
+	Importacao importar(Long idUsuario, FormatoImportacao formato, Charset charset, InputStream conteudo) throws IOException;
+	
+	Optional<Importacao> obterPorId(String id);
+	
+	/**
+	 * Marca como falhas as importações paradas há mais que o tempo de inatividade, deixadas
+	 * por um nó que parou no meio delas, e apaga as concluídas há mais que a retenção.
+	 */
+	void limpar();
+
+}
@@ -3,26 +3,90 @@ package com.springweb.minhasfinancas.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoStatusLoteDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.enums.ModoBusca;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
 
 public interface LancamentoService {
 	
 	Lancamento salvar(Lancamento lancamento);
 	
+	/**
+	 * Grava o lote numa transação por partição; se só parte delas gravar, lança
+	 * {@link com.springweb.minhasfinancas.exception.LoteParcialException}.
+	 */
+	List<Lancamento> salvarLote(List<Lancamento> lancamentos);
+	
+	/**
+	 * Grava, numa transação, os lançamentos importados de um extrato cujo hash de importação
+	 * o usuário ainda não tem, e devolve os gravados. Os lançamentos já devem ter passado por
+	 * {@link #validar}.
+	 */
+	List<Lancamento> importarLote(Long idUsuario, List<Lancamento> lancamentos);
+	
 	Lancamento atualizar(Lancamento lancamento);
 	
 	void deletar(Lancamento lancamento);
 	
+	boolean deletar(Long id);
+	
 	List<Lancamento> buscar( Lancamento lancamentoFiltro );
 	
+	Window<LancamentoDTO> buscar( Lancamento lancamentoFiltro, ScrollPosition posicao, int limite );
+	
+	Window<LancamentoDTO> buscar( Lancamento lancamentoFiltro, ModoBusca modo, ScrollPosition posicao, int limite );
+	
+	List<LancamentoDTO> pesquisar( Long idUsuario, String termo, int limite );
+	
+	void exportar( Long idUsuario, Consumer<LancamentoDTO> consumidor );
+	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 	
+	boolean atualizarStatus(Long id, StatusLancamento status);
+	
+	ResultadoStatusLoteDTO atualizarStatusEmLote(List<Long> ids, StatusLancamento statusAtual, StatusLancamento status);
+	
+	ResultadoStatusLoteDTO atualizarStatusEmLote(Long idUsuario, Integer ano, Integer mes, StatusLancamento statusAtual, StatusLancamento status);
+	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> obterPorId(Long id);
 	
+	Optional<LancamentoDTO> obterDTOPorId(Long id);
+	
+	Optional<Long> obterVersao(Long id);
+	
+	/**
+	 * Id do usuário dono do lançamento; vazio se o lançamento não existe.
+	 */
+	Optional<Long> obterIdUsuario(Long id);
+	
+	/**
+	 * Usuários donos dos lançamentos informados, procurados em todas as partições; os
+	 * lançamentos inexistentes são ignorados.
+	 */
+	Set<Long> obterIdsUsuarios(List<Long> ids);
+	
+	/**
+	 * Versão dos lançamentos do usuário, incrementada a cada escrita neles; vazia se o
+	 * usuário não existe.
+	 */
+	Optional<Long> obterVersaoPorUsuario(Long idUsuario);
+	
 	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	SaldoDTO obterResumoSaldoPorUsuario(Long id);
+	
+	List<SaldoMensalDTO> obterSaldoMensalPorUsuario(Long id, Integer ano);
 
 }
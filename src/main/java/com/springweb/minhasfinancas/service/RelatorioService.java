@@ -0,0 +1,15 @@
+package com.springweb.minhasfinancas.service;
+
+import java.util.Optional;
+
+import com.springweb.minhasfinancas.api.dto.RelatorioAnualDTO;
+
+public interface RelatorioService {
+	
+	/**
+	 * Totais do ano por mês, tipo e status, com o saldo efetivado acumulado desde os anos
+	 * anteriores; vazio se o usuário não existe.
+	 */
+	Optional<RelatorioAnualDTO> obterRelatorioAnual(Long idUsuario, Integer ano);
+
+}
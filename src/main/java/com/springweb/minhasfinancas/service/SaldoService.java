@@ -0,0 +1,19 @@
+package com.springweb.minhasfinancas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+
+public interface SaldoService {
+	
+	void movimentar(Long idUsuario, Dinheiro receitas, Dinheiro despesas);
+	
+	Optional<SaldoDTO> obterSaldo(Long idUsuario);
+	
+	SaldoDTO reconstruir(Long idUsuario);
+	
+	List<Long> listarDivergentes();
+
+}
@@ -0,0 +1,30 @@
+package com.springweb.minhasfinancas.service;
+
+import com.springweb.minhasfinancas.api.dto.SessaoDTO;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+
+public interface SessaoService {
+	
+	SessaoDTO iniciar(Usuario usuario);
+	
+	/**
+	 * Troca o token de renovação por um novo par; o token usado é revogado, e usá-lo de novo
+	 * lança {@link com.springweb.minhasfinancas.exception.ErroAutenticacao}.
+	 */
+	SessaoDTO renovar(String tokenRenovacao);
+	
+	/**
+	 * Revoga os tokens informados; qualquer um deles pode ser nulo. O token de renovação só é
+	 * revogado junto com um token de acesso do mesmo usuário, senão lança
+	 * {@link com.springweb.minhasfinancas.exception.AcessoNegadoException}.
+	 */
+	void encerrar(String tokenAcesso, String tokenRenovacao);
+	
+	/**
+	 * Id do usuário do token de acesso, verificado sem consultar o banco.
+	 */
+	Long autenticar(String tokenAcesso);
+	
+	void sincronizarRevogacoes();
+
+}
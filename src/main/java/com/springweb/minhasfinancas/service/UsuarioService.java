@@ -1,5 +1,7 @@
 package com.springweb.minhasfinancas.service;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 import com.springweb.minhasfinancas.model.entity.Usuario;
@@ -13,5 +15,9 @@ public interface UsuarioService {
 	void validarEmail(String email);
 	
 	Optional<Usuario> obterPorId(Long id);
+	
+	Usuario obterReferencia(Long id);
+	
+	Map<Long, Usuario> obterPorIds(Collection<Long> ids);
 
 }
@@ -0,0 +1,149 @@
+package com.springweb.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springweb.minhasfinancas.analise.ColunasLancamentos;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoAnoMesDTO;
+import com.springweb.minhasfinancas.api.dto.TotalDescricaoDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.particionamento.ContextoParticao;
+import com.springweb.minhasfinancas.replicacao.ConsistenciaLeitura;
+import com.springweb.minhasfinancas.service.AnaliseService;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+
+/**
+ * Mantém os lançamentos dos usuários consultados mais recentemente em
+ * {@link ColunasLancamentos}, no máximo {@code financas.analise.usuarios} usuários. As
+ * colunas de um usuário levam a versão dos lançamentos com que foram carregadas; toda escrita
+ * do {@link LancamentoServiceImpl} incrementa essa versão, e a consulta seguinte recarrega as
+ * colunas numa única leitura sequencial dos lançamentos do usuário. Ativado por
+ * {@code financas.analise.colunar=true}.
+ */
+@Service
+@Timed("financas.servico")
+@ConditionalOnProperty(name = "financas.analise.colunar", havingValue = "true")
+public class AnaliseServiceImpl implements AnaliseService {
+
+	private LancamentoRepository repository;
+	private Map<Long, ColunasVersionadas> colunas;
+
+	public AnaliseServiceImpl(LancamentoRepository repository,
+				@Value("${financas.analise.usuarios:1000}") int usuarios) {
+		this.repository = repository;
+		this.colunas = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, ColunasVersionadas> maisAntigo) {
+				return size() > usuarios;
+			}
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<List<TotalLancamentosDTO>> obterTotaisPorMes(Long idUsuario, Integer ano) {
+		return analisar(idUsuario, lancamentos -> {
+			long[] totais = lancamentos.totaisPorMes(ano);
+			List<TotalLancamentosDTO> resultado = new ArrayList<>();
+			for (int mes = 1; mes <= 12; mes++) {
+				for (TipoLancamento tipo : TipoLancamento.values()) {
+					for (StatusLancamento status : StatusLancamento.values()) {
+						long total = totais[ColunasLancamentos.posicao(mes, tipo, status)];
+						if(total != 0) {
+							resultado.add(new TotalLancamentosDTO(ano, mes, tipo, status, emReais(total)));
+						}
+					}
+				}
+			}
+			return resultado;
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<List<SaldoAnoMesDTO>> obterTendencia(Long idUsuario, Integer anoInicial, Integer anoFinal) {
+		return analisar(idUsuario, lancamentos -> {
+			long[] totais = lancamentos.efetivadosPorMes(anoInicial, anoFinal);
+			List<SaldoAnoMesDTO> resultado = new ArrayList<>((anoFinal - anoInicial + 1) * 12);
+			for (int ano = anoInicial; ano <= anoFinal; ano++) {
+				for (int mes = 1; mes <= 12; mes++) {
+					resultado.add(new SaldoAnoMesDTO(ano, mes,
+								emReais(totais[ColunasLancamentos.posicao(anoInicial, ano, mes, TipoLancamento.RECEITA)]),
+								emReais(totais[ColunasLancamentos.posicao(anoInicial, ano, mes, TipoLancamento.DESPESA)])));
+				}
+			}
+			return resultado;
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<List<TotalDescricaoDTO>> obterPrincipaisDescricoes(Long idUsuario, Integer ano, TipoLancamento tipo, int limite) {
+		return analisar(idUsuario, lancamentos -> {
+			long[] totais = lancamentos.totaisPorDescricao(ano, tipo);
+			int[] maiores = ColunasLancamentos.maiores(totais, limite);
+			List<TotalDescricaoDTO> resultado = new ArrayList<>(maiores.length);
+			for (int codigo : maiores) {
+				resultado.add(new TotalDescricaoDTO(lancamentos.descricao(codigo), Dinheiro.deCentavos(totais[codigo << 1]), totais[(codigo << 1) + 1]));
+			}
+			return resultado;
+		});
+	}
+
+	private <T> Optional<T> analisar(Long idUsuario, Function<ColunasLancamentos, T> analise) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.lerComo(idUsuario);
+		Optional<Long> versao = repository.obterVersaoDoUsuario(idUsuario);
+		if(!versao.isPresent()) {
+			return Optional.empty();
+		}
+
+		ColunasVersionadas guardadas = colunas.get(idUsuario);
+		if(guardadas == null || guardadas.versao != versao.get()) {
+			// Lida depois da versão: uma escrita entre as duas leituras só antecipa a recarga
+			guardadas = new ColunasVersionadas(versao.get(), carregar(idUsuario));
+			colunas.put(idUsuario, guardadas);
+		}
+		return Optional.of(analise.apply(guardadas.lancamentos));
+	}
+
+	private ColunasLancamentos carregar(Long idUsuario) {
+		ColunasLancamentos.Construtor construtor = ColunasLancamentos.construtor();
+		try (Stream<LancamentoDTO> lancamentos = repository.exportarPorUsuario(idUsuario)) {
+			lancamentos.forEach( lancamento -> construtor.adicionar(lancamento.getDescricao(),
+						lancamento.getAno(), lancamento.getMes(),
+						TipoLancamento.valueOf(lancamento.getTipo()), StatusLancamento.valueOf(lancamento.getStatus()),
+						lancamento.getValor()) );
+		}
+		return construtor.construir();
+	}
+
+	private static BigDecimal emReais(long centavos) {
+		return BigDecimal.valueOf(centavos, Dinheiro.ESCALA);
+	}
+
+	@AllArgsConstructor
+	private static final class ColunasVersionadas {
+		private final long versao;
+		private final ColunasLancamentos lancamentos;
+	}
+}
@@ -0,0 +1,329 @@
+package com.springweb.minhasfinancas.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+import com.springweb.minhasfinancas.importacao.FormatoImportacao;
+import com.springweb.minhasfinancas.importacao.HashLinhas;
+import com.springweb.minhasfinancas.importacao.LeitorExtrato;
+import com.springweb.minhasfinancas.importacao.LinhaExtrato;
+import com.springweb.minhasfinancas.model.entity.ErroImportacao;
+import com.springweb.minhasfinancas.model.entity.Importacao;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.SituacaoImportacao;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.ImportacaoRepository;
+import com.springweb.minhasfinancas.service.ImportacaoService;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.UsuarioService;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * O extrato é copiado para um arquivo temporário durante a requisição e importado depois, num
+ * pool de {@code financas.importacao.simultaneas} threads com fila de
+ * {@code financas.importacao.fila}; com tudo ocupado a importação é recusada antes de o
+ * arquivo ser lido.
+ * <p>
+ * O arquivo é lido em blocos de {@code financas.importacao.lote} linhas. Cada bloco é
+ * convertido e validado num segundo pool do mesmo tamanho enquanto o bloco anterior é
+ * gravado, numa transação por bloco; cada importação ocupa no máximo uma thread de cada
+ * pool, sem disputar o {@code ForkJoinPool} comum com o restante da aplicação. Linhas
+ * inválidas são contadas e as primeiras são guardadas com o motivo, sem interromper a
+ * importação; linhas já importadas antes são reconhecidas pelo hash e puladas, então
+ * reenviar um extrato, ou um que se sobreponha a outro, só grava o que faltava.
+ */
+@Slf4j
+@Service
+@Timed("financas.servico")
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+	private static final int MAXIMO_ERROS = 100;
+	private static final int TAMANHO_DESCRICAO = 255;
+
+	private final ImportacaoRepository repository;
+	private final LancamentoService lancamentoService;
+	private final UsuarioService usuarioService;
+	private final int lote;
+	private final long tamanhoMaximo;
+	private final Duration inatividade;
+	private final Duration retencao;
+	private final Semaphore vagas;
+	private final ThreadPoolTaskExecutor executor;
+	private final ThreadPoolTaskExecutor validacao;
+
+	public ImportacaoServiceImpl(ImportacaoRepository repository, LancamentoService lancamentoService, UsuarioService usuarioService,
+			@Value("${financas.importacao.lote:1000}") int lote,
+			@Value("${financas.importacao.tamanho-maximo:100MB}") DataSize tamanhoMaximo,
+			@Value("${financas.importacao.simultaneas:2}") int simultaneas,
+			@Value("${financas.importacao.fila:8}") int fila,
+			@Value("${financas.importacao.inatividade:30m}") Duration inatividade,
+			@Value("${financas.importacao.retencao:7d}") Duration retencao) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.usuarioService = usuarioService;
+		this.lote = lote;
+		this.tamanhoMaximo = tamanhoMaximo.toBytes();
+		this.inatividade = inatividade;
+		this.retencao = retencao;
+		this.vagas = new Semaphore(simultaneas + fila);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(simultaneas);
+		executor.setMaxPoolSize(simultaneas);
+		executor.setQueueCapacity(fila);
+		executor.setThreadNamePrefix("importacao-");
+		executor.initialize();
+
+		// Cada importação em andamento tem no máximo um bloco em validação
+		validacao = new ThreadPoolTaskExecutor();
+		validacao.setCorePoolSize(simultaneas);
+		validacao.setMaxPoolSize(simultaneas);
+		validacao.setThreadNamePrefix("importacao-validacao-");
+		validacao.initialize();
+	}
+
+	@Override
+	public Importacao importar(Long idUsuario, FormatoImportacao formato, Charset charset, InputStream conteudo) throws IOException {
+		if(!vagas.tryAcquire()) {
+			throw new SobrecargaException("Muitas importações em andamento, tente novamente em instantes!");
+		}
+
+		Path arquivo = null;
+		try {
+			arquivo = Files.createTempFile("importacao-", "." + formato.getExtensao());
+			copiar(conteudo, arquivo);
+
+			LocalDateTime agora = LocalDateTime.now();
+			Importacao importacao = repository.save(Importacao.builder()
+						.id(UUID.randomUUID().toString())
+						.usuario(idUsuario)
+						.formato(formato.name())
+						.situacao(SituacaoImportacao.RECEBIDA)
+						.recebidaEm(agora)
+						.atualizadaEm(agora)
+						.build());
+
+			Path recebido = arquivo;
+			executor.execute( () -> processar(importacao.getId(), recebido, formato, charset) );
+			return importacao;
+		} catch (IOException | RuntimeException e) {
+			vagas.release();
+			if(arquivo != null) {
+				Files.deleteIfExists(arquivo);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Lida sempre do primário: logo depois do envio a importação pode ainda não estar na réplica.
+	 */
+	@Override
+	@Transactional
+	public Optional<Importacao> obterPorId(String id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	public void limpar() {
+		LocalDateTime agora = LocalDateTime.now();
+		int paradas = repository.encerrarParadas(agora.minus(inatividade), agora,
+					"A importação foi interrompida, envie o arquivo novamente!");
+		if(paradas > 0) {
+			log.warn("{} importações paradas há mais de {} foram encerradas", paradas, inatividade);
+		}
+		repository.removerConcluidasAntes(agora.minus(retencao));
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdown();
+		validacao.shutdown();
+	}
+
+	private void copiar(InputStream conteudo, Path arquivo) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		long total = 0;
+		try (OutputStream saida = Files.newOutputStream(arquivo)) {
+			int lidos;
+			while((lidos = conteudo.read(buffer)) >= 0) {
+				total += lidos;
+				if(total > tamanhoMaximo) {
+					throw new RegraNegocioException("O arquivo excede o limite de " + DataSize.ofBytes(tamanhoMaximo).toMegabytes() + " MB!");
+				}
+				saida.write(buffer, 0, lidos);
+			}
+		}
+	}
+
+	private void processar(String id, Path arquivo, FormatoImportacao formato, Charset charset) {
+		Importacao importacao = null;
+		try (LeitorExtrato leitor = LeitorExtrato.criar(formato,
+					new BufferedReader(new InputStreamReader(Files.newInputStream(arquivo), charset), 64 * 1024))) {
+			importacao = repository.findById(id).orElseThrow();
+			importacao.setSituacao(SituacaoImportacao.PROCESSANDO);
+			importacao = atualizar(importacao);
+
+			Usuario usuario = usuarioService.obterReferencia(importacao.getUsuario());
+			HashLinhas hashes = new HashLinhas();
+			CompletableFuture<Bloco> pendente = null;
+			while(true) {
+				Bloco bloco = ler(leitor, hashes);
+				// O próximo bloco é validado enquanto o anterior é gravado
+				CompletableFuture<Bloco> proximo = bloco.linhas.isEmpty() ? null
+							: CompletableFuture.supplyAsync( () -> validar(bloco, usuario), validacao );
+				if(pendente != null) {
+					importacao = gravar(importacao, pendente.join());
+				}
+				if(proximo == null) {
+					break;
+				}
+				pendente = proximo;
+			}
+
+			importacao.setSituacao(SituacaoImportacao.CONCLUIDA);
+			importacao.setConcluidaEm(LocalDateTime.now());
+			atualizar(importacao);
+		} catch (RegraNegocioException e) {
+			falhar(importacao, e.getMessage());
+		} catch (IOException | RuntimeException e) {
+			log.warn("Falha na importação {}", id, e);
+			falhar(importacao, "Não foi possível concluir a importação, envie o arquivo novamente!");
+		} finally {
+			vagas.release();
+			try {
+				Files.deleteIfExists(arquivo);
+			} catch (IOException e) {
+				log.warn("Não foi possível apagar o arquivo temporário {}", arquivo, e);
+			}
+		}
+	}
+
+	private Bloco ler(LeitorExtrato leitor, HashLinhas hashes) throws IOException {
+		Bloco bloco = new Bloco();
+		LinhaExtrato linha;
+		while(bloco.linhas.size() < lote && (linha = leitor.proxima()) != null) {
+			bloco.linhas.add(linha);
+			bloco.hashes.add(linha.isValida() ? hashes.calcular(linha) : null);
+		}
+		return bloco;
+	}
+
+	private Bloco validar(Bloco bloco, Usuario usuario) {
+		for (int i = 0; i < bloco.linhas.size(); i++) {
+			LinhaExtrato linha = bloco.linhas.get(i);
+			if(!linha.isValida()) {
+				bloco.erros.add(new ErroImportacao(linha.getNumero(), linha.getErro()));
+				continue;
+			}
+			try {
+				Lancamento lancamento = converter(linha, bloco.hashes.get(i), usuario);
+				lancamentoService.validar(lancamento);
+				bloco.lancamentos.add(lancamento);
+			} catch (RegraNegocioException e) {
+				bloco.erros.add(new ErroImportacao(linha.getNumero(), e.getMessage()));
+			}
+		}
+		return bloco;
+	}
+
+	/**
+	 * Saídas viram despesas e entradas, receitas, sempre com o valor positivo.
+	 */
+	private static Lancamento converter(LinhaExtrato linha, String hash, Usuario usuario) {
+		LocalDate data = linha.getData();
+		String descricao = linha.getDescricao();
+
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(descricao.length() > TAMANHO_DESCRICAO ? descricao.substring(0, TAMANHO_DESCRICAO) : descricao);
+		lancamento.setAno(data.getYear());
+		lancamento.setMes(data.getMonthValue());
+		lancamento.setValor(linha.getValor().abs());
+		lancamento.setTipo(linha.getValor().signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA);
+		lancamento.setUsuario(usuario);
+		lancamento.setHashImportacao(hash);
+		return lancamento;
+	}
+
+	private Importacao gravar(Importacao importacao, Bloco bloco) {
+		List<Lancamento> gravados = bloco.lancamentos.isEmpty() ? List.of() : importarLote(importacao.getUsuario(), bloco.lancamentos);
+
+		importacao.setLinhas(importacao.getLinhas() + bloco.linhas.size());
+		importacao.setImportados(importacao.getImportados() + gravados.size());
+		importacao.setDuplicados(importacao.getDuplicados() + bloco.lancamentos.size() - gravados.size());
+		importacao.setInvalidos(importacao.getInvalidos() + bloco.erros.size());
+		bloco.erros.stream()
+					.limit(Math.max(0, MAXIMO_ERROS - importacao.getErros().size()))
+					.forEach(importacao.getErros()::add);
+		return atualizar(importacao);
+	}
+
+	private List<Lancamento> importarLote(Long idUsuario, List<Lancamento> lancamentos) {
+		try {
+			return lancamentoService.importarLote(idUsuario, lancamentos);
+		} catch (DataIntegrityViolationException e) {
+			// Outro envio do mesmo extrato gravou parte do bloco depois da consulta dos hashes
+			lancamentos.forEach( lancamento -> {
+				lancamento.setId(0);
+				lancamento.setVersao(null);
+			});
+			return lancamentoService.importarLote(idUsuario, lancamentos);
+		}
+	}
+
+	private Importacao atualizar(Importacao importacao) {
+		importacao.setAtualizadaEm(LocalDateTime.now());
+		return repository.save(importacao);
+	}
+
+	private void falhar(Importacao importacao, String mensagem) {
+		if(importacao == null) {
+			return;
+		}
+		try {
+			importacao.setSituacao(SituacaoImportacao.FALHOU);
+			importacao.setMensagem(mensagem);
+			importacao.setConcluidaEm(LocalDateTime.now());
+			atualizar(importacao);
+		} catch (RuntimeException e) {
+			log.warn("Não foi possível registrar a falha da importação {}", importacao.getId(), e);
+		}
+	}
+
+	private static class Bloco {
+
+		final List<LinhaExtrato> linhas = new ArrayList<>();
+		final List<String> hashes = new ArrayList<>();
+		final List<Lancamento> lancamentos = new ArrayList<>();
+		final List<ErroImportacao> erros = new ArrayList<>();
+
+	}
+}
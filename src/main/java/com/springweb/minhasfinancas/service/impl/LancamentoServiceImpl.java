@@ -1,30 +1,63 @@
 package com.springweb.minhasfinancas.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoStatusLoteDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.exception.LoteParcialException;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.VersaoConflitanteException;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.enums.ModoBusca;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
 import com.springweb.minhasfinancas.model.enums.TipoLancamento;
 import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.particionamento.ContextoParticao;
+import com.springweb.minhasfinancas.particionamento.ExecutorParticoes;
+import com.springweb.minhasfinancas.replicacao.ConsistenciaLeitura;
 import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.SaldoService;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed("financas.servico")
 public class LancamentoServiceImpl implements LancamentoService {
 	
 	private LancamentoRepository repository;
+	private SaldoService saldoService;
+	private ExecutorParticoes executorParticoes;
 	
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoService saldoService, ExecutorParticoes executorParticoes) {
 		this.repository = repository;
+		this.saldoService = saldoService;
+		this.executorParticoes = executorParticoes;
 	}
 
 	@Override
@@ -32,7 +65,73 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		registrarEscrita(lancamento);
+		Lancamento lancamentoSalvo = repository.save(lancamento);
+		registrarNoSaldo(null, lancamentoSalvo);
+		registrarAlteracao(lancamentoSalvo);
+		return lancamentoSalvo;
+	}
+
+	/**
+	 * Uma transação por partição, como na mudança de status em lote por id: um lote com
+	 * usuários de partições diferentes não cabe numa única transação. Todas as partições são
+	 * tentadas; se alguma falhar depois de outra ter gravado, lança
+	 * {@link LoteParcialException} dizendo o que ficou gravado. Sem nada gravado, o erro da
+	 * primeira falha é lançado como antes, e o lote pode ser reenviado inteiro.
+	 */
+	@Override
+	public List<Lancamento> salvarLote(List<Lancamento> lancamentos) {
+		lancamentos.forEach(this::validar);
+		lancamentos.forEach( lancamento -> lancamento.setStatus(StatusLancamento.PENDENTE) );
+		
+		List<Lancamento> gravados = new ArrayList<>(lancamentos.size());
+		Map<Lancamento, RuntimeException> falhas = new IdentityHashMap<>();
+		RuntimeException primeiraFalha = null;
+		for (Map.Entry<String, List<Lancamento>> grupo : ContextoParticao.agruparPorUsuario(lancamentos, 
+					lancamento -> lancamento.getUsuario().getId()).entrySet()) {
+			try {
+				gravados.addAll(executorParticoes.naParticao(grupo.getKey(), () -> salvarLoteNaParticao(grupo.getValue())));
+			}catch (RuntimeException e) {
+				grupo.getValue().forEach( lancamento -> falhas.put(lancamento, e) );
+				primeiraFalha = primeiraFalha != null ? primeiraFalha : e;
+			}
+		}
+		
+		if(primeiraFalha != null) {
+			if(gravados.isEmpty()) {
+				throw primeiraFalha;
+			}
+			throw new LoteParcialException(gravados, falhas);
+		}
+		return lancamentos;
+	}
+	
+	private List<Lancamento> salvarLoteNaParticao(List<Lancamento> lancamentos) {
+		Set<Long> usuarios = new TreeSet<>();
+		lancamentos.forEach( lancamento -> usuarios.add(lancamento.getUsuario().getId()) );
+		usuarios.forEach(LancamentoServiceImpl::escreverComo);
+		repository.inserirEmLote(lancamentos);
+		usuarios.forEach(repository::incrementarVersaoDoUsuario);
+		return lancamentos;
+	}
+
+	@Override
+	@Transactional
+	public List<Lancamento> importarLote(Long idUsuario, List<Lancamento> lancamentos) {
+		escreverComo(idUsuario);
+		Set<String> importados = repository.listarHashesImportados(idUsuario, 
+					lancamentos.stream().map(Lancamento::getHashImportacao).toList());
+		
+		List<Lancamento> novos = new ArrayList<>(lancamentos.size());
+		lancamentos.stream().filter( lancamento -> !importados.contains(lancamento.getHashImportacao()) ).forEach(novos::add);
+		if(novos.isEmpty()) {
+			return novos;
+		}
+		
+		novos.forEach( lancamento -> lancamento.setStatus(StatusLancamento.PENDENTE) );
+		repository.inserirEmLote(novos);
+		repository.incrementarVersaoDoUsuario(idUsuario);
+		return novos;
 	}
 
 	@Override
@@ -40,37 +139,335 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		lancamento.atualizarDescricaoBusca();
+		registrarEscrita(lancamento);
+		
+		// Sem lançamento efetivado envolvido o saldo não muda: basta o UPDATE condicional
+		if(lancamento.getStatus() != null && lancamento.getStatus() != StatusLancamento.EFETIVADO
+				&& repository.atualizarNaoEfetivado(lancamento) == 1) {
+			if(lancamento.getVersao() != null) {
+				lancamento.setVersao(lancamento.getVersao() + 1);
+			}
+			registrarAlteracao(lancamento);
+			return lancamento;
+		}
+		
+		LancamentoDTO anterior = repository.obterEstadoPersistido(lancamento.getId())
+					.orElseThrow( () -> new RegraNegocioException("Lançamento não encontrado na base de Dados!") );
+		
+		if(lancamento.getVersao() != null && !lancamento.getVersao().equals(anterior.getVersao())) {
+			throw new VersaoConflitanteException("O lançamento foi alterado por outra requisição, recarregue e tente novamente!");
+		}
+		
+		if(lancamento.getStatus() == null) {
+			lancamento.setStatus(StatusLancamento.valueOf(anterior.getStatus()));
+		}
+		
+		repository.atualizar(lancamento);
+		lancamento.setVersao(anterior.getVersao() != null ? anterior.getVersao() + 1 : null);
+		registrarNoSaldo(anterior, lancamento);
+		
+		registrarAlteracao(lancamento);
+		if(anterior.getUsuario() != lancamento.getUsuario().getId()) {
+			repository.incrementarVersaoDoUsuario(anterior.getUsuario());
+		}
+		return lancamento;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 	    if (lancamento.getId() != 0) {
-	        repository.delete(lancamento);    
+	        deletar(lancamento.getId());
 	    } else {
 	        throw new IllegalArgumentException("ID de lançamento inválido: " + lancamento.getId());
 	    }
 	}
 
+	@Override
+	@Transactional
+	public boolean deletar(Long id) {
+		ContextoParticao.lancamento(id);
+		// A versão vem antes porque depois do delete não haveria de onde ler o dono; o
+		// lançamento fica travado por ela, e o delete em seguida sempre o encontra
+		if(repository.incrementarVersaoDoDonoNaoEfetivado(id) == 1) {
+			registrarEscritaNoLancamento(id);
+			repository.deletarNaoEfetivado(id);
+			return true;
+		}
+		
+		Optional<LancamentoDTO> anterior = repository.obterEstadoPersistido(id);
+		if(!anterior.isPresent()) {
+			return false;
+		}
+		
+		ConsistenciaLeitura.registrarEscrita(anterior.get().getUsuario());
+		repository.deletarPorId(id);
+		registrarNoSaldo(anterior.get(), null);
+		repository.incrementarVersaoDoUsuario(anterior.get().getUsuario());
+		return true;
+	}
+
 
 	@Override
 	@Transactional(readOnly = true)
 	public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-		Example example = Example.of( lancamentoFiltro, 
+		if(lancamentoFiltro.getUsuario() != null) {
+			lerComo(lancamentoFiltro.getUsuario().getId());
+		}
+		return repository.findAll(criarExemplo(lancamentoFiltro));
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> pesquisar(Long idUsuario, String termo, int limite) {
+		lerComo(idUsuario);
+		String termoEscapado = escaparCuringas(Lancamento.normalizarDescricao(termo));
+		return repository.pesquisarPorDescricao( idUsuario, 
+					"%" + termoEscapado + "%", 
+					termoEscapado + "%", 
+					"% " + termoEscapado + "%", 
+					Limit.of(limite) );
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Window<LancamentoDTO> buscar(Lancamento lancamentoFiltro, ScrollPosition posicao, int limite) {
+		return buscar(lancamentoFiltro, ModoBusca.CONTEM, posicao, limite);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Window<LancamentoDTO> buscar(Lancamento lancamentoFiltro, ModoBusca modo, ScrollPosition posicao, int limite) {
+		if(lancamentoFiltro.getUsuario() != null) {
+			lerComo(lancamentoFiltro.getUsuario().getId());
+		}
+		
+		String padraoDescricao = null;
+		if(lancamentoFiltro.getDescricao() != null) {
+			String termo = escaparCuringas(Lancamento.normalizarDescricao(lancamentoFiltro.getDescricao()));
+			padraoDescricao = modo == ModoBusca.PREFIXO ? termo + "%" : "%" + termo + "%";
+		}
+		
+		KeysetScrollPosition posicaoChave = posicao instanceof KeysetScrollPosition chave ? chave : ScrollPosition.keyset();
+		return repository.buscarPorCursor(lancamentoFiltro, padraoDescricao, posicaoChave, limite);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long idUsuario, Consumer<LancamentoDTO> consumidor) {
+		lerComo(idUsuario);
+		try (Stream<LancamentoDTO> lancamentos = repository.exportarPorUsuario(idUsuario)) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+	
+	/**
+	 * Uma transação por partição: com particionamento os ids podem ser de usuários em
+	 * partições diferentes, e a falha numa delas não desfaz o que as anteriores gravaram.
+	 */
+	@Override
+	public ResultadoStatusLoteDTO atualizarStatusEmLote(List<Long> ids, StatusLancamento statusAtual, StatusLancamento status) {
+		Set<Long> idsAtualizados = new HashSet<>(ids.size());
+		int atualizados = 0;
+		for (Map.Entry<String, List<Long>> grupo : ContextoParticao.agruparLancamentos(ids).entrySet()) {
+			atualizados += executorParticoes.naParticao(grupo.getKey(),
+						() -> atualizarStatusNaParticao(grupo.getValue(), statusAtual, status, idsAtualizados));
+		}
+		
+		List<Long> ignorados = new ArrayList<>();
+		ids.stream().filter( id -> !idsAtualizados.contains(id) ).forEach(ignorados::add);
+		return new ResultadoStatusLoteDTO(atualizados, ignorados);
+	}
+	
+	private int atualizarStatusNaParticao(List<Long> ids, StatusLancamento statusAtual, StatusLancamento status, Set<Long> idsAtualizados) {
+		List<LancamentoDTO> travados = repository.travarPorIdsEStatus(ids, statusAtual);
+		if(travados.isEmpty()) {
+			return 0;
+		}
+		// Trava cada usuário contra o rebalanceamento; um usuário movido depois do agrupamento
+		// fica em outra partição e a vinculação falha, desfazendo a transação
+		travados.stream().map(LancamentoDTO::getUsuario).distinct().sorted().forEach(LancamentoServiceImpl::escreverComo);
+		
+		Set<Long> idsTravados = new HashSet<>(travados.size());
+		travados.forEach( lancamento -> idsTravados.add(lancamento.getId()) );
+		
+		int atualizados = repository.atualizarStatusPorIds(idsTravados, status, statusAtual);
+		registrarMudancaDeStatus(travados, statusAtual, status);
+		if(atualizados > 0) {
+			travados.stream().map(LancamentoDTO::getUsuario).distinct().sorted()
+						.forEach(repository::incrementarVersaoDoUsuario);
+		}
+		idsAtualizados.addAll(idsTravados);
+		return atualizados;
+	}
+
+	@Override
+	@Transactional
+	public ResultadoStatusLoteDTO atualizarStatusEmLote(Long idUsuario, Integer ano, Integer mes, StatusLancamento statusAtual, StatusLancamento status) {
+		escreverComo(idUsuario);
+		if(statusAtual != StatusLancamento.EFETIVADO && status != StatusLancamento.EFETIVADO) {
+			int atualizados = repository.atualizarStatusPorUsuario(idUsuario, ano, mes, status, statusAtual);
+			if(atualizados > 0) {
+				repository.incrementarVersaoDoUsuario(idUsuario);
+			}
+			return new ResultadoStatusLoteDTO(atualizados, Collections.emptyList());
+		}
+		
+		List<LancamentoDTO> travados = repository.travarPorUsuarioEStatus(idUsuario, ano, mes, statusAtual);
+		if(travados.isEmpty()) {
+			return new ResultadoStatusLoteDTO(0, Collections.emptyList());
+		}
+		
+		int atualizados = repository.atualizarStatusPorUsuario(idUsuario, ano, mes, status, statusAtual);
+		registrarMudancaDeStatus(travados, statusAtual, status);
+		repository.incrementarVersaoDoUsuario(idUsuario);
+		return new ResultadoStatusLoteDTO(atualizados, Collections.emptyList());
+	}
+	
+	private void registrarMudancaDeStatus(List<LancamentoDTO> lancamentos, StatusLancamento statusAtual, StatusLancamento status) {
+		if(statusAtual != StatusLancamento.EFETIVADO && status != StatusLancamento.EFETIVADO) {
+			return;
+		}
+		
+		Map<Long, long[]> deltas = new LinkedHashMap<>();
+		for (LancamentoDTO lancamento : lancamentos) {
+			long centavos = Dinheiro.centavos(lancamento.getValor());
+			acumular(deltas, lancamento, statusAtual, Math.negateExact(centavos));
+			acumular(deltas, lancamento, status, centavos);
+		}
+		aplicarNoSaldo(deltas);
+	}
+	
+	/**
+	 * Aplica ao saldo do usuário a diferença entre o estado anterior e o novo estado do
+	 * lançamento. Só lançamentos efetivados contam; uma troca de usuário movimenta os dois.
+	 */
+	private void registrarNoSaldo(LancamentoDTO anterior, Lancamento atual) {
+		Map<Long, long[]> deltas = new LinkedHashMap<>(2);
+		
+		if(anterior != null) {
+			acumular(deltas, anterior, StatusLancamento.valueOf(anterior.getStatus()), Math.negateExact(Dinheiro.centavos(anterior.getValor())));
+		}
+		
+		if(atual != null && atual.getStatus() == StatusLancamento.EFETIVADO) {
+			acumular(deltas, atual.getUsuario().getId(), atual.getTipo(), atual.getStatus(), Dinheiro.centavos(atual.getValor()));
+		}
+		
+		aplicarNoSaldo(deltas);
+	}
+	
+	private void registrarEscrita(Lancamento lancamento) {
+		if(lancamento.getUsuario() != null) {
+			escreverComo(lancamento.getUsuario().getId());
+		}
+	}
+	
+	/**
+	 * Incrementa a versão dos lançamentos do usuário, que invalida as ETags das consultas
+	 * dele. Chamado depois das demais escritas da transação.
+	 */
+	private void registrarAlteracao(Lancamento lancamento) {
+		if(lancamento.getUsuario() != null) {
+			repository.incrementarVersaoDoUsuario(lancamento.getUsuario().getId());
+		}
+	}
+	
+	/**
+	 * Nos caminhos rápidos que só recebem o id, o dono do lançamento só é lido para a marca
+	 * de leitura do que se escreveu, e apenas quando há réplicas.
+	 */
+	private void registrarEscritaNoLancamento(Long id) {
+		if(ConsistenciaLeitura.ativa()) {
+			repository.obterIdUsuario(id).ifPresent(ConsistenciaLeitura::registrarEscrita);
+		}
+	}
+	
+	private static void escreverComo(Long idUsuario) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.registrarEscrita(idUsuario);
+	}
+	
+	private static void lerComo(Long idUsuario) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.lerComo(idUsuario);
+	}
+	
+	private void aplicarNoSaldo(Map<Long, long[]> deltas) {
+		deltas.forEach( (idUsuario, delta) -> saldoService.movimentar(idUsuario, Dinheiro.deCentavos(delta[0]), Dinheiro.deCentavos(delta[1])) );
+	}
+	
+	private static void acumular(Map<Long, long[]> deltas, LancamentoDTO lancamento, StatusLancamento status, long centavos) {
+		acumular(deltas, lancamento.getUsuario(), TipoLancamento.valueOf(lancamento.getTipo()), status, centavos);
+	}
+	
+	/**
+	 * Os deltas de cada usuário ficam em centavos, receitas na posição 0 e despesas na 1,
+	 * para que um lote grande não crie um {@link BigDecimal} por lançamento.
+	 */
+	private static void acumular(Map<Long, long[]> deltas, Long idUsuario, TipoLancamento tipo, StatusLancamento status, long centavos) {
+		if(status != StatusLancamento.EFETIVADO) {
+			return;
+		}
+		
+		long[] delta = deltas.computeIfAbsent(idUsuario, id -> new long[2]);
+		int posicao = tipo == TipoLancamento.RECEITA ? 0 : 1;
+		delta[posicao] = Math.addExact(delta[posicao], centavos);
+	}
+	
+	/**
+	 * A descrição é comparada pela coluna normalizada, sem {@code lower()} em volta,
+	 * para que o índice de trigramas sobre ela possa ser usado.
+	 */
+	private Example<Lancamento> criarExemplo(Lancamento lancamentoFiltro) {
+		lancamentoFiltro.atualizarDescricaoBusca();
+		return Example.of( lancamentoFiltro, 
 				ExampleMatcher.matching()
-					.withIgnoreCase()
+					.withIgnorePaths("id", "descricao", "usuario.nome", "usuario.email", "usuario.senha")
 					.withStringMatcher(StringMatcher.CONTAINING) );
-		
-		return repository.findAll(example);
+	}
+	
+	private String escaparCuringas(String termo) {
+		return termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
 	}
 
 	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
 		lancamento.setStatus(status);
 		atualizar(lancamento);
 	}
 
+	@Override
+	@Transactional
+	public boolean atualizarStatus(Long id, StatusLancamento status) {
+		ContextoParticao.lancamento(id);
+		if(status != StatusLancamento.EFETIVADO && repository.atualizarStatusNaoEfetivado(id, status) == 1) {
+			repository.incrementarVersaoDoDonoNaoEfetivado(id);
+			registrarEscritaNoLancamento(id);
+			return true;
+		}
+		
+		Optional<LancamentoDTO> anterior = repository.obterEstadoPersistido(id);
+		if(!anterior.isPresent()) {
+			return false;
+		}
+		
+		StatusLancamento statusAnterior = StatusLancamento.valueOf(anterior.get().getStatus());
+		if(statusAnterior != status) {
+			ConsistenciaLeitura.registrarEscrita(anterior.get().getUsuario());
+			repository.atualizarStatus(id, status, statusAnterior);
+			
+			Map<Long, long[]> deltas = new LinkedHashMap<>(1);
+			long centavos = Dinheiro.centavos(anterior.get().getValor());
+			acumular(deltas, anterior.get(), statusAnterior, Math.negateExact(centavos));
+			acumular(deltas, anterior.get(), status, centavos);
+			aplicarNoSaldo(deltas);
+			repository.incrementarVersaoDoUsuario(anterior.get().getUsuario());
+		}
+		return true;
+	}
+
 	@Override
 	public void validar(Lancamento lancamento) {
 		if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
@@ -89,7 +486,8 @@ public class LancamentoServiceImpl implements LancamentoService {
 			throw new RegraNegocioException("Informe um Usuário válido!");
 		}
 		
-		if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
+		if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1
+				|| lancamento.getValor().stripTrailingZeros().scale() > Dinheiro.ESCALA) {
 			throw new RegraNegocioException("Informe um Valor válido!");
 		}
 		
@@ -99,26 +497,89 @@ public class LancamentoServiceImpl implements LancamentoService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<Lancamento> obterPorId(Long id) {
+		ContextoParticao.lancamento(id);
 		return repository.findById(id);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<LancamentoDTO> obterDTOPorId(Long id) {
+		ContextoParticao.lancamento(id);
+		return repository.obterDTOPorId(id);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterVersao(Long id) {
+		ContextoParticao.lancamento(id);
+		return repository.obterVersao(id);
+	}
+
+	/**
+	 * Lido no primário: numa réplica atrasada o lançamento recém-criado de outro usuário
+	 * ainda não existiria, e a escrita seguinte passaria sem a verificação do dono.
+	 */
+	@Override
+	@Transactional
+	public Optional<Long> obterIdUsuario(Long id) {
+		ContextoParticao.lancamento(id);
+		return repository.obterIdUsuario(id);
+	}
+
+	/**
+	 * Também no primário, pelo mesmo motivo de {@link #obterIdUsuario(Long)}.
+	 */
+	@Override
+	public Set<Long> obterIdsUsuarios(List<Long> ids) {
+		Set<Long> usuarios = new HashSet<>();
+		for (String particao : ContextoParticao.particoes()) {
+			usuarios.addAll(executorParticoes.naParticao(particao, () -> repository.listarIdsUsuarios(ids)));
+		}
+		return usuarios;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterVersaoPorUsuario(Long idUsuario) {
+		lerComo(idUsuario);
+		return repository.obterVersaoDoUsuario(idUsuario);
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long id) {
+		return obterResumoSaldoPorUsuario(id).getSaldo();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public SaldoDTO obterResumoSaldoPorUsuario(Long id) {
+		lerComo(id);
+		return saldoService.obterSaldo(id).orElseGet( () -> {
+			SaldoDTO saldo = repository.obterSaldoPorUsuarioEStatus(id, StatusLancamento.EFETIVADO);
+			return saldo != null ? saldo : new SaldoDTO(BigDecimal.ZERO, BigDecimal.ZERO);
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<SaldoMensalDTO> obterSaldoMensalPorUsuario(Long id, Integer ano) {
+		lerComo(id);
+		List<SaldoMensalDTO> saldos = repository.obterSaldoMensalPorUsuarioEStatus(id, ano, StatusLancamento.EFETIVADO);
 		
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEusuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEusuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
-		
-		if(receitas == null) {
-			receitas = BigDecimal.ZERO;
+		SaldoMensalDTO[] meses = new SaldoMensalDTO[12];
+		for (SaldoMensalDTO saldo : saldos) {
+			meses[saldo.getMes() - 1] = saldo;
 		}
 		
-		if(despesas == null) {
-			despesas = BigDecimal.ZERO;
+		List<SaldoMensalDTO> resultado = new ArrayList<>(12);
+		for (int mes = 1; mes <= 12; mes++) {
+			SaldoMensalDTO saldo = meses[mes - 1];
+			resultado.add(saldo != null ? saldo : new SaldoMensalDTO(mes, BigDecimal.ZERO, BigDecimal.ZERO));
 		}
-		
-		return receitas.subtract(despesas);
+		return resultado;
 	}
 
 }
@@ -0,0 +1,177 @@
+package com.springweb.minhasfinancas.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springweb.minhasfinancas.api.dto.RelatorioAnualDTO;
+import com.springweb.minhasfinancas.api.dto.RelatorioMensalDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.particionamento.ContextoParticao;
+import com.springweb.minhasfinancas.replicacao.ConsistenciaLeitura;
+import com.springweb.minhasfinancas.service.RelatorioService;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Monta o relatório anual com uma única agregação e o guarda num cache LRU limitado a
+ * {@code financas.relatorio.cache.tamanho} relatórios. Cada relatório guardado leva a versão
+ * dos lançamentos do usuário com que foi montado: toda escrita do {@link LancamentoServiceImpl}
+ * incrementa essa versão, o que invalida os relatórios do usuário sem depender de qual
+ * instância da aplicação fez a escrita. Uma consulta em cache custa só a leitura da versão.
+ * <p>
+ * A invalidação é por usuário, e não por ano, porque o saldo acumulado de um ano depende de
+ * todos os anteriores. Os DTOs do relatório são mutáveis, então quem chama recebe sempre uma
+ * cópia, e o relatório guardado só é lido.
+ */
+@Service
+@Timed("financas.servico")
+public class RelatorioServiceImpl implements RelatorioService {
+
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+	private LancamentoRepository repository;
+	private Map<ChaveRelatorio, RelatorioVersionado> cache;
+
+	public RelatorioServiceImpl(LancamentoRepository repository,
+				@Value("${financas.relatorio.cache.tamanho:10000}") int tamanhoCache) {
+		this.repository = repository;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ChaveRelatorio, RelatorioVersionado> maisAntigo) {
+				return size() > tamanhoCache;
+			}
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<RelatorioAnualDTO> obterRelatorioAnual(Long idUsuario, Integer ano) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.lerComo(idUsuario);
+		Optional<Long> versao = repository.obterVersaoDoUsuario(idUsuario);
+		if(!versao.isPresent()) {
+			return Optional.empty();
+		}
+
+		ChaveRelatorio chave = new ChaveRelatorio(idUsuario, ano);
+		RelatorioVersionado guardado = cache.get(chave);
+		if(guardado != null && guardado.versao == versao.get()) {
+			return Optional.of(copiar(guardado.relatorio));
+		}
+
+		// A versão foi lida antes dos totais: uma escrita entre as duas leituras só faz o
+		// relatório guardado ser montado de novo na próxima consulta
+		RelatorioAnualDTO relatorio = montar(idUsuario, ano,
+					repository.obterTotaisAteOAno(idUsuario, ano, StatusLancamento.EFETIVADO));
+		cache.put(chave, new RelatorioVersionado(versao.get(), relatorio));
+		return Optional.of(copiar(relatorio));
+	}
+
+	/**
+	 * Cópia até os mapas de totais; {@link Dinheiro} é imutável e pode ser compartilhado.
+	 */
+	static RelatorioAnualDTO copiar(RelatorioAnualDTO relatorio) {
+		List<RelatorioMensalDTO> meses = new ArrayList<>(relatorio.getMeses().size());
+		for (RelatorioMensalDTO mes : relatorio.getMeses()) {
+			Map<TipoLancamento, Map<StatusLancamento, Dinheiro>> totais = new EnumMap<>(TipoLancamento.class);
+			mes.getTotais().forEach( (tipo, porStatus) -> totais.put(tipo, new EnumMap<>(porStatus)) );
+			meses.add(RelatorioMensalDTO.builder()
+						.mes(mes.getMes())
+						.totais(totais)
+						.saldo(mes.getSaldo())
+						.saldoAcumulado(mes.getSaldoAcumulado())
+						.build());
+		}
+
+		return RelatorioAnualDTO.builder()
+					.usuario(relatorio.getUsuario())
+					.ano(relatorio.getAno())
+					.saldoAnterior(relatorio.getSaldoAnterior())
+					.saldo(relatorio.getSaldo())
+					.meses(Collections.unmodifiableList(meses))
+					.build();
+	}
+
+	/**
+	 * Soma em centavos, com um acumulador {@code long} por mês, tipo e status; os valores
+	 * só viram {@link Dinheiro} ao montar o relatório.
+	 */
+	static RelatorioAnualDTO montar(Long idUsuario, Integer ano, List<TotalLancamentosDTO> totais) {
+		long saldoAnterior = 0;
+		long[][][] totaisPorMes = new long[12][TIPOS.length][STATUS.length];
+		for (TotalLancamentosDTO total : totais) {
+			long centavos = Dinheiro.centavos(total.getValor());
+			if(total.getAno() < ano) {
+				saldoAnterior = Math.addExact(saldoAnterior, total.getTipo() == TipoLancamento.RECEITA ? centavos : Math.negateExact(centavos));
+			} else {
+				long[] porStatus = totaisPorMes[total.getMes() - 1][total.getTipo().ordinal()];
+				porStatus[total.getStatus().ordinal()] = Math.addExact(porStatus[total.getStatus().ordinal()], centavos);
+			}
+		}
+
+		List<RelatorioMensalDTO> meses = new ArrayList<>(12);
+		long saldoAcumulado = saldoAnterior;
+		for (int mes = 1; mes <= 12; mes++) {
+			long[][] totaisDoMes = totaisPorMes[mes - 1];
+			long saldo = Math.subtractExact(totaisDoMes[TipoLancamento.RECEITA.ordinal()][StatusLancamento.EFETIVADO.ordinal()],
+						totaisDoMes[TipoLancamento.DESPESA.ordinal()][StatusLancamento.EFETIVADO.ordinal()]);
+			saldoAcumulado = Math.addExact(saldoAcumulado, saldo);
+
+			meses.add(RelatorioMensalDTO.builder()
+						.mes(mes)
+						.totais(emDinheiro(totaisDoMes))
+						.saldo(Dinheiro.deCentavos(saldo))
+						.saldoAcumulado(Dinheiro.deCentavos(saldoAcumulado))
+						.build());
+		}
+
+		return RelatorioAnualDTO.builder()
+					.usuario(idUsuario)
+					.ano(ano)
+					.saldoAnterior(Dinheiro.deCentavos(saldoAnterior))
+					.saldo(Dinheiro.deCentavos(saldoAcumulado))
+					.meses(Collections.unmodifiableList(meses))
+					.build();
+	}
+
+	private static Map<TipoLancamento, Map<StatusLancamento, Dinheiro>> emDinheiro(long[][] totaisDoMes) {
+		Map<TipoLancamento, Map<StatusLancamento, Dinheiro>> totais = new EnumMap<>(TipoLancamento.class);
+		for (TipoLancamento tipo : TIPOS) {
+			Map<StatusLancamento, Dinheiro> porStatus = new EnumMap<>(StatusLancamento.class);
+			for (StatusLancamento status : STATUS) {
+				porStatus.put(status, Dinheiro.deCentavos(totaisDoMes[tipo.ordinal()][status.ordinal()]));
+			}
+			totais.put(tipo, porStatus);
+		}
+		return totais;
+	}
+
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static final class ChaveRelatorio {
+		private final Long idUsuario;
+		private final Integer ano;
+	}
+
+	@AllArgsConstructor
+	private static final class RelatorioVersionado {
+		private final long versao;
+		private final RelatorioAnualDTO relatorio;
+	}
+}
@@ -0,0 +1,96 @@
+package com.springweb.minhasfinancas.service.impl;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.entity.SaldoUsuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.springweb.minhasfinancas.particionamento.ContextoParticao;
+import com.springweb.minhasfinancas.particionamento.ExecutorParticoes;
+import com.springweb.minhasfinancas.replicacao.ConsistenciaLeitura;
+import com.springweb.minhasfinancas.service.SaldoService;
+
+import io.micrometer.core.annotation.Timed;
+
+@Service
+@Timed("financas.servico")
+public class SaldoServiceImpl implements SaldoService {
+	
+	private SaldoUsuarioRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private ExecutorParticoes executorParticoes;
+	
+	public SaldoServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+				ExecutorParticoes executorParticoes) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.executorParticoes = executorParticoes;
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void movimentar(Long idUsuario, Dinheiro receitas, Dinheiro despesas) {
+		if(receitas.signum() == 0 && despesas.signum() == 0) {
+			return;
+		}
+		
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.registrarEscrita(idUsuario);
+		int atualizados = repository.aplicarDelta(idUsuario, receitas.paraBigDecimal(), despesas.paraBigDecimal());
+		if(atualizados == 0) {
+			// Primeira movimentação do usuário: o saldo é calculado já com a escrita corrente
+			reconstruir(idUsuario);
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<SaldoDTO> obterSaldo(Long idUsuario) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.lerComo(idUsuario);
+		return repository.findById(idUsuario)
+					.map( saldo -> new SaldoDTO(saldo.getReceitas(), saldo.getDespesas()) );
+	}
+
+	@Override
+	@Transactional
+	public SaldoDTO reconstruir(Long idUsuario) {
+		ContextoParticao.usuario(idUsuario);
+		ConsistenciaLeitura.registrarEscrita(idUsuario);
+		// Trava o saldo antes do usuário, na ordem das demais escritas (lançamento, saldo, usuário)
+		SaldoUsuario saldoUsuario = repository.travarPorUsuario(idUsuario).orElse(null);
+		boolean primeiraMovimentacao = saldoUsuario == null;
+		if(primeiraMovimentacao) {
+			// Enquanto o saldo não existe não há linha para travar, e duas primeiras movimentações
+			// o inseririam ao mesmo tempo: o update da versão trava a linha do usuário antes
+			lancamentoRepository.incrementarVersaoDoUsuario(idUsuario);
+			saldoUsuario = repository.travarPorUsuario(idUsuario)
+						.orElseGet( () -> SaldoUsuario.builder().idUsuario(idUsuario).build() );
+		}
+		
+		SaldoDTO saldo = lancamentoRepository.obterSaldoPorUsuarioEStatus(idUsuario, StatusLancamento.EFETIVADO);
+		saldoUsuario.setReceitas(saldo.getReceitas());
+		saldoUsuario.setDespesas(saldo.getDespesas());
+		repository.save(saldoUsuario);
+		if(!primeiraMovimentacao) {
+			// O saldo corrigido muda a resposta da consulta de saldo, que usa a versão como ETag
+			lancamentoRepository.incrementarVersaoDoUsuario(idUsuario);
+		}
+		
+		return saldo;
+	}
+
+	@Override
+	public List<Long> listarDivergentes() {
+		return executorParticoes.emCada(repository::listarDivergentes);
+	}
+
+}
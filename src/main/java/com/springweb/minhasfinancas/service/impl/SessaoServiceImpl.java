@@ -0,0 +1,161 @@
+package com.springweb.minhasfinancas.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.springweb.minhasfinancas.api.dto.SessaoDTO;
+import com.springweb.minhasfinancas.exception.AcessoNegadoException;
+import com.springweb.minhasfinancas.exception.ErroAutenticacao;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.repository.TokenRevogadoRepository;
+import com.springweb.minhasfinancas.service.SessaoService;
+import com.springweb.minhasfinancas.sessao.AssinadorTokens;
+import com.springweb.minhasfinancas.sessao.TipoToken;
+import com.springweb.minhasfinancas.sessao.TokenSessao;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Tokens assinados e sem estado: a verificação de cada chamada só confere a assinatura, a
+ * expiração e a lista de revogação em memória. Revogações são gravadas no banco na hora e
+ * chegam aos outros nós na próxima {@link #sincronizarRevogacoes() sincronização}; até lá
+ * um token de acesso revogado em outro nó ainda é aceito aqui, por no máximo esse intervalo
+ * ou pela validade dele, o que for menor. Tokens de renovação não têm essa janela: a chave
+ * primária da tabela garante que cada um é usado uma única vez.
+ */
+@Service
+@Timed("financas.servico")
+public class SessaoServiceImpl implements SessaoService {
+	
+	private final AssinadorTokens assinador;
+	private final TokenRevogadoRepository repository;
+	private final Duration validadeAcesso;
+	private final Duration validadeRenovacao;
+	private final Map<String, Long> revogados = new ConcurrentHashMap<>();
+	
+	public SessaoServiceImpl(AssinadorTokens assinador, TokenRevogadoRepository repository,
+			@Value("${financas.sessao.acesso:15m}") Duration validadeAcesso,
+			@Value("${financas.sessao.renovacao:30d}") Duration validadeRenovacao) {
+		this.assinador = assinador;
+		this.repository = repository;
+		this.validadeAcesso = validadeAcesso;
+		this.validadeRenovacao = validadeRenovacao;
+	}
+
+	@Override
+	public SessaoDTO iniciar(Usuario usuario) {
+		SessaoDTO sessao = emitir(usuario.getId());
+		sessao.setUsuario(usuario);
+		return sessao;
+	}
+
+	@Override
+	public SessaoDTO renovar(String tokenRenovacao) {
+		TokenSessao token = validar(tokenRenovacao, TipoToken.RENOVACAO);
+		if(!revogar(token)) {
+			throw new ErroAutenticacao("Token de renovação já utilizado!");
+		}
+		return emitir(token.getIdUsuario());
+	}
+
+	@Override
+	public void encerrar(String tokenAcesso, String tokenRenovacao) {
+		TokenSessao acesso = verificar(tokenAcesso, TipoToken.ACESSO);
+		TokenSessao renovacao = verificar(tokenRenovacao, TipoToken.RENOVACAO);
+		if(renovacao != null) {
+			// Quem chama é identificado pelo token de acesso, ainda que expirado
+			if(acesso == null) {
+				throw new ErroAutenticacao("Informe o token de acesso!");
+			}
+			if(acesso.getIdUsuario() != renovacao.getIdUsuario()) {
+				throw new AcessoNegadoException("O token de renovação informado não pertence ao usuário autenticado!");
+			}
+		}
+		
+		long agora = agora();
+		for (TokenSessao token : new TokenSessao[] { acesso, renovacao }) {
+			if(token != null && token.getExpiraEm() > agora) {
+				revogar(token);
+			}
+		}
+	}
+
+	@Override
+	public Long autenticar(String tokenAcesso) {
+		return validar(tokenAcesso, TipoToken.ACESSO).getIdUsuario();
+	}
+
+	@Override
+	public void sincronizarRevogacoes() {
+		long agora = agora();
+		revogados.values().removeIf( expiraEm -> expiraEm <= agora );
+		repository.removerExpirados(agora);
+		repository.listarValidos(agora).forEach( token -> revogados.putIfAbsent(token.getId(), token.getExpiraEm()) );
+	}
+	
+	private SessaoDTO emitir(long idUsuario) {
+		long agora = agora();
+		TokenSessao acesso = assinador.emitir(TipoToken.ACESSO, idUsuario, agora + validadeAcesso.toSeconds());
+		TokenSessao renovacao = assinador.emitir(TipoToken.RENOVACAO, idUsuario, agora + validadeRenovacao.toSeconds());
+		return SessaoDTO.builder()
+					.tokenAcesso(acesso.getTexto())
+					.tokenRenovacao(renovacao.getTexto())
+					.validade(validadeAcesso.toSeconds())
+					.build();
+	}
+	
+	/**
+	 * Confere só a assinatura e o tipo; nulo se o texto for nulo.
+	 */
+	private TokenSessao verificar(String texto, TipoToken tipo) {
+		if(texto == null) {
+			return null;
+		}
+		TokenSessao token = assinador.verificar(texto).orElse(null);
+		if(token == null || token.getTipo() != tipo) {
+			throw new ErroAutenticacao("Token inválido!");
+		}
+		return token;
+	}
+	
+	private TokenSessao validar(String texto, TipoToken tipo) {
+		TokenSessao token = texto != null ? assinador.verificar(texto).orElse(null) : null;
+		if(token == null || token.getTipo() != tipo) {
+			throw new ErroAutenticacao("Token inválido!");
+		}
+		if(token.getExpiraEm() <= agora()) {
+			throw new ErroAutenticacao("Token expirado!");
+		}
+		if(revogados.containsKey(token.getId())) {
+			throw new ErroAutenticacao("Token revogado!");
+		}
+		return token;
+	}
+	
+	/**
+	 * Se foi esta chamada que revogou o token: falso quando ele já estava revogado, aqui ou,
+	 * pela chave primária, em outro nó.
+	 */
+	private boolean revogar(TokenSessao token) {
+		if(revogados.putIfAbsent(token.getId(), token.getExpiraEm()) != null) {
+			return false;
+		}
+		try {
+			repository.inserir(token.getId(), token.getExpiraEm());
+			return true;
+		}catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+	
+	private static long agora() {
+		return Instant.now().getEpochSecond();
+	}
+
+}
@@ -1,60 +1,132 @@
 package com.springweb.minhasfinancas.service.impl;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.springweb.minhasfinancas.exception.ErroAutenticacao;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+import com.springweb.minhasfinancas.filtro.FiltroEmails;
 import com.springweb.minhasfinancas.model.entity.Usuario;
 import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.particionamento.ContextoParticao;
+import com.springweb.minhasfinancas.senha.CodificadorSenhas;
 import com.springweb.minhasfinancas.service.UsuarioService;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed("financas.servico")
 public class UsuarioServiceImpl implements UsuarioService {
 	
 	private UsuarioRepository repository;
 	
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	private FiltroEmails filtroEmails;
+	
+	private CodificadorSenhas codificadorSenhas;
+	
+	public UsuarioServiceImpl(UsuarioRepository repository, FiltroEmails filtroEmails, CodificadorSenhas codificadorSenhas) {
 		super();
 		this.repository = repository;
+		this.filtroEmails = filtroEmails;
+		this.codificadorSenhas = codificadorSenhas;
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
+		if(!filtroEmails.podeExistir(email)) {
+			throw new ErroAutenticacao("Usuário Não Encontrado para o Email Informado!");
+		}
+		
 		Optional<Usuario> usuario = repository.findByEmail(email);
 		
 		if(!usuario.isPresent()) {
+			filtroEmails.registrarFalsoPositivo(email);
 			throw new ErroAutenticacao("Usuário Não Encontrado para o Email Informado!");
 		}
 		
-		if(!usuario.get().getSenha().equals(senha)) {
+		String armazenada = usuario.get().getSenha();
+		if(!codificadorSenhas.confere(senha, armazenada)) {
 			throw new ErroAutenticacao("Senha Inválida!");
 		}
 		
+		if(codificadorSenhas.precisaRecodificar(armazenada)) {
+			recodificarSenha(usuario.get(), senha);
+		}
+		
 		return usuario.get();
 	}
+	
+	/**
+	 * Troca a senha em texto, ou o hash com menos iterações que as atuais, por um hash novo.
+	 * Com o pool de hash cheio fica para o próximo login.
+	 */
+	private void recodificarSenha(Usuario usuario, String senha) {
+		try {
+			usuario.setSenha(codificadorSenhas.codificar(senha));
+		} catch (SobrecargaException e) {
+			return;
+		}
+		repository.save(usuario);
+	}
 
+	/**
+	 * Sem transação própria: o hash é gerado antes de qualquer acesso ao banco, para que a
+	 * conexão não fique presa durante ele, e o índice único do email cobre o intervalo entre
+	 * a verificação e a inserção.
+	 */
 	@Override
-	@Transactional
 	public Usuario salvarUsuario(Usuario usuario) {
+		if(usuario.getSenha() != null) {
+			usuario.setSenha(codificadorSenhas.codificar(usuario.getSenha()));
+		}
 		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
+		Usuario usuarioSalvo;
+		try {
+			usuarioSalvo = repository.save(usuario);
+		}catch (DataIntegrityViolationException e) {
+			// O filtro pode ainda não ter o email de um cadastro recente de outro nó
+			filtroEmails.adicionar(usuario.getEmail());
+			throw new RegraNegocioException("Já existe um usuário cadastrado com esse email!");
+		}
+		filtroEmails.adicionar(usuarioSalvo.getEmail());
+		ContextoParticao.publicarCadastro(usuarioSalvo.getId());
+		return usuarioSalvo;
 	}
 
 	@Override
 	public void validarEmail(String email) {
+		if(!filtroEmails.podeExistir(email)) {
+			return;
+		}
+		
 		boolean existe = repository.existsByEmail(email);
 		if(existe) {
 			throw new RegraNegocioException("Já existe um usuário cadastrado com esse email!");
 		}
+		filtroEmails.registrarFalsoPositivo(email);
 	}
 	
 	@Override
 	public Optional<Usuario> obterPorId(Long id) {
 		return repository.findById(id);
 	}
+	
+	@Override
+	public Usuario obterReferencia(Long id) {
+		return repository.getReferenceById(id);
+	}
+	
+	@Override
+	public Map<Long, Usuario> obterPorIds(Collection<Long> ids) {
+		Map<Long, Usuario> usuarios = new HashMap<>(ids.size());
+		repository.findAllById(ids).forEach( usuario -> usuarios.put(usuario.getId(), usuario) );
+		return usuarios;
+	}
 
 }
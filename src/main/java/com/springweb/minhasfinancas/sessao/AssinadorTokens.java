@@ -0,0 +1,94 @@
+package com.springweb.minhasfinancas.sessao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Emite e verifica tokens no formato {@code conteúdo.assinatura}, os dois em Base64 URL sem
+ * preenchimento. O conteúdo é o texto {@code tipo:usuário:expiração:id} e a assinatura é o
+ * HMAC-SHA256 do conteúdo codificado. Verificar um token é só recalcular o HMAC, sem
+ * consultar o banco; a expiração e a revogação ficam com quem chama.
+ * <p>
+ * Todos os nós precisam do mesmo segredo para aceitar os tokens uns dos outros.
+ */
+public class AssinadorTokens {
+
+	public static final int TAMANHO_MINIMO_SEGREDO = 32;
+
+	private static final String ALGORITMO = "HmacSHA256";
+	private static final int BYTES_ID = 16;
+	private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+	private final SecretKeySpec chave;
+	private final ThreadLocal<Mac> macs;
+	private final SecureRandom aleatorio = new SecureRandom();
+
+	public AssinadorTokens(byte[] segredo) {
+		if(segredo.length < TAMANHO_MINIMO_SEGREDO) {
+			throw new IllegalArgumentException("O segredo dos tokens precisa ter ao menos " + TAMANHO_MINIMO_SEGREDO + " bytes");
+		}
+		this.chave = new SecretKeySpec(segredo, ALGORITMO);
+		this.macs = ThreadLocal.withInitial(this::criarMac);
+	}
+
+	public TokenSessao emitir(TipoToken tipo, long idUsuario, long expiraEm) {
+		byte[] bytesId = new byte[BYTES_ID];
+		aleatorio.nextBytes(bytesId);
+		String id = CODIFICADOR.encodeToString(bytesId);
+
+		String conteudo = CODIFICADOR.encodeToString(
+					(tipo.name() + ":" + idUsuario + ":" + expiraEm + ":" + id).getBytes(StandardCharsets.UTF_8));
+		String texto = conteudo + "." + CODIFICADOR.encodeToString(assinar(conteudo));
+		return new TokenSessao(tipo, idUsuario, expiraEm, id, texto);
+	}
+
+	/**
+	 * Vazio se o texto estiver malformado ou a assinatura não conferir.
+	 */
+	public Optional<TokenSessao> verificar(String texto) {
+		int ponto = texto.indexOf('.');
+		if(ponto < 0 || texto.indexOf('.', ponto + 1) >= 0) {
+			return Optional.empty();
+		}
+
+		String conteudo = texto.substring(0, ponto);
+		try {
+			byte[] assinatura = DECODIFICADOR.decode(texto.substring(ponto + 1));
+			if(!MessageDigest.isEqual(assinatura, assinar(conteudo))) {
+				return Optional.empty();
+			}
+
+			String[] campos = new String(DECODIFICADOR.decode(conteudo), StandardCharsets.UTF_8).split(":", 4);
+			if(campos.length != 4) {
+				return Optional.empty();
+			}
+			return Optional.of(new TokenSessao(TipoToken.valueOf(campos[0]), Long.parseLong(campos[1]),
+						Long.parseLong(campos[2]), campos[3], texto));
+		} catch (IllegalArgumentException e) {
+			// Base64, tipo ou número inválidos; NumberFormatException também cai aqui
+			return Optional.empty();
+		}
+	}
+
+	private byte[] assinar(String conteudo) {
+		return macs.get().doFinal(conteudo.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private Mac criarMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(chave);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
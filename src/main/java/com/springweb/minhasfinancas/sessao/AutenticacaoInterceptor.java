@@ -0,0 +1,103 @@
+package com.springweb.minhasfinancas.sessao;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.springweb.minhasfinancas.exception.ErroAutenticacao;
+import com.springweb.minhasfinancas.service.SessaoService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Verifica o token de acesso do cabeçalho {@code Authorization: Bearer} e confere que o
+ * usuário do token é o mesmo do parâmetro {@code usuario} ou do {@code {id}} de
+ * {@code /api/usuarios/{id}}. O id verificado fica no atributo {@link #USUARIO_AUTENTICADO},
+ * e com ele os recursos dispensam a consulta que confirmaria que o usuário existe. O usuário
+ * informado no corpo, e o dono dos lançamentos recebidos por id, são conferidos com esse
+ * atributo pelo próprio recurso, que é quem os conhece.
+ * <p>
+ * Chamadas sem token continuam aceitas enquanto {@code financas.sessao.obrigatoria} for
+ * falso, para os clientes que ainda não fazem login por token.
+ */
+@Component
+public class AutenticacaoInterceptor implements HandlerInterceptor {
+
+	public static final String USUARIO_AUTENTICADO = "financas.usuarioAutenticado";
+
+	private static final String PREFIXO = "Bearer ";
+	private static final String API_USUARIOS = "/api/usuarios/";
+
+	private final SessaoService sessaoService;
+	private final boolean obrigatoria;
+
+	public AutenticacaoInterceptor(SessaoService sessaoService,
+			@Value("${financas.sessao.obrigatoria:false}") boolean obrigatoria) {
+		this.sessaoService = sessaoService;
+		this.obrigatoria = obrigatoria;
+	}
+
+	/**
+	 * O token de um cabeçalho {@code Authorization}, ou nulo se não for do tipo Bearer.
+	 */
+	public static String tokenDoCabecalho(String autorizacao) {
+		if(autorizacao == null || !autorizacao.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length())) {
+			return null;
+		}
+		return autorizacao.substring(PREFIXO.length()).strip();
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+		if(HttpMethod.OPTIONS.matches(request.getMethod())) {
+			return true;
+		}
+
+		String token = tokenDoCabecalho(request.getHeader(HttpHeaders.AUTHORIZATION));
+		if(token == null) {
+			return !obrigatoria || recusar(response, HttpStatus.UNAUTHORIZED, "Informe o token de acesso!");
+		}
+
+		Long idUsuario;
+		try {
+			idUsuario = sessaoService.autenticar(token);
+		}catch (ErroAutenticacao e) {
+			return recusar(response, HttpStatus.UNAUTHORIZED, e.getMessage());
+		}
+
+		if(!pertenceAo(idUsuario, request)) {
+			return recusar(response, HttpStatus.FORBIDDEN, "O token informado não dá acesso aos dados deste usuário!");
+		}
+
+		request.setAttribute(USUARIO_AUTENTICADO, idUsuario);
+		return true;
+	}
+
+	private boolean pertenceAo(Long idUsuario, HttpServletRequest request) {
+		String usuario = request.getParameter("usuario");
+		if(usuario != null && !usuario.equals(idUsuario.toString())) {
+			return false;
+		}
+
+		@SuppressWarnings("unchecked")
+		Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		String id = variaveis != null ? variaveis.get("id") : null;
+		boolean deUsuario = request.getRequestURI().startsWith(request.getContextPath() + API_USUARIOS);
+		return id == null || !deUsuario || id.equals(idUsuario.toString());
+	}
+
+	private static boolean recusar(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+		response.setStatus(status.value());
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getWriter().write(mensagem);
+		return false;
+	}
+}
@@ -0,0 +1,12 @@
+package com.springweb.minhasfinancas.sessao;
+
+/**
+ * O token de acesso acompanha cada chamada e vale pouco tempo; o de renovação só serve para
+ * obter um novo par e é revogado ao ser usado.
+ */
+public enum TipoToken {
+	
+	ACESSO,
+	RENOVACAO
+	
+}
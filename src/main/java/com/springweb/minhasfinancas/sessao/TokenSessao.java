@@ -0,0 +1,21 @@
+package com.springweb.minhasfinancas.sessao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Conteúdo de um token já verificado, com o {@link #getTexto() texto} que o cliente envia.
+ * O {@link #getId() id} é aleatório e identifica o token na lista de revogação.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenSessao {
+
+	private final TipoToken tipo;
+	private final long idUsuario;
+	/** Segundos desde a época. */
+	private final long expiraEm;
+	private final String id;
+	private final String texto;
+
+}
@@ -0,0 +1,6 @@
+package db.migration.postgresql;
+
+import com.springweb.minhasfinancas.migracao.NormalizacaoDescricaoBusca;
+
+public class V10__normalizar_descricao_busca extends NormalizacaoDescricaoBusca {
+}
@@ -0,0 +1,20 @@
+create schema if not exists financas;
+
+create table financas.usuario (
+	id bigint generated by default as identity primary key,
+	nome varchar(150),
+	email varchar(100),
+	senha varchar(255)
+);
+
+create table financas.lancamento (
+	id bigint primary key,
+	descricao varchar(255) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16, 2) not null,
+	tipo varchar(20) check (tipo in ('RECEITA', 'DESPESA')) not null,
+	status varchar(20) check (status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')) not null,
+	id_usuario bigint references financas.usuario (id),
+	data_cadastro date default current_date
+);
@@ -0,0 +1 @@
+create sequence financas.lancamento_id_seq start with 1 increment by 50;
@@ -0,0 +1,5 @@
+create table financas.saldo_usuario (
+	id_usuario bigint primary key references financas.usuario (id),
+	receitas numeric(19, 2) not null default 0,
+	despesas numeric(19, 2) not null default 0
+);
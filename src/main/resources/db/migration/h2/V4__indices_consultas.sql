@@ -0,0 +1,10 @@
+-- Mesmos índices da migração de Postgres; o H2 não tem include, então as colunas
+-- lidas pelo saldo entram no fim da chave para o índice continuar cobrindo a consulta.
+create index idx_lancamento_usuario_ano_mes_id
+	on financas.lancamento (id_usuario, ano, mes, id);
+
+create index idx_lancamento_usuario_status_ano_mes
+	on financas.lancamento (id_usuario, status, ano, mes, tipo, valor);
+
+create unique index uk_usuario_email
+	on financas.usuario (email);
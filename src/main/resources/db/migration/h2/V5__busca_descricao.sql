@@ -0,0 +1,2 @@
+-- O H2 não tem índice de trigramas; a pesquisa usa o índice por usuário e filtra a coluna normalizada.
+alter table financas.lancamento add column descricao_busca varchar(255);
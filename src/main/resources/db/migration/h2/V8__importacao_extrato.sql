@@ -0,0 +1,33 @@
+-- Importação de extratos bancários. Cada lançamento importado guarda o hash do conteúdo da
+-- linha de origem; o índice único faz com que o mesmo extrato enviado de novo não duplique
+-- os lançamentos. Lançamentos cadastrados pela API ficam com o hash nulo.
+alter table financas.lancamento add column hash_importacao varchar(43);
+
+create unique index idx_lancamento_hash_importacao on financas.lancamento (id_usuario, hash_importacao);
+
+-- Andamento de cada importação, consultado por qualquer nó enquanto o nó que a recebeu processa.
+create table financas.importacao (
+	id varchar(36) primary key,
+	id_usuario bigint not null references financas.usuario (id),
+	formato varchar(10) not null,
+	situacao varchar(20) not null,
+	linhas bigint not null default 0,
+	importados bigint not null default 0,
+	duplicados bigint not null default 0,
+	invalidos bigint not null default 0,
+	mensagem varchar(255),
+	recebida_em timestamp not null,
+	atualizada_em timestamp not null,
+	concluida_em timestamp
+);
+
+create index idx_importacao_atualizada_em on financas.importacao (atualizada_em);
+
+-- Primeiras linhas recusadas de cada importação, com o motivo.
+create table financas.importacao_erro (
+	id_importacao varchar(36) not null references financas.importacao (id) on delete cascade,
+	posicao integer not null,
+	linha bigint not null,
+	mensagem varchar(255) not null,
+	primary key (id_importacao, posicao)
+);
@@ -0,0 +1,8 @@
+insert into financas.saldo_usuario (id_usuario, receitas, despesas)
+select u.id,
+	coalesce(sum(case when l.tipo = 'RECEITA' then l.valor end), 0),
+	coalesce(sum(case when l.tipo = 'DESPESA' then l.valor end), 0)
+from financas.usuario u
+left join financas.lancamento l on l.id_usuario = u.id and l.status = 'EFETIVADO'
+where not exists (select 1 from financas.saldo_usuario s where s.id_usuario = u.id)
+group by u.id;
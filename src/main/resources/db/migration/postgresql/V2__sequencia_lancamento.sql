@@ -0,0 +1,11 @@
+-- Os ids de lançamento passam a ser alocados em blocos de 50 pelo Hibernate (allocationSize),
+-- o que exige que a sequência avance no mesmo passo e que a coluna deixe de ter default próprio.
+
+alter table financas.lancamento alter column id drop default;
+
+create sequence if not exists financas.lancamento_id_seq;
+
+alter sequence financas.lancamento_id_seq increment by 50 owned by financas.lancamento.id;
+
+-- Pula um bloco inteiro após o maior id existente, já que o otimizador trata o valor lido como teto do bloco.
+select setval('financas.lancamento_id_seq', coalesce((select max(id) from financas.lancamento), 0) + 50);
@@ -0,0 +1,13 @@
+create table financas.saldo_usuario (
+	id_usuario bigint primary key references financas.usuario (id),
+	receitas numeric(19, 2) not null default 0,
+	despesas numeric(19, 2) not null default 0
+);
+
+insert into financas.saldo_usuario (id_usuario, receitas, despesas)
+select u.id,
+	coalesce(sum(case when l.tipo = 'RECEITA' then l.valor end), 0),
+	coalesce(sum(case when l.tipo = 'DESPESA' then l.valor end), 0)
+from financas.usuario u
+left join financas.lancamento l on l.id_usuario = u.id and l.status = 'EFETIVADO'
+group by u.id;
@@ -0,0 +1,13 @@
+-- Busca paginada por cursor (buscar, exportar e atualização de status em lote):
+-- filtra por usuário e opcionalmente ano/mês, ordenando por (ano, mes, id).
+create index idx_lancamento_usuario_ano_mes_id
+	on financas.lancamento (id_usuario, ano, mes, id);
+
+-- Saldo total, saldo mensal e conferência do saldo_usuario: filtram por usuário e status
+-- (e ano, no mensal) e só leem tipo e valor, que ficam no índice para permitir index-only scan.
+create index idx_lancamento_usuario_status_ano_mes
+	on financas.lancamento (id_usuario, status, ano, mes) include (tipo, valor);
+
+-- findByEmail/existsByEmail no cadastro e na autenticação.
+create unique index uk_usuario_email
+	on financas.usuario (email);
@@ -0,0 +1,15 @@
+-- Pesquisa por trecho da descrição sem diferenciar acentos ou maiúsculas. A coluna normalizada
+-- é mantida pela aplicação; o índice GIN de trigramas atende like '%termo%' e like 'termo%'
+-- e, com btree_gin, já restringe ao usuário dentro do mesmo índice.
+-- As extensões exigem um usuário com permissão de criá-las no banco.
+
+create extension if not exists unaccent;
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+
+alter table financas.lancamento add column descricao_busca varchar(255);
+
+update financas.lancamento set descricao_busca = lower(unaccent(descricao));
+
+create index idx_lancamento_usuario_descricao_trgm
+	on financas.lancamento using gin (id_usuario, descricao_busca gin_trgm_ops);
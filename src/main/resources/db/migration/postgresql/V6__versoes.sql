@@ -0,0 +1,5 @@
+-- Versão de cada lançamento e dos lançamentos de cada usuário, incrementadas pela aplicação
+-- em toda escrita. Servem de ETag nas consultas e de trava otimista na atualização.
+alter table financas.lancamento add column versao bigint not null default 0;
+
+alter table financas.usuario add column versao_lancamentos bigint not null default 0;
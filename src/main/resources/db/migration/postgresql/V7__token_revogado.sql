@@ -0,0 +1,8 @@
+-- Tokens de sessão revogados antes de expirar. Cada nó mantém a lista em memória e a
+-- recarrega periodicamente; as linhas são apagadas quando o token expiraria de qualquer forma.
+create table financas.token_revogado (
+	id varchar(32) primary key,
+	expira_em bigint not null
+);
+
+create index idx_token_revogado_expira_em on financas.token_revogado (expira_em);
@@ -0,0 +1,61 @@
+package com.springweb.minhasfinancas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.springweb.minhasfinancas.exception.ErroAutenticacao;
+import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.UsuarioService;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricasTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Test
+	public void deveExporAsMetricasNoFormatoDoPrometheus() throws Exception {
+		// Cenário
+		assertThrows(ErroAutenticacao.class, () -> usuarioService.autenticar("inexistente@email.com", "senha"));
+		assertThrows(RegraNegocioException.class, () -> lancamentoService.validar(new Lancamento()));
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + Long.MAX_VALUE + "/saldo"));
+
+		// Execução
+		String metricas = mvc
+				.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		// Verificação
+		assertThat(metricas).containsPattern("financas_servico_seconds_count\\{.*exception=\"ErroAutenticacao\".*method=\"autenticar\"");
+		assertThat(metricas).containsPattern("financas_servico_seconds_count\\{.*exception=\"RegraNegocioException\".*method=\"validar\"");
+		assertThat(metricas).containsPattern("financas_servico_seconds_bucket\\{.*method=\"autenticar\"");
+		assertThat(metricas).containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/usuarios/\\{id\\}/saldo\"");
+		assertThat(metricas).containsPattern("spring_data_repository_invocations_seconds_count\\{.*method=\"findByEmail\".*repository=\"UsuarioRepository\"");
+		assertThat(metricas).contains("hikaricp_connections_active");
+	}
+}
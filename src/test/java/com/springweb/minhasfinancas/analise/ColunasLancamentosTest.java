@@ -0,0 +1,83 @@
+package com.springweb.minhasfinancas.analise;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+public class ColunasLancamentosTest {
+
+	@Test
+	public void deveTotalizarPorMesTipoEStatus() {
+		// Cenário
+		ColunasLancamentos colunas = ColunasLancamentos.construtor()
+					.adicionar("Salário", 2024, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, new BigDecimal("1000.50"))
+					.adicionar("Salário", 2024, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, new BigDecimal("99.50"))
+					.adicionar("Aluguel", 2024, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("700.00"))
+					.adicionar("Aluguel", 2023, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("650.00"))
+					.construir();
+
+		// Execução
+		long[] totais = colunas.totaisPorMes(2024);
+
+		// Verificação
+		assertThat(totais[ColunasLancamentos.posicao(1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)]).isEqualTo(110000);
+		assertThat(totais[ColunasLancamentos.posicao(1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE)]).isEqualTo(70000);
+		assertThat(totais[ColunasLancamentos.posicao(2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)]).isZero();
+	}
+
+	@Test
+	public void deveObterAsDescricoesDeMaiorTotalEmOrdem() {
+		// Cenário
+		ColunasLancamentos colunas = ColunasLancamentos.construtor()
+					.adicionar("Mercado", 2024, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 300)
+					.adicionar("Farmácia", 2024, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 500)
+					.adicionar("Mercado", 2024, 3, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 400)
+					.adicionar("Cinema", 2024, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 100)
+					.adicionar("Salário", 2024, 3, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 9000)
+					.construir();
+
+		// Execução
+		long[] totais = colunas.totaisPorDescricao(2024, TipoLancamento.DESPESA);
+		int[] maiores = ColunasLancamentos.maiores(totais, 2);
+
+		// Verificação
+		assertThat(maiores).hasSize(2);
+		assertThat(colunas.descricao(maiores[0])).isEqualTo("Mercado");
+		assertThat(totais[maiores[0] << 1]).isEqualTo(700);
+		assertThat(totais[(maiores[0] << 1) + 1]).isEqualTo(2);
+		assertThat(colunas.descricao(maiores[1])).isEqualTo("Farmácia");
+		assertThat(ColunasLancamentos.maiores(totais, 10)).hasSize(3);
+	}
+
+	@Test
+	public void deveSomarEmParaleloOMesmoQueUmaVarreduraSequencial() {
+		// Cenário
+		int tamanho = ColunasLancamentos.LIMIAR_PARALELO * 5 + 17;
+		ColunasLancamentos.Construtor construtor = ColunasLancamentos.construtor();
+		long[] esperado = new long[10 * 12 * 2];
+		for (int i = 0; i < tamanho; i++) {
+			int ano = 2015 + i % 10;
+			int mes = 1 + i % 12;
+			TipoLancamento tipo = TipoLancamento.values()[i % 2];
+			StatusLancamento status = StatusLancamento.values()[i % 3];
+			long centavos = 1000 + i % 100_000;
+			construtor.adicionar("Lançamento " + (i % 500), ano, mes, tipo, status, centavos);
+			if(status == StatusLancamento.EFETIVADO) {
+				esperado[ColunasLancamentos.posicao(2015, ano, mes, tipo)] += centavos;
+			}
+		}
+		ColunasLancamentos colunas = construtor.construir();
+
+		// Execução
+		long[] totais = colunas.efetivadosPorMes(2015, 2024);
+
+		// Verificação
+		assertThat(colunas.getTamanho()).isEqualTo(tamanho);
+		assertThat(totais).containsExactly(esperado);
+	}
+}
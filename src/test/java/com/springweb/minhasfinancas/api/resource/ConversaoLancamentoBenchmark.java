@@ -0,0 +1,57 @@
+package com.springweb.minhasfinancas.api.resource;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.benchmark.DadosBenchmark;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+
+/**
+ * Fica no pacote do resource porque os conversores são package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConversaoLancamentoBenchmark {
+	
+	private LancamentoResource resource;
+	
+	private Usuario usuario;
+	
+	private Lancamento lancamento;
+	
+	private LancamentoDTO dto;
+	
+	@Setup
+	public void setUp() {
+		resource = new LancamentoResource(null, null, null, null);
+		usuario = Usuario.builder().id(1l).build();
+		lancamento = DadosBenchmark.lancamento(1l, usuario);
+		dto = resource.converter(lancamento);
+	}
+	
+	@Benchmark
+	public LancamentoDTO entidadeParaDTO() {
+		return resource.converter(lancamento);
+	}
+	
+	@Benchmark
+	public Lancamento dtoParaEntidade() {
+		return resource.converter(dto, usuario);
+	}
+}
@@ -0,0 +1,1123 @@
+package com.springweb.minhasfinancas.api.resource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springweb.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.springweb.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.model.entity.Importacao;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.SituacaoImportacao;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.springweb.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.springweb.minhasfinancas.monitoramento.MedicaoConsultas;
+import com.springweb.minhasfinancas.service.ImportacaoService;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.SaldoService;
+import com.springweb.minhasfinancas.service.SessaoService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+	
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	ImportacaoService importacaoService;
+	
+	@Autowired
+	SaldoService saldoService;
+	
+	@Autowired
+	SaldoUsuarioRepository saldoUsuarioRepository;
+	
+	@Autowired
+	SessaoService sessaoService;
+	
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	Statistics statistics;
+	
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		usuario = UsuarioRepositoryTest.criarUsuario();
+		usuario.setEmail(System.nanoTime() + "@email.com");
+		usuario = usuarioRepository.save(usuario);
+	}
+	
+	@Test
+	public void deveSalvarUmLancamentoComDoisComandos() throws Exception {
+		// Cenário
+		persistirLancamento(StatusLancamento.PENDENTE);
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API)
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		statistics.clear();
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()))
+		;
+		
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoSalvarUmLancamentoDeUsuarioInexistente() throws Exception {
+		// Cenário
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		dto.setUsuario(Long.MAX_VALUE);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API)
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void deveSalvarUmLoteDeLancamentosComInsercoesEmBatch() throws Exception {
+		// Cenário
+		List<LancamentoDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			dtos.add(criarDTO(StatusLancamento.PENDENTE));
+		}
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/lote"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dtos));
+		
+		statistics.clear();
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("quantidade").value(200))
+			.andExpect(MockMvcResultMatchers.jsonPath("ids.length()").value(200))
+		;
+		
+		Assertions.assertThat(statistics.getEntityInsertCount()).isEqualTo(200);
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+	}
+	
+	@Test
+	public void deveInformarOsErrosDeCadaItemDoLote() throws Exception {
+		// Cenário
+		LancamentoDTO invalido = criarDTO(StatusLancamento.PENDENTE);
+		invalido.setMes(13);
+		List<LancamentoDTO> dtos = List.of(criarDTO(StatusLancamento.PENDENTE), invalido);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/lote"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dtos));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[0].indice").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[0].mensagem").value("Informe um Mês válido!"))
+		;
+	}
+	
+	@Test
+	public void deveInformarOIndiceDeCadaItemDoLoteComUsuarioInexistente() throws Exception {
+		// Cenário
+		LancamentoDTO semUsuario = criarDTO(StatusLancamento.PENDENTE);
+		semUsuario.setUsuario(Long.MAX_VALUE);
+		LancamentoDTO invalido = criarDTO(StatusLancamento.PENDENTE);
+		invalido.setMes(13);
+		LancamentoDTO outroSemUsuario = criarDTO(StatusLancamento.PENDENTE);
+		outroSemUsuario.setUsuario(Long.MAX_VALUE - 1);
+		List<LancamentoDTO> dtos = List.of(criarDTO(StatusLancamento.PENDENTE), semUsuario, invalido, outroSemUsuario);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/lote"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dtos));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+			.andExpect(MockMvcResultMatchers.jsonPath("erros.length()").value(3))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[0].indice").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[0].mensagem").value("Usuário não encontrado para o Id informado!"))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[1].indice").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[1].mensagem").value("Informe um Mês válido!"))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[2].indice").value(3))
+		;
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		Assertions.assertThat(lancamentoService.buscar(filtro)).isEmpty();
+	}
+	
+	@Test
+	public void deveAtualizarUmLancamentoComDoisComandos() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		dto.setDescricao("Atualizado");
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/" + lancamento.getId()))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		statistics.clear();
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("Atualizado"))
+		;
+		
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getDatacadastro()).isNotNull();
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoAtualizarUmLancamentoInexistente() throws Exception {
+		// Cenário
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/" + Long.MAX_VALUE))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void deveAtualizarOStatusComDoisComandos() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO("CANCELADO")));
+		
+		statistics.clear();
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+		;
+		
+		// O comando condicional e o incremento da versão do dono, sem consulta antes
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+	}
+	
+	@Test
+	public void deveManterOSaldoAoEfetivarECancelarUmLancamento() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		mvc.perform(MockMvcRequestBuilders
+					.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO("EFETIVADO"))))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("10");
+		
+		mvc.perform(MockMvcRequestBuilders
+					.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO("CANCELADO"))))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+	
+	@Test
+	public void deveCriarOSaldoUmaUnicaVezEmPrimeirasMovimentacoesConcorrentes() throws Exception {
+		// Cenário: o usuário ainda não tem saldo e dois lançamentos são efetivados ao mesmo tempo
+		Lancamento primeiro = persistirLancamento(StatusLancamento.PENDENTE);
+		Lancamento segundo = persistirLancamento(StatusLancamento.PENDENTE);
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		CountDownLatch primeiroMovimentado = new CountDownLatch(1);
+		CountDownLatch liberarPrimeiro = new CountDownLatch(1);
+		
+		// Execução: a primeira transação cria o saldo e só confirma depois que a segunda começou
+		CompletableFuture<Void> efetivacaoPrimeiro = CompletableFuture.runAsync( () -> transacao.executeWithoutResult( status -> {
+			lancamentoService.atualizarStatus(primeiro.getId(), StatusLancamento.EFETIVADO);
+			primeiroMovimentado.countDown();
+			try {
+				liberarPrimeiro.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		Assertions.assertThat(primeiroMovimentado.await(10, TimeUnit.SECONDS)).isTrue();
+		
+		CompletableFuture<Void> efetivacaoSegundo = CompletableFuture.runAsync( () -> transacao.executeWithoutResult( status -> 
+			lancamentoService.atualizarStatus(segundo.getId(), StatusLancamento.EFETIVADO) ));
+		Thread.sleep(200);
+		liberarPrimeiro.countDown();
+		
+		// Verificação
+		efetivacaoPrimeiro.get(10, TimeUnit.SECONDS);
+		efetivacaoSegundo.get(10, TimeUnit.SECONDS);
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("20");
+	}
+	
+	@Test
+	public void deveReconstruirOSaldoConcorrendoComUmaEfetivacaoDoMesmoUsuario() throws Exception {
+		// Cenário: o saldo já existe e uma efetivação trava a linha dele antes da reconstrução começar
+		Lancamento efetivado = persistirLancamento(StatusLancamento.PENDENTE);
+		lancamentoService.atualizarStatus(efetivado.getId(), StatusLancamento.EFETIVADO);
+		Lancamento pendente = persistirLancamento(StatusLancamento.PENDENTE);
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		CountDownLatch saldoTravado = new CountDownLatch(1);
+		CountDownLatch liberarEfetivacao = new CountDownLatch(1);
+		
+		// Execução: a efetivação segue a ordem lançamento, saldo, usuário enquanto a reconstrução espera
+		CompletableFuture<Void> efetivacao = CompletableFuture.runAsync( () -> transacao.executeWithoutResult( status -> {
+			saldoUsuarioRepository.travarPorUsuario(usuario.getId());
+			saldoTravado.countDown();
+			try {
+				liberarEfetivacao.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			lancamentoService.atualizarStatus(pendente.getId(), StatusLancamento.EFETIVADO);
+		}));
+		Assertions.assertThat(saldoTravado.await(10, TimeUnit.SECONDS)).isTrue();
+		
+		CompletableFuture<Void> reconstrucao = CompletableFuture.runAsync( () -> saldoService.reconstruir(usuario.getId()) );
+		Thread.sleep(200);
+		liberarEfetivacao.countDown();
+		
+		// Verificação
+		efetivacao.get(10, TimeUnit.SECONDS);
+		reconstrucao.get(10, TimeUnit.SECONDS);
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("20");
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoEnviarUmStatusInvalido() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO("INVALIDO")));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void deveEfetivarLancamentosEmLoteInformandoOsIgnorados() throws Exception {
+		// Cenário
+		Lancamento pendente = persistirLancamento(StatusLancamento.PENDENTE);
+		Lancamento outroPendente = persistirLancamento(StatusLancamento.PENDENTE);
+		Lancamento cancelado = persistirLancamento(StatusLancamento.CANCELADO);
+		
+		AtualizaStatusLoteDTO dto = AtualizaStatusLoteDTO.builder()
+					.ids(List.of(pendente.getId(), outroPendente.getId(), cancelado.getId()))
+					.statusAtual("PENDENTE")
+					.status("EFETIVADO")
+					.build();
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/atualiza-status"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("atualizados").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("ignorados[0]").value(cancelado.getId()))
+		;
+		
+		Assertions.assertThat(lancamentoRepository.findById(pendente.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("20");
+	}
+	
+	@Test
+	public void deveCancelarLancamentosEmLotePorFiltroComDoisComandos() throws Exception {
+		// Cenário
+		persistirLancamento(StatusLancamento.PENDENTE);
+		persistirLancamento(StatusLancamento.PENDENTE);
+		persistirLancamento(StatusLancamento.EFETIVADO);
+		
+		AtualizaStatusLoteDTO dto = AtualizaStatusLoteDTO.builder()
+					.usuario(usuario.getId())
+					.ano(2024)
+					.mes(5)
+					.statusAtual("PENDENTE")
+					.status("CANCELADO")
+					.build();
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.put(API.concat("/atualiza-status"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(new ObjectMapper().writeValueAsString(dto));
+		
+		statistics.clear();
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("atualizados").value(2))
+		;
+		
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void deveDeletarUmLancamentoComDoisComandos() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		statistics.clear();
+		mvc
+			.perform(MockMvcRequestBuilders.delete(API.concat("/" + lancamento.getId())))
+			.andExpect(MockMvcResultMatchers.status().isNoContent())
+		;
+		
+		// O comando condicional e o incremento da versão do dono, sem consulta antes
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		Assertions.assertThat(lancamentoRepository.existsById(lancamento.getId())).isFalse();
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoDeletarUmLancamentoInexistente() throws Exception {
+		mvc
+			.perform(MockMvcRequestBuilders.delete(API.concat("/" + Long.MAX_VALUE)))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void deveListarOsLancamentosSemCarregarOUsuarioDeCadaItem() throws Exception {
+		// Cenário
+		for (int i = 0; i < 5; i++) {
+			persistirLancamento(StatusLancamento.PENDENTE);
+		}
+		
+		// Execução e Verificação
+		statistics.clear();
+		mvc
+			.perform(MockMvcRequestBuilders.get(API)
+						.param("usuario", String.valueOf(usuario.getId()))
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(5))
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].usuario").value(usuario.getId()))
+		;
+		
+		// Um comando para a versão do usuário, que também o valida, e outro para a página
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	public void deveListarOsLancamentosComNoMaximoDoisComandosQualquerQueSejaOTamanhoDaPagina() throws Exception {
+		// Cenário, Execução e Verificação
+		persistirLancamento(StatusLancamento.PENDENTE);
+		verificarComandosDaListagem(1);
+		
+		for (int i = 1; i < 40; i++) {
+			persistirLancamento(StatusLancamento.PENDENTE);
+		}
+		verificarComandosDaListagem(40);
+	}
+	
+	@Test
+	public void deveObterUmLancamentoComUmUnicoComando() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		statistics.clear();
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/" + lancamento.getId())).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("id").value(lancamento.getId()))
+			.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()))
+			.andExpect(MockMvcResultMatchers.jsonPath("status").value(StatusLancamento.PENDENTE.name()))
+		;
+		
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoAoObterUmLancamentoComAMesmaVersao() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		String etag = mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/" + lancamento.getId())).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\""))
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		// Execução e Verificação
+		statistics.clear();
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/" + lancamento.getId()))
+						.header(HttpHeaders.IF_NONE_MATCH, etag)
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+			.andExpect(MockMvcResultMatchers.content().string(""))
+		;
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		
+		lancamentoService.atualizarStatus(lancamento.getId(), StatusLancamento.CANCELADO);
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/" + lancamento.getId()))
+						.header(HttpHeaders.IF_NONE_MATCH, etag)
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+			.andExpect(MockMvcResultMatchers.jsonPath("status").value(StatusLancamento.CANCELADO.name()))
+		;
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoAoListarAteUmaEscritaNosLancamentosDoUsuario() throws Exception {
+		// Cenário
+		persistirLancamento(StatusLancamento.PENDENTE);
+		String etag = mvc
+			.perform(MockMvcRequestBuilders.get(API).param("usuario", String.valueOf(usuario.getId())).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		// Execução e Verificação
+		statistics.clear();
+		mvc
+			.perform(MockMvcRequestBuilders.get(API)
+						.param("usuario", String.valueOf(usuario.getId()))
+						.header(HttpHeaders.IF_NONE_MATCH, etag)
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+		;
+		Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		
+		mvc
+			.perform(MockMvcRequestBuilders.post(API)
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(criarDTO(StatusLancamento.PENDENTE))))
+			.andExpect(MockMvcResultMatchers.status().isCreated());
+		mvc
+			.perform(MockMvcRequestBuilders.get(API)
+						.param("usuario", String.valueOf(usuario.getId()))
+						.header(HttpHeaders.IF_NONE_MATCH, etag)
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(2))
+		;
+	}
+	
+	@Test
+	public void deveRecusarAAtualizacaoComUmaVersaoDesatualizada() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		dto.setDescricao("Atualizado");
+		
+		mvc
+			.perform(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId()))
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+			.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1))
+		;
+		
+		// Execução e Verificação
+		dto.setDescricao("Sobrescrito");
+		mvc
+			.perform(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId()))
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+		;
+		
+		dto.setVersao(0l);
+		mvc
+			.perform(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId()))
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isConflict())
+		;
+		
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getDescricao()).isEqualTo("Atualizado");
+	}
+	
+	@Test
+	public void deveBuscarPelaDescricaoSemDiferenciarAcentosEMaiusculas() throws Exception {
+		// Cenário
+		persistirLancamento("Café da manhã");
+		persistirLancamento("Almoço");
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API)
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("descricao", "CAFE")
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].descricao").value("Café da manhã"))
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].descricaoBusca").doesNotExist())
+		;
+	}
+	
+	@Test
+	public void deveBuscarPeloInicioDaDescricaoNoModoPrefixo() throws Exception {
+		// Cenário
+		persistirLancamento("Manhã de sábado");
+		persistirLancamento("Café da manhã");
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API)
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("descricao", "manha")
+						.param("modo", "prefixo")
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].descricao").value("Manhã de sábado"))
+		;
+	}
+	
+	@Test
+	public void devePesquisarPelaDescricaoComOsResultadosMaisRelevantesPrimeiro() throws Exception {
+		// Cenário
+		persistirLancamento("Conta de luz");
+		persistirLancamento("Luz do escritório");
+		persistirLancamento("Reluzente");
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/busca"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("termo", "Luz")
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+			.andExpect(MockMvcResultMatchers.jsonPath("[0].descricao").value("Luz do escritório"))
+			.andExpect(MockMvcResultMatchers.jsonPath("[1].descricao").value("Conta de luz"))
+			.andExpect(MockMvcResultMatchers.jsonPath("[2].descricao").value("Reluzente"))
+		;
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoPesquisarComUmTermoCurto() throws Exception {
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/busca"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("termo", "lu")
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void deveExportarOsLancamentosEmCsvEscapandoOsTextos() throws Exception {
+		// Cenário
+		Lancamento simples = persistirLancamento("Padaria");
+		Lancamento comVirgula = persistirLancamento("Aluguel, condomínio");
+		Lancamento comAspas = persistirLancamento("Livro \"Dom Casmurro\"");
+		Lancamento comQuebra = persistirLancamento("Linha 1\nLinha 2");
+		
+		// Execução
+		MvcResult resultado = mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/export"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("format", "csv"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		// Verificação
+		String csv = mvc
+			.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().contentType("text/csv;charset=UTF-8"))
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION,
+						Matchers.containsString("lancamentos-" + usuario.getId() + ".csv")))
+			.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		String sufixo = ",5,2024,10.00," + usuario.getId() + ",RECEITA,PENDENTE\n";
+		Assertions.assertThat(csv).isEqualTo("id,descricao,mes,ano,valor,usuario,tipo,status\n"
+					+ simples.getId() + ",Padaria" + sufixo
+					+ comVirgula.getId() + ",\"Aluguel, condomínio\"" + sufixo
+					+ comAspas.getId() + ",\"Livro \"\"Dom Casmurro\"\"\"" + sufixo
+					+ comQuebra.getId() + ",\"Linha 1\nLinha 2\"" + sufixo);
+	}
+	
+	@Test
+	public void deveExportarEmCsvComoTextoAsDescricoesQueAPlanilhaLeriaComoFormula() throws Exception {
+		// Cenário
+		Lancamento soma = persistirLancamento("=SUM(A1:A9)");
+		Lancamento comando = persistirLancamento("@cmd|'/c calc'!A0");
+		Lancamento negativo = persistirLancamento("-10+20");
+		Lancamento hifenNoMeio = persistirLancamento("Pix - Maria");
+		
+		// Execução
+		MvcResult resultado = mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/export"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.param("format", "csv"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		// Verificação
+		String csv = mvc
+			.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		String sufixo = ",5,2024,10.00," + usuario.getId() + ",RECEITA,PENDENTE\n";
+		Assertions.assertThat(csv).isEqualTo("id,descricao,mes,ano,valor,usuario,tipo,status\n"
+					+ soma.getId() + ",\"'=SUM(A1:A9)\"" + sufixo
+					+ comando.getId() + ",\"'@cmd|'/c calc'!A0\"" + sufixo
+					+ negativo.getId() + ",\"'-10+20\"" + sufixo
+					+ hifenNoMeio.getId() + ",Pix - Maria" + sufixo);
+	}
+	
+	@Test
+	public void deveExportarOsLancamentosEmNdjsonUmPorLinha() throws Exception {
+		// Cenário
+		Lancamento primeiro = persistirLancamento("Conta de luz");
+		Lancamento segundo = persistirLancamento("Linha 1\nLinha 2");
+		
+		// Execução
+		MvcResult resultado = mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/export"))
+						.param("usuario", String.valueOf(usuario.getId())))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		// Verificação
+		String ndjson = mvc
+			.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+			.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		Assertions.assertThat(ndjson).endsWith("\n");
+		String[] linhas = ndjson.split("\n");
+		Assertions.assertThat(linhas).hasSize(2);
+		
+		ObjectMapper mapper = new ObjectMapper();
+		LancamentoDTO lido = mapper.readValue(linhas[0], LancamentoDTO.class);
+		Assertions.assertThat(lido.getId()).isEqualTo(primeiro.getId());
+		Assertions.assertThat(lido.getDescricao()).isEqualTo("Conta de luz");
+		Assertions.assertThat(lido.getUsuario()).isEqualTo(usuario.getId());
+		Assertions.assertThat(lido.getValor()).isEqualByComparingTo("10");
+		Assertions.assertThat(mapper.readValue(linhas[1], LancamentoDTO.class).getId()).isEqualTo(segundo.getId());
+		Assertions.assertThat(mapper.readValue(linhas[1], LancamentoDTO.class).getDescricao()).isEqualTo("Linha 1\nLinha 2");
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoExportarEmUmFormatoInvalido() throws Exception {
+		verificarErroDaExportacao(String.valueOf(usuario.getId()), "xml", "Formato de exportação inválido, utilize ndjson ou csv!");
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoExportarOsLancamentosDeUmUsuarioInexistente() throws Exception {
+		verificarErroDaExportacao(String.valueOf(Long.MAX_VALUE), "csv",
+					"Não foi possivel realizar a exportação. Usuário não encontrado para o Id informado!");
+	}
+	
+	@Test
+	public void deveImportarUmExtratoCsvEIgnorarAsLinhasJaImportadasNoReenvio() throws Exception {
+		// Cenário: duas compras iguais no mesmo dia e uma linha com data inválida
+		byte[] extrato = ("data;descricao;valor\n"
+					+ "05/03/2024;Padaria;-12,50\n"
+					+ "05/03/2024;Padaria;-12,50\n"
+					+ "06/03/2024;Salário;3000,00\n"
+					+ "31/02/2024;Data inexistente;-1,00\n"
+					+ "07/03/2024;Mercado;-250,00\n").getBytes(StandardCharsets.UTF_8);
+		
+		// Execução
+		Importacao primeira = importar(extrato);
+		Importacao reenvio = importar(extrato);
+		
+		// Verificação
+		Assertions.assertThat(primeira.getSituacao()).isEqualTo(SituacaoImportacao.CONCLUIDA);
+		Assertions.assertThat(primeira.getLinhas()).isEqualTo(5);
+		Assertions.assertThat(primeira.getImportados()).isEqualTo(4);
+		Assertions.assertThat(primeira.getInvalidos()).isEqualTo(1);
+		Assertions.assertThat(primeira.getErros()).singleElement().satisfies( erro -> {
+			Assertions.assertThat(erro.getLinha()).isEqualTo(5);
+			Assertions.assertThat(erro.getMensagem()).isEqualTo("Informe uma Data válida!");
+		});
+		Assertions.assertThat(reenvio.getImportados()).isZero();
+		Assertions.assertThat(reenvio.getDuplicados()).isEqualTo(4);
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		List<Lancamento> importados = lancamentoService.buscar(filtro);
+		Assertions.assertThat(importados).hasSize(4);
+		Assertions.assertThat(importados).filteredOn( l -> l.getTipo() == TipoLancamento.DESPESA ).hasSize(3);
+		Assertions.assertThat(importados).filteredOn( l -> l.getDescricao().equals("Salário") ).singleElement()
+					.satisfies( l -> {
+						Assertions.assertThat(l.getTipo()).isEqualTo(TipoLancamento.RECEITA);
+						Assertions.assertThat(l.getValor()).isEqualByComparingTo("3000");
+						Assertions.assertThat(l.getMes()).isEqualTo(3);
+						Assertions.assertThat(l.getAno()).isEqualTo(2024);
+						Assertions.assertThat(l.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+					});
+		
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/importacoes/").concat(primeira.getId()))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("situacao").value("CONCLUIDA"))
+			.andExpect(MockMvcResultMatchers.jsonPath("importados").value(4))
+		;
+	}
+	
+	@Test
+	public void deveExigirODonoDaImportacaoParaConsultaLaSemToken() throws Exception {
+		// Cenário
+		Importacao importacao = importar("data;descricao;valor\n05/03/2024;Padaria;-12,50\n".getBytes(StandardCharsets.UTF_8));
+		String url = API.concat("/importacoes/").concat(importacao.getId());
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(url).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+		mvc
+			.perform(MockMvcRequestBuilders.get(url).param("usuario", String.valueOf(criarOutroUsuario().getId())).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+		mvc
+			.perform(MockMvcRequestBuilders.get(url).header(HttpHeaders.AUTHORIZATION, tokenDe(criarOutroUsuario())).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+	}
+	
+	@Test
+	public void deveRecusarComProibidoSalvarUmLancamentoDeOutroUsuario() throws Exception {
+		// Cenário
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		verificarAcessoNegado(MockMvcRequestBuilders.post(API)
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(dto)));
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		Assertions.assertThat(lancamentoService.buscar(filtro)).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarComProibidoUmLoteComUmItemDeOutroUsuario() throws Exception {
+		// Cenário
+		Usuario outro = criarOutroUsuario();
+		LancamentoDTO proprio = criarDTO(StatusLancamento.PENDENTE);
+		proprio.setUsuario(outro.getId());
+		List<LancamentoDTO> dtos = List.of(proprio, criarDTO(StatusLancamento.PENDENTE));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/lote"))
+						.header(HttpHeaders.AUTHORIZATION, tokenDe(outro))
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(dtos)))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(outro);
+		Assertions.assertThat(lancamentoService.buscar(filtro)).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarComProibidoAtualizarOLancamentoDeOutroUsuario() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		Usuario outro = criarOutroUsuario();
+		LancamentoDTO dto = criarDTO(StatusLancamento.PENDENTE);
+		dto.setUsuario(outro.getId());
+		dto.setDescricao("Tomado");
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId()))
+						.header(HttpHeaders.AUTHORIZATION, tokenDe(outro))
+						.contentType(JSON)
+						.content(new ObjectMapper().writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+		
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getDescricao()).isNotEqualTo("Tomado");
+	}
+	
+	@Test
+	public void deveRecusarComProibidoObterOLancamentoDeOutroUsuario() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		verificarAcessoNegado(MockMvcRequestBuilders.get(API.concat("/" + lancamento.getId())).accept(JSON));
+	}
+	
+	@Test
+	public void deveRecusarComProibidoAtualizarOStatusDoLancamentoDeOutroUsuario() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		verificarAcessoNegado(MockMvcRequestBuilders.put(API.concat("/" + lancamento.getId() + "/atualiza-status"))
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO("CANCELADO"))));
+		
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+	
+	@Test
+	public void deveRecusarComProibidoAtualizarEmLoteOsLancamentosDeOutroUsuario() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		AtualizaStatusLoteDTO porIds = AtualizaStatusLoteDTO.builder()
+					.ids(List.of(lancamento.getId())).statusAtual("PENDENTE").status("CANCELADO").build();
+		AtualizaStatusLoteDTO porUsuario = AtualizaStatusLoteDTO.builder()
+					.usuario(usuario.getId()).statusAtual("PENDENTE").status("CANCELADO").build();
+		
+		// Execução e Verificação
+		verificarAcessoNegado(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(porIds)));
+		verificarAcessoNegado(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+					.contentType(JSON)
+					.content(new ObjectMapper().writeValueAsString(porUsuario)));
+		
+		Assertions.assertThat(lancamentoRepository.findById(lancamento.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+	
+	@Test
+	public void deveRecusarComProibidoDeletarOLancamentoDeOutroUsuario() throws Exception {
+		// Cenário
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		
+		// Execução e Verificação
+		verificarAcessoNegado(MockMvcRequestBuilders.delete(API.concat("/" + lancamento.getId())));
+		
+		Assertions.assertThat(lancamentoRepository.existsById(lancamento.getId())).isTrue();
+	}
+	
+	@Test
+	public void deveRetornarBadRequestAoImportarSemInformarOFormato() throws Exception {
+		mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/importar"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.contentType(MediaType.TEXT_PLAIN)
+						.content("data;descricao;valor"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	/**
+	 * Executa a requisição com o token de outro usuário, sobre os dados de {@link #usuario}.
+	 */
+	private void verificarAcessoNegado(MockHttpServletRequestBuilder request) throws Exception {
+		String resposta = mvc
+			.perform(request.header(HttpHeaders.AUTHORIZATION, tokenDe(criarOutroUsuario())))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+			.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		Assertions.assertThat(resposta).isEqualTo("O token informado não dá acesso aos dados deste usuário!");
+	}
+	
+	private Usuario criarOutroUsuario() {
+		Usuario outro = UsuarioRepositoryTest.criarUsuario();
+		outro.setEmail(System.nanoTime() + "@email.com");
+		return usuarioRepository.save(outro);
+	}
+	
+	private String tokenDe(Usuario dono) {
+		return "Bearer " + sessaoService.iniciar(dono).getTokenAcesso();
+	}
+	
+	private void verificarErroDaExportacao(String idUsuario, String formato, String mensagem) throws Exception {
+		MvcResult resultado = mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/export"))
+						.param("usuario", idUsuario)
+						.param("format", formato))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		mvc
+			.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+			.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+			.andExpect(MockMvcResultMatchers.content().contentType("text/plain;charset=UTF-8"))
+			.andExpect(MockMvcResultMatchers.content().string(mensagem))
+		;
+	}
+	
+	private Importacao importar(byte[] extrato) throws Exception {
+		String resposta = mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/importar"))
+						.param("usuario", String.valueOf(usuario.getId()))
+						.contentType("text/csv")
+						.content(extrato)
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isAccepted())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LOCATION, Matchers.containsString("/api/lancamentos/importacoes/")))
+			.andReturn().getResponse().getContentAsString();
+		String id = new ObjectMapper().readTree(resposta).get("id").asText();
+		
+		long limite = System.nanoTime() + 10_000_000_000L;
+		Importacao importacao = importacaoService.obterPorId(id).get();
+		while(importacao.getConcluidaEm() == null && System.nanoTime() < limite) {
+			Thread.sleep(20);
+			importacao = importacaoService.obterPorId(id).get();
+		}
+		return importacao;
+	}
+	
+	private Lancamento persistirLancamento(String descricao) {
+		Lancamento lancamento = persistirLancamento(StatusLancamento.PENDENTE);
+		lancamento.setDescricao(descricao);
+		return lancamentoRepository.save(lancamento);
+	}
+	
+	private void verificarComandosDaListagem(int quantidade) throws Exception {
+		try (MedicaoConsultas medicao = MedicaoConsultas.iniciar()) {
+			mvc
+				.perform(MockMvcRequestBuilders.get(API)
+							.param("usuario", String.valueOf(usuario.getId()))
+							.accept(JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(quantidade))
+				.andExpect(MockMvcResultMatchers.header().string("Server-Timing", Matchers.startsWith("db;dur=")))
+			;
+			
+			Assertions.assertThat(medicao.getComandos()).isLessThanOrEqualTo(2);
+			Assertions.assertThat(medicao.getLinhas()).isEqualTo(quantidade + 1);
+			Assertions.assertThat(medicao.getComandosRepetidos(2)).isEmpty();
+		}
+	}
+	
+	private Lancamento persistirLancamento(StatusLancamento status) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setStatus(status);
+		lancamento.setDatacadastro(LocalDate.now());
+		return lancamentoRepository.save(lancamento);
+	}
+	
+	private LancamentoDTO criarDTO(StatusLancamento status) {
+		return LancamentoDTO.builder()
+					.descricao("Lançamento qualquer")
+					.mes(5)
+					.ano(2024)
+					.valor(BigDecimal.TEN)
+					.usuario(usuario.getId())
+					.tipo(TipoLancamento.RECEITA.name())
+					.Status(status.name())
+					.build();
+	}
+}
@@ -1,5 +1,10 @@
 package com.springweb.minhasfinancas.api.resource;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -7,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -16,11 +22,20 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springweb.minhasfinancas.api.dto.RelatorioAnualDTO;
+import com.springweb.minhasfinancas.api.dto.RenovacaoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.springweb.minhasfinancas.api.dto.SessaoDTO;
 import com.springweb.minhasfinancas.api.dto.UsuarioDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.exception.AcessoNegadoException;
 import com.springweb.minhasfinancas.exception.ErroAutenticacao;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
 import com.springweb.minhasfinancas.model.entity.Usuario;
 import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.RelatorioService;
+import com.springweb.minhasfinancas.service.SessaoService;
 import com.springweb.minhasfinancas.service.UsuarioService;
 
 @ExtendWith(SpringExtension.class)
@@ -41,6 +56,12 @@ public class UsuarioResourceTest {
 	@MockBean
 	LancamentoService lancamentoService;
 	
+	@MockBean
+	RelatorioService relatorioService;
+	
+	@MockBean
+	SessaoService sessaoService;
+	
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception {
 		// Cenário
@@ -51,6 +72,8 @@ public class UsuarioResourceTest {
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 		
 		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(sessaoService.iniciar(usuario)).thenReturn(SessaoDTO.builder()
+					.usuario(usuario).tokenAcesso("acesso").tokenRenovacao("renovacao").validade(900).build());
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -67,6 +90,116 @@ public class UsuarioResourceTest {
 			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
 			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+			.andExpect(MockMvcResultMatchers.jsonPath("tokenAcesso").value("acesso"))
+			.andExpect(MockMvcResultMatchers.jsonPath("tokenRenovacao").value("renovacao"))
+			.andExpect(MockMvcResultMatchers.jsonPath("validade").value(900))
+		;
+		
+	}
+	
+	@Test
+	public void deveRetornarNaoAutorizadoAoRenovarComTokenInvalido() throws Exception {
+		// Cenário
+		Mockito.when(sessaoService.renovar("usado")).thenThrow(new ErroAutenticacao("Token revogado!"));
+		String json = new ObjectMapper().writeValueAsString(new RenovacaoDTO("usado"));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/renovar")).contentType(JSON).content(json))
+			.andExpect(MockMvcResultMatchers.status().isUnauthorized())
+			.andExpect(MockMvcResultMatchers.content().string("Token revogado!"))
+		;
+	}
+	
+	@Test
+	public void deveRevogarOsTokensAoSair() throws Exception {
+		// Cenário
+		String json = new ObjectMapper().writeValueAsString(new RenovacaoDTO("renovacao"));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/sair"))
+						.header(HttpHeaders.AUTHORIZATION, "Bearer acesso")
+						.contentType(JSON)
+						.content(json))
+			.andExpect(MockMvcResultMatchers.status().isNoContent())
+		;
+		
+		Mockito.verify(sessaoService).encerrar("acesso", "renovacao");
+	}
+	
+	@Test
+	public void deveRetornarProibidoAoSairComOTokenDeRenovacaoDeOutroUsuario() throws Exception {
+		// Cenário
+		Mockito.doThrow(new AcessoNegadoException("O token de renovação informado não pertence ao usuário autenticado!"))
+					.when(sessaoService).encerrar("acesso", "alheio");
+		String json = new ObjectMapper().writeValueAsString(new RenovacaoDTO("alheio"));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.post(API.concat("/sair"))
+						.header(HttpHeaders.AUTHORIZATION, "Bearer acesso")
+						.contentType(JSON)
+						.content(json))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+	}
+	
+	@Test
+	public void deveRecusarOTokenDeOutroUsuario() throws Exception {
+		// Cenário
+		Mockito.when(sessaoService.autenticar("acesso")).thenReturn(2l);
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo/mensal"))
+						.param("ano", "2024")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer acesso"))
+			.andExpect(MockMvcResultMatchers.status().isForbidden())
+		;
+		
+		Mockito.verifyNoInteractions(service, lancamentoService);
+	}
+	
+	@Test
+	public void deveObterOSaldoMensalComTokenSemConsultarOUsuario() throws Exception {
+		// Cenário
+		Mockito.when(sessaoService.autenticar("acesso")).thenReturn(1l);
+		Mockito.when(lancamentoService.obterSaldoMensalPorUsuario(1l, 2024)).thenReturn(List.of());
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo/mensal"))
+						.param("ano", "2024")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer acesso"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+		;
+		
+		Mockito.verifyNoInteractions(service);
+	}
+	
+	@Test
+	public void deveRetornarServicoIndisponivelQuandoOHashDeSenhasEstiverSobrecarregado() throws Exception {
+		// Cenário
+		String email = "usuario@email.com";
+		String senha = "123";
+		
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+		
+		Mockito.when(service.autenticar(email, senha)).thenThrow(new SobrecargaException("Servidor ocupado, tente novamente em instantes!"));
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/autenticar"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"))
 		;
 		
 	}
@@ -151,4 +284,103 @@ public class UsuarioResourceTest {
 		;
 		
 	}
+	
+	@Test
+	public void deveObterOSaldoDoUsuarioComAVersaoComoEtag() throws Exception {
+		// Cenário
+		Mockito.when(lancamentoService.obterVersaoPorUsuario(1l)).thenReturn(Optional.of(7l));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.valueOf(70));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"7\""))
+			.andExpect(MockMvcResultMatchers.content().string("70"))
+		;
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoSemCalcularOSaldoQuandoAVersaoNaoMudou() throws Exception {
+		// Cenário
+		Mockito.when(lancamentoService.obterVersaoPorUsuario(1l)).thenReturn(Optional.of(7l));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+						.header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+						.accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+		;
+		
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveObterOSaldoMensalDoUsuario() throws Exception {
+		// Cenário
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		Mockito.when(service.obterPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(lancamentoService.obterSaldoMensalPorUsuario(1l, 2024))
+			.thenReturn(Arrays.asList(new SaldoMensalDTO(1, BigDecimal.valueOf(100), BigDecimal.valueOf(30))));
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/1/saldo/mensal"))
+													.param("ano", "2024")
+													.accept(JSON);
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("[0].mes").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("[0].saldo").value(70))
+		;
+		
+	}
+	
+	@Test
+	public void deveRetornarNotFoundAoObterSaldoMensalDeUsuarioInexistente() throws Exception {
+		// Cenário
+		Mockito.when(service.obterPorId(1l)).thenReturn(Optional.empty());
+		
+		// Execução e Verificação
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/1/saldo/mensal"))
+													.param("ano", "2024")
+													.accept(JSON);
+		
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isNotFound())
+		;
+		
+	}
+	
+	@Test
+	public void deveObterORelatorioAnualDoUsuario() throws Exception {
+		// Cenário
+		RelatorioAnualDTO relatorio = RelatorioAnualDTO.builder().usuario(1l).ano(2024).saldo(Dinheiro.de("10")).build();
+		Mockito.when(relatorioService.obterRelatorioAnual(1l, 2024)).thenReturn(Optional.of(relatorio));
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/relatorio")).param("ano", "2024").accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("ano").value(2024))
+			.andExpect(MockMvcResultMatchers.jsonPath("saldo").value(10))
+		;
+	}
+	
+	@Test
+	public void deveRetornarNotFoundAoObterORelatorioDeUsuarioInexistente() throws Exception {
+		// Cenário
+		Mockito.when(relatorioService.obterRelatorioAnual(1l, 2024)).thenReturn(Optional.empty());
+		
+		// Execução e Verificação
+		mvc
+			.perform(MockMvcRequestBuilders.get(API.concat("/1/relatorio")).param("ano", "2024").accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isNotFound())
+		;
+	}
 }
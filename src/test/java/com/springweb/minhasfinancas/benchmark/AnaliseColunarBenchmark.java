@@ -0,0 +1,148 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springweb.minhasfinancas.MinhasfinancasApplication;
+import com.springweb.minhasfinancas.api.dto.SaldoAnoMesDTO;
+import com.springweb.minhasfinancas.api.dto.TotalDescricaoDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.service.AnaliseService;
+
+/**
+ * Compara as agregações do {@link AnaliseService} em colunas com o SQL equivalente no H2
+ * embarcado do perfil de teste, para um usuário com {@code lancamentos} lançamentos em 10
+ * anos e 1000 descrições distintas. As medições do serviço incluem a leitura da versão dos
+ * lançamentos e a conversão do resultado em DTOs; a carga das colunas acontece no aquecimento.
+ * O H2 roda com {@code QUERY_CACHE_SIZE=0} para não devolver o resultado da execução anterior
+ * de um comando em cache enquanto a tabela não muda.
+ *
+ * <pre>
+ * mvn -Pbenchmark verify -Djmh.args="AnaliseColunar -p lancamentos=100000"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnaliseColunarBenchmark {
+
+	private static final int TAMANHO_BLOCO = 10_000;
+	private static final int DESCRICOES = 1000;
+	private static final int ANO = 2020;
+
+	@Param({ "100000", "1000000" })
+	private int lancamentos;
+
+	private ConfigurableApplicationContext contexto;
+
+	private AnaliseService service;
+
+	private JdbcTemplate jdbc;
+
+	private Long idUsuario;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication aplicacao = new SpringApplication(MinhasfinancasApplication.class);
+		aplicacao.setAdditionalProfiles("test");
+		contexto = aplicacao.run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=false",
+					"--financas.consultas.monitoramento=false", "--financas.analise.colunar=true",
+					"--spring.datasource.url=jdbc:h2:mem:analise;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0");
+
+		service = contexto.getBean(AnaliseService.class);
+		jdbc = contexto.getBean(JdbcTemplate.class);
+		carregar();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public List<TotalLancamentosDTO> totaisPorMesColunar() {
+		return service.obterTotaisPorMes(idUsuario, ANO).get();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> totaisPorMesSql() {
+		return jdbc.queryForList("select mes, tipo, status, sum(valor) from financas.lancamento "
+					+ "where id_usuario = ? and ano = ? group by mes, tipo, status", idUsuario, ANO);
+	}
+
+	@Benchmark
+	public List<SaldoAnoMesDTO> tendenciaColunar() {
+		return service.obterTendencia(idUsuario, 2015, 2024).get();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> tendenciaSql() {
+		return jdbc.queryForList("select ano, mes, "
+					+ "sum(case when tipo = 'RECEITA' then valor end), sum(case when tipo = 'DESPESA' then valor end) "
+					+ "from financas.lancamento where id_usuario = ? and status = 'EFETIVADO' and ano between ? and ? "
+					+ "group by ano, mes", idUsuario, 2015, 2024);
+	}
+
+	@Benchmark
+	public List<TotalDescricaoDTO> principaisDescricoesColunar() {
+		return service.obterPrincipaisDescricoes(idUsuario, ANO, TipoLancamento.DESPESA, 10).get();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> principaisDescricoesSql() {
+		return jdbc.queryForList("select descricao, sum(valor) total, count(*) from financas.lancamento "
+					+ "where id_usuario = ? and ano = ? and tipo = 'DESPESA' group by descricao order by total desc limit 10",
+					idUsuario, ANO);
+	}
+
+	private void carregar() {
+		LancamentoRepository repository = contexto.getBean(LancamentoRepository.class);
+		TransactionTemplate transacao = contexto.getBean(TransactionTemplate.class);
+		Usuario usuario = contexto.getBean(UsuarioRepository.class).save(Usuario.builder()
+					.nome("Usuario")
+					.email("usuario@analise.com")
+					.senha("senha")
+					.build());
+
+		for (int inicio = 1; inicio <= lancamentos; inicio += TAMANHO_BLOCO) {
+			int fim = Math.min(inicio + TAMANHO_BLOCO - 1, lancamentos);
+			List<Lancamento> bloco = new ArrayList<>(fim - inicio + 1);
+			for (long i = inicio; i <= fim; i++) {
+				Lancamento lancamento = DadosBenchmark.lancamento(i, usuario);
+				lancamento.setId(0);
+				lancamento.setDescricao("Lançamento " + (i % DESCRICOES));
+				bloco.add(lancamento);
+			}
+			transacao.executeWithoutResult(status -> repository.inserirEmLote(bloco));
+		}
+		idUsuario = usuario.getId();
+	}
+}
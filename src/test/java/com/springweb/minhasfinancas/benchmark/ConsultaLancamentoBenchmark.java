@@ -0,0 +1,137 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springweb.minhasfinancas.MinhasfinancasApplication;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.SaldoService;
+
+/**
+ * Consultas do serviço contra o H2 embarcado do perfil de teste, com as migrações aplicadas
+ * e {@code lancamentosPorUsuario} lançamentos para cada um dos usuários carregados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConsultaLancamentoBenchmark {
+
+	private static final int USUARIOS = 5;
+	private static final int TAMANHO_BLOCO = 10_000;
+
+	@Param({ "1000", "100000" })
+	private int lancamentosPorUsuario;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private LancamentoRepository repository;
+
+	private Lancamento filtro;
+
+	private Lancamento filtroPorDescricao;
+
+	private Long idUsuario;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication aplicacao = new SpringApplication(MinhasfinancasApplication.class);
+		aplicacao.setAdditionalProfiles("test");
+		// A configuração MVC exige o contexto web; a porta aleatória evita conflito com outra instância
+		contexto = aplicacao.run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=false",
+					"--financas.consultas.monitoramento=false");
+
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+		carregar();
+
+		Usuario usuario = Usuario.builder().id(idUsuario).build();
+		filtro = Lancamento.builder().usuario(usuario).ano(2020).build();
+		filtroPorDescricao = Lancamento.builder().usuario(usuario).descricao("lancamento 12").build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public Window<LancamentoDTO> buscarPrimeiraPaginaDoAno() {
+		return service.buscar(filtro, ScrollPosition.keyset(), 50);
+	}
+
+	@Benchmark
+	public Window<LancamentoDTO> buscarPorDescricao() {
+		return service.buscar(filtroPorDescricao, ScrollPosition.keyset(), 50);
+	}
+
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario() {
+		return service.obterSaldoPorUsuario(idUsuario);
+	}
+
+	@Benchmark
+	public SaldoDTO agregarSaldoPorUsuario() {
+		return repository.obterSaldoPorUsuarioEStatus(idUsuario, StatusLancamento.EFETIVADO);
+	}
+
+	private void carregar() {
+		UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+		SaldoService saldoService = contexto.getBean(SaldoService.class);
+		TransactionTemplate transacao = contexto.getBean(TransactionTemplate.class);
+
+		for (int u = 0; u < USUARIOS; u++) {
+			Usuario usuario = usuarioRepository.save(Usuario.builder()
+						.nome("Usuario " + u)
+						.email("usuario" + u + "@benchmark.com")
+						.senha("senha")
+						.build());
+
+			for (int inicio = 1; inicio <= lancamentosPorUsuario; inicio += TAMANHO_BLOCO) {
+				int fim = Math.min(inicio + TAMANHO_BLOCO - 1, lancamentosPorUsuario);
+				List<Lancamento> bloco = new ArrayList<>(fim - inicio + 1);
+				for (long i = inicio; i <= fim; i++) {
+					Lancamento lancamento = DadosBenchmark.lancamento(i, usuario);
+					lancamento.setId(0);
+					bloco.add(lancamento);
+				}
+				transacao.executeWithoutResult(status -> repository.inserirEmLote(bloco));
+			}
+
+			saldoService.reconstruir(usuario.getId());
+			idUsuario = usuario.getId();
+		}
+	}
+}
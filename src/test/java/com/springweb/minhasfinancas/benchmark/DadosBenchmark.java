@@ -0,0 +1,41 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+
+/**
+ * Lançamentos sintéticos usados pelos benchmarks. Tudo deriva do id, de modo que
+ * execuções diferentes medem exatamente os mesmos dados.
+ */
+public final class DadosBenchmark {
+	
+	private DadosBenchmark() {
+	}
+	
+	public static Lancamento lancamento(long id, Usuario usuario) {
+		return Lancamento.builder()
+					.id(id)
+					.descricao("Lançamento " + id)
+					.mes((int) (id % 12) + 1)
+					.ano(2015 + (int) (id % 10))
+					.valor(BigDecimal.valueOf(1000 + id % 100_000, 2))
+					.usuario(usuario)
+					.tipo(id % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+					.status(StatusLancamento.values()[(int) (id % 3)])
+					.build();
+	}
+	
+	public static List<Lancamento> lancamentos(int quantidade, Usuario usuario) {
+		List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+		for (long id = 1; id <= quantidade; id++) {
+			lancamentos.add(lancamento(id, usuario));
+		}
+		return lancamentos;
+	}
+}
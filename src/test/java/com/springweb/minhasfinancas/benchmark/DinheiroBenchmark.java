@@ -0,0 +1,114 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+
+/**
+ * Soma e serialização de valores em {@link BigDecimal} e em {@link Dinheiro}. Rodar com
+ * {@code -prof gc} para ver a alocação por operação.
+ *
+ * <pre>
+ * mvn -Pbenchmark verify -Djmh.args="DinheiroBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DinheiroBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int tamanho;
+
+	private ObjectMapper objectMapper;
+
+	private List<BigDecimal> valores;
+
+	private long[] centavos;
+
+	@Setup
+	public void setUp() {
+		objectMapper = new ObjectMapper();
+		Random aleatorio = new Random(42);
+		valores = new ArrayList<>(tamanho);
+		centavos = new long[tamanho];
+		for (int i = 0; i < tamanho; i++) {
+			long valor = 1 + aleatorio.nextInt(10_000_000);
+			valores.add(BigDecimal.valueOf(valor, Dinheiro.ESCALA));
+			centavos[i] = valor;
+		}
+	}
+
+	@Benchmark
+	public BigDecimal somarBigDecimal() {
+		BigDecimal total = BigDecimal.ZERO;
+		for (BigDecimal valor : valores) {
+			total = total.add(valor);
+		}
+		return total;
+	}
+
+	/**
+	 * Parcelas ainda em {@link BigDecimal}, como chegam do banco, convertidas uma a uma.
+	 */
+	@Benchmark
+	public long somarConvertendoParaCentavos() {
+		long total = 0;
+		for (BigDecimal valor : valores) {
+			total = Math.addExact(total, Dinheiro.centavos(valor));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long somarCentavos() {
+		long total = 0;
+		for (long valor : centavos) {
+			total = Math.addExact(total, valor);
+		}
+		return total;
+	}
+
+	/**
+	 * O {@link BigDecimal} guarda o próprio texto depois do primeiro {@code toString()}; os
+	 * valores são criados a cada chamada, como os que chegam do banco ou de uma agregação.
+	 */
+	@Benchmark
+	public byte[] jsonBigDecimal() throws JsonProcessingException {
+		List<BigDecimal> novos = new ArrayList<>(tamanho);
+		for (long valor : centavos) {
+			novos.add(BigDecimal.valueOf(valor, Dinheiro.ESCALA));
+		}
+		return objectMapper.writeValueAsBytes(novos);
+	}
+
+	@Benchmark
+	public byte[] jsonDinheiro() throws JsonProcessingException {
+		List<Dinheiro> novos = new ArrayList<>(tamanho);
+		for (long valor : centavos) {
+			novos.add(Dinheiro.deCentavos(valor));
+		}
+		return objectMapper.writeValueAsBytes(novos);
+	}
+}
@@ -0,0 +1,209 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.flywaydb.core.Flyway;
+
+/**
+ * Mede a latência das consultas cobertas pela migração de índices (V4) antes e depois de aplicá-la.
+ *
+ * Recria o schema financas do zero com as migrações até a V3, carrega lançamentos sintéticos
+ * (1000 por usuário, distribuídos em 10 anos), mede cada consulta, aplica a V4 e mede de novo.
+ * Como limpa o schema, deve apontar para um banco descartável.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.springweb.minhasfinancas.benchmark.IndicesConsultasBenchmark \
+ *     -Dlinhas=1000000 -Durl=jdbc:postgresql://localhost:5432/benchmark -Dusuario=postgres -Dsenha=root
+ * </pre>
+ *
+ * Sem {@code -Durl} usa um H2 em memória; para 10M de linhas prefira Postgres ou um H2 em arquivo.
+ */
+public class IndicesConsultasBenchmark {
+
+	private static final int LANCAMENTOS_POR_USUARIO = 1000;
+	private static final int AQUECIMENTO = 20;
+	private static final int MEDICOES = 50;
+	private static final int TAMANHO_LOTE = 5000;
+
+	private static final Map<String, String> CONSULTAS = new LinkedHashMap<>();
+
+	static {
+		CONSULTAS.put("buscar (primeira página por usuário/ano/mês)",
+				"select id, descricao, mes, ano, valor, tipo, status from financas.lancamento "
+				+ "where id_usuario = ? and ano = ? and mes = ? order by ano, mes, id limit 50");
+		CONSULTAS.put("buscar (página seguinte por cursor)",
+				"select id, descricao, mes, ano, valor, tipo, status from financas.lancamento "
+				+ "where id_usuario = ? and (ano > ? or (ano = ? and mes > ?) or (ano = ? and mes = ? and id > ?)) "
+				+ "order by ano, mes, id limit 50");
+		CONSULTAS.put("saldo por usuário e status",
+				"select sum(case when tipo = 'RECEITA' then valor end), sum(case when tipo = 'DESPESA' then valor end) "
+				+ "from financas.lancamento where id_usuario = ? and status = 'EFETIVADO'");
+		CONSULTAS.put("saldo mensal por usuário, ano e status",
+				"select mes, sum(case when tipo = 'RECEITA' then valor end), sum(case when tipo = 'DESPESA' then valor end) "
+				+ "from financas.lancamento where id_usuario = ? and ano = ? and status = 'EFETIVADO' group by mes order by mes");
+		CONSULTAS.put("usuário por email",
+				"select id, nome, email, senha from financas.usuario where email = ?");
+	}
+
+	public static void main(String[] args) throws SQLException {
+		String url = System.getProperty("url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+		String usuario = System.getProperty("usuario", "sa");
+		String senha = System.getProperty("senha", "sa");
+		int linhas = Integer.getInteger("linhas", 1_000_000);
+		int usuarios = Math.max(1, linhas / LANCAMENTOS_POR_USUARIO);
+		String fornecedor = url.startsWith("jdbc:postgresql") ? "postgresql" : "h2";
+
+		Flyway flyway = Flyway.configure()
+				.dataSource(url, usuario, senha)
+				.locations("classpath:db/migration/" + fornecedor)
+				.schemas("financas")
+				.cleanDisabled(false)
+				.target("3")
+				.load();
+		flyway.clean();
+		flyway.migrate();
+
+		try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+			long inicio = System.nanoTime();
+			carregar(conexao, usuarios);
+			System.out.printf("%d usuários e %d lançamentos carregados em %d s%n",
+					usuarios, (long) usuarios * LANCAMENTOS_POR_USUARIO, (System.nanoTime() - inicio) / 1_000_000_000);
+
+			Map<String, double[]> semIndices = medir(conexao, usuarios);
+
+			Flyway.configure()
+					.configuration(flyway.getConfiguration())
+					.target("latest")
+					.load()
+					.migrate();
+			analisar(conexao, fornecedor);
+
+			Map<String, double[]> comIndices = medir(conexao, usuarios);
+
+			System.out.printf("%n%-48s %14s %14s %14s %14s%n", "consulta", "antes p50 ms", "antes p95 ms", "depois p50 ms", "depois p95 ms");
+			for (String consulta : CONSULTAS.keySet()) {
+				double[] antes = semIndices.get(consulta);
+				double[] depois = comIndices.get(consulta);
+				System.out.printf("%-48s %14.3f %14.3f %14.3f %14.3f%n", consulta, antes[0], antes[1], depois[0], depois[1]);
+			}
+		}
+	}
+
+	private static void carregar(Connection conexao, int usuarios) throws SQLException {
+		Random aleatorio = new Random(42);
+		conexao.setAutoCommit(false);
+
+		try (PreparedStatement insercao = conexao.prepareStatement(
+				"insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)")) {
+			for (int i = 1; i <= usuarios; i++) {
+				insercao.setLong(1, i);
+				insercao.setString(2, "usuario " + i);
+				insercao.setString(3, "usuario" + i + "@email.com");
+				insercao.setString(4, "senha");
+				insercao.addBatch();
+				if (i % TAMANHO_LOTE == 0) {
+					insercao.executeBatch();
+				}
+			}
+			insercao.executeBatch();
+		}
+		conexao.commit();
+
+		String[] status = { "PENDENTE", "CANCELADO", "EFETIVADO" };
+		long id = 0;
+		try (PreparedStatement insercao = conexao.prepareStatement(
+				"insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro) "
+				+ "values (?, ?, ?, ?, ?, ?, ?, ?, current_date)")) {
+			for (int i = 1; i <= usuarios; i++) {
+				for (int j = 0; j < LANCAMENTOS_POR_USUARIO; j++) {
+					insercao.setLong(1, ++id);
+					insercao.setString(2, "lançamento " + j);
+					insercao.setInt(3, 1 + aleatorio.nextInt(12));
+					insercao.setInt(4, 2015 + aleatorio.nextInt(10));
+					insercao.setBigDecimal(5, BigDecimal.valueOf(1 + aleatorio.nextInt(100_000), 2));
+					insercao.setString(6, aleatorio.nextBoolean() ? "RECEITA" : "DESPESA");
+					insercao.setString(7, status[aleatorio.nextInt(status.length)]);
+					insercao.setLong(8, i);
+					insercao.addBatch();
+					if (id % TAMANHO_LOTE == 0) {
+						insercao.executeBatch();
+						conexao.commit();
+					}
+				}
+			}
+			insercao.executeBatch();
+		}
+		conexao.commit();
+		conexao.setAutoCommit(true);
+
+		analisar(conexao, conexao.getMetaData().getURL().startsWith("jdbc:postgresql") ? "postgresql" : "h2");
+	}
+
+	private static void analisar(Connection conexao, String fornecedor) throws SQLException {
+		try (PreparedStatement analise = conexao.prepareStatement(
+				"postgresql".equals(fornecedor) ? "vacuum analyze" : "analyze")) {
+			analise.execute();
+		}
+	}
+
+	/**
+	 * Retorna, por consulta, a mediana e o percentil 95 em milissegundos.
+	 */
+	private static Map<String, double[]> medir(Connection conexao, int usuarios) throws SQLException {
+		Map<String, double[]> resultado = new LinkedHashMap<>();
+		for (Map.Entry<String, String> consulta : CONSULTAS.entrySet()) {
+			Random aleatorio = new Random(7);
+			double[] tempos = new double[MEDICOES];
+			try (PreparedStatement comando = conexao.prepareStatement(consulta.getValue())) {
+				for (int i = 0; i < AQUECIMENTO + MEDICOES; i++) {
+					preencher(comando, consulta.getKey(), 1 + aleatorio.nextInt(usuarios), aleatorio);
+					long inicio = System.nanoTime();
+					try (ResultSet linhas = comando.executeQuery()) {
+						while (linhas.next()) {
+							// consome o resultado inteiro para medir a consulta completa
+						}
+					}
+					if (i >= AQUECIMENTO) {
+						tempos[i - AQUECIMENTO] = (System.nanoTime() - inicio) / 1_000_000d;
+					}
+				}
+			}
+			Arrays.sort(tempos);
+			resultado.put(consulta.getKey(), new double[] { tempos[MEDICOES / 2], tempos[(int) (MEDICOES * 0.95)] });
+		}
+		return resultado;
+	}
+
+	private static void preencher(PreparedStatement comando, String consulta, int idUsuario, Random aleatorio) throws SQLException {
+		int ano = 2015 + aleatorio.nextInt(10);
+		int mes = 1 + aleatorio.nextInt(12);
+		if (consulta.startsWith("usuário")) {
+			comando.setString(1, "usuario" + idUsuario + "@email.com");
+			return;
+		}
+		comando.setLong(1, idUsuario);
+		if (consulta.contains("cursor")) {
+			comando.setInt(2, ano);
+			comando.setInt(3, ano);
+			comando.setInt(4, mes);
+			comando.setInt(5, ano);
+			comando.setInt(6, mes);
+			comando.setLong(7, 0);
+		} else if (consulta.startsWith("buscar")) {
+			comando.setInt(2, ano);
+			comando.setInt(3, mes);
+		} else if (consulta.contains("mensal")) {
+			comando.setInt(2, ano);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Custo da instrumentação no caminho quente: a mesma chamada de serviço direta, através de um
+ * proxy sem aspecto e através do {@link TimedAspect} registrando num registro Prometheus com
+ * histograma, como em produção. Os serviços já passam pelo proxy transacional, então o que cada
+ * método paga pela métrica é a diferença entre {@code proxy} e {@code observado}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InstrumentacaoBenchmark {
+
+	private LancamentoService direto;
+
+	private LancamentoService proxy;
+
+	private LancamentoService observado;
+
+	private Timer timer;
+
+	private Lancamento lancamento;
+
+	@Setup
+	public void setUp() {
+		PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+		direto = new LancamentoServiceImpl(null, null, null);
+
+		ProxyFactory semAspecto = new ProxyFactory(new LancamentoServiceImpl(null, null, null));
+		semAspecto.setProxyTargetClass(true);
+		semAspecto.addAdvice((MethodInterceptor) MethodInvocation::proceed);
+		proxy = (LancamentoService) semAspecto.getProxy();
+
+		AspectJProxyFactory comAspecto = new AspectJProxyFactory(new LancamentoServiceImpl(null, null, null));
+		comAspecto.setProxyTargetClass(true);
+		comAspecto.addAspect(new TimedAspect(meterRegistry));
+		observado = comAspecto.getProxy();
+
+		timer = Timer.builder("financas.benchmark").publishPercentileHistogram().register(meterRegistry);
+		lancamento = DadosBenchmark.lancamento(1l, Usuario.builder().id(1l).build());
+	}
+
+	@Benchmark
+	public Lancamento direto() {
+		direto.validar(lancamento);
+		return lancamento;
+	}
+
+	@Benchmark
+	public Lancamento proxy() {
+		proxy.validar(lancamento);
+		return lancamento;
+	}
+
+	@Benchmark
+	public Lancamento observado() {
+		observado.validar(lancamento);
+		return lancamento;
+	}
+
+	@Benchmark
+	public Lancamento timerComHistograma() {
+		timer.record(() -> direto.validar(lancamento));
+		return lancamento;
+	}
+}
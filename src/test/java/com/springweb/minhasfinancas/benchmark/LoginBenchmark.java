@@ -0,0 +1,106 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springweb.minhasfinancas.MinhasfinancasApplication;
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.service.UsuarioService;
+
+/**
+ * Uma enxurrada de logins com a senha certa, de 64 threads ao mesmo tempo, contra o pool de
+ * hash de senhas com as threads padrão (uma por processador) e {@code fila} tarefas de fila.
+ * {@code aceitos} é a vazão de logins concluídos, perto de processadores / {@code latencia};
+ * {@code recusados} são os que receberiam 503, e mostram que o excedente volta na hora em vez
+ * de se acumular nas threads de quem chama.
+ *
+ * <pre>
+ * mvn -Pbenchmark verify -Djmh.args="Login -p latencia=100ms"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoginBenchmark {
+
+	private static final String EMAIL = "usuario@login.com";
+	private static final String SENHA = "senha";
+
+	@Param({ "10ms" })
+	private String latencia;
+
+	@Param({ "0", "32" })
+	private int fila;
+
+	private ConfigurableApplicationContext contexto;
+
+	private UsuarioService service;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Resultados {
+
+		public long aceitos;
+
+		public long recusados;
+
+		@Setup(Level.Iteration)
+		public void zerar() {
+			aceitos = 0;
+			recusados = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication aplicacao = new SpringApplication(MinhasfinancasApplication.class);
+		aplicacao.setAdditionalProfiles("test");
+		contexto = aplicacao.run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=false",
+					"--financas.consultas.monitoramento=false", "--financas.senha.latencia-alvo=" + latencia,
+					"--financas.senha.fila=" + fila);
+
+		service = contexto.getBean(UsuarioService.class);
+		service.salvarUsuario(Usuario.builder()
+					.nome("Usuario")
+					.email(EMAIL)
+					.senha(SENHA)
+					.build());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public void login(Resultados resultados) {
+		try {
+			service.autenticar(EMAIL, SENHA);
+			resultados.aceitos++;
+		} catch (SobrecargaException e) {
+			resultados.recusados++;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+
+/**
+ * Custo de serializar listas de entidades (com o usuário aninhado) e de DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializacaoJsonBenchmark {
+	
+	@Param({ "1", "100", "10000" })
+	private int tamanho;
+	
+	private ObjectMapper objectMapper;
+	
+	private List<Lancamento> lancamentos;
+	
+	private List<LancamentoDTO> dtos;
+	
+	@Setup
+	public void setUp() {
+		objectMapper = new ObjectMapper().findAndRegisterModules();
+		Usuario usuario = Usuario.builder().id(1l).nome("Usuario").email("usuario@email.com").senha("senha").build();
+		lancamentos = DadosBenchmark.lancamentos(tamanho, usuario);
+		dtos = lancamentos.stream()
+					.map( lancamento -> LancamentoDTO.builder()
+							.id(lancamento.getId())
+							.descricao(lancamento.getDescricao())
+							.mes(lancamento.getMes())
+							.ano(lancamento.getAno())
+							.valor(lancamento.getValor())
+							.usuario(usuario.getId())
+							.tipo(lancamento.getTipo().name())
+							.Status(lancamento.getStatus().name())
+							.build() )
+					.toList();
+	}
+	
+	@Benchmark
+	public byte[] entidades() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(lancamentos);
+	}
+	
+	@Benchmark
+	public byte[] dtos() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dtos);
+	}
+}
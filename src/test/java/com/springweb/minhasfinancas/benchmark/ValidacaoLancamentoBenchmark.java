@@ -0,0 +1,45 @@
+package com.springweb.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValidacaoLancamentoBenchmark {
+	
+	private LancamentoServiceImpl service;
+	
+	private Lancamento lancamento;
+	
+	@Setup
+	public void setUp() {
+		// validar não usa o repositório nem o saldo
+		service = new LancamentoServiceImpl(null, null, null);
+		lancamento = DadosBenchmark.lancamento(1l, Usuario.builder().id(1l).build());
+	}
+	
+	@Benchmark
+	public Lancamento validar() {
+		service.validar(lancamento);
+		return lancamento;
+	}
+
+}
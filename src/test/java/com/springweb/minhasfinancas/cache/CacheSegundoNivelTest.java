@@ -0,0 +1,146 @@
+package com.springweb.minhasfinancas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepositoryTest;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * O transporte declarado aqui faz o papel do cluster: o teste vê o que este nó publica e
+ * publica em nome de outro nó.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class CacheSegundoNivelTest {
+
+	@TestConfiguration
+	static class Transporte {
+
+		@Bean
+		TransporteInvalidacaoLocal transporteInvalidacao() {
+			return new TransporteInvalidacaoLocal();
+		}
+	}
+
+	@Autowired
+	TransporteInvalidacaoLocal transporte;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	List<MensagemInvalidacao> publicadas;
+
+	@BeforeEach
+	public void assinar() {
+		publicadas = new CopyOnWriteArrayList<>();
+		transporte.assinar(publicadas::add);
+	}
+
+	@Test
+	public void devePublicarARemocaoDoUsuarioAlterado() {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		usuarioRepository.findById(usuario.getId());
+		assertThat(emCache(usuario)).isTrue();
+
+		// Execução
+		usuario.setNome("alterado");
+		usuarioRepository.save(usuario);
+
+		// Verificação
+		assertThat(emCache(usuario)).isFalse();
+		assertThat(publicadas).anySatisfy( mensagem -> {
+			assertThat(mensagem.getRegiao()).isEqualTo(Usuario.class.getName());
+			assertThat(mensagem.getChave()).isNotNull();
+			assertThat(mensagem.getValor()).isNull();
+		});
+	}
+
+	@Test
+	public void deveAplicarARemocaoDeOutroNoEIgnorarAsProprias() {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		usuarioRepository.findById(usuario.getId());
+		publicadas.clear();
+		entityManagerFactory.getCache().evict(Usuario.class, usuario.getId());
+		MensagemInvalidacao propria = publicadas.get(0);
+		usuarioRepository.findById(usuario.getId());
+
+		// Execução
+		transporte.publicar(propria);
+		boolean depoisDaPropria = emCache(usuario);
+		transporte.publicar(new MensagemInvalidacao(UUID.randomUUID().toString(), propria.getRegiao(), propria.getChave(), null));
+
+		// Verificação
+		assertThat(depoisDaPropria).isTrue();
+		assertThat(emCache(usuario)).isFalse();
+	}
+
+	@Test
+	public void deveDescartarOSaldoEmCacheQuandoUmLancamentoForGravado() {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		salvarLancamento(usuario, 100);
+		assertThat(saldo(usuario)).isEqualByComparingTo("100");
+
+		// Execução
+		salvarLancamento(usuario, 30);
+
+		// Verificação
+		assertThat(saldo(usuario)).isEqualByComparingTo("130");
+		assertThat(publicadas).anySatisfy( mensagem -> assertThat(mensagem.getValor()).isNotNull() );
+	}
+
+	private Usuario salvarUsuario() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		usuario.setEmail(UUID.randomUUID() + "@email.com");
+		return usuarioRepository.save(usuario);
+	}
+
+	private void salvarLancamento(Usuario usuario, int valor) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setValor(BigDecimal.valueOf(valor));
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		lancamentoRepository.save(lancamento);
+	}
+
+	private BigDecimal saldo(Usuario usuario) {
+		SaldoDTO saldo = lancamentoRepository.obterSaldoPorUsuarioEStatus(usuario.getId(), StatusLancamento.EFETIVADO);
+		return saldo.getSaldo();
+	}
+
+	private boolean emCache(Usuario usuario) {
+		return entityManagerFactory.getCache().contains(Usuario.class, usuario.getId());
+	}
+}
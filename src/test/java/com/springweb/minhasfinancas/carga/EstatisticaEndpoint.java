@@ -0,0 +1,41 @@
+package com.springweb.minhasfinancas.carga;
+
+import java.util.Arrays;
+
+/**
+ * Latências (em nanossegundos) e erros registrados para um endpoint durante a medição.
+ */
+class EstatisticaEndpoint {
+
+	private long[] latencias = new long[1024];
+	private int quantidade;
+	private int erros;
+
+	synchronized void registrar(long latencia, boolean sucesso) {
+		if(quantidade == latencias.length) {
+			latencias = Arrays.copyOf(latencias, quantidade * 2);
+		}
+		latencias[quantidade++] = latencia;
+		if(!sucesso) {
+			erros++;
+		}
+	}
+
+	synchronized Resumo resumir(double duracaoSegundos) {
+		long[] ordenadas = Arrays.copyOf(latencias, quantidade);
+		Arrays.sort(ordenadas);
+		return new Resumo(quantidade, erros, quantidade / duracaoSegundos,
+					percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999));
+	}
+
+	private static double percentil(long[] ordenadas, double percentil) {
+		if(ordenadas.length == 0) {
+			return 0;
+		}
+		int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+		return ordenadas[Math.max(indice, 0)] / 1_000_000d;
+	}
+
+	record Resumo(int requisicoes, int erros, double vazao, double p50, double p99, double p999) {
+	}
+}
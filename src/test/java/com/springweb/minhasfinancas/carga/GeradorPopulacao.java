@@ -0,0 +1,106 @@
+package com.springweb.minhasfinancas.carga;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.service.SaldoService;
+import com.springweb.minhasfinancas.service.UsuarioService;
+
+/**
+ * Carrega usuários e lançamentos sintéticos direto pelos serviços e repositórios da aplicação,
+ * sem passar pela API, espalhando os lançamentos por ano, mês, tipo e status.
+ * A semente fixa faz com que a mesma configuração gere sempre a mesma população.
+ */
+class GeradorPopulacao {
+
+	static final String SENHA = "senha";
+
+	private static final int TAMANHO_BLOCO = 10_000;
+	private static final int ANO_INICIAL = 2015;
+	private static final int QUANTIDADE_ANOS = 10;
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+	private final UsuarioService usuarioService;
+	private final LancamentoRepository lancamentoRepository;
+	private final SaldoService saldoService;
+	private final TransactionTemplate transacao;
+	private final Random aleatorio;
+
+	GeradorPopulacao(ApplicationContext contexto, long semente) {
+		this.usuarioService = contexto.getBean(UsuarioService.class);
+		this.lancamentoRepository = contexto.getBean(LancamentoRepository.class);
+		this.saldoService = contexto.getBean(SaldoService.class);
+		this.transacao = contexto.getBean(TransactionTemplate.class);
+		this.aleatorio = new Random(semente);
+	}
+
+	Populacao carregar(int usuarios, int lancamentosPorUsuario) {
+		Populacao populacao = new Populacao(usuarios, lancamentosPorUsuario);
+
+		for (int u = 0; u < usuarios; u++) {
+			Usuario usuario = usuarioService.salvarUsuario(Usuario.builder()
+						.nome("Usuario " + u)
+						.email("usuario" + u + "@carga.com")
+						.senha(SENHA)
+						.build());
+
+			for (int inicio = 0; inicio < lancamentosPorUsuario; inicio += TAMANHO_BLOCO) {
+				int tamanho = Math.min(TAMANHO_BLOCO, lancamentosPorUsuario - inicio);
+				List<Lancamento> bloco = new ArrayList<>(tamanho);
+				for (int i = 0; i < tamanho; i++) {
+					bloco.add(lancamento(usuario, inicio + i));
+				}
+				transacao.executeWithoutResult(status -> lancamentoRepository.inserirEmLote(bloco));
+				bloco.forEach(lancamento -> populacao.lancamentos.add(lancamento.getId()));
+			}
+
+			saldoService.reconstruir(usuario.getId());
+			populacao.usuarios.add(usuario.getId());
+			populacao.emails.add(usuario.getEmail());
+		}
+
+		return populacao;
+	}
+
+	Lancamento lancamento(Usuario usuario, int sequencia) {
+		return Lancamento.builder()
+					.descricao("Lançamento " + sequencia)
+					.ano(ANO_INICIAL + aleatorio.nextInt(QUANTIDADE_ANOS))
+					.mes(1 + aleatorio.nextInt(12))
+					.valor(BigDecimal.valueOf(1 + aleatorio.nextInt(1_000_000), 2))
+					.tipo(aleatorio.nextBoolean() ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+					.status(STATUS[aleatorio.nextInt(STATUS.length)])
+					.usuario(usuario)
+					.build();
+	}
+
+	static int anoAleatorio(Random aleatorio) {
+		return ANO_INICIAL + aleatorio.nextInt(QUANTIDADE_ANOS);
+	}
+
+	/**
+	 * Ids e emails gerados, usados para montar as requisições da carga.
+	 */
+	static class Populacao {
+
+		final List<Long> usuarios;
+		final List<String> emails;
+		final List<Long> lancamentos;
+
+		Populacao(int usuarios, int lancamentosPorUsuario) {
+			this.usuarios = new ArrayList<>(usuarios);
+			this.emails = new ArrayList<>(usuarios);
+			this.lancamentos = new ArrayList<>(usuarios * lancamentosPorUsuario);
+		}
+	}
+}
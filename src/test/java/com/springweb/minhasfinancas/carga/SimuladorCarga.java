@@ -0,0 +1,206 @@
+package com.springweb.minhasfinancas.carga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springweb.minhasfinancas.MinhasfinancasApplication;
+import com.springweb.minhasfinancas.carga.GeradorPopulacao.Populacao;
+
+/**
+ * Teste de carga local: sobe a aplicação no perfil de teste (H2) em uma porta aleatória,
+ * carrega uma população sintética e dispara uma mistura de requisições HTTP a uma taxa fixa
+ * de chegada. A latência é medida a partir do instante em que cada requisição deveria ter
+ * saído, e não de quando saiu, para que um servidor lento não esconda a própria fila.
+ *
+ * <pre>
+ * mvn -Pcarga verify -Dcarga.usuarios=200 -Dcarga.lancamentos=5000 -Dcarga.taxa=500 -Dcarga.duracao=120
+ * </pre>
+ *
+ * Fora do Maven, os mesmos parâmetros são lidos como {@code -Dusuarios}, {@code -Dlancamentos},
+ * {@code -Dtaxa}, {@code -Dduracao}, {@code -Daquecimento} e {@code -Dsemente}.
+ *
+ * O relatório sai no console e em {@code target/carga-resultado.csv}.
+ */
+public class SimuladorCarga {
+
+	private static final Map<String, Integer> PESOS = new LinkedHashMap<>();
+
+	static {
+		PESOS.put("GET /api/lancamentos", 35);
+		PESOS.put("GET /api/lancamentos/{id}", 20);
+		PESOS.put("POST /api/lancamentos", 10);
+		PESOS.put("PUT /api/lancamentos/{id}/atualiza-status", 10);
+		PESOS.put("GET /api/usuarios/{id}/saldo", 20);
+		PESOS.put("POST /api/usuarios/autenticar", 5);
+	}
+
+	private static final String[] STATUS = { "PENDENTE", "CANCELADO", "EFETIVADO" };
+
+	public static void main(String[] args) throws IOException {
+		int usuarios = Integer.getInteger("usuarios", 100);
+		int lancamentosPorUsuario = Integer.getInteger("lancamentos", 1000);
+		int taxa = Integer.getInteger("taxa", 200);
+		int duracao = Integer.getInteger("duracao", 60);
+		int aquecimento = Integer.getInteger("aquecimento", 10);
+		long semente = Long.getLong("semente", 42);
+		Path saida = Path.of(System.getProperty("saida", "target/carga-resultado.csv"));
+
+		// O restart do devtools recriaria o contexto em outra thread, longe desta referência
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		SpringApplication aplicacao = new SpringApplication(MinhasfinancasApplication.class);
+		aplicacao.setAdditionalProfiles("test");
+		ConfigurableApplicationContext contexto = aplicacao.run("--server.port=0",
+					"--spring.jpa.properties.hibernate.generate_statistics=false",
+					"--financas.consultas.monitoramento=false");
+
+		try {
+			long inicioCarga = System.nanoTime();
+			Populacao populacao = new GeradorPopulacao(contexto, semente).carregar(usuarios, lancamentosPorUsuario);
+			System.out.printf("%d usuários e %d lançamentos carregados em %d s%n",
+					populacao.usuarios.size(), populacao.lancamentos.size(), (System.nanoTime() - inicioCarga) / 1_000_000_000);
+
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			Map<String, EstatisticaEndpoint> estatisticas = disparar(
+					"http://localhost:" + porta, populacao, taxa, aquecimento, duracao, new Random(semente));
+
+			relatar(estatisticas, duracao, saida);
+		} finally {
+			contexto.close();
+		}
+	}
+
+	private static Map<String, EstatisticaEndpoint> disparar(String base, Populacao populacao, int taxa,
+				int aquecimento, int duracao, Random aleatorio) {
+		Map<String, EstatisticaEndpoint> estatisticas = new LinkedHashMap<>();
+		PESOS.keySet().forEach(endpoint -> estatisticas.put(endpoint, new EstatisticaEndpoint()));
+		Map<String, Function<Random, HttpRequest>> requisicoes = requisicoes(base, populacao);
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+		HttpClient cliente = HttpClient.newBuilder()
+					.executor(executor)
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(5))
+					.build();
+
+		int pesoTotal = PESOS.values().stream().mapToInt(Integer::intValue).sum();
+		long intervalo = 1_000_000_000L / taxa;
+		long total = (long) taxa * (aquecimento + duracao);
+		long limiteAquecimento = (long) taxa * aquecimento;
+		Phaser pendentes = new Phaser(1);
+
+		long inicio = System.nanoTime();
+		for (long i = 0; i < total; i++) {
+			long previsto = inicio + i * intervalo;
+			long espera = previsto - System.nanoTime();
+			if(espera > 0) {
+				LockSupport.parkNanos(espera);
+			}
+
+			String endpoint = sortear(aleatorio.nextInt(pesoTotal));
+			HttpRequest requisicao = requisicoes.get(endpoint).apply(aleatorio);
+			boolean medir = i >= limiteAquecimento;
+
+			pendentes.register();
+			cliente.sendAsync(requisicao, BodyHandlers.discarding())
+					.whenComplete((resposta, erro) -> {
+						if(medir) {
+							boolean sucesso = erro == null && resposta.statusCode() < 400;
+							estatisticas.get(endpoint).registrar(System.nanoTime() - previsto, sucesso);
+						}
+						pendentes.arriveAndDeregister();
+					});
+		}
+
+		pendentes.arriveAndAwaitAdvance();
+		executor.shutdown();
+		return estatisticas;
+	}
+
+	private static Map<String, Function<Random, HttpRequest>> requisicoes(String base, Populacao populacao) {
+		List<Long> usuarios = populacao.usuarios;
+		List<Long> lancamentos = populacao.lancamentos;
+
+		Map<String, Function<Random, HttpRequest>> requisicoes = new LinkedHashMap<>();
+		requisicoes.put("GET /api/lancamentos", aleatorio -> get(base + "/api/lancamentos?usuario="
+					+ sortear(usuarios, aleatorio) + "&ano=" + GeradorPopulacao.anoAleatorio(aleatorio) + "&limit=50"));
+		requisicoes.put("GET /api/lancamentos/{id}", aleatorio -> get(base + "/api/lancamentos/"
+					+ sortear(lancamentos, aleatorio)));
+		requisicoes.put("POST /api/lancamentos", aleatorio -> json(base + "/api/lancamentos", "POST", String.format(Locale.ROOT,
+					"{\"descricao\":\"Carga\",\"mes\":%d,\"ano\":%d,\"valor\":%d.%02d,\"usuario\":%d,\"tipo\":\"%s\"}",
+					1 + aleatorio.nextInt(12), GeradorPopulacao.anoAleatorio(aleatorio), aleatorio.nextInt(10_000),
+					aleatorio.nextInt(100), sortear(usuarios, aleatorio), aleatorio.nextBoolean() ? "RECEITA" : "DESPESA")));
+		requisicoes.put("PUT /api/lancamentos/{id}/atualiza-status", aleatorio -> json(base + "/api/lancamentos/"
+					+ sortear(lancamentos, aleatorio) + "/atualiza-status", "PUT",
+					"{\"status\":\"" + STATUS[aleatorio.nextInt(STATUS.length)] + "\"}"));
+		requisicoes.put("GET /api/usuarios/{id}/saldo", aleatorio -> get(base + "/api/usuarios/"
+					+ sortear(usuarios, aleatorio) + "/saldo"));
+		requisicoes.put("POST /api/usuarios/autenticar", aleatorio -> json(base + "/api/usuarios/autenticar", "POST",
+					"{\"email\":\"" + sortear(populacao.emails, aleatorio) + "\",\"senha\":\"" + GeradorPopulacao.SENHA + "\"}"));
+		return requisicoes;
+	}
+
+	private static String sortear(int sorteio) {
+		for (Map.Entry<String, Integer> peso : PESOS.entrySet()) {
+			sorteio -= peso.getValue();
+			if(sorteio < 0) {
+				return peso.getKey();
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private static <T> T sortear(List<T> valores, Random aleatorio) {
+		return valores.get(aleatorio.nextInt(valores.size()));
+	}
+
+	private static HttpRequest get(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).GET().build();
+	}
+
+	private static HttpRequest json(String url, String metodo, String corpo) {
+		return HttpRequest.newBuilder(URI.create(url))
+					.header("Content-Type", "application/json")
+					.method(metodo, BodyPublishers.ofString(corpo, StandardCharsets.UTF_8))
+					.build();
+	}
+
+	private static void relatar(Map<String, EstatisticaEndpoint> estatisticas, int duracao, Path saida) throws IOException {
+		Files.createDirectories(saida.toAbsolutePath().getParent());
+		try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(saida, StandardCharsets.UTF_8))) {
+			csv.println("endpoint,requisicoes,erros,vazao_rps,p50_ms,p99_ms,p999_ms");
+			System.out.printf("%n%-44s %10s %8s %10s %10s %10s %10s%n",
+					"endpoint", "requisições", "erros", "req/s", "p50 ms", "p99 ms", "p999 ms");
+
+			for (Map.Entry<String, EstatisticaEndpoint> estatistica : estatisticas.entrySet()) {
+				EstatisticaEndpoint.Resumo resumo = estatistica.getValue().resumir(duracao);
+				System.out.printf("%-44s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", estatistica.getKey(),
+						resumo.requisicoes(), resumo.erros(), resumo.vazao(), resumo.p50(), resumo.p99(), resumo.p999());
+				csv.printf(Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f%n", estatistica.getKey(),
+						resumo.requisicoes(), resumo.erros(), resumo.vazao(), resumo.p50(), resumo.p99(), resumo.p999());
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.springweb.minhasfinancas.dinheiro;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DinheiroTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void deveConverterDeEParaBigDecimalSemPerda() {
+		for (String valor : new String[] { "0", "0.05", "-0.05", "1234.5", "-99999999999999.99", "100" }) {
+			// Execução
+			Dinheiro dinheiro = Dinheiro.de(valor);
+
+			// Verificação
+			BigDecimal esperado = new BigDecimal(valor).setScale(Dinheiro.ESCALA);
+			Assertions.assertThat(dinheiro.paraBigDecimal()).isEqualTo(esperado);
+			Assertions.assertThat(dinheiro.toString()).isEqualTo(esperado.toPlainString());
+			Assertions.assertThat(Dinheiro.de(dinheiro.paraBigDecimal())).isEqualTo(dinheiro);
+		}
+	}
+
+	@Test
+	public void deveRecusarFracaoDeCentavoEEstouro() {
+		Assertions.assertThatThrownBy(() -> Dinheiro.de("0.001")).isInstanceOf(ArithmeticException.class);
+		Assertions.assertThatThrownBy(() -> Dinheiro.de("92233720368547758.08")).isInstanceOf(ArithmeticException.class);
+		Assertions.assertThatThrownBy(() -> Dinheiro.deCentavos(Long.MAX_VALUE).mais(Dinheiro.deCentavos(1)))
+					.isInstanceOf(ArithmeticException.class);
+		Assertions.assertThatThrownBy(() -> Dinheiro.deCentavos(Long.MIN_VALUE).negativo()).isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	public void deveSomarESubtrairEmCentavos() {
+		// Execução
+		Dinheiro resultado = Dinheiro.de("10.10").mais(Dinheiro.de("0.20")).menos(Dinheiro.de("20"));
+
+		// Verificação
+		Assertions.assertThat(resultado.getCentavos()).isEqualTo(-970);
+		Assertions.assertThat(resultado.signum()).isEqualTo(-1);
+		Assertions.assertThat(resultado).isLessThan(Dinheiro.ZERO);
+	}
+
+	@Test
+	public void deveEscreverNoJsonOMesmoNumeroDoBigDecimal() throws Exception {
+		for (String valor : new String[] { "0.00", "-1.05", "1234.50" }) {
+			Assertions.assertThat(mapper.writeValueAsString(Dinheiro.de(valor)))
+						.isEqualTo(mapper.writeValueAsString(new BigDecimal(valor)));
+		}
+	}
+
+	@Test
+	public void deveLerDoJsonNumeroOuTexto() throws Exception {
+		Assertions.assertThat(mapper.readValue("10", Dinheiro.class)).isEqualTo(Dinheiro.de("10"));
+		Assertions.assertThat(mapper.readValue("10.5", Dinheiro.class)).isEqualTo(Dinheiro.de("10.50"));
+		Assertions.assertThat(mapper.readValue("\"-3.20\"", Dinheiro.class)).isEqualTo(Dinheiro.de("-3.2"));
+		Assertions.assertThatThrownBy(() -> mapper.readValue("1.001", Dinheiro.class)).isInstanceOf(JsonMappingException.class);
+		Assertions.assertThatThrownBy(() -> mapper.readValue("\"abc\"", Dinheiro.class)).isInstanceOf(JsonMappingException.class);
+	}
+}
@@ -0,0 +1,68 @@
+package com.springweb.minhasfinancas.filtro;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FiltroBloomTest {
+	
+	@Test
+	public void deveCalcularOMurmur3DeReferencia() {
+		// Valores publicados do MurmurHash3 x64 128 com semente zero
+		Assertions.assertThat(FiltroBloom.murmur3("hello".getBytes(StandardCharsets.UTF_8)))
+					.containsExactly(0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L);
+		Assertions.assertThat(FiltroBloom.murmur3("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8)))
+					.containsExactly(-2068352364225029268L, 8809951995912426311L);
+		Assertions.assertThat(FiltroBloom.murmur3("usuario@email.com.br-longo".getBytes(StandardCharsets.UTF_8)))
+					.containsExactly(-4025116168420057290L, 4839720458687452107L);
+	}
+	
+	@Test
+	public void naoDeveTerFalsosNegativosEDeveRespeitarATaxaDeFalsosPositivos() {
+		// Cenário
+		FiltroBloom filtro = FiltroBloom.dimensionar(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filtro.adicionar("usuario" + i + "@email.com");
+		}
+		
+		// Execução
+		int falsosPositivos = 0;
+		for (int i = 0; i < 100_000; i++) {
+			Assertions.assertThat(filtro.podeConter("usuario" + i % 10_000 + "@email.com")).isTrue();
+			if(filtro.podeConter("desconhecido" + i + "@email.com")) {
+				falsosPositivos++;
+			}
+		}
+		
+		// Verificação
+		Assertions.assertThat(filtro.getFuncoes()).isEqualTo(7);
+		Assertions.assertThat(filtro.getBits()).isEqualTo(95872);
+		Assertions.assertThat(filtro.getElementos()).isBetween(9_950l, 10_000l);
+		Assertions.assertThat(filtro.taxaEstimada()).isBetween(0.009, 0.011);
+		Assertions.assertThat(falsosPositivos / 100_000.0).isBetween(0.005, 0.015);
+	}
+	
+	@Test
+	public void deveGravarELerOMesmoFiltro() throws Exception {
+		// Cenário
+		FiltroBloom filtro = FiltroBloom.dimensionar(100, 0.001);
+		filtro.adicionar("usuario@email.com");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		filtro.gravar(new DataOutputStream(bytes));
+		
+		// Execução
+		FiltroBloom lido = FiltroBloom.ler(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		
+		// Verificação
+		Assertions.assertThat(lido.podeConter("usuario@email.com")).isTrue();
+		Assertions.assertThat(lido.podeConter("outro@email.com")).isFalse();
+		Assertions.assertThat(lido.getBits()).isEqualTo(filtro.getBits());
+		Assertions.assertThat(lido.getFuncoes()).isEqualTo(filtro.getFuncoes());
+		Assertions.assertThat(lido.getElementos()).isEqualTo(1);
+	}
+}
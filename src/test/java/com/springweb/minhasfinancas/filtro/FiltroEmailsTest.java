@@ -0,0 +1,142 @@
+package com.springweb.minhasfinancas.filtro;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository.EmailUsuario;
+
+public class FiltroEmailsTest {
+	
+	UsuarioRepository repository = Mockito.mock(UsuarioRepository.class);
+	
+	List<EmailUsuario> cadastrados = new ArrayList<>();
+	
+	@BeforeEach
+	public void setUp() {
+		Mockito.when(repository.listarEmailsApos(Mockito.anyLong(), Mockito.any(Limit.class))).thenAnswer( chamada -> {
+			long id = chamada.getArgument(0);
+			return cadastrados.stream().filter( usuario -> usuario.getId() > id ).toList();
+		});
+		cadastrar(1, "usuario@email.com");
+	}
+	
+	@Test
+	public void deveConsultarOBancoSoAntesDeCarregarOFiltro() {
+		// Cenário
+		FiltroEmails filtro = criar(Duration.ofHours(1), "");
+		
+		// Execução e Verificação
+		Assertions.assertThat(filtro.podeExistir("desconhecido@email.com")).isTrue();
+		filtro.sincronizar();
+		Assertions.assertThat(filtro.podeExistir("usuario@email.com")).isTrue();
+		Assertions.assertThat(filtro.podeExistir("desconhecido@email.com")).isFalse();
+	}
+	
+	@Test
+	public void deveBuscarOsCadastrosDeOutrosNosAoDescartarUmEmail() {
+		// Cenário
+		FiltroEmails filtro = criar(Duration.ZERO, "");
+		filtro.sincronizar();
+		cadastrar(2, "outro-no@email.com");
+		
+		// Execução e Verificação
+		Assertions.assertThat(filtro.podeExistir("outro-no@email.com")).isTrue();
+		Mockito.verify(repository, Mockito.times(2)).listarEmailsApos(Mockito.anyLong(), Mockito.any(Limit.class));
+	}
+	
+	@Test
+	public void deveSincronizarNoMaximoUmaVezPorIntervalo() {
+		// Cenário
+		FiltroEmails filtro = criar(Duration.ofHours(1), "");
+		filtro.sincronizar();
+		cadastrar(2, "outro-no@email.com");
+		
+		// Execução
+		for (int i = 0; i < 100; i++) {
+			filtro.podeExistir("desconhecido" + i + "@email.com");
+		}
+		
+		// Verificação
+		Assertions.assertThat(filtro.podeExistir("outro-no@email.com")).isFalse();
+		Mockito.verify(repository, Mockito.times(1)).listarEmailsApos(Mockito.anyLong(), Mockito.any(Limit.class));
+	}
+	
+	@Test
+	public void deveTratarOEmailComoPossivelSemEsperarUmaRemontagemEmAndamento() throws Exception {
+		// Cenário: a remontagem fica parada na contagem dos usuários
+		FiltroEmails filtro = criar(Duration.ZERO, "");
+		filtro.sincronizar();
+		CountDownLatch contando = new CountDownLatch(1);
+		CountDownLatch liberarContagem = new CountDownLatch(1);
+		Mockito.when(repository.count()).thenAnswer( chamada -> {
+			contando.countDown();
+			liberarContagem.await(10, TimeUnit.SECONDS);
+			return 1l;
+		});
+		CompletableFuture<Void> remontagem = CompletableFuture.runAsync(filtro::reconstruir);
+		Assertions.assertThat(contando.await(10, TimeUnit.SECONDS)).isTrue();
+		
+		// Execução e Verificação
+		try {
+			CompletableFuture<Boolean> consulta = CompletableFuture.supplyAsync( () -> filtro.podeExistir("desconhecido@email.com") );
+			Assertions.assertThat(consulta.get(1, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			liberarContagem.countDown();
+		}
+		remontagem.get(10, TimeUnit.SECONDS);
+		Assertions.assertThat(filtro.podeExistir("desconhecido@email.com")).isFalse();
+	}
+	
+	@Test
+	public void deveCarregarOFiltroGravadoETrazerSoOsCadastrosNovos(@TempDir Path diretorio) {
+		// Cenário
+		String arquivo = diretorio.resolve("emails.bin").toString();
+		criar(Duration.ofHours(1), arquivo).sincronizar();
+		Assertions.assertThat(Files.exists(Path.of(arquivo))).isTrue();
+		cadastrar(2, "depois@email.com");
+		Mockito.clearInvocations(repository);
+		
+		// Execução
+		FiltroEmails filtro = criar(Duration.ofHours(1), arquivo);
+		filtro.sincronizar();
+		
+		// Verificação
+		Assertions.assertThat(filtro.podeExistir("usuario@email.com")).isTrue();
+		Assertions.assertThat(filtro.podeExistir("depois@email.com")).isTrue();
+		Mockito.verify(repository).listarEmailsApos(Mockito.eq(1l), Mockito.any(Limit.class));
+		Mockito.verify(repository, Mockito.never()).count();
+	}
+	
+	private FiltroEmails criar(Duration atrasoMaximo, String arquivo) {
+		return new FiltroEmails(repository, true, 1000, 0.01, atrasoMaximo, arquivo);
+	}
+	
+	private void cadastrar(long id, String email) {
+		cadastrados.add(new EmailUsuario() {
+			
+			@Override
+			public long getId() {
+				return id;
+			}
+			
+			@Override
+			public String getEmail() {
+				return email;
+			}
+		});
+	}
+}
@@ -0,0 +1,106 @@
+package com.springweb.minhasfinancas.importacao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.springweb.minhasfinancas.exception.RegraNegocioException;
+
+public class LeitorExtratoTest {
+
+	@Test
+	public void deveLerOCsvPeloNomeDasColunas() throws IOException {
+		// Cenário
+		String csv = "Histórico;Valor;Data;Saldo\n"
+					+ "\"Mercado; centro\";-1.234,56;31/01/2024;10\n"
+					+ "\n"
+					+ "Salário;5000;2024-02-01;10\n"
+					+ "Inválida;abc;01/02/2024;10\n";
+
+		// Execução
+		List<LinhaExtrato> linhas = ler(FormatoImportacao.CSV, csv);
+
+		// Verificação
+		assertThat(linhas).hasSize(3);
+		assertThat(linhas.get(0).getDescricao()).isEqualTo("Mercado; centro");
+		assertThat(linhas.get(0).getValor()).isEqualByComparingTo("-1234.56");
+		assertThat(linhas.get(0).getData()).isEqualTo(LocalDate.of(2024, 1, 31));
+		assertThat(linhas.get(1).getNumero()).isEqualTo(4);
+		assertThat(linhas.get(1).getValor()).isEqualByComparingTo("5000");
+		assertThat(linhas.get(2).isValida()).isFalse();
+		assertThat(linhas.get(2).getNumero()).isEqualTo(5);
+		assertThat(linhas.get(2).getErro()).isEqualTo("Informe um Valor válido!");
+	}
+
+	@Test
+	public void deveRecusarOCsvSemAsColunasObrigatorias() {
+		// Execução
+		Throwable erro = catchThrowable( () -> ler(FormatoImportacao.CSV, "data,valor\n2024-01-01,10\n") );
+
+		// Verificação
+		assertThat(erro).isInstanceOf(RegraNegocioException.class);
+	}
+
+	@Test
+	public void deveLerAsTransacoesDoOfxSgml() throws IOException {
+		// Cenário
+		String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX>\n<BANKMSGSRSV1><STMTTRNRS><STMTRS>\n<BANKTRANLIST>\n"
+					+ "<DTSTART>20240101\n"
+					+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20240115120000[-3:BRT]\n<TRNAMT>-42.90\n<FITID>A1\n<MEMO>Padaria &amp; Café\n</STMTTRN>\n"
+					+ "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240116<TRNAMT>100,00<FITID>A2<NAME>PIX recebido</STMTTRN>\n"
+					+ "<STMTTRN>\n<DTPOSTED>20240117\n<TRNAMT>x\n</STMTTRN>\n"
+					+ "</BANKTRANLIST>\n</STMTRS></STMTTRNRS></BANKMSGSRSV1>\n</OFX>\n";
+
+		// Execução
+		List<LinhaExtrato> linhas = ler(FormatoImportacao.OFX, ofx);
+
+		// Verificação
+		assertThat(linhas).hasSize(3);
+		assertThat(linhas.get(0).getData()).isEqualTo(LocalDate.of(2024, 1, 15));
+		assertThat(linhas.get(0).getValor()).isEqualByComparingTo("-42.90");
+		assertThat(linhas.get(0).getDescricao()).isEqualTo("Padaria & Café");
+		assertThat(linhas.get(0).getIdentificador()).isEqualTo("A1");
+		assertThat(linhas.get(0).getNumero()).isEqualTo(8);
+		assertThat(linhas.get(1).getValor()).isEqualByComparingTo("100");
+		assertThat(linhas.get(1).getDescricao()).isEqualTo("PIX recebido");
+		assertThat(linhas.get(2).isValida()).isFalse();
+		assertThat(linhas.get(2).getNumero()).isEqualTo(16);
+	}
+
+	@Test
+	public void deveDiferenciarLinhasIguaisPelaOcorrencia() {
+		// Cenário
+		LinhaExtrato linha = new LinhaExtrato(1, LocalDate.of(2024, 1, 1), new BigDecimal("-10.00"), "Café", null, null);
+		LinhaExtrato igual = new LinhaExtrato(2, LocalDate.of(2024, 1, 1), new BigDecimal("-10"), "Café", null, null);
+
+		// Execução
+		HashLinhas hashes = new HashLinhas();
+		String primeiro = hashes.calcular(linha);
+		String segundo = hashes.calcular(igual);
+		String reenvio = new HashLinhas().calcular(igual);
+
+		// Verificação
+		assertThat(primeiro).hasSize(43).isNotEqualTo(segundo);
+		assertThat(reenvio).isEqualTo(primeiro);
+	}
+
+	private static List<LinhaExtrato> ler(FormatoImportacao formato, String conteudo) throws IOException {
+		List<LinhaExtrato> linhas = new ArrayList<>();
+		try (LeitorExtrato leitor = LeitorExtrato.criar(formato, new BufferedReader(new StringReader(conteudo)))) {
+			LinhaExtrato linha;
+			while((linha = leitor.proxima()) != null) {
+				linhas.add(linha);
+			}
+		}
+		return linhas;
+	}
+}
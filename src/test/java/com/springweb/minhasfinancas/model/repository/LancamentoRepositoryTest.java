@@ -4,8 +4,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,16 +18,29 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.config.MonitoramentoConsultasConfiguration;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
 import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.monitoramento.MedicaoConsultas;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(MonitoramentoConsultasConfiguration.class)
 @ActiveProfiles("test")
 public class LancamentoRepositoryTest {
 
@@ -41,6 +59,23 @@ public class LancamentoRepositoryTest {
         assertThat(lancamento.getId()).isNotNull();
     }
 
+    @Test
+    public void deveInserirLancamentosEmLote() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	List<Lancamento> lancamentos = new ArrayList<>();
+    	for (int i = 0; i < 120; i++) {
+    		Lancamento lancamento = criarLancamento();
+    		lancamento.setUsuario(usuario);
+    		lancamentos.add(lancamento);
+    	}
+    	
+    	repository.inserirEmLote(lancamentos);
+    	
+    	assertThat(lancamentos).allSatisfy( lancamento -> assertThat(lancamento.getId()).isPositive() );
+    	assertThat(lancamentos).extracting(Lancamento::getId).doesNotHaveDuplicates();
+    	assertThat(repository.count()).isEqualTo(120);
+    }
+    
     @Test
     public void deveDeletarUmLancamento() {
     	Lancamento lancamento = criarEPersistirUmLancamento();
@@ -80,6 +115,204 @@ public class LancamentoRepositoryTest {
     	assertThat(lancamentoEncontrado.isPresent()).isTrue();
     }
     
+    @Test
+    public void deveBuscarLancamentosPorCursorSemRepetirRegistros() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	for (int mes = 5; mes >= 1; mes--) {
+    		Lancamento lancamento = criarLancamento();
+    		lancamento.setMes(mes);
+    		lancamento.setUsuario(usuario);
+    		entityManager.persist(lancamento);
+    	}
+    	
+    	Lancamento filtro = new Lancamento();
+    	filtro.setUsuario(usuario);
+    	
+    	List<Integer> meses = new ArrayList<>();
+    	KeysetScrollPosition posicao = ScrollPosition.keyset();
+    	Window<LancamentoDTO> janela;
+    	do {
+    		janela = repository.buscarPorCursor(filtro, null, posicao, 2);
+    		janela.forEach(lancamento -> meses.add(lancamento.getMes()));
+    		posicao = janela.isEmpty() ? posicao : (KeysetScrollPosition) janela.positionAt(janela.size() - 1);
+    	} while (janela.hasNext());
+    	
+    	assertThat(meses).containsExactly(1, 2, 3, 4, 5);
+    }
+    
+    @Test
+    public void deveBuscarPorCursorAplicandoOsFiltrosSemCarregarOUsuario() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	persistirLancamento(usuario, "Conta de luz", 1);
+    	persistirLancamento(usuario, "Conta de água", 1);
+    	persistirLancamento(usuario, "Conta de luz", 2);
+    	entityManager.flush();
+    	entityManager.clear();
+    	
+    	Lancamento filtro = new Lancamento();
+    	filtro.setUsuario(entityManager.getEntityManager().getReference(Usuario.class, usuario.getId()));
+    	filtro.setMes(1);
+    	
+    	Window<LancamentoDTO> janela = repository.buscarPorCursor(filtro, "%luz%", ScrollPosition.keyset(), 10);
+    	
+    	assertThat(janela.hasNext()).isFalse();
+    	assertThat(janela.getContent()).singleElement().satisfies(dto -> {
+    		assertThat(dto.getDescricao()).isEqualTo("Conta de luz");
+    		assertThat(dto.getUsuario()).isEqualTo(usuario.getId());
+    		assertThat(dto.getTipo()).isEqualTo(TipoLancamento.RECEITA.name());
+    	});
+    	assertThat(Hibernate.isInitialized(filtro.getUsuario())).isFalse();
+    }
+    
+    @Test
+    public void deveBuscarPorCursorComUmUnicoComandoQualquerQueSejaOTamanhoDaJanela() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	for (int i = 0; i < 30; i++) {
+    		persistirLancamento(usuario, "Lançamento " + i, 1);
+    	}
+    	entityManager.flush();
+    	entityManager.clear();
+    	
+    	Lancamento filtro = new Lancamento();
+    	filtro.setUsuario(entityManager.getEntityManager().getReference(Usuario.class, usuario.getId()));
+    	
+    	try (MedicaoConsultas medicao = MedicaoConsultas.iniciar()) {
+    		Window<LancamentoDTO> janela = repository.buscarPorCursor(filtro, null, ScrollPosition.keyset(), 50);
+    		
+    		assertThat(janela.getContent()).hasSize(30);
+    		assertThat(medicao.getComandos()).isEqualTo(1);
+    		assertThat(medicao.getLinhas()).isEqualTo(30);
+    	}
+    }
+    
+    @Test
+    public void deveExportarOsLancamentosDoUsuarioEmOrdem() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	for (int mes = 3; mes >= 1; mes--) {
+    		Lancamento lancamento = criarLancamento();
+    		lancamento.setMes(mes);
+    		lancamento.setUsuario(usuario);
+    		entityManager.persist(lancamento);
+    	}
+    	
+    	List<LancamentoDTO> exportados;
+    	try (Stream<LancamentoDTO> stream = repository.exportarPorUsuario(usuario.getId())) {
+    		exportados = stream.collect(Collectors.toList());
+    	}
+    	
+    	assertThat(exportados).extracting(LancamentoDTO::getMes).containsExactly(1, 2, 3);
+    	assertThat(exportados).allSatisfy( dto -> {
+    		assertThat(dto.getUsuario()).isEqualTo(usuario.getId());
+    		assertThat(dto.getTipo()).isEqualTo(TipoLancamento.RECEITA.name());
+    		assertThat(dto.getStatus()).isEqualTo(StatusLancamento.PENDENTE.name());
+    	});
+    }
+    
+    @Test
+    public void deveSomarReceitasEDespesasEfetivadasEmUmaUnicaConsulta() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	persistirLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+    	persistirLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+    	persistirLancamento(usuario, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 20);
+    	persistirLancamento(usuario, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 500);
+    	
+    	SaldoDTO saldo = repository.obterSaldoPorUsuarioEStatus(usuario.getId(), StatusLancamento.EFETIVADO);
+    	
+    	assertThat(saldo.getReceitas()).isEqualByComparingTo("100");
+    	assertThat(saldo.getDespesas()).isEqualByComparingTo("50");
+    	assertThat(saldo.getSaldo()).isEqualByComparingTo("50");
+    }
+    
+    @Test
+    public void deveRetornarSaldoZeradoQuandoNaoHouverLancamentos() {
+    	SaldoDTO saldo = repository.obterSaldoPorUsuarioEStatus(1l, StatusLancamento.EFETIVADO);
+    	
+    	assertThat(saldo.getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+    
+    @Test
+    public void deveAgruparOSaldoPorMes() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	persistirLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+    	persistirLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+    	persistirLancamento(usuario, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 20);
+    	
+    	List<SaldoMensalDTO> saldos = repository.obterSaldoMensalPorUsuarioEStatus(usuario.getId(), 2024, StatusLancamento.EFETIVADO);
+    	
+    	assertThat(saldos).extracting(SaldoMensalDTO::getMes).containsExactly(1, 3);
+    	assertThat(saldos.get(0).getSaldo()).isEqualByComparingTo("70");
+    	assertThat(saldos.get(1).getSaldo()).isEqualByComparingTo("-20");
+    }
+    
+    @Test
+    public void deveTotalizarOAnoEApenasOsEfetivadosDosAnosAnteriores() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	persistirLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+    	persistirLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 50);
+    	persistirLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 30);
+    	Lancamento anterior = criarLancamento();
+    	anterior.setUsuario(usuario);
+    	anterior.setAno(2023);
+    	anterior.setStatus(StatusLancamento.CANCELADO);
+    	entityManager.persist(anterior);
+    	
+    	List<TotalLancamentosDTO> totais = repository.obterTotaisAteOAno(usuario.getId(), 2024, StatusLancamento.EFETIVADO);
+    	
+    	assertThat(totais).hasSize(2);
+    	assertThat(totais).allSatisfy( total -> assertThat(total.getAno()).isEqualTo(2024) );
+    	assertThat(totais).filteredOn( total -> total.getTipo() == TipoLancamento.RECEITA )
+    		.singleElement()
+    		.satisfies( total -> assertThat(total.getValor()).isEqualByComparingTo("150") );
+    }
+    
+    @Test
+    public void deveObterOEstadoGravadoSemDescarregarAlteracoesPendentes() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	Lancamento lancamento = criarLancamento();
+    	lancamento.setUsuario(usuario);
+    	entityManager.persistAndFlush(lancamento);
+    	
+    	lancamento.setStatus(StatusLancamento.EFETIVADO);
+    	Optional<LancamentoDTO> estado = repository.obterEstadoPersistido(lancamento.getId());
+    	
+    	assertThat(estado).isPresent();
+    	assertThat(estado.get().getStatus()).isEqualTo(StatusLancamento.PENDENTE.name());
+    	assertThat(estado.get().getUsuario()).isEqualTo(usuario.getId());
+    }
+    
+    @Test
+    public void devePesquisarPelaDescricaoSemAcentosOrdenandoPorRelevancia() {
+    	Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    	persistirLancamento(usuario, "Pão de queijo", 3);
+    	persistirLancamento(usuario, "Padaria - PÃO francês", 2);
+    	persistirLancamento(usuario, "Supermercado", 1);
+    	persistirLancamento(usuario, "Limpão", 1);
+    	persistirLancamento(usuario, "pão doce", 1);
+    	
+    	List<LancamentoDTO> resultado = repository.pesquisarPorDescricao(usuario.getId(), "%pao%", "pao%", "% pao%", Limit.of(10));
+    	
+    	assertThat(resultado).extracting(LancamentoDTO::getDescricao)
+    				.containsExactly("Pão de queijo", "pão doce", "Padaria - PÃO francês", "Limpão");
+    }
+    
+    private void persistirLancamento(Usuario usuario, String descricao, int mes) {
+    	Lancamento lancamento = criarLancamento();
+    	lancamento.setUsuario(usuario);
+    	lancamento.setDescricao(descricao);
+    	lancamento.setMes(mes);
+    	entityManager.persist(lancamento);
+    }
+    
+    private void persistirLancamento(Usuario usuario, int mes, TipoLancamento tipo, StatusLancamento status, int valor) {
+    	Lancamento lancamento = criarLancamento();
+    	lancamento.setUsuario(usuario);
+    	lancamento.setMes(mes);
+    	lancamento.setTipo(tipo);
+    	lancamento.setStatus(status);
+    	lancamento.setValor(BigDecimal.valueOf(valor));
+    	entityManager.persist(lancamento);
+    }
+    
     private Lancamento criarEPersistirUmLancamento() {
     	Lancamento lancamento = criarLancamento();
     	entityManager.persist(lancamento);
@@ -0,0 +1,92 @@
+package com.springweb.minhasfinancas.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.SaldoUsuario;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioRepositoryTest {
+	
+	@Autowired
+	SaldoUsuarioRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveAplicarODeltaSobreOSaldoExistente() {
+		//Cenário
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persist(criarSaldo(usuario.getId(), 100, 40));
+		
+		//Ação | Execução
+		int atualizados = repository.aplicarDelta(usuario.getId(), BigDecimal.valueOf(10), BigDecimal.valueOf(-5));
+		entityManager.clear();
+		
+		//Verificação
+		SaldoUsuario saldo = entityManager.find(SaldoUsuario.class, usuario.getId());
+		assertThat(atualizados).isEqualTo(1);
+		assertThat(saldo.getReceitas()).isEqualByComparingTo("110");
+		assertThat(saldo.getDespesas()).isEqualByComparingTo("35");
+	}
+	
+	@Test
+	public void naoDeveAtualizarNadaQuandoOUsuarioNaoPossuiSaldo() {
+		//Ação | Execução
+		int atualizados = repository.aplicarDelta(1l, BigDecimal.TEN, BigDecimal.ZERO);
+		
+		//Verificação
+		assertThat(atualizados).isZero();
+	}
+	
+	@Test
+	public void deveListarOsSaldosQueDivergemDosLancamentos() {
+		//Cenário
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		entityManager.persist(lancamento);
+		
+		Usuario outroUsuario = UsuarioRepositoryTest.criarUsuario();
+		outroUsuario.setEmail("outro@email.com");
+		outroUsuario = entityManager.persist(outroUsuario);
+		
+		entityManager.persist(criarSaldo(usuario.getId(), 10, 0));
+		entityManager.persist(criarSaldo(outroUsuario.getId(), 10, 0));
+		
+		//Ação | Execução
+		List<Long> divergentes = repository.listarDivergentes();
+		
+		//Verificação
+		assertThat(divergentes).containsExactly(outroUsuario.getId());
+	}
+	
+	public static SaldoUsuario criarSaldo(Long idUsuario, int receitas, int despesas) {
+		return SaldoUsuario
+				.builder()
+				.idUsuario(idUsuario)
+				.receitas(BigDecimal.valueOf(receitas))
+				.despesas(BigDecimal.valueOf(despesas))
+				.build();
+	}
+}
@@ -0,0 +1,51 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class AnelConsistenteTest {
+
+	static final int USUARIOS = 20_000;
+
+	@Test
+	public void deveDistribuirOsUsuariosDeFormaEquilibrada() {
+		// Cenário
+		AnelConsistente anel = new AnelConsistente(List.of("principal", "particao-1", "particao-2", "particao-3"), 128);
+
+		// Execução
+		Map<String, Integer> usuarios = new HashMap<>();
+		for (long id = 1; id <= USUARIOS; id++) {
+			usuarios.merge(anel.particao(id), 1, Integer::sum);
+		}
+
+		// Verificação
+		assertThat(usuarios).hasSize(4);
+		assertThat(usuarios.values()).allSatisfy( total -> assertThat(total).isBetween(USUARIOS / 4 * 8 / 10, USUARIOS / 4 * 12 / 10) );
+	}
+
+	@Test
+	public void deveMoverApenasParaAParticaoNovaCercaDeUmEnesimoDosUsuarios() {
+		// Cenário
+		AnelConsistente anel = new AnelConsistente(List.of("principal", "particao-1", "particao-2", "particao-3"), 128);
+
+		// Execução
+		AnelConsistente novo = anel.com("particao-4");
+
+		// Verificação
+		int movidos = 0;
+		for (long id = 1; id <= USUARIOS; id++) {
+			String antes = anel.particao(id);
+			String depois = novo.particao(id);
+			if(!antes.equals(depois)) {
+				assertThat(depois).isEqualTo("particao-4");
+				movidos++;
+			}
+		}
+		assertThat(movidos).isBetween(USUARIOS / 5 * 7 / 10, USUARIOS / 5 * 13 / 10);
+	}
+}
@@ -0,0 +1,325 @@
+package com.springweb.minhasfinancas.particionamento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoLoteDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoStatusLoteDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.springweb.minhasfinancas.service.LancamentoService;
+import com.springweb.minhasfinancas.service.SaldoService;
+import com.springweb.minhasfinancas.service.UsuarioService;
+
+/**
+ * Principal e duas partições em bancos H2 separados; um terceiro banco entra como partição
+ * com a aplicação no ar. As consultas diretas em cada banco mostram onde cada dado ficou.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"financas.particoes[0].url=" + ParticoesTest.PARTICAO_1,
+		"financas.particoes[0].username=sa",
+		"financas.particoes[0].password=sa",
+		"financas.particoes[1].url=" + ParticoesTest.PARTICAO_2,
+		"financas.particoes[1].username=sa",
+		"financas.particoes[1].password=sa"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@DirtiesContext
+public class ParticoesTest {
+
+	static final String PARTICAO_1 = "jdbc:h2:mem:particao-1;DB_CLOSE_DELAY=-1";
+	static final String PARTICAO_2 = "jdbc:h2:mem:particao-2;DB_CLOSE_DELAY=-1";
+	static final String PARTICAO_3 = "jdbc:h2:mem:particao-3;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	SaldoService saldoService;
+
+	@Autowired
+	DataSourceProperties dataSourceProperties;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	MockMvc mvc;
+
+	@Test
+	public void deveGuardarOsDadosDoUsuarioApenasNaParticaoDele() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+
+		// Execução
+		Map<Long, Lancamento> lancamentos = criarUsuariosComLancamentoEfetivado(30);
+
+		// Verificação
+		Set<String> particoes = new HashSet<>();
+		lancamentos.forEach( (idUsuario, lancamento) -> {
+			String particao = particionado.particaoDoUsuario(idUsuario);
+			particoes.add(particao);
+			for (String outra : particionado.getParticoes()) {
+				int esperado = outra.equals(particao) ? 1 : 0;
+				assertThat(contar(outra, "financas.lancamento", lancamento.getId())).isEqualTo(esperado);
+				assertThat(contar(outra, "financas.saldo_usuario", idUsuario)).isEqualTo(esperado);
+			}
+			assertThat(lancamentoService.obterSaldoPorUsuario(idUsuario)).isEqualByComparingTo(BigDecimal.TEN);
+			assertThat(lancamentoService.obterDTOPorId(lancamento.getId())).isPresent();
+		});
+		assertThat(particoes).contains(DataSourceParticionado.PRINCIPAL, "particao-1", "particao-2");
+	}
+
+	@Test
+	public void deveListarPelaApiOsLancamentosDeUsuariosDeOutraParticao() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		Map<Long, Lancamento> lancamentos = criarUsuariosComLancamentoEfetivado(10);
+		Long idUsuario = lancamentos.keySet().stream()
+					.filter( id -> !particionado.particaoDoUsuario(id).equals(DataSourceParticionado.PRINCIPAL) )
+					.findFirst().orElseThrow();
+
+		// Execução e Verificação
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", idUsuario.toString()))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].id").value(lancamentos.get(idUsuario).getId()));
+	}
+
+	@Test
+	public void deveEfetivarEmLoteLancamentosDeUsuariosEmParticoesDiferentes() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		Map<Long, Lancamento> pendentes = new LinkedHashMap<>();
+		for (int i = 0; i < 10; i++) {
+			Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+			usuario.setEmail(System.nanoTime() + "@email.com");
+			usuario = usuarioService.salvarUsuario(usuario);
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(Usuario.builder().id(usuario.getId()).build());
+			pendentes.put(usuario.getId(), lancamentoService.salvar(lancamento));
+		}
+		assertThat(pendentes.keySet().stream().map(particionado::particaoDoUsuario).distinct().count()).isGreaterThan(1);
+		List<Long> ids = new ArrayList<>();
+		pendentes.values().forEach( lancamento -> ids.add(lancamento.getId()) );
+		ids.add(Long.MAX_VALUE);
+
+		// Execução
+		ResultadoStatusLoteDTO resultado = lancamentoService.atualizarStatusEmLote(ids, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO);
+
+		// Verificação
+		assertThat(resultado.getAtualizados()).isEqualTo(10);
+		assertThat(resultado.getIgnorados()).containsExactly(Long.MAX_VALUE);
+		pendentes.forEach( (idUsuario, lancamento) -> {
+			assertThat(lancamentoService.obterDTOPorId(lancamento.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO.name());
+			assertThat(lancamentoService.obterSaldoPorUsuario(idUsuario)).isEqualByComparingTo(BigDecimal.TEN);
+		});
+	}
+
+	@Test
+	public void deveSalvarPelaApiUmLoteComUsuariosEmParticoesDiferentes() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		List<Long> idsUsuarios = new ArrayList<>();
+		List<LancamentoDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+			usuario.setEmail(System.nanoTime() + "@email.com");
+			usuario = usuarioService.salvarUsuario(usuario);
+			idsUsuarios.add(usuario.getId());
+			dtos.add(LancamentoDTO.builder()
+						.descricao("Lançamento qualquer")
+						.mes(5)
+						.ano(2024)
+						.valor(BigDecimal.TEN)
+						.usuario(usuario.getId())
+						.tipo(TipoLancamento.RECEITA.name())
+						.build());
+		}
+		assertThat(idsUsuarios.stream().map(particionado::particaoDoUsuario).distinct().count()).isGreaterThan(1);
+
+		// Execução
+		String resposta = mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos/lote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(new ObjectMapper().writeValueAsString(dtos)))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("quantidade").value(10))
+			.andReturn().getResponse().getContentAsString();
+
+		// Verificação
+		List<Long> ids = new ObjectMapper().readValue(resposta, ResultadoLoteDTO.class).getIds();
+		for (int i = 0; i < ids.size(); i++) {
+			String particao = particionado.particaoDoUsuario(idsUsuarios.get(i));
+			for (String outra : particionado.getParticoes()) {
+				assertThat(contar(outra, "financas.lancamento", ids.get(i))).isEqualTo(outra.equals(particao) ? 1 : 0);
+			}
+		}
+	}
+
+	@Test
+	public void deveInformarOsItensGravadosQuandoASegundaParticaoDoLoteFalha() throws Exception {
+		// Cenário: um usuário em cada partição; o da segunda some dela, e o insert dele falha
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		Usuario primeiro = criarUsuario();
+		Usuario segundo = criarUsuario();
+		while(particionado.particaoDoUsuario(segundo.getId()).equals(particionado.particaoDoUsuario(primeiro.getId()))) {
+			segundo = criarUsuario();
+		}
+		String particaoSegundo = particionado.particaoDoUsuario(segundo.getId());
+		jdbc(particaoSegundo).update("delete from financas.usuario where id = ?", segundo.getId());
+		List<LancamentoDTO> dtos = List.of(criarDTO(primeiro.getId()), criarDTO(segundo.getId()), criarDTO(primeiro.getId()));
+
+		// Execução
+		String resposta = mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos/lote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(new ObjectMapper().writeValueAsString(dtos)))
+			.andExpect(MockMvcResultMatchers.status().isMultiStatus())
+			.andExpect(MockMvcResultMatchers.jsonPath("quantidade").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros.length()").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("erros[0].indice").value(1))
+			.andReturn().getResponse().getContentAsString();
+
+		// Verificação
+		List<Long> ids = new ObjectMapper().readValue(resposta, ResultadoLoteDTO.class).getIds();
+		assertThat(ids).hasSize(2);
+		for (Long id : ids) {
+			assertThat(contar(particionado.particaoDoUsuario(primeiro.getId()), "financas.lancamento", id)).isEqualTo(1);
+		}
+		assertThat(jdbc(particaoSegundo).queryForObject("select count(*) from financas.lancamento where id_usuario = ?", 
+					Integer.class, segundo.getId())).isZero();
+	}
+
+	@Test
+	public void deveProcurarSaldosDivergentesEmTodasAsParticoes() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		Map<Long, Lancamento> lancamentos = criarUsuariosComLancamentoEfetivado(20);
+		for (Long idUsuario : lancamentos.keySet()) {
+			jdbc(particionado.particaoDoUsuario(idUsuario))
+						.update("update financas.saldo_usuario set receitas = 0 where id_usuario = ?", idUsuario);
+		}
+
+		// Execução
+		List<Long> divergentes = saldoService.listarDivergentes();
+
+		// Verificação
+		assertThat(divergentes).containsAll(lancamentos.keySet());
+	}
+
+	@Test
+	public void deveMoverParaUmaParticaoNovaOsUsuariosQueOAnelLheAtribui() throws Exception {
+		// Cenário
+		DataSourceParticionado particionado = dataSource.unwrap(DataSourceParticionado.class);
+		Map<Long, Lancamento> lancamentos = criarUsuariosComLancamentoEfetivado(40);
+
+		// Execução
+		particionado.adicionar("particao-3", new DriverManagerDataSource(PARTICAO_3, "sa", "sa"));
+
+		// Verificação
+		List<Long> movidos = new ArrayList<>();
+		lancamentos.forEach( (idUsuario, lancamento) -> {
+			String particao = particionado.particaoDoUsuario(idUsuario);
+			if(particao.equals("particao-3")) {
+				movidos.add(idUsuario);
+			}
+			for (String outra : particionado.getParticoes()) {
+				assertThat(contar(outra, "financas.lancamento", lancamento.getId())).isEqualTo(outra.equals(particao) ? 1 : 0);
+			}
+			assertThat(lancamentoService.obterSaldoPorUsuario(idUsuario)).isEqualByComparingTo(BigDecimal.TEN);
+			assertThat(lancamentoService.obterDTOPorId(lancamento.getId())).isPresent();
+		});
+		assertThat(movidos).isNotEmpty();
+
+		Long idMovido = movidos.get(0);
+		Lancamento novo = criarLancamento(idMovido);
+		assertThat(contar("particao-3", "financas.lancamento", novo.getId())).isEqualTo(1);
+		assertThat(lancamentoService.obterSaldoPorUsuario(idMovido)).isEqualByComparingTo(BigDecimal.valueOf(20));
+	}
+
+	private Map<Long, Lancamento> criarUsuariosComLancamentoEfetivado(int quantidade) {
+		Map<Long, Lancamento> lancamentos = new LinkedHashMap<>();
+		for (int i = 0; i < quantidade; i++) {
+			Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+			usuario.setEmail(System.nanoTime() + "@email.com");
+			usuario = usuarioService.salvarUsuario(usuario);
+			lancamentos.put(usuario.getId(), criarLancamento(usuario.getId()));
+		}
+		return lancamentos;
+	}
+
+	private Usuario criarUsuario() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		usuario.setEmail(System.nanoTime() + "@email.com");
+		return usuarioService.salvarUsuario(usuario);
+	}
+
+	private LancamentoDTO criarDTO(Long idUsuario) {
+		return LancamentoDTO.builder()
+					.descricao("Lançamento qualquer")
+					.mes(5)
+					.ano(2024)
+					.valor(BigDecimal.TEN)
+					.usuario(idUsuario)
+					.tipo(TipoLancamento.RECEITA.name())
+					.build();
+	}
+
+	private Lancamento criarLancamento(Long idUsuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		lancamento = lancamentoService.salvar(lancamento);
+		lancamentoService.atualizarStatus(lancamento.getId(), StatusLancamento.EFETIVADO);
+		return lancamento;
+	}
+
+	private int contar(String particao, String tabela, Long id) {
+		String coluna = tabela.endsWith("saldo_usuario") ? "id_usuario" : "id";
+		return jdbc(particao).queryForObject("select count(*) from " + tabela + " where " + coluna + " = ?", Integer.class, id);
+	}
+
+	private JdbcTemplate jdbc(String particao) {
+		String url = switch (particao) {
+			case "particao-1" -> PARTICAO_1;
+			case "particao-2" -> PARTICAO_2;
+			case "particao-3" -> PARTICAO_3;
+			default -> dataSourceProperties.getUrl();
+		};
+		return new JdbcTemplate(new DriverManagerDataSource(url, "sa", "sa"));
+	}
+}
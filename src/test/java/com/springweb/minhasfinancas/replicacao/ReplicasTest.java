@@ -0,0 +1,216 @@
+package com.springweb.minhasfinancas.replicacao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.flywaydb.core.Flyway;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.springweb.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.model.entity.Lancamento;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.springweb.minhasfinancas.service.LancamentoService;
+
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Primário e duas réplicas em bancos H2 separados, mais uma réplica que recusa conexão.
+ * As réplicas recebem as migrações mas não a replicação: cada uma tem os próprios dados,
+ * o que mostra de onde veio cada leitura.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"financas.datasource.replicas[0].url=" + ReplicasTest.REPLICA_A,
+		"financas.datasource.replicas[0].username=sa",
+		"financas.datasource.replicas[0].password=sa",
+		"financas.datasource.replicas[1].url=jdbc:h2:tcp://localhost:1/indisponivel",
+		"financas.datasource.replicas[1].username=sa",
+		"financas.datasource.replicas[1].password=sa",
+		"financas.datasource.replicas[2].url=" + ReplicasTest.REPLICA_B,
+		"financas.datasource.replicas[2].username=sa",
+		"financas.datasource.replicas[2].password=sa"
+})
+@DirtiesContext
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReplicasTest {
+
+	static final String REPLICA_A = "jdbc:h2:mem:replica-a;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_B = "jdbc:h2:mem:replica-b;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	MockMvc mvc;
+
+	@BeforeAll
+	public static void migrarReplicas() {
+		for (String url : List.of(REPLICA_A, REPLICA_B)) {
+			Flyway.configure()
+					.dataSource(url, "sa", "sa")
+					.schemas("financas")
+					.locations("classpath:db/migration/h2")
+					.load()
+					.migrate();
+		}
+	}
+
+	@Test
+	public void deveDistribuirAsLeiturasEntreAsReplicasDisponiveis() {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		inserirNaReplica(REPLICA_A, usuario, "Réplica A");
+		inserirNaReplica(REPLICA_B, usuario, "Réplica B");
+
+		// Execução
+		Set<String> origens = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			Window<LancamentoDTO> janela = service.buscar(filtro(usuario), ScrollPosition.keyset(), 10);
+			assertThat(janela.getContent()).hasSize(1);
+			origens.add(janela.getContent().get(0).getDescricao());
+		}
+
+		// Verificação
+		assertThat(origens).containsExactlyInAnyOrder("Réplica A", "Réplica B");
+	}
+
+	@Test
+	public void deveLerDoPrimarioOQueOUsuarioAcabouDeGravar() {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		inserirNaReplica(REPLICA_A, usuario, "Réplica A");
+		inserirNaReplica(REPLICA_B, usuario, "Réplica B");
+
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setDescricao("Primário");
+		lancamento.setUsuario(usuario);
+		service.salvar(lancamento);
+
+		// Execução e Verificação
+		for (int i = 0; i < 4; i++) {
+			Window<LancamentoDTO> janela = service.buscar(filtro(usuario), ScrollPosition.keyset(), 10);
+			assertThat(janela.getContent()).singleElement()
+						.extracting(LancamentoDTO::getDescricao).isEqualTo("Primário");
+		}
+	}
+
+	@Test
+	public void deveLerDoPrimarioEmOutraInstanciaQuandoOClienteReenviaAMarcaDeEscrita() throws Exception {
+		// Cenário
+		Usuario usuario = salvarUsuario();
+		inserirNaReplica(REPLICA_A, usuario, "Réplica A");
+		inserirNaReplica(REPLICA_B, usuario, "Réplica B");
+
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Primário").mes(5).ano(2024).valor(BigDecimal.TEN)
+					.usuario(usuario.getId()).tipo(TipoLancamento.RECEITA.name()).build();
+		Cookie marca = mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(new ObjectMapper().writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.cookie().httpOnly(EscritaRecenteFilter.COOKIE, true))
+			.andReturn().getResponse().getCookie(EscritaRecenteFilter.COOKIE);
+
+		// Execução: outra instância não tem a marca do usuário na memória
+		ConsistenciaLeitura.configurar(Duration.ZERO, true);
+		ConsistenciaLeitura.configurar(Duration.ofSeconds(5), true);
+
+		// Verificação
+		for (int i = 0; i < 4; i++) {
+			mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", String.valueOf(usuario.getId())).cookie(marca))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("itens.length()").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("itens[0].descricao").value("Primário"));
+		}
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", String.valueOf(usuario.getId())))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("itens[0].descricao").value(Matchers.startsWith("Réplica")));
+	}
+
+	@Test
+	public void deveLerDoPrimarioOStatusQueOUsuarioAcabouDeCancelar() throws Exception {
+		// Cenário: o lançamento pendente já estava nas réplicas antes do cancelamento
+		Usuario usuario = salvarUsuario();
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento = lancamentoRepository.save(lancamento);
+		inserirNaReplica(REPLICA_A, usuario, lancamento.getId(), "Réplica A");
+		inserirNaReplica(REPLICA_B, usuario, lancamento.getId(), "Réplica B");
+
+		// Execução
+		mvc.perform(MockMvcRequestBuilders.put("/api/lancamentos/" + lancamento.getId() + "/atualiza-status")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO(StatusLancamento.CANCELADO.name()))))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.cookie().exists(EscritaRecenteFilter.COOKIE));
+
+		// Verificação
+		for (int i = 0; i < 4; i++) {
+			Window<LancamentoDTO> janela = service.buscar(filtro(usuario), ScrollPosition.keyset(), 10);
+			assertThat(janela.getContent()).singleElement()
+						.extracting(LancamentoDTO::getStatus).isEqualTo(StatusLancamento.CANCELADO.name());
+		}
+	}
+
+	private Usuario salvarUsuario() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		usuario.setEmail(System.nanoTime() + "@email.com");
+		return usuarioRepository.save(usuario);
+	}
+
+	private static Lancamento filtro(Usuario usuario) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		return filtro;
+	}
+
+	private static void inserirNaReplica(String url, Usuario usuario, String descricao) {
+		inserirNaReplica(url, usuario, usuario.getId(), descricao);
+	}
+
+	private static void inserirNaReplica(String url, Usuario usuario, Long idLancamento, String descricao) {
+		JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(url, "sa", "sa"));
+		replica.update("insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)",
+					usuario.getId(), usuario.getNome(), usuario.getEmail(), usuario.getSenha());
+		replica.update("insert into financas.lancamento (id, descricao, descricao_busca, mes, ano, valor, tipo, status, id_usuario) "
+					+ "values (?, ?, ?, 5, 2024, ?, 'RECEITA', 'PENDENTE', ?)",
+					idLancamento, descricao, Lancamento.normalizarDescricao(descricao), BigDecimal.TEN, usuario.getId());
+	}
+}
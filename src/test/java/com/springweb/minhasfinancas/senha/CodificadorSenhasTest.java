@@ -0,0 +1,79 @@
+package com.springweb.minhasfinancas.senha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.springweb.minhasfinancas.exception.SobrecargaException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CodificadorSenhasTest {
+
+	CodificadorSenhas codificador = new CodificadorSenhas(Duration.ofMillis(1), 1000, 1, 1);
+
+	@AfterEach
+	public void encerrar() {
+		codificador.encerrar();
+	}
+
+	@Test
+	public void deveConferirSomenteASenhaQueGerouOHash() {
+		// Execução
+		String hash = codificador.codificar("senha");
+
+		// Verificação
+		assertThat(hash).startsWith(HashSenha.PREFIXO + codificador.getIteracoes() + "$");
+		assertThat(codificador.codificar("senha")).isNotEqualTo(hash);
+		assertThat(codificador.confere("senha", hash)).isTrue();
+		assertThat(codificador.confere("Senha", hash)).isFalse();
+		assertThat(codificador.confere(null, hash)).isFalse();
+	}
+
+	@Test
+	public void deveRecodificarASenhaEmTextoEOHashComMenosIteracoes() {
+		// Cenário
+		String menor = HashSenha.gerar("senha", codificador.getIteracoes() - 1);
+		String maior = HashSenha.gerar("senha", codificador.getIteracoes() + 1000);
+
+		// Verificação
+		assertThat(codificador.confere("senha", "senha")).isTrue();
+		assertThat(codificador.confere("outra", "senha")).isFalse();
+		assertThat(codificador.precisaRecodificar("senha")).isTrue();
+		assertThat(codificador.precisaRecodificar(menor)).isTrue();
+		assertThat(codificador.confere("senha", menor)).isTrue();
+		assertThat(codificador.precisaRecodificar(maior)).isFalse();
+		assertThat(codificador.confere("senha", maior)).isTrue();
+	}
+
+	@Test
+	public void deveRecusarNaHoraComOPoolEAFilaCheios() throws Exception {
+		// Cenário: um hash caro ocupando a única thread e outro na fila
+		SimpleMeterRegistry registro = new SimpleMeterRegistry();
+		codificador.bindTo(registro);
+		String lento = HashSenha.PREFIXO + 300_000 + "$" + Base64.getEncoder().withoutPadding().encodeToString(new byte[16])
+					+ "$" + Base64.getEncoder().withoutPadding().encodeToString(new byte[32]);
+		Thread primeiro = new Thread( () -> codificador.confere("senha", lento) );
+		Thread segundo = new Thread( () -> codificador.confere("senha", lento) );
+		primeiro.start();
+		segundo.start();
+		long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while(registro.get("executor.queued").gauge().value() < 1 && System.nanoTime() < limite) {
+			Thread.sleep(1);
+		}
+
+		// Execução
+		Throwable erro = catchThrowable( () -> codificador.codificar("senha") );
+
+		// Verificação
+		assertThat(erro).isInstanceOf(SobrecargaException.class);
+		assertThat(registro.get("financas.senha.recusadas").functionCounter().count()).isEqualTo(1);
+		primeiro.join();
+		segundo.join();
+	}
+}
@@ -0,0 +1,101 @@
+package com.springweb.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoAnoMesDTO;
+import com.springweb.minhasfinancas.api.dto.TotalDescricaoDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.service.impl.AnaliseServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class AnaliseServiceTest {
+	
+	@SpyBean
+	AnaliseServiceImpl service;
+	
+	@MockBean
+	LancamentoRepository repository;
+	
+	@Test
+	public void deveCalcularATendenciaDosEfetivadosComOsMesesSemLancamentos() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(1l)).thenReturn(Optional.of(0l));
+		Mockito.when(repository.exportarPorUsuario(1l)).thenAnswer( invocacao -> Stream.of(
+					lancamento("Salário", 2023, 12, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, "100.00"),
+					lancamento("Mercado", 2024, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, "30.25"),
+					lancamento("Mercado", 2024, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "10.00")) );
+		
+		// Execução
+		List<SaldoAnoMesDTO> tendencia = service.obterTendencia(1l, 2023, 2024).get();
+		
+		// Verificação
+		Assertions.assertThat(tendencia).hasSize(24);
+		Assertions.assertThat(tendencia.get(11).getReceitas()).isEqualByComparingTo("100");
+		Assertions.assertThat(tendencia.get(12).getDespesas()).isEqualByComparingTo("30.25");
+		Assertions.assertThat(tendencia.get(12).getSaldo()).isEqualByComparingTo("-30.25");
+		Assertions.assertThat(tendencia.get(0).getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+	
+	@Test
+	public void deveRecarregarAsColunasSoQuandoAVersaoDosLancamentosMudar() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(2l)).thenReturn(Optional.of(4l));
+		Mockito.when(repository.exportarPorUsuario(2l)).thenAnswer( invocacao -> Stream.of(
+					lancamento("Mercado", 2024, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, "30.00")) );
+		
+		// Execução
+		service.obterTotaisPorMes(2l, 2024);
+		List<TotalDescricaoDTO> descricoes = service.obterPrincipaisDescricoes(2l, 2024, TipoLancamento.DESPESA, 5).get();
+		
+		Mockito.when(repository.obterVersaoDoUsuario(2l)).thenReturn(Optional.of(5l));
+		service.obterTotaisPorMes(2l, 2024);
+		
+		// Verificação
+		Assertions.assertThat(descricoes).singleElement().satisfies( descricao -> {
+			Assertions.assertThat(descricao.getDescricao()).isEqualTo("Mercado");
+			Assertions.assertThat(descricao.getValor()).isEqualTo(Dinheiro.de("30"));
+			Assertions.assertThat(descricao.getQuantidade()).isEqualTo(1);
+		});
+		Mockito.verify(repository, Mockito.times(2)).exportarPorUsuario(2l);
+	}
+	
+	@Test
+	public void naoDeveCarregarOsLancamentosDeUsuarioInexistente() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(3l)).thenReturn(Optional.empty());
+		
+		// Execução
+		Assertions.assertThat(service.obterTotaisPorMes(3l, 2024)).isEmpty();
+		
+		// Verificação
+		Mockito.verify(repository, Mockito.never()).exportarPorUsuario(Mockito.anyLong());
+	}
+	
+	private static LancamentoDTO lancamento(String descricao, int ano, int mes, TipoLancamento tipo, StatusLancamento status, String valor) {
+		return LancamentoDTO.builder()
+					.descricao(descricao)
+					.ano(ano)
+					.mes(mes)
+					.tipo(tipo.name())
+					.Status(status.name())
+					.valor(new BigDecimal(valor))
+					.build();
+	}
+}
@@ -4,30 +4,40 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.context.junit4.SpringRunner;
 
+import com.springweb.minhasfinancas.api.dto.LancamentoDTO;
+import com.springweb.minhasfinancas.api.dto.ResultadoStatusLoteDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.api.dto.SaldoMensalDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.exception.VersaoConflitanteException;
 import com.springweb.minhasfinancas.model.entity.Lancamento;
 import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.enums.ModoBusca;
 import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
 import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
 import com.springweb.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.springweb.minhasfinancas.particionamento.ExecutorParticoes;
 import com.springweb.minhasfinancas.service.impl.LancamentoServiceImpl;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@RunWith(SpringRunner.class)
 public class LancamentoServiceTest {
 
     @SpyBean
@@ -35,6 +45,18 @@ public class LancamentoServiceTest {
 
     @MockBean
     LancamentoRepository repository;
+    
+    @MockBean
+    SaldoService saldoService;
+    
+    @MockBean
+    ExecutorParticoes executorParticoes;
+    
+    @BeforeEach
+    public void setUp() {
+    	Mockito.when(executorParticoes.naParticao(Mockito.anyString(), Mockito.any()))
+    			.thenAnswer( invocacao -> invocacao.<Supplier<?>>getArgument(1).get() );
+    }
 
     @Test
     public void deveSalvarUmLancamento() {
@@ -69,6 +91,34 @@ public class LancamentoServiceTest {
         Mockito.verify(repository, Mockito.never()).save(lancamentoASalvar);
     }
     
+    @Test
+    public void deveSalvarUmLoteDeLancamentos() {
+        // Cenário
+        List<Lancamento> lancamentos = Arrays.asList(LancamentoRepositoryTest.criarLancamento(), LancamentoRepositoryTest.criarLancamento());
+        lancamentos.forEach( lancamento -> lancamento.setStatus(StatusLancamento.EFETIVADO) );
+        lancamentos.forEach( lancamento -> lancamento.setUsuario(Usuario.builder().id(1l).build()) );
+        Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+
+        // Execução
+        List<Lancamento> salvos = service.salvarLote(lancamentos);
+
+        // Verificação
+        Mockito.verify(repository).inserirEmLote(lancamentos);
+        Mockito.verify(repository).incrementarVersaoDoUsuario(1l);
+        Assertions.assertThat(salvos).extracting(Lancamento::getStatus).containsOnly(StatusLancamento.PENDENTE);
+    }
+    
+    @Test
+    public void naoDeveSalvarOLoteQuandoAlgumLancamentoForInvalido() {
+        // Cenário
+        List<Lancamento> lancamentos = Arrays.asList(LancamentoRepositoryTest.criarLancamento(), new Lancamento());
+
+        // Execução e Verificação
+        Assertions.assertThatThrownBy(() -> service.salvarLote(lancamentos))
+                  .isInstanceOf(RegraNegocioException.class);
+        Mockito.verify(repository, Mockito.never()).inserirEmLote(Mockito.anyList());
+    }
+    
     @Test
     public void deveAtualizarUmLancamento() {
         // Cenário
@@ -78,16 +128,177 @@ public class LancamentoServiceTest {
     	
         Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
 
-        Mockito.when(repository.save(Mockito.any(Lancamento.class))).thenReturn(lancamentoSalvo);
+        Mockito.when(repository.atualizarNaoEfetivado(lancamentoSalvo)).thenReturn(1);
 
         // Execução
         service.atualizar(lancamentoSalvo);
 
         // Verificação
-        Mockito.verify(repository, Mockito.times(1)).save(lancamentoSalvo);
+        Mockito.verify(repository, Mockito.times(1)).atualizarNaoEfetivado(lancamentoSalvo);
+        Mockito.verify(repository, Mockito.never()).obterEstadoPersistido(Mockito.anyLong());
+        Mockito.verifyNoInteractions(saldoService);
         
     }
     
+    @Test
+    public void deveLancarErroAoAtualizarUmLancamentoInexistente() {
+        // Cenário
+    	Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+    	lancamento.setId(1l);
+    	
+        Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+        Mockito.when(repository.atualizarNaoEfetivado(lancamento)).thenReturn(0);
+        Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.empty());
+
+        // Execução e Verificação
+        Assertions.assertThatThrownBy(() -> service.atualizar(lancamento))
+                  .isInstanceOf(RegraNegocioException.class)
+                  .hasMessage("Lançamento não encontrado na base de Dados!");
+        Mockito.verify(repository, Mockito.never()).atualizar(lancamento);
+    }
+    
+    @Test
+    public void deveLancarErroAoAtualizarUmLancamentoAlteradoPorOutraRequisicao() {
+        // Cenário
+    	Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+    	lancamento.setId(1l);
+    	lancamento.setUsuario(Usuario.builder().id(2l).build());
+    	lancamento.setStatus(StatusLancamento.PENDENTE);
+    	lancamento.setVersao(3l);
+    	
+    	LancamentoDTO anterior = LancamentoDTO.builder().id(1l).usuario(2l).valor(BigDecimal.valueOf(10))
+    			.tipo(TipoLancamento.RECEITA.name()).Status(StatusLancamento.PENDENTE.name()).versao(4l).build();
+    	
+        Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+        Mockito.when(repository.atualizarNaoEfetivado(lancamento)).thenReturn(0);
+        Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+
+        // Execução e Verificação
+        Assertions.assertThatThrownBy(() -> service.atualizar(lancamento))
+                  .isInstanceOf(VersaoConflitanteException.class);
+        Mockito.verify(repository, Mockito.never()).atualizar(lancamento);
+        Mockito.verify(repository, Mockito.never()).incrementarVersaoDoUsuario(Mockito.anyLong());
+    }
+    
+    @Test
+    public void deveMovimentarOSaldoAoEfetivarUmLancamento() {
+        // Cenário
+    	Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+    	lancamento.setId(1l);
+    	lancamento.setUsuario(Usuario.builder().id(2l).build());
+    	lancamento.setStatus(StatusLancamento.EFETIVADO);
+    	
+    	LancamentoDTO anterior = LancamentoDTO.builder().id(1l).usuario(2l).valor(BigDecimal.valueOf(10))
+    			.tipo(TipoLancamento.RECEITA.name()).Status(StatusLancamento.PENDENTE.name()).build();
+    	
+        Mockito.doNothing().when(service).validar(Mockito.any(Lancamento.class));
+        Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+
+        // Execução
+        service.atualizar(lancamento);
+
+        // Verificação
+        Mockito.verify(repository).atualizar(lancamento);
+        Mockito.verify(saldoService).movimentar(2l, Dinheiro.de("10"), Dinheiro.ZERO);
+    }
+    
+    @Test
+    public void deveAtualizarOStatusComUmUnicoUpdateQuandoNaoEnvolverLancamentoEfetivado() {
+    	// Cenário
+    	Mockito.when(repository.atualizarStatusNaoEfetivado(1l, StatusLancamento.CANCELADO)).thenReturn(1);
+    	
+    	// Execução
+    	boolean atualizado = service.atualizarStatus(1l, StatusLancamento.CANCELADO);
+    	
+    	// Verificação
+    	Assertions.assertThat(atualizado).isTrue();
+    	Mockito.verify(repository, Mockito.never()).obterEstadoPersistido(Mockito.anyLong());
+    	Mockito.verify(repository, Mockito.never()).obterIdUsuario(Mockito.anyLong());
+    	Mockito.verify(repository).incrementarVersaoDoDonoNaoEfetivado(1l);
+    	Mockito.verifyNoInteractions(saldoService);
+    }
+    
+    @Test
+    public void deveEstornarOSaldoAoCancelarUmLancamentoEfetivado() {
+    	// Cenário
+    	LancamentoDTO anterior = LancamentoDTO.builder().id(1l).usuario(2l).valor(BigDecimal.valueOf(10))
+    			.tipo(TipoLancamento.RECEITA.name()).Status(StatusLancamento.EFETIVADO.name()).build();
+    	Mockito.when(repository.atualizarStatusNaoEfetivado(1l, StatusLancamento.CANCELADO)).thenReturn(0);
+    	Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+    	
+    	// Execução
+    	boolean atualizado = service.atualizarStatus(1l, StatusLancamento.CANCELADO);
+    	
+    	// Verificação
+    	Assertions.assertThat(atualizado).isTrue();
+    	Mockito.verify(repository).atualizarStatus(1l, StatusLancamento.CANCELADO, StatusLancamento.EFETIVADO);
+    	Mockito.verify(saldoService).movimentar(2l, Dinheiro.de("-10"), Dinheiro.ZERO);
+    }
+    
+    @Test
+    public void deveEfetivarEmLoteMovimentandoOSaldoDeCadaUsuario() {
+    	// Cenário
+    	List<Long> ids = Arrays.asList(1l, 2l, 3l);
+    	List<LancamentoDTO> travados = Arrays.asList(
+    			LancamentoDTO.builder().id(1l).usuario(5l).valor(BigDecimal.valueOf(10)).tipo(TipoLancamento.RECEITA.name()).build(),
+    			LancamentoDTO.builder().id(2l).usuario(5l).valor(BigDecimal.valueOf(4)).tipo(TipoLancamento.DESPESA.name()).build());
+    	Mockito.when(repository.travarPorIdsEStatus(ids, StatusLancamento.PENDENTE)).thenReturn(travados);
+    	Mockito.when(repository.atualizarStatusPorIds(Mockito.anyCollection(), Mockito.eq(StatusLancamento.EFETIVADO), Mockito.eq(StatusLancamento.PENDENTE))).thenReturn(2);
+    	
+    	// Execução
+    	ResultadoStatusLoteDTO resultado = service.atualizarStatusEmLote(ids, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO);
+    	
+    	// Verificação
+    	Assertions.assertThat(resultado.getAtualizados()).isEqualTo(2);
+    	Assertions.assertThat(resultado.getIgnorados()).containsExactly(3l);
+    	Mockito.verify(saldoService).movimentar(5l, Dinheiro.de("10"), Dinheiro.de("4"));
+    }
+    
+    @Test
+    public void deveAtualizarStatusEmLotePorFiltroSemTravarQuandoNaoEnvolverLancamentoEfetivado() {
+    	// Cenário
+    	Mockito.when(repository.atualizarStatusPorUsuario(1l, 2024, null, StatusLancamento.CANCELADO, StatusLancamento.PENDENTE)).thenReturn(7);
+    	
+    	// Execução
+    	ResultadoStatusLoteDTO resultado = service.atualizarStatusEmLote(1l, 2024, null, StatusLancamento.PENDENTE, StatusLancamento.CANCELADO);
+    	
+    	// Verificação
+    	Assertions.assertThat(resultado.getAtualizados()).isEqualTo(7);
+    	Mockito.verify(repository, Mockito.never()).travarPorUsuarioEStatus(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    	Mockito.verifyNoInteractions(saldoService);
+    }
+    
+    @Test
+    public void deveRetornarFalsoAoAtualizarOStatusDeUmLancamentoInexistente() {
+    	// Cenário
+    	Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.empty());
+    	
+    	// Execução
+    	boolean atualizado = service.atualizarStatus(1l, StatusLancamento.EFETIVADO);
+    	
+    	// Verificação
+    	Assertions.assertThat(atualizado).isFalse();
+    	Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+    
+    @Test
+    public void deveEstornarOSaldoAoDeletarUmLancamentoEfetivado() {
+    	// Cenário
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1l);
+        
+        LancamentoDTO anterior = LancamentoDTO.builder().id(1l).usuario(2l).valor(BigDecimal.valueOf(10))
+    			.tipo(TipoLancamento.DESPESA.name()).Status(StatusLancamento.EFETIVADO.name()).build();
+        Mockito.when(repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+        
+        // Execução
+        service.deletar(lancamento);
+        
+        // Verificação
+        Mockito.verify(repository).deletarPorId(1l);
+        Mockito.verify(saldoService).movimentar(2l, Dinheiro.ZERO, Dinheiro.de("-10"));
+    }
+    
     @Test
     public void deveLancarErroAoTentarAtualizarUmLancamentoQueAindaNaoFoiSalvo() {
         // Cenário
@@ -106,11 +317,16 @@ public class LancamentoServiceTest {
         Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
         lancamento.setId(1l);
         
+        Mockito.when(repository.incrementarVersaoDoDonoNaoEfetivado(1l)).thenReturn(1);
+        Mockito.when(repository.deletarNaoEfetivado(1l)).thenReturn(1);
+        
         // Execução
         service.deletar(lancamento);
         
         // Verificação
-        Mockito.verify(repository).delete(lancamento);
+        Mockito.verify(repository).deletarNaoEfetivado(1l);
+        Mockito.verify(repository, Mockito.never()).obterIdUsuario(Mockito.anyLong());
+        Mockito.verify(repository, Mockito.never()).obterEstadoPersistido(Mockito.anyLong());
     }
     
     @Test
@@ -123,6 +339,7 @@ public class LancamentoServiceTest {
                   .isInstanceOf(IllegalArgumentException.class)
                   .hasMessage("ID de lançamento inválido: 0");
         Mockito.verify(repository, Mockito.never()).delete(lancamento);
+        Mockito.verify(repository, Mockito.never()).deletarNaoEfetivado(Mockito.anyLong());
     }
     
     @Test
@@ -145,6 +362,37 @@ public class LancamentoServiceTest {
     		.contains(lancamento);
     }
     
+    @Test
+    public void deveFiltrarLancamentosPorCursor() {
+    	// Cenário
+    	Lancamento filtro = LancamentoRepositoryTest.criarLancamento();
+    	filtro.setDescricao(null);
+    	LancamentoDTO lancamento = LancamentoDTO.builder().id(1l).build();
+    	
+    	Window<LancamentoDTO> janela = Window.from(Arrays.asList(lancamento), ScrollPosition::offset);
+    	Mockito.when(repository.buscarPorCursor(filtro, null, ScrollPosition.keyset(), 10)).thenReturn(janela);
+    	
+    	// Execução
+    	Window<LancamentoDTO> resultado = service.buscar(filtro, ScrollPosition.keyset(), 10);
+    	
+    	// Verificação
+    	Assertions.assertThat(resultado.getContent()).containsExactly(lancamento);
+    	Assertions.assertThat(resultado.hasNext()).isFalse();
+    }
+    
+    @Test
+    public void deveBuscarPeloPrefixoDaDescricaoNormalizadaEEscapada() {
+    	// Cenário
+    	Lancamento filtro = LancamentoRepositoryTest.criarLancamento();
+    	filtro.setDescricao("Ação 100%");
+    	
+    	// Execução
+    	service.buscar(filtro, ModoBusca.PREFIXO, ScrollPosition.keyset(), 10);
+    	
+    	// Verificação
+    	Mockito.verify(repository).buscarPorCursor(filtro, "acao 100\\%%", ScrollPosition.keyset(), 10);
+    }
+    
     @Test
     public void deveAtualizarOStatusDeUmLancamento() {
     	// Cenário
@@ -254,10 +502,59 @@ public class LancamentoServiceTest {
     	erro = Assertions.catchThrowable( () -> service.validar(lancamento));
     	Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor válido!");
     	
+    	lancamento.setValor(new BigDecimal("0.005"));
+    	
+    	erro = Assertions.catchThrowable( () -> service.validar(lancamento));
+    	Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor válido!");
+    	
     	lancamento.setValor(BigDecimal.valueOf(1));
     	
     	erro = Assertions.catchThrowable( () -> service.validar(lancamento));
     	Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Tipo de Lançamento!");
     }
+    
+    @Test
+    public void deveObterOSaldoDoUsuarioEmUmaUnicaConsulta() {
+    	// Cenário
+    	Mockito.when(saldoService.obterSaldo(1l)).thenReturn(Optional.empty());
+    	Mockito.when(repository.obterSaldoPorUsuarioEStatus(1l, StatusLancamento.EFETIVADO))
+    		.thenReturn(new SaldoDTO(BigDecimal.valueOf(100), BigDecimal.valueOf(40)));
+    	
+    	// Execução
+    	BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+    	
+    	// Verificação
+    	Assertions.assertThat(saldo).isEqualByComparingTo("60");
+    	Mockito.verify(repository, Mockito.times(1)).obterSaldoPorUsuarioEStatus(1l, StatusLancamento.EFETIVADO);
+    }
+    
+    @Test
+    public void deveObterOSaldoMantidoSemReagregarOsLancamentos() {
+    	// Cenário
+    	Mockito.when(saldoService.obterSaldo(1l)).thenReturn(Optional.of(new SaldoDTO(BigDecimal.valueOf(100), BigDecimal.valueOf(40))));
+    	
+    	// Execução
+    	BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+    	
+    	// Verificação
+    	Assertions.assertThat(saldo).isEqualByComparingTo("60");
+    	Mockito.verify(repository, Mockito.never()).obterSaldoPorUsuarioEStatus(Mockito.anyLong(), Mockito.any());
+    }
+    
+    @Test
+    public void deveCompletarOsDozeMesesDoSaldoMensal() {
+    	// Cenário
+    	Mockito.when(repository.obterSaldoMensalPorUsuarioEStatus(1l, 2024, StatusLancamento.EFETIVADO))
+    		.thenReturn(Arrays.asList(new SaldoMensalDTO(3, BigDecimal.valueOf(100), null)));
+    	
+    	// Execução
+    	List<SaldoMensalDTO> saldos = service.obterSaldoMensalPorUsuario(1l, 2024);
+    	
+    	// Verificação
+    	Assertions.assertThat(saldos).hasSize(12);
+    	Assertions.assertThat(saldos).extracting(SaldoMensalDTO::getMes).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+    	Assertions.assertThat(saldos.get(2).getSaldo()).isEqualByComparingTo("100");
+    	Assertions.assertThat(saldos.get(0).getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
 
 }
@@ -0,0 +1,116 @@
+package com.springweb.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.springweb.minhasfinancas.api.dto.RelatorioAnualDTO;
+import com.springweb.minhasfinancas.api.dto.RelatorioMensalDTO;
+import com.springweb.minhasfinancas.api.dto.TotalLancamentosDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.enums.TipoLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.service.impl.RelatorioServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class RelatorioServiceTest {
+	
+	@SpyBean
+	RelatorioServiceImpl service;
+	
+	@MockBean
+	LancamentoRepository repository;
+	
+	@Test
+	public void deveMontarOsTotaisDoAnoComOSaldoAcumulado() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(1l)).thenReturn(Optional.of(0l));
+		Mockito.when(repository.obterTotaisAteOAno(1l, 2024, StatusLancamento.EFETIVADO)).thenReturn(List.of(
+					new TotalLancamentosDTO(2023, 7, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100)),
+					new TotalLancamentosDTO(2023, 8, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(30)),
+					new TotalLancamentosDTO(2024, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(50)),
+					new TotalLancamentosDTO(2024, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(20)),
+					new TotalLancamentosDTO(2024, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10))));
+		
+		// Execução
+		RelatorioAnualDTO relatorio = service.obterRelatorioAnual(1l, 2024).get();
+		
+		// Verificação
+		Assertions.assertThat(relatorio.getSaldoAnterior()).isEqualTo(Dinheiro.de("70"));
+		Assertions.assertThat(relatorio.getSaldo()).isEqualTo(Dinheiro.de("110"));
+		Assertions.assertThat(relatorio.getMeses()).hasSize(12);
+		
+		RelatorioMensalDTO janeiro = relatorio.getMeses().get(0);
+		Assertions.assertThat(janeiro.getSaldo()).isEqualTo(Dinheiro.de("50"));
+		Assertions.assertThat(janeiro.getSaldoAcumulado()).isEqualTo(Dinheiro.de("120"));
+		Assertions.assertThat(janeiro.getTotais().get(TipoLancamento.DESPESA).get(StatusLancamento.PENDENTE)).isEqualTo(Dinheiro.de("20"));
+		Assertions.assertThat(janeiro.getTotais().get(TipoLancamento.DESPESA).get(StatusLancamento.CANCELADO)).isEqualTo(Dinheiro.de("0"));
+		Assertions.assertThat(relatorio.getMeses().get(1).getSaldoAcumulado()).isEqualTo(Dinheiro.de("120"));
+		Assertions.assertThat(relatorio.getMeses().get(2).getSaldoAcumulado()).isEqualTo(Dinheiro.de("110"));
+	}
+	
+	@Test
+	public void deveReaproveitarORelatorioEnquantoAVersaoDosLancamentosNaoMudar() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(2l)).thenReturn(Optional.of(4l));
+		Mockito.when(repository.obterTotaisAteOAno(2l, 2024, StatusLancamento.EFETIVADO)).thenReturn(List.of());
+		
+		// Execução
+		RelatorioAnualDTO primeiro = service.obterRelatorioAnual(2l, 2024).get();
+		RelatorioAnualDTO segundo = service.obterRelatorioAnual(2l, 2024).get();
+		
+		Mockito.when(repository.obterVersaoDoUsuario(2l)).thenReturn(Optional.of(5l));
+		RelatorioAnualDTO depoisDaEscrita = service.obterRelatorioAnual(2l, 2024).get();
+		
+		// Verificação
+		Assertions.assertThat(segundo).isEqualTo(primeiro);
+		Assertions.assertThat(depoisDaEscrita).isEqualTo(primeiro);
+		Mockito.verify(repository, Mockito.times(2)).obterTotaisAteOAno(2l, 2024, StatusLancamento.EFETIVADO);
+	}
+	
+	@Test
+	public void naoDeveAlterarORelatorioGuardadoQuandoQuemRecebeuOModifica() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(4l)).thenReturn(Optional.of(1l));
+		Mockito.when(repository.obterTotaisAteOAno(4l, 2024, StatusLancamento.EFETIVADO)).thenReturn(List.of(
+					new TotalLancamentosDTO(2024, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(50))));
+		
+		// Execução
+		RelatorioAnualDTO primeiro = service.obterRelatorioAnual(4l, 2024).get();
+		primeiro.setSaldo(Dinheiro.de("999"));
+		primeiro.getMeses().get(0).setSaldo(Dinheiro.de("999"));
+		primeiro.getMeses().get(0).getTotais().get(TipoLancamento.RECEITA).put(StatusLancamento.EFETIVADO, Dinheiro.de("999"));
+		RelatorioAnualDTO segundo = service.obterRelatorioAnual(4l, 2024).get();
+		
+		// Verificação
+		Assertions.assertThat(segundo.getSaldo()).isEqualTo(Dinheiro.de("50"));
+		Assertions.assertThat(segundo.getMeses().get(0).getSaldo()).isEqualTo(Dinheiro.de("50"));
+		Assertions.assertThat(segundo.getMeses().get(0).getTotais().get(TipoLancamento.RECEITA).get(StatusLancamento.EFETIVADO))
+					.isEqualTo(Dinheiro.de("50"));
+		Mockito.verify(repository, Mockito.times(1)).obterTotaisAteOAno(4l, 2024, StatusLancamento.EFETIVADO);
+	}
+	
+	@Test
+	public void naoDeveMontarORelatorioDeUsuarioInexistente() {
+		// Cenário
+		Mockito.when(repository.obterVersaoDoUsuario(3l)).thenReturn(Optional.empty());
+		
+		// Execução
+		Optional<RelatorioAnualDTO> relatorio = service.obterRelatorioAnual(3l, 2024);
+		
+		// Verificação
+		Assertions.assertThat(relatorio).isEmpty();
+		Mockito.verify(repository, Mockito.never()).obterTotaisAteOAno(Mockito.anyLong(), Mockito.anyInt(), Mockito.any());
+	}
+}
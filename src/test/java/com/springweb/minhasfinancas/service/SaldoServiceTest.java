@@ -0,0 +1,131 @@
+package com.springweb.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.springweb.minhasfinancas.api.dto.SaldoDTO;
+import com.springweb.minhasfinancas.dinheiro.Dinheiro;
+import com.springweb.minhasfinancas.model.entity.SaldoUsuario;
+import com.springweb.minhasfinancas.model.enums.StatusLancamento;
+import com.springweb.minhasfinancas.model.repository.LancamentoRepository;
+import com.springweb.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.springweb.minhasfinancas.model.repository.SaldoUsuarioRepositoryTest;
+import com.springweb.minhasfinancas.particionamento.ExecutorParticoes;
+import com.springweb.minhasfinancas.service.impl.SaldoServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class SaldoServiceTest {
+	
+	@SpyBean
+	SaldoServiceImpl service;
+	
+	@MockBean
+	SaldoUsuarioRepository repository;
+	
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+	
+	@MockBean
+	ExecutorParticoes executorParticoes;
+	
+	@Test
+	public void deveAplicarODeltaNoSaldoExistente() {
+		// Cenário
+		Mockito.when(repository.aplicarDelta(1l, new BigDecimal("10.00"), new BigDecimal("0.00"))).thenReturn(1);
+		
+		// Execução
+		service.movimentar(1l, Dinheiro.de("10"), Dinheiro.ZERO);
+		
+		// Verificação
+		Mockito.verify(repository).aplicarDelta(1l, new BigDecimal("10.00"), new BigDecimal("0.00"));
+		Mockito.verify(service, Mockito.never()).reconstruir(1l);
+	}
+	
+	@Test
+	public void naoDeveMovimentarOSaldoQuandoODeltaForZero() {
+		// Execução
+		service.movimentar(1l, Dinheiro.ZERO, Dinheiro.ZERO);
+		
+		// Verificação
+		Mockito.verifyNoInteractions(repository);
+	}
+	
+	@Test
+	public void deveReconstruirOSaldoNaPrimeiraMovimentacaoDoUsuario() {
+		// Cenário
+		Mockito.when(repository.aplicarDelta(1l, new BigDecimal("10.00"), new BigDecimal("0.00"))).thenReturn(0);
+		Mockito.doReturn(new SaldoDTO(BigDecimal.TEN, BigDecimal.ZERO)).when(service).reconstruir(1l);
+		
+		// Execução
+		service.movimentar(1l, Dinheiro.de("10"), Dinheiro.ZERO);
+		
+		// Verificação
+		Mockito.verify(service).reconstruir(1l);
+	}
+	
+	@Test
+	public void deveReconstruirOSaldoAPartirDosLancamentos() {
+		// Cenário
+		Mockito.when(repository.travarPorUsuario(1l)).thenReturn(Optional.of(SaldoUsuarioRepositoryTest.criarSaldo(1l, 999, 999)));
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuarioEStatus(1l, StatusLancamento.EFETIVADO))
+			.thenReturn(new SaldoDTO(BigDecimal.valueOf(100), BigDecimal.valueOf(30)));
+		
+		// Execução
+		SaldoDTO saldo = service.reconstruir(1l);
+		
+		// Verificação
+		ArgumentCaptor<SaldoUsuario> captor = ArgumentCaptor.forClass(SaldoUsuario.class);
+		Mockito.verify(repository).save(captor.capture());
+		Assertions.assertThat(captor.getValue().getReceitas()).isEqualByComparingTo("100");
+		Assertions.assertThat(captor.getValue().getDespesas()).isEqualByComparingTo("30");
+		Assertions.assertThat(saldo.getSaldo()).isEqualByComparingTo("70");
+		
+		InOrder ordem = Mockito.inOrder(repository, lancamentoRepository);
+		ordem.verify(repository).travarPorUsuario(1l);
+		ordem.verify(lancamentoRepository).incrementarVersaoDoUsuario(1l);
+	}
+	
+	@Test
+	public void deveTravarOUsuarioAntesDeCriarOSaldoNaReconstrucao() {
+		// Cenário
+		Mockito.when(repository.travarPorUsuario(1l)).thenReturn(Optional.empty());
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuarioEStatus(1l, StatusLancamento.EFETIVADO))
+			.thenReturn(new SaldoDTO(BigDecimal.TEN, BigDecimal.ZERO));
+		
+		// Execução
+		service.reconstruir(1l);
+		
+		// Verificação
+		InOrder ordem = Mockito.inOrder(repository, lancamentoRepository);
+		ordem.verify(repository).travarPorUsuario(1l);
+		ordem.verify(lancamentoRepository).incrementarVersaoDoUsuario(1l);
+		ordem.verify(repository).travarPorUsuario(1l);
+		ordem.verify(repository).save(Mockito.any(SaldoUsuario.class));
+		Mockito.verify(lancamentoRepository).incrementarVersaoDoUsuario(1l);
+	}
+	
+	@Test
+	public void deveObterOSaldoMantidoDoUsuario() {
+		// Cenário
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(SaldoUsuarioRepositoryTest.criarSaldo(1l, 100, 30)));
+		
+		// Execução
+		Optional<SaldoDTO> saldo = service.obterSaldo(1l);
+		
+		// Verificação
+		Assertions.assertThat(saldo).isPresent();
+		Assertions.assertThat(saldo.get().getSaldo()).isEqualByComparingTo("70");
+	}
+}
@@ -0,0 +1,124 @@
+package com.springweb.minhasfinancas.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.springweb.minhasfinancas.api.dto.SessaoDTO;
+import com.springweb.minhasfinancas.exception.AcessoNegadoException;
+import com.springweb.minhasfinancas.exception.ErroAutenticacao;
+import com.springweb.minhasfinancas.model.entity.TokenRevogado;
+import com.springweb.minhasfinancas.model.entity.Usuario;
+import com.springweb.minhasfinancas.model.repository.TokenRevogadoRepository;
+import com.springweb.minhasfinancas.service.impl.SessaoServiceImpl;
+import com.springweb.minhasfinancas.sessao.AssinadorTokens;
+import com.springweb.minhasfinancas.sessao.TipoToken;
+import com.springweb.minhasfinancas.sessao.TokenSessao;
+
+public class SessaoServiceTest {
+	
+	AssinadorTokens assinador = new AssinadorTokens(new byte[AssinadorTokens.TAMANHO_MINIMO_SEGREDO]);
+	
+	TokenRevogadoRepository repository = Mockito.mock(TokenRevogadoRepository.class);
+	
+	SessaoService service = new SessaoServiceImpl(assinador, repository, Duration.ofMinutes(15), Duration.ofDays(30));
+	
+	@Test
+	public void deveAutenticarPeloTokenSemConsultarOBanco() {
+		// Cenário
+		SessaoDTO sessao = service.iniciar(Usuario.builder().id(7l).build());
+		
+		// Execução
+		Long idUsuario = service.autenticar(sessao.getTokenAcesso());
+		
+		// Verificação
+		Assertions.assertThat(idUsuario).isEqualTo(7l);
+		Assertions.assertThat(sessao.getValidade()).isEqualTo(900);
+		Mockito.verifyNoInteractions(repository);
+	}
+	
+	@Test
+	public void deveRecusarTokenAlteradoExpiradoOuDeOutroTipo() {
+		// Cenário
+		SessaoDTO sessao = service.iniciar(Usuario.builder().id(7l).build());
+		String acesso = sessao.getTokenAcesso();
+		String alterado = assinador.emitir(TipoToken.ACESSO, 8l, Long.MAX_VALUE).getTexto().split("\\.")[0]
+					+ acesso.substring(acesso.indexOf('.'));
+		String expirado = assinador.emitir(TipoToken.ACESSO, 7l, 1).getTexto();
+		String deOutroSegredo = new AssinadorTokens("um segredo diferente, com mais de 32 bytes".getBytes()).emitir(TipoToken.ACESSO, 7l, Long.MAX_VALUE).getTexto();
+		
+		// Execução e Verificação
+		for (String token : new String[] { alterado, expirado, deOutroSegredo, sessao.getTokenRenovacao(), "abc", "a.b.c" }) {
+			Assertions.assertThatThrownBy(() -> service.autenticar(token)).isInstanceOf(ErroAutenticacao.class);
+		}
+	}
+	
+	@Test
+	public void deveRenovarUmaUnicaVezCadaTokenDeRenovacao() {
+		// Cenário
+		SessaoDTO sessao = service.iniciar(Usuario.builder().id(7l).build());
+		
+		// Execução
+		SessaoDTO renovada = service.renovar(sessao.getTokenRenovacao());
+		
+		// Verificação
+		Assertions.assertThat(service.autenticar(renovada.getTokenAcesso())).isEqualTo(7l);
+		Assertions.assertThat(renovada.getUsuario()).isNull();
+		Assertions.assertThatThrownBy(() -> service.renovar(sessao.getTokenRenovacao()))
+					.isInstanceOf(ErroAutenticacao.class)
+					.hasMessage("Token revogado!");
+		Mockito.verify(repository).inserir(Mockito.anyString(), Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveRecusarARenovacaoJaFeitaEmOutroNo() {
+		// Cenário
+		SessaoDTO sessao = service.iniciar(Usuario.builder().id(7l).build());
+		Mockito.when(repository.inserir(Mockito.anyString(), Mockito.anyLong())).thenThrow(DataIntegrityViolationException.class);
+		
+		// Execução e Verificação
+		Assertions.assertThatThrownBy(() -> service.renovar(sessao.getTokenRenovacao()))
+					.isInstanceOf(ErroAutenticacao.class)
+					.hasMessage("Token de renovação já utilizado!");
+	}
+	
+	@Test
+	public void deveRecusarOsTokensEncerradosAquiEOsRevogadosEmOutroNo() {
+		// Cenário
+		SessaoDTO local = service.iniciar(Usuario.builder().id(7l).build());
+		SessaoDTO remota = service.iniciar(Usuario.builder().id(8l).build());
+		TokenSessao revogadoRemoto = assinador.verificar(remota.getTokenAcesso()).get();
+		Mockito.when(repository.listarValidos(Mockito.anyLong()))
+					.thenReturn(List.of(new TokenRevogado(revogadoRemoto.getId(), revogadoRemoto.getExpiraEm())));
+		
+		// Execução
+		service.encerrar(local.getTokenAcesso(), local.getTokenRenovacao());
+		service.sincronizarRevogacoes();
+		
+		// Verificação
+		Assertions.assertThatThrownBy(() -> service.autenticar(local.getTokenAcesso())).isInstanceOf(ErroAutenticacao.class);
+		Assertions.assertThatThrownBy(() -> service.renovar(local.getTokenRenovacao())).isInstanceOf(ErroAutenticacao.class);
+		Assertions.assertThatThrownBy(() -> service.autenticar(remota.getTokenAcesso())).isInstanceOf(ErroAutenticacao.class);
+		Mockito.verify(repository, Mockito.times(2)).inserir(Mockito.anyString(), Mockito.anyLong());
+		Mockito.verify(repository).removerExpirados(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveEncerrarASessaoDeOutroUsuario() {
+		// Cenário
+		SessaoDTO chamador = service.iniciar(Usuario.builder().id(7l).build());
+		SessaoDTO outro = service.iniciar(Usuario.builder().id(8l).build());
+		
+		// Execução e Verificação
+		Assertions.assertThatThrownBy(() -> service.encerrar(chamador.getTokenAcesso(), outro.getTokenRenovacao()))
+					.isInstanceOf(AcessoNegadoException.class);
+		Assertions.assertThatThrownBy(() -> service.encerrar(null, outro.getTokenRenovacao()))
+					.isInstanceOf(ErroAutenticacao.class);
+		Assertions.assertThat(service.renovar(outro.getTokenRenovacao()).getTokenAcesso()).isNotNull();
+		Assertions.assertThat(service.autenticar(chamador.getTokenAcesso())).isEqualTo(7l);
+	}
+}
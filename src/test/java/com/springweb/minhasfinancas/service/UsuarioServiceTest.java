@@ -1,24 +1,32 @@
 package com.springweb.minhasfinancas.service;
 
-import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.springweb.minhasfinancas.exception.ErroAutenticacao;
 import com.springweb.minhasfinancas.exception.RegraNegocioException;
+import com.springweb.minhasfinancas.filtro.FiltroEmails;
 import com.springweb.minhasfinancas.model.entity.Usuario;
 import com.springweb.minhasfinancas.model.repository.UsuarioRepository;
+import com.springweb.minhasfinancas.senha.CodificadorSenhas;
 import com.springweb.minhasfinancas.service.impl.UsuarioServiceImpl;
 
 @SpringBootTest
@@ -32,6 +40,17 @@ public class UsuarioServiceTest {
 	@MockBean
 	UsuarioRepository repository;
 	
+	@MockBean
+	FiltroEmails filtroEmails;
+	
+	@SpyBean
+	CodificadorSenhas codificadorSenhas;
+	
+	@BeforeEach
+	public void setUp() {
+		Mockito.when(filtroEmails.podeExistir(Mockito.any())).thenReturn(true);
+	}
+	
 	@Test
 	public void deveSalvarUmUsuario() {
 	    //Cenário
@@ -134,4 +153,128 @@ public class UsuarioServiceTest {
 	    });
 	}
 
+	@Test
+	public void deveRecusarOLoginSemConsultarOBancoQuandoOFiltroDescartarOEmail() {
+		// Cenário
+		Mockito.when(filtroEmails.podeExistir("desconhecido@email.com")).thenReturn(false);
+		
+		// Ação
+		Throwable exception = Assertions.catchThrowable( () -> service.autenticar("desconhecido@email.com", "senha") );
+		
+		// Verificação
+		Assertions.assertThat(exception)
+			.isInstanceOf(ErroAutenticacao.class)
+			.hasMessage("Usuário Não Encontrado para o Email Informado!");
+		Mockito.verifyNoInteractions(repository);
+	}
+	
+	@Test
+	public void deveAceitarOEmailSemConsultarOBancoQuandoOFiltroDescartarOEmail() {
+		// Cenário
+		Mockito.when(filtroEmails.podeExistir("novo@email.com")).thenReturn(false);
+		
+		// Ação e Verificação
+		assertDoesNotThrow(() -> service.validarEmail("novo@email.com"));
+		Mockito.verifyNoInteractions(repository);
+	}
+	
+	@Test
+	public void deveRecusarOEmailJaCadastradoQueOFiltroAindaNaoConhecia() {
+		// Cenário: o email foi cadastrado em outro nó depois da última sincronização do filtro
+		Usuario usuario = Usuario.builder().email("outro-no@email.com").senha("senha").build();
+		Mockito.when(filtroEmails.podeExistir("outro-no@email.com")).thenReturn(false);
+		Mockito.when(repository.save(usuario)).thenThrow(new DataIntegrityViolationException("uk_usuario_email"));
+		
+		// Ação
+		Throwable exception = Assertions.catchThrowable( () -> service.salvarUsuario(usuario) );
+		
+		// Verificação
+		Assertions.assertThat(exception)
+			.isInstanceOf(RegraNegocioException.class)
+			.hasMessage("Já existe um usuário cadastrado com esse email!");
+		Mockito.verify(repository, Mockito.never()).existsByEmail(Mockito.anyString());
+		Mockito.verify(filtroEmails).adicionar("outro-no@email.com");
+	}
+	
+	@Test
+	public void deveIncluirNoFiltroOEmailDoUsuarioSalvo() {
+		// Cenário
+		Usuario usuario = Usuario.builder().id(1l).email("novo@email.com").build();
+		Mockito.when(repository.existsByEmail("novo@email.com")).thenReturn(false);
+		Mockito.when(repository.save(usuario)).thenReturn(usuario);
+		
+		// Ação
+		service.salvarUsuario(usuario);
+		
+		// Verificação
+		Mockito.verify(filtroEmails).adicionar("novo@email.com");
+		Mockito.verify(filtroEmails).registrarFalsoPositivo("novo@email.com");
+	}
+	
+	@Test
+	public void deveSalvarOUsuarioComASenhaCodificada() {
+		// Cenário
+		Usuario usuario = Usuario.builder().email("novo@email.com").senha("senha").build();
+		Mockito.when(repository.save(usuario)).thenReturn(usuario);
+		
+		// Ação
+		Usuario usuarioSalvo = service.salvarUsuario(usuario);
+		
+		// Verificação
+		Assertions.assertThat(usuarioSalvo.getSenha()).isNotEqualTo("senha");
+		Assertions.assertThat(codificadorSenhas.confere("senha", usuarioSalvo.getSenha())).isTrue();
+		Assertions.assertThat(codificadorSenhas.precisaRecodificar(usuarioSalvo.getSenha())).isFalse();
+	}
+	
+	@Test
+	public void deveCodificarASenhaAntesDeAcessarOBancoESemTransacao() {
+		// Cenário
+		Usuario usuario = Usuario.builder().email("novo@email.com").senha("senha").build();
+		Mockito.when(repository.save(usuario)).thenReturn(usuario);
+		List<Boolean> transacaoAtiva = new ArrayList<>();
+		Mockito.doAnswer( chamada -> {
+			transacaoAtiva.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return chamada.callRealMethod();
+		}).when(codificadorSenhas).codificar("senha");
+		
+		// Ação
+		service.salvarUsuario(usuario);
+		
+		// Verificação
+		Assertions.assertThat(transacaoAtiva).containsExactly(false);
+		InOrder ordem = Mockito.inOrder(codificadorSenhas, repository);
+		ordem.verify(codificadorSenhas).codificar("senha");
+		ordem.verify(repository).existsByEmail("novo@email.com");
+		ordem.verify(repository).save(usuario);
+	}
+	
+	@Test
+	public void deveAutenticarComASenhaCodificadaSemRecodificar() {
+		// Cenário
+		Usuario usuario = Usuario.builder().id(1l).email("email@email.com").senha(codificadorSenhas.codificar("senha")).build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+		
+		// Ação
+		Usuario result = service.autenticar("email@email.com", "senha");
+		
+		// Verificação
+		Assertions.assertThat(result).isSameAs(usuario);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+	}
+	
+	@Test
+	public void deveCodificarNoLoginASenhaGravadaEmTexto() {
+		// Cenário
+		Usuario usuario = Usuario.builder().id(1l).email("email@email.com").senha("senha").build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+		
+		// Ação
+		service.autenticar("email@email.com", "senha");
+		
+		// Verificação
+		Mockito.verify(repository).save(usuario);
+		Assertions.assertThat(usuario.getSenha()).isNotEqualTo("senha");
+		Assertions.assertThat(codificadorSenhas.confere("senha", usuario.getSenha())).isTrue();
+	}
+
 }